@@ -0,0 +1,84 @@
+package bench;
+
+import api.directed_weighted_graph;
+import api.edge_data;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of DWGraph_Concurrent shared by several threads.
+ * read runs 4 threads of getEdge, readWrite runs 3 threads of getEdge next to a thread that keeps connecting edges,
+ * so the readers run while the maps they read change. Compare with the single thread numbers of DWGraphBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ConcurrentGraphBenchmark {
+
+	private static final int KEYS = 1 << 16;
+
+	@Param({"100000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private directed_weighted_graph graph;
+	private int[] keys;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = Graphs.randomDWGraph("DWGraph_Concurrent", nodes, edgesPerNode, Graphs.SEED);
+		keys = Graphs.randomKeys(nodes, KEYS, Graphs.SEED + 1);
+	}
+
+	/**
+	 * The place of a thread in the sequence of keys, every thread starts at another place.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private static int threads;
+		private int next;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			synchronized (Cursor.class) {
+				next = (threads++ * 4099) & (KEYS - 1);
+			}
+		}
+
+		int nextKey(int[] keys) {
+			int key = keys[next];
+			next = (next + 1) & (KEYS - 1);
+			return key;
+		}
+	}
+
+	@Benchmark
+	@Group("read")
+	@GroupThreads(4)
+	public edge_data read(Cursor cursor) {
+		return graph.getEdge(cursor.nextKey(keys), cursor.nextKey(keys));
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(3)
+	public edge_data readWhileWriting(Cursor cursor) {
+		return graph.getEdge(cursor.nextKey(keys), cursor.nextKey(keys));
+	}
+
+	/**
+	 * Connects a random pair, the sequence of pairs repeats so later invocations mostly update the weight of an edge.
+	 */
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public void write(Cursor cursor) {
+		graph.connect(cursor.nextKey(keys), cursor.nextKey(keys), 1 + (cursor.next & 63));
+	}
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import api.ContractionHierarchy;
+import api.DWGraph_Algo;
+import api.directed_weighted_graph;
+import api.node_data;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the contraction hierarchy queries against the Dijkstra search of DWGraph_Algo,
+ * on the game scenario graphs (ex2/data/A0 - A5) and on road like grids of 100x100 and 300x300 nodes,
+ * between the next pair of a fixed random sequence of node keys, and of building the hierarchy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContractionHierarchyBenchmark {
+
+	private static final int KEYS = 1 << 12;
+
+	@Param({"A0", "A5", "grid100", "grid300"})
+	public String graphName;
+
+	private directed_weighted_graph graph;
+	private DWGraph_Algo algo;
+	private ContractionHierarchy hierarchy;
+	private int[] keys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = graphName.startsWith("grid")
+				? Graphs.gridDWGraph(Integer.parseInt(graphName.substring(4)), Graphs.SEED)
+				: Graphs.loadScenario(graphName);
+		algo = new DWGraph_Algo();
+		algo.init(graph);
+		hierarchy = ContractionHierarchy.build(graph);
+		keys = Graphs.randomKeys(graph.nodeSize(), KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public double dijkstraDist() {
+		return algo.shortestPathDist(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public double hierarchyDist() {
+		return hierarchy.shortestPathDist(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public List<node_data> hierarchyPath() {
+		return hierarchy.shortestPath(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 1)
+	@Measurement(iterations = 3)
+	public ContractionHierarchy build() {
+		return ContractionHierarchy.build(graph);
+	}
+}
@@ -0,0 +1,97 @@
+package bench;
+
+import api.DWGraph_Algo;
+import api.directed_weighted_graph;
+import api.dw_graph_algorithms;
+import api.node_data;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the ex2 graph algorithms: shortestPathDist, shortestPath, isConnected and copy.
+ * The batch benchmark runs 16 sources against 16 targets, in parallel and one pair at a time.
+ * The shortest paths run between the next pair of a fixed random sequence of node keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class DWGraphAlgoBenchmark {
+
+	private static final int KEYS = 1 << 12;
+	private static final int BATCH = 16;
+
+	@Param({"DWGraph_DS", "DWGraph_IntDS", "DWGraph_Frozen"})
+	public String impl;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private dw_graph_algorithms algo;
+	private int[] keys;
+	private int[] sources, targets;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		directed_weighted_graph graph = Graphs.randomDWGraph(impl, nodes, edgesPerNode, Graphs.SEED);
+		algo = new DWGraph_Algo();
+		algo.init(graph);
+		keys = Graphs.randomKeys(nodes, KEYS, Graphs.SEED + 1);
+		sources = Graphs.randomKeys(nodes, BATCH, Graphs.SEED + 2);
+		targets = Graphs.randomKeys(nodes, BATCH, Graphs.SEED + 3);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public double shortestPathDist() {
+		return algo.shortestPathDist(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public List<node_data> shortestPath() {
+		return algo.shortestPath(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public double[][] shortestPathDistBatch() {
+		return ((DWGraph_Algo) algo).shortestPathDist(sources, targets);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public double[][] shortestPathDistPairs() {
+		double[][] dist = new double[BATCH][BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			for (int j = 0; j < BATCH; j++) {
+				dist[i][j] = algo.shortestPathDist(sources[i], targets[j]);
+			}
+		}
+		return dist;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public boolean isConnected() {
+		return algo.isConnected();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public directed_weighted_graph copy() {
+		return algo.copy();
+	}
+}
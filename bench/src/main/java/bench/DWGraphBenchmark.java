@@ -0,0 +1,127 @@
+package bench;
+
+import api.DWGraph_Concurrent;
+import api.DWGraph_DS;
+import api.DWGraph_IntDS;
+import api.NodeData;
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.node_data;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the ex2 directed graph operations: connect, getEdge, getE, getV and removeNode.
+ * Every invocation works on the next pair of a fixed random sequence of node keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class DWGraphBenchmark {
+
+	private static final int KEYS = 1 << 16;
+
+	@Param({"DWGraph_DS", "DWGraph_IntDS", "DWGraph_Concurrent"})
+	public String impl;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private directed_weighted_graph graph;
+	private int[] keys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = Graphs.randomDWGraph(impl, nodes, edgesPerNode, Graphs.SEED);
+		keys = Graphs.randomKeys(nodes, KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	/**
+	 * Connects a random pair, the sequence of pairs repeats so the graph grows by at most KEYS / 2 edges
+	 * and later invocations mostly update the weight of an existing edge.
+	 */
+	@Benchmark
+	public void connect() {
+		graph.connect(nextKey(), nextKey(), 1 + (next & 63));
+	}
+
+	@Benchmark
+	public edge_data getEdge() {
+		return graph.getEdge(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public node_data getNode() {
+		return graph.getNode(nextKey());
+	}
+
+	/**
+	 * Iterates the out edges of a random node.
+	 */
+	@Benchmark
+	public void getE(Blackhole bh) {
+		for (edge_data e : graph.getE(nextKey())) {
+			bh.consume(e);
+		}
+	}
+
+	/**
+	 * Iterates all the nodes of the graph.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void getV(Blackhole bh) {
+		for (node_data n : graph.getV()) {
+			bh.consume(n);
+		}
+	}
+
+	/**
+	 * Removes a random node and restores it with its out and in edges, so the graph is the same for every invocation.
+	 * The time includes the restore (addNode plus connect of every removed edge).
+	 */
+	@Benchmark
+	public node_data removeNode() {
+		int key = nextKey();
+		List<edge_data> removedEdges = new ArrayList<>(graph.getE(key));
+		// The in edges are kept for the restore too, they are read from the parents map
+		for (edge_data e : inEdges(key)) {
+			removedEdges.add(e);
+		}
+		node_data removed = graph.removeNode(key);
+		node_data n = new NodeData(key);
+		n.setLocation(removed.getLocation());
+		graph.addNode(n);
+		for (edge_data e : removedEdges) {
+			graph.connect(e.getSrc(), e.getDest(), e.getWeight());
+		}
+		return removed;
+	}
+
+	private List<edge_data> inEdges(int key) {
+		if (graph instanceof DWGraph_DS) {
+			return new ArrayList<>(((DWGraph_DS) graph).getInE(key));
+		}
+		if (graph instanceof DWGraph_Concurrent) {
+			return new ArrayList<>(((DWGraph_Concurrent) graph).getInE(key));
+		}
+		return new ArrayList<>(((DWGraph_IntDS) graph).getInE(key));
+	}
+}
@@ -0,0 +1,74 @@
+package bench;
+
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.geo_location;
+import api.node_data;
+import gameClient.EdgeSpatialIndex;
+import gameClient.util.Point3D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of finding the edge of a pokemon (Arena.updateEdge) with the grid of the edges:
+ * building the grid, and a lookup of a random point on a random edge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class EdgeIndexBenchmark {
+
+	private static final int POINTS = 1 << 12;
+
+	@Param({"1000", "20000", "200000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private directed_weighted_graph graph;
+	private EdgeSpatialIndex index;
+	private Point3D[] points;
+	private int[] types;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = Graphs.randomDWGraph("DWGraph_DS", nodes, edgesPerNode, Graphs.SEED);
+		index = new EdgeSpatialIndex(graph);
+		List<edge_data> edges = new ArrayList<>();
+		for (node_data n : graph.getV()) {
+			edges.addAll(graph.getE(n.getKey()));
+		}
+		Random rand = new Random(Graphs.SEED + 1);
+		points = new Point3D[POINTS];
+		types = new int[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			edge_data e = edges.get(rand.nextInt(edges.size()));
+			geo_location a = graph.getNode(e.getSrc()).getLocation(), b = graph.getNode(e.getDest()).getLocation();
+			double t = rand.nextDouble();
+			points[i] = new Point3D(a.x() + t * (b.x() - a.x()), a.y() + t * (b.y() - a.y()), 0);
+			types[i] = e.getSrc() < e.getDest() ? 1 : -1;
+		}
+	}
+
+	@Benchmark
+	public edge_data edgeOf() {
+		int i = next;
+		next = (next + 1) & (POINTS - 1);
+		return index.edgeOf(points[i], types[i]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public EdgeSpatialIndex build() {
+		return new EdgeSpatialIndex(graph);
+	}
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import api.DWGraph_DS;
+import api.GeoLocation;
+import api.NodeData;
+import api.directed_weighted_graph;
+import api.geo_location;
+import api.node_data;
+import gameClient.Arena;
+import gameClient.CL_Agent;
+import gameClient.CL_Pokemon;
+import gameClient.GameStateParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of parsing a move of the game: the JSON strings of the agents and the pokemons,
+ * with the JSON tree of Arena.getAgents / Arena.json2Pokemons and with the pooled GameStateParser.
+ * Run with -prof gc to see the garbage per move (gc.alloc.rate.norm), and with org.json on the class path:
+ *     java -cp bench/target/benchmarks.jar:ex2/libs/java-json.jar org.openjdk.jmh.Main GameStateBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+	private static final int NODES = 48;
+
+	@Param({"3"})
+	public int agents;
+
+	@Param({"6", "30"})
+	public int pokemons;
+
+	private directed_weighted_graph graph;
+	private String agentsJson, pokemonsJson;
+	private GameStateParser parser;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = new DWGraph_DS();
+		Random rand = new Random(Graphs.SEED);
+		for (int i = 0; i < NODES; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(35.18 + rand.nextDouble() / 100, 32.10 + rand.nextDouble() / 100, 0));
+			graph.addNode(n);
+		}
+		for (int i = 0; i < NODES; i++) {
+			graph.connect(i, (i + 1) % NODES, 1 + rand.nextDouble());
+		}
+		// The strings in the format of the game server
+		StringBuilder sb = new StringBuilder("{\"Agents\":[");
+		for (int i = 0; i < agents; i++) {
+			int src = rand.nextInt(NODES);
+			geo_location pos = graph.getNode(src).getLocation();
+			sb.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+					"{\"Agent\":{\"id\":%d,\"value\":%.1f,\"src\":%d,\"dest\":%d,\"speed\":1.0,\"pos\":\"%s,%s,0.0\"}}",
+					i, 10.0 * i, src, (src + 1) % NODES, pos.x(), pos.y()));
+		}
+		agentsJson = sb.append("]}").toString();
+		sb = new StringBuilder("{\"Pokemons\":[");
+		for (int i = 0; i < pokemons; i++) {
+			sb.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+					"{\"Pokemon\":{\"value\":%.1f,\"type\":%d,\"pos\":\"%s,%s,0.0\"}}",
+					5.0 + rand.nextInt(10), rand.nextBoolean() ? 1 : -1,
+					35.18 + rand.nextDouble() / 100, 32.10 + rand.nextDouble() / 100));
+		}
+		pokemonsJson = sb.append("]}").toString();
+		parser = new GameStateParser(graph);
+	}
+
+	@Benchmark
+	public void jsonTree(Blackhole bh) {
+		List<CL_Agent> a = Arena.getAgents(agentsJson, graph);
+		List<CL_Pokemon> p = Arena.json2Pokemons(pokemonsJson);
+		bh.consume(a);
+		bh.consume(p);
+	}
+
+	@Benchmark
+	public void streaming(Blackhole bh) {
+		bh.consume(parser.agents(agentsJson));
+		bh.consume(parser.pokemons(pokemonsJson));
+	}
+}
@@ -0,0 +1,87 @@
+package bench;
+
+import api.DWGraph_DS;
+import api.NodeData;
+import org.openjdk.jmh.annotations.*;
+import src.WGraph_DS;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of building a whole graph from nodes and edges known up front:
+ * one addNode / connect call per element against the builders of DWGraph_DS and WGraph_DS.
+ * The edges are a cycle over all the nodes plus random edges, edgesPerNode edges per node,
+ * generated once so only the build is timed. Run with -prof gc to compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class GraphBuildBenchmark {
+
+	@Param({"10000", "1000000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private int[] keys;
+	private int[] src;
+	private int[] dest;
+	private double[] weights;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random rand = new Random(Graphs.SEED);
+		keys = new int[nodes];
+		for (int i = 0; i < nodes; i++) {
+			keys[i] = i;
+		}
+		int edges = nodes * edgesPerNode;
+		src = new int[edges];
+		dest = new int[edges];
+		weights = new double[edges];
+		for (int i = 0; i < edges; i++) {
+			src[i] = i < nodes ? i : rand.nextInt(nodes);
+			dest[i] = i < nodes ? (i + 1) % nodes : rand.nextInt(nodes);
+			weights[i] = 1 + rand.nextInt(100);
+		}
+	}
+
+	@Benchmark
+	public DWGraph_DS dwConnect() {
+		DWGraph_DS g = new DWGraph_DS();
+		for (int key : keys) {
+			g.addNode(new NodeData(key));
+		}
+		for (int i = 0; i < src.length; i++) {
+			g.connect(src[i], dest[i], weights[i]);
+		}
+		return g;
+	}
+
+	@Benchmark
+	public DWGraph_DS dwBuilder() {
+		return DWGraph_DS.builder(nodes, src.length).addNodes(keys).addEdges(src, dest, weights).build();
+	}
+
+	@Benchmark
+	public WGraph_DS wConnect() {
+		WGraph_DS g = new WGraph_DS();
+		for (int key : keys) {
+			g.addNode(key);
+		}
+		for (int i = 0; i < src.length; i++) {
+			g.connect(src[i], dest[i], weights[i]);
+		}
+		return g;
+	}
+
+	@Benchmark
+	public WGraph_DS wBuilder() {
+		return WGraph_DS.builder(nodes, src.length).addNodes(keys).addEdges(src, dest, weights).build();
+	}
+}
@@ -0,0 +1,187 @@
+package bench;
+
+import api.DWGraph_Concurrent;
+import api.DWGraph_DS;
+import api.DWGraph_IntDS;
+import api.DWGraph_Persistent;
+import api.GeoLocation;
+import api.NodeData;
+import api.directed_weighted_graph;
+import api.node_data;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import src.WGraph_CSR;
+import src.WGraph_DS;
+import src.weighted_graph;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Random;
+
+/**
+ * This class creates the graphs the benchmarks run on.
+ * The random graphs are a cycle over all the nodes (so every graph is connected, and strongly connected
+ * when directed) plus random edges until there are edgesPerNode edges per node.
+ * The same seed always creates the same graph, so the numbers are comparable between runs.
+ * The scenario graphs are read from the ex2/data folder (set -Dbench.data=path to use another folder).
+ */
+final class Graphs {
+
+	static final long SEED = 1;
+
+	private Graphs() {
+	}
+
+	/**
+	 * Creates a random undirected weighted graph.
+	 * @param impl - the implementation: WGraph_DS or WGraph_CSR
+	 * @param nodes - the number of nodes
+	 * @param edgesPerNode - the number of edges per node
+	 * @param seed - the random seed
+	 * @return weighted_graph - the graph
+	 */
+	static weighted_graph randomWGraph(String impl, int nodes, int edgesPerNode, long seed) {
+		weighted_graph g = "WGraph_CSR".equals(impl) ? new WGraph_CSR() : new WGraph_DS();
+		Random rand = new Random(seed);
+		for (int i = 0; i < nodes; i++) {
+			g.addNode(i);
+		}
+		for (int i = 0; i < nodes; i++) {
+			g.connect(i, (i + 1) % nodes, 1 + rand.nextInt(100));
+		}
+		long edges = Math.min((long) nodes * edgesPerNode, (long) nodes * (nodes - 1) / 2);
+		while (g.edgeSize() < edges) {
+			g.connect(rand.nextInt(nodes), rand.nextInt(nodes), 1 + rand.nextInt(100));
+		}
+		return g;
+	}
+
+	/**
+	 * Creates a random directed weighted graph.
+	 * @param impl - the implementation: DWGraph_DS, DWGraph_IntDS, DWGraph_Persistent, DWGraph_Concurrent or DWGraph_Frozen
+	 * (a DWGraph_DS frozen once it is built)
+	 * @param nodes - the number of nodes
+	 * @param edgesPerNode - the number of out edges per node
+	 * @param seed - the random seed
+	 * @return directed_weighted_graph - the graph
+	 */
+	static directed_weighted_graph randomDWGraph(String impl, int nodes, int edgesPerNode, long seed) {
+		directed_weighted_graph g = newDWGraph(impl);
+		Random rand = new Random(seed);
+		for (int i = 0; i < nodes; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(rand.nextDouble(), rand.nextDouble(), 0));
+			g.addNode(n);
+		}
+		for (int i = 0; i < nodes; i++) {
+			g.connect(i, (i + 1) % nodes, 1 + rand.nextInt(100));
+		}
+		long edges = Math.min((long) nodes * edgesPerNode, (long) nodes * (nodes - 1));
+		while (g.edgeSize() < edges) {
+			g.connect(rand.nextInt(nodes), rand.nextInt(nodes), 1 + rand.nextInt(100));
+		}
+		return "DWGraph_Frozen".equals(impl) ? ((DWGraph_DS) g).freeze() : g;
+	}
+
+	/**
+	 * Creates a road like directed graph: a side x side grid, every node is connected to its 4 neighbors
+	 * in both directions by edges weighing 1 - 2 (every direction its own weight).
+	 * @param side - the number of nodes of a row (and of a column)
+	 * @param seed - the random seed
+	 * @return directed_weighted_graph - the graph
+	 */
+	static directed_weighted_graph gridDWGraph(int side, long seed) {
+		directed_weighted_graph g = new DWGraph_DS();
+		Random rand = new Random(seed);
+		for (int i = 0; i < side * side; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(i % side, i / side, 0));
+			g.addNode(n);
+		}
+		for (int i = 0; i < side * side; i++) {
+			if (i % side + 1 < side) {
+				g.connect(i, i + 1, 1 + rand.nextDouble());
+				g.connect(i + 1, i, 1 + rand.nextDouble());
+			}
+			if (i + side < side * side) {
+				g.connect(i, i + side, 1 + rand.nextDouble());
+				g.connect(i + side, i, 1 + rand.nextDouble());
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Loads a scenario graph (A0 - A5) in the JSON format of the game server.
+	 * @param name - the scenario file name
+	 * @return directed_weighted_graph - the graph
+	 */
+	static directed_weighted_graph loadScenario(String name) {
+		File file = new File(dataFolder(), name);
+		try (Reader reader = new FileReader(file)) {
+			JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+			directed_weighted_graph g = new DWGraph_DS();
+			for (JsonElement element : json.getAsJsonArray("Nodes")) {
+				JsonObject node = element.getAsJsonObject();
+				node_data n = new NodeData(node.get("id").getAsInt());
+				String[] pos = node.get("pos").getAsString().split(",");
+				n.setLocation(new GeoLocation(Double.parseDouble(pos[0]), Double.parseDouble(pos[1]), Double.parseDouble(pos[2])));
+				g.addNode(n);
+			}
+			for (JsonElement element : json.getAsJsonArray("Edges")) {
+				JsonObject edge = element.getAsJsonObject();
+				g.connect(edge.get("src").getAsInt(), edge.get("dest").getAsInt(), edge.get("w").getAsDouble());
+			}
+			return g;
+		} catch (IOException e) {
+			throw new IllegalStateException("Can not read the scenario " + file.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * Creates an empty directed graph of the given implementation.
+	 * @param impl - DWGraph_DS, DWGraph_IntDS, DWGraph_Persistent or DWGraph_Concurrent
+	 * @return directed_weighted_graph - the graph
+	 */
+	static directed_weighted_graph newDWGraph(String impl) {
+		switch (impl) {
+			case "DWGraph_IntDS":
+				return new DWGraph_IntDS();
+			case "DWGraph_Persistent":
+				return new DWGraph_Persistent();
+			case "DWGraph_Concurrent":
+				return new DWGraph_Concurrent();
+			default:
+				return new DWGraph_DS();
+		}
+	}
+
+	/**
+	 * Returns random node keys in the range [0, nodes), used as the operands of the benchmarked operations.
+	 * @param nodes - the number of nodes
+	 * @param count - the number of keys
+	 * @param seed - the random seed
+	 * @return int[] - the keys
+	 */
+	static int[] randomKeys(int nodes, int count, long seed) {
+		Random rand = new Random(seed);
+		int[] keys = new int[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = rand.nextInt(nodes);
+		}
+		return keys;
+	}
+
+	private static File dataFolder() {
+		String path = System.getProperty("bench.data");
+		if (path != null) {
+			return new File(path);
+		}
+		// Running from the project root or from the bench folder
+		File folder = new File("ex2/data");
+		return folder.isDirectory() ? folder : new File("../ex2/data");
+	}
+}
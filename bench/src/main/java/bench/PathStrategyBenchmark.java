@@ -0,0 +1,80 @@
+package bench;
+
+import api.DWGraph_Algo;
+import api.PathStrategy;
+import api.directed_weighted_graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the single pair shortest path strategies of DWGraph_Algo (Dijkstra, A* and bidirectional Dijkstra)
+ * on the game scenario graphs (ex2/data/A0 - A5), between the next pair of a fixed random sequence of node keys.
+ * Besides the time, the settled column is the average number of nodes settled per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathStrategyBenchmark {
+
+	private static final int KEYS = 1 << 12;
+
+	@Param({"A0", "A1", "A2", "A3", "A4", "A5"})
+	public String scenario;
+
+	@Param({"DIJKSTRA", "A_STAR", "BIDIRECTIONAL"})
+	public PathStrategy strategy;
+
+	private DWGraph_Algo algo;
+	private int[] keys;
+	private int next;
+
+	/**
+	 * The nodes settled per query of an iteration, reported by JMH next to the time.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Settled {
+		public double settled;
+		private long total, queries;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			settled = 0;
+			total = 0;
+			queries = 0;
+		}
+
+		void add(int nodes) {
+			total += nodes;
+			queries++;
+			settled = (double) total / queries;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		directed_weighted_graph graph = Graphs.loadScenario(scenario);
+		algo = new DWGraph_Algo();
+		algo.init(graph);
+		algo.setPathStrategy(strategy);
+		// The scenario keys are 0 to n-1
+		keys = Graphs.randomKeys(graph.nodeSize(), KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public double shortestPathDist(Settled settled) {
+		double dist = algo.shortestPathDist(nextKey(), nextKey());
+		settled.add(algo.lastSettled());
+		return dist;
+	}
+}
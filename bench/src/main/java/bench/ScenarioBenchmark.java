@@ -0,0 +1,75 @@
+package bench;
+
+import api.AllPairsTable;
+import api.DWGraph_Algo;
+import api.directed_weighted_graph;
+import api.dw_graph_algorithms;
+import api.node_data;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the ex2 graph algorithms on the game scenario graphs (ex2/data/A0 - A5).
+ * The shortest paths run between the next pair of a fixed random sequence of node keys,
+ * allPairsTable measures building the table the game loop looks the distances up in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScenarioBenchmark {
+
+	private static final int KEYS = 1 << 12;
+
+	@Param({"A0", "A1", "A2", "A3", "A4", "A5"})
+	public String scenario;
+
+	private directed_weighted_graph graph;
+	private dw_graph_algorithms algo;
+	private int[] keys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = Graphs.loadScenario(scenario);
+		algo = new DWGraph_Algo();
+		algo.init(graph);
+		// The scenario keys are 0 to n-1
+		keys = Graphs.randomKeys(graph.nodeSize(), KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public double shortestPathDist() {
+		return algo.shortestPathDist(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public List<node_data> shortestPath() {
+		return algo.shortestPath(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public boolean isConnected() {
+		return algo.isConnected();
+	}
+
+	@Benchmark
+	public directed_weighted_graph copy() {
+		return algo.copy();
+	}
+
+	@Benchmark
+	public AllPairsTable allPairsTable() {
+		return new AllPairsTable(graph);
+	}
+}
@@ -0,0 +1,65 @@
+package bench;
+
+import api.DWGraph_Algo;
+import api.directed_weighted_graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of DWGraph_Algo.copy: the deep copy of DWGraph_DS against the O(1) snapshot of DWGraph_Persistent.
+ * copyAndChange takes a copy and then changes the live graph at a few random nodes, the way a planner takes
+ * a stable view while the game keeps changing the graph, so the persistent graph also pays for its path copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SnapshotBenchmark {
+
+	private static final int KEYS = 1 << 16;
+	private static final int CHANGES = 16;
+
+	@Param({"DWGraph_DS", "DWGraph_Persistent"})
+	public String impl;
+
+	@Param({"10000", "100000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private DWGraph_Algo algo;
+	private int[] keys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		algo = new DWGraph_Algo();
+		algo.init(Graphs.randomDWGraph(impl, nodes, edgesPerNode, Graphs.SEED));
+		keys = Graphs.randomKeys(nodes, KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public directed_weighted_graph copy() {
+		return algo.copy();
+	}
+
+	@Benchmark
+	public directed_weighted_graph copyAndChange() {
+		directed_weighted_graph copy = algo.copy();
+		directed_weighted_graph live = algo.getGraph();
+		for (int i = 0; i < CHANGES; i++) {
+			live.connect(nextKey(), nextKey(), 1 + (next & 63));
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,71 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import src.WGraph_Algo;
+import src.node_info;
+import src.weighted_graph;
+import src.weighted_graph_algorithms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the ex1 graph algorithms: shortestPathDist, shortestPath, isConnected and copy.
+ * The shortest paths run between the next pair of a fixed random sequence of node keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class WGraphAlgoBenchmark {
+
+	private static final int KEYS = 1 << 12;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private weighted_graph_algorithms algo;
+	private int[] keys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		weighted_graph graph = Graphs.randomWGraph("WGraph_DS", nodes, edgesPerNode, Graphs.SEED);
+		algo = new WGraph_Algo();
+		algo.init(graph);
+		keys = Graphs.randomKeys(nodes, KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public double shortestPathDist() {
+		return algo.shortestPathDist(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public List<node_info> shortestPath() {
+		return algo.shortestPath(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public boolean isConnected() {
+		return algo.isConnected();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public weighted_graph copy() {
+		return algo.copy();
+	}
+}
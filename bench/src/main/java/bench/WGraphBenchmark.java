@@ -0,0 +1,111 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import src.node_info;
+import src.weighted_graph;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the ex1 undirected graph operations: connect, getEdge, getV and removeNode.
+ * Every invocation works on the next pair of a fixed random sequence of node keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class WGraphBenchmark {
+
+	private static final int KEYS = 1 << 16;
+
+	@Param({"WGraph_DS", "WGraph_CSR"})
+	public String impl;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int nodes;
+
+	@Param({"5"})
+	public int edgesPerNode;
+
+	private weighted_graph graph;
+	private int[] keys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		graph = Graphs.randomWGraph(impl, nodes, edgesPerNode, Graphs.SEED);
+		keys = Graphs.randomKeys(nodes, KEYS, Graphs.SEED + 1);
+	}
+
+	private int nextKey() {
+		int key = keys[next];
+		next = (next + 1) & (KEYS - 1);
+		return key;
+	}
+
+	/**
+	 * Connects a random pair, the sequence of pairs repeats so the graph grows by at most KEYS / 2 edges
+	 * and later invocations mostly update the weight of an existing edge.
+	 */
+	@Benchmark
+	public void connect() {
+		graph.connect(nextKey(), nextKey(), 1 + (next & 63));
+	}
+
+	@Benchmark
+	public double getEdge() {
+		return graph.getEdge(nextKey(), nextKey());
+	}
+
+	@Benchmark
+	public boolean hasEdge() {
+		return graph.hasEdge(nextKey(), nextKey());
+	}
+
+	/**
+	 * Iterates the neighbors of a random node.
+	 */
+	@Benchmark
+	public void getNeighbors(Blackhole bh) {
+		for (node_info n : graph.getV(nextKey())) {
+			bh.consume(n);
+		}
+	}
+
+	/**
+	 * Iterates all the nodes of the graph.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void getV(Blackhole bh) {
+		for (node_info n : graph.getV()) {
+			bh.consume(n);
+		}
+	}
+
+	/**
+	 * Removes a random node and restores it with its edges, so the graph is the same for every invocation.
+	 * The time includes the restore (addNode plus connect of every removed edge).
+	 */
+	@Benchmark
+	public node_info removeNode() {
+		int key = nextKey();
+		int degree = graph.getV(key).size();
+		int[] neighbors = new int[degree];
+		double[] weights = new double[degree];
+		int i = 0;
+		for (node_info n : graph.getV(key)) {
+			neighbors[i] = n.getKey();
+			weights[i++] = graph.getEdge(key, n.getKey());
+		}
+		node_info removed = graph.removeNode(key);
+		graph.addNode(key);
+		for (i = 0; i < degree; i++) {
+			graph.connect(key, neighbors[i], weights[i]);
+		}
+		return removed;
+	}
+}
@@ -0,0 +1,226 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * This class runs the Dijkstra algorithm for WGraph_Algo.
+ * The graph is copied once into a snapshot: every node gets a dense ordinal [0, n) (in the order of getV())
+ * and the neighbors and weights of all the nodes are kept in compressed-sparse-row arrays.
+ * The distance and the predecessor of every ordinal are kept in double[] and int[] scratch arrays
+ * with an indexed binary heap, so a search never writes to the node tag/info and allocates nothing,
+ * and a path is rebuilt by a single walk over the predecessors.
+ * The snapshot is rebuilt only when the graph or its mode counter changes.
+ * An instance is not thread safe.
+ */
+class DijkstraEngine {
+    private weighted_graph graph;
+    private int mc;
+    // The ordinal of every node key
+    private IntIntMap ordinals;
+    private node_info[] nodes;
+    // The neighbors of ordinal v are to/weight[start[v], start[v+1])
+    private int[] start, to;
+    private double[] weight;
+    // Scratch data of the last search
+    private double[] dist;
+    private int[] pred;
+    private int[] touched;
+    private int touchedSize, settled;
+    // Indexed binary heap of ordinals by dist, position is -1 for an ordinal out of the heap
+    private int[] heap, position;
+    private int heapSize;
+
+    /**
+     * Makes sure the snapshot represents the given graph, rebuilds it in O(n+e) time if the graph changed.
+     * @param g - the graph
+     */
+    void prepare(weighted_graph g) {
+        if (g == graph && g.getMC() == mc) {
+            return;
+        }
+        int n = g.nodeSize();
+        node_info[] nodes = new node_info[n];
+        IntIntMap ordinals = new IntIntMap(n);
+        int v = 0;
+        for (node_info node : g.getV()) {
+            nodes[v] = node;
+            ordinals.put(node.getKey(), v++);
+        }
+        int[] start = new int[n + 1];
+        for (v = 0; v < n; v++) {
+            start[v + 1] = start[v] + g.getV(nodes[v].getKey()).size();
+        }
+        int[] to = new int[start[n]];
+        double[] weight = new double[to.length];
+        for (v = 0; v < n; v++) {
+            int key = nodes[v].getKey();
+            int pos = start[v];
+            for (node_info ni : g.getV(key)) {
+                to[pos] = ordinals.get(ni.getKey());
+                weight[pos] = g.getEdge(key, ni.getKey());
+                pos++;
+            }
+        }
+        this.nodes = nodes;
+        this.ordinals = ordinals;
+        this.start = start;
+        this.to = to;
+        this.weight = weight;
+        if (dist == null || dist.length < n) {
+            dist = new double[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            pred = new int[n];
+            touched = new int[n];
+            heap = new int[n];
+            position = new int[n];
+            Arrays.fill(position, -1);
+        } else {
+            clear();
+        }
+        this.graph = g;
+        this.mc = g.getMC();
+    }
+
+    /**
+     * Runs the Dijkstra algorithm from src, stops once dest is settled.
+     * @param src - the ordinal of the start node
+     * @param dest - the ordinal of the end (target) node, -1 to reach every node
+     */
+    void run(int src, int dest) {
+        clear();
+        relax(src, 0, -1);
+        while (heapSize > 0) {
+            int v = poll();
+            settled++;
+            if (v == dest) {
+                break;
+            }
+            double d = dist[v];
+            for (int i = start[v]; i < start[v + 1]; i++) {
+                double sum = d + weight[i];
+                if (sum < dist[to[i]]) {
+                    relax(to[i], sum, v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ordinal of the node with the given key.
+     * @param key - the node key
+     * @return int - the ordinal, -1 if none
+     */
+    int ordinalOf(int key) {
+        return ordinals.get(key);
+    }
+
+    /**
+     * Returns the node with the given ordinal.
+     * @param v - the ordinal
+     * @return node_info - the node
+     */
+    node_info node(int v) {
+        return nodes[v];
+    }
+
+    /**
+     * Returns the distance of an ordinal found by the last search.
+     * @param v - the ordinal
+     * @return double - the distance, Double.POSITIVE_INFINITY if not reached
+     */
+    double dist(int v) {
+        return dist[v];
+    }
+
+    /**
+     * Returns the predecessor of an ordinal on the shortest path found by the last search.
+     * @param v - a reached ordinal
+     * @return int - the predecessor ordinal, -1 for the source
+     */
+    int pred(int v) {
+        return pred[v];
+    }
+
+    /**
+     * Returns the number of nodes settled by the last search.
+     * @return int - the number of settled nodes
+     */
+    int settled() {
+        return settled;
+    }
+
+    /**
+     * Sets the distance and predecessor of an ordinal and inserts it into the heap or moves it up.
+     */
+    private void relax(int v, double d, int p) {
+        if (dist[v] == Double.POSITIVE_INFINITY) {
+            touched[touchedSize++] = v;
+        }
+        dist[v] = d;
+        pred[v] = p;
+        int pos = position[v];
+        if (pos == -1) {
+            pos = heapSize++;
+        }
+        // Sift up
+        while (pos > 0) {
+            int parent = heap[(pos - 1) >> 1];
+            if (dist[parent] <= d) {
+                break;
+            }
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = (pos - 1) >> 1;
+        }
+        heap[pos] = v;
+        position[v] = pos;
+    }
+
+    /**
+     * Removes and returns the ordinal with the minimal distance from the heap.
+     */
+    private int poll() {
+        int min = heap[0];
+        position[min] = -1;
+        int last = heap[--heapSize];
+        if (heapSize == 0) {
+            return min;
+        }
+        // Sift down
+        double d = dist[last];
+        int pos = 0;
+        while (true) {
+            int child = pos * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && dist[heap[child + 1]] < dist[heap[child]]) {
+                child++;
+            }
+            if (dist[heap[child]] >= d) {
+                break;
+            }
+            heap[pos] = heap[child];
+            position[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = last;
+        position[last] = pos;
+        return min;
+    }
+
+    /**
+     * Resets only the ordinals touched by the last search.
+     */
+    private void clear() {
+        for (int i = 0; i < touchedSize; i++) {
+            dist[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+        for (int i = 0; i < heapSize; i++) {
+            position[heap[i]] = -1;
+        }
+        touchedSize = 0;
+        heapSize = 0;
+        settled = 0;
+    }
+}
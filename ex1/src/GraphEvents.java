@@ -0,0 +1,154 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a batch of changes of an undirected graph, delivered to the GraphListener of the graph.
+ * The events are kept in parallel primitive arrays (the type, nodes and weights of every event),
+ * so recording an event allocates nothing and the same batch object is reused for every delivery.
+ * The events are read by index, in the order they were made:
+ * NODE_ADDED and NODE_REMOVED - key(i) is the node.
+ * EDGE_ADDED - node1(i), node2(i) and weight(i) are the new edge.
+ * EDGE_REMOVED - node1(i), node2(i) and weight(i) are the removed edge.
+ * WEIGHT_CHANGED - node1(i), node2(i), the new weight(i) and the weight it replaced oldWeight(i).
+ * Removing a node first removes its edges, one EDGE_REMOVED per edge and then NODE_REMOVED
+ * (the same changes the mode counter counts).
+ */
+public final class GraphEvents {
+
+    /**
+     * The type of a change.
+     */
+    public enum Type {
+        NODE_ADDED,
+        NODE_REMOVED,
+        EDGE_ADDED,
+        EDGE_REMOVED,
+        WEIGHT_CHANGED
+    }
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private Type[] types;
+    private int[] node1, node2;
+    private double[] weight, oldWeight;
+    private int size;
+
+    /**
+     * Default constructor.
+     */
+    GraphEvents() {
+        this.types = new Type[DEFAULT_CAPACITY];
+        this.node1 = new int[DEFAULT_CAPACITY];
+        this.node2 = new int[DEFAULT_CAPACITY];
+        this.weight = new double[DEFAULT_CAPACITY];
+        this.oldWeight = new double[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * return the number of events.
+     * @return int - the number of events
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * return the type of the event.
+     * @param i - the index of the event in the range [0, size())
+     * @return Type - the type
+     */
+    public Type type(int i) {
+        return types[check(i)];
+    }
+
+    /**
+     * return the node of a node event (the same as node1).
+     * @param i - the index of the event in the range [0, size())
+     * @return int - the node key
+     */
+    public int key(int i) {
+        return node1[check(i)];
+    }
+
+    /**
+     * return the first node of an edge event, as it was given to connect or removeEdge.
+     * @param i - the index of the event in the range [0, size())
+     * @return int - the node key
+     */
+    public int node1(int i) {
+        return node1[check(i)];
+    }
+
+    /**
+     * return the second node of an edge event.
+     * @param i - the index of the event in the range [0, size())
+     * @return int - the node key
+     */
+    public int node2(int i) {
+        return node2[check(i)];
+    }
+
+    /**
+     * return the weight of the edge of an edge event (the new weight of WEIGHT_CHANGED).
+     * @param i - the index of the event in the range [0, size())
+     * @return double - the weight, 0 for a node event
+     */
+    public double weight(int i) {
+        return weight[check(i)];
+    }
+
+    /**
+     * return the weight the edge had before a WEIGHT_CHANGED event.
+     * @param i - the index of the event in the range [0, size())
+     * @return double - the old weight, 0 for any other event
+     */
+    public double oldWeight(int i) {
+        return oldWeight[check(i)];
+    }
+
+    /**
+     * Records an event at the end of the batch.
+     */
+    void add(Type type, int node1, int node2, double weight, double oldWeight) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            this.types = Arrays.copyOf(types, capacity);
+            this.node1 = Arrays.copyOf(this.node1, capacity);
+            this.node2 = Arrays.copyOf(this.node2, capacity);
+            this.weight = Arrays.copyOf(this.weight, capacity);
+            this.oldWeight = Arrays.copyOf(this.oldWeight, capacity);
+        }
+        this.types[size] = type;
+        this.node1[size] = node1;
+        this.node2[size] = node2;
+        this.weight[size] = weight;
+        this.oldWeight[size] = oldWeight;
+        size++;
+    }
+
+    /**
+     * Removes all the events, the arrays are kept for the next batch.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Event " + i + " of " + size);
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ", ").append(types[i]).append(' ').append(node1[i]);
+            if (types[i] != Type.NODE_ADDED && types[i] != Type.NODE_REMOVED) {
+                sb.append("-").append(node2[i]).append(' ').append(weight[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
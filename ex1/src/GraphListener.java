@@ -0,0 +1,18 @@
+package src;
+
+/**
+ * This interface represents a consumer of the changes of a graph (see WGraph_DS.addListener),
+ * e.g. a cache of distances which updates itself instead of recomputing when the graph changes.
+ */
+public interface GraphListener {
+
+    /**
+     * Called after the graph changed, with the changes in the order they were made.
+     * A change outside of a batch is delivered alone, the changes made between beginBatch and endBatch
+     * are delivered together when the batch ends.
+     * The events object is reused by the graph, it is valid only during this call.
+     * The listener must not change the graph during this call.
+     * @param events - the changes
+     */
+    void graphChanged(GraphEvents events);
+}
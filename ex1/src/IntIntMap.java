@@ -0,0 +1,137 @@
+package src;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class represents a primitive int to int hash map (open addressing with linear probing).
+ * It is used to map node keys to dense ordinals without boxing every key into an Integer.
+ * Values must be non negative, -1 is returned for a missing key.
+ */
+class IntIntMap implements Serializable {
+    private static final int MISSING = -1;
+    private int[] keys;
+    private int[] values;
+    private int size, mask;
+
+    /**
+     * Constructor, creates a map that can hold the expected amount of keys without resizing.
+     * @param expected - the expected number of keys
+     */
+    IntIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, MISSING);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the value associated with the key.
+     * @param key - the key
+     * @return int - the value, -1 if none
+     */
+    int get(int key) {
+        int i = hash(key) & mask;
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Associates the value with the key, replaces the old value if the key exists.
+     * @param key - the key
+     * @param value - non negative value
+     */
+    void put(int key, int value) {
+        int i = hash(key) & mask;
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes the key from the map, the following entries of the probe sequence are shifted back
+     * so no tombstones are needed.
+     * @param key - the key
+     * @return int - the removed value, -1 if none
+     */
+    int remove(int key) {
+        int i = hash(key) & mask;
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                int removed = values[i];
+                shiftBack(i);
+                size--;
+                return removed;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     * @return int - size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Closes the gap left at index i by moving back entries which probed past it.
+     * @param i - the emptied index
+     */
+    private void shiftBack(int i) {
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (values[j] != MISSING) {
+            int home = hash(keys[j]) & mask;
+            // Move the entry if its home slot is not in the cyclic range (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        values[gap] = MISSING;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int j = hash(oldKeys[i]) & mask;
+                while (values[j] != MISSING) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
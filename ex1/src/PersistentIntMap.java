@@ -0,0 +1,366 @@
+package src;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a map from primitive int keys to objects as a hash array mapped trie:
+ * every level of the trie takes 5 bits of the (bijective) hash of the key, a trie node holds a bitmap
+ * of its used slots and a packed array of entries and sub nodes, so two different keys always part by the last level.
+ * A fork (fork) shares the whole trie with this map in O(1). The trie nodes remember the edit token
+ * of the map that created them: a map changes the nodes of its own token in place,
+ * and copies the path from the root to a shared node before changing it (path copying),
+ * so a change costs only the nodes it touches and is never seen by the other forks.
+ * A map is not thread safe, but forks may be used by different threads.
+ * @param <V> - the type of the values
+ */
+final class PersistentIntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private Node root;
+    private int size;
+    // The nodes created by this map, which it may change in place
+    private final Object edit;
+    // Set by put when the key was new, and holds the value removed by remove
+    private boolean added;
+    private Object removed;
+
+    /**
+     * Constructor, creates an empty map that changes the trie nodes of the given edit token in place.
+     * @param edit - the edit token of the owner (a graph and all its inner maps share one)
+     */
+    PersistentIntMap(Object edit) {
+        this(null, 0, edit);
+    }
+
+    private PersistentIntMap(Node root, int size, Object edit) {
+        this.root = root;
+        this.size = size;
+        this.edit = edit;
+    }
+
+    /**
+     * Returns a map of the same entries which shares the trie with this map, in O(1).
+     * The edit token must be new to this trie (not the token of this map),
+     * after a fork this map must not be changed unless it is forked again too, see WGraph_Persistent.snapshot.
+     * @param edit - the edit token of the new map
+     * @return PersistentIntMap - the new map
+     */
+    PersistentIntMap<V> fork(Object edit) {
+        return new PersistentIntMap<>(root, size, edit);
+    }
+
+    /**
+     * Returns true if this map changes the nodes of the given edit token in place.
+     * @param edit - the edit token
+     * @return boolean - true if this map was created with the token
+     */
+    boolean isOwnedBy(Object edit) {
+        return this.edit == edit;
+    }
+
+    /**
+     * Returns the value associated with the key.
+     * @param key - the key
+     * @return V - the value, null if none
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int hash = hash(key);
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.array[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+            node = (Node) slot;
+            shift += BITS;
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the map contains the key.
+     * @param key - the key
+     * @return boolean - true if the key exists, else false
+     */
+    boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the value with the key.
+     * @param key - the key
+     * @param value - the value, not null
+     */
+    void put(int key, V value) {
+        added = false;
+        Leaf leaf = new Leaf(key, hash(key), value);
+        root = root == null ? new Node(edit, 0, new Object[0]) : root;
+        root = put(root, 0, leaf);
+        if (added) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes the key from the map.
+     * @param key - the key
+     * @return V - the removed value, null if none
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        if (root == null) {
+            return null;
+        }
+        removed = null;
+        root = remove(root, 0, hash(key), key);
+        V value = (V) removed;
+        removed = null;
+        if (value != null) {
+            size--;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     * @return int - size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the map has no entries.
+     * @return boolean - true if the map is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a view of the values, the iterator walks the trie as it was when the iterator was created
+     * as long as this map does not change (like HashMap, changing the map while iterating is not supported).
+     * @return Collection of V
+     */
+    Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Node put(Node node, int shift, Leaf leaf) {
+        int bit = 1 << ((leaf.hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            Node editable = editable(node);
+            Object[] array = new Object[node.array.length + 1];
+            System.arraycopy(node.array, 0, array, 0, index);
+            array[index] = leaf;
+            System.arraycopy(node.array, index, array, index + 1, node.array.length - index);
+            editable.array = array;
+            editable.bitmap |= bit;
+            added = true;
+            return editable;
+        }
+        Object slot = node.array[index];
+        Object replacement;
+        if (slot instanceof Node) {
+            replacement = put((Node) slot, shift + BITS, leaf);
+        }
+        else {
+            Leaf old = (Leaf) slot;
+            if (old.key == leaf.key) {
+                if (old.value == leaf.value) {
+                    return node;
+                }
+                replacement = leaf;
+            }
+            else {
+                replacement = split(old, leaf, shift + BITS);
+                added = true;
+            }
+        }
+        if (replacement == slot) {
+            return node;
+        }
+        Node editable = editable(node);
+        editable.array[index] = replacement;
+        return editable;
+    }
+
+    /**
+     * Returns a node holding two leaves of different keys whose hashes agree up to the given shift.
+     */
+    private Node split(Leaf a, Leaf b, int shift) {
+        int indexA = (a.hash >>> shift) & MASK;
+        int indexB = (b.hash >>> shift) & MASK;
+        if (indexA == indexB) {
+            return new Node(edit, 1 << indexA, new Object[]{split(a, b, shift + BITS)});
+        }
+        Object[] array = indexA < indexB ? new Object[]{a, b} : new Object[]{b, a};
+        return new Node(edit, (1 << indexA) | (1 << indexB), array);
+    }
+
+    /**
+     * Removes the key under the node, returns the node after the change, null if it became empty.
+     */
+    private Node remove(Node node, int shift, int hash, int key) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object slot = node.array[index];
+        Object replacement;
+        if (slot instanceof Node) {
+            Node child = remove((Node) slot, shift + BITS, hash, key);
+            if (child == slot) {
+                return node;
+            }
+            // A node left with a single leaf is replaced by the leaf, so the trie stays as shallow as it can
+            replacement = child != null && child.array.length == 1 && child.array[0] instanceof Leaf ? child.array[0] : child;
+        }
+        else {
+            Leaf leaf = (Leaf) slot;
+            if (leaf.key != key) {
+                return node;
+            }
+            removed = leaf.value;
+            replacement = null;
+        }
+        if (replacement != null) {
+            Node editable = editable(node);
+            editable.array[index] = replacement;
+            return editable;
+        }
+        if (node.array.length == 1) {
+            return null;
+        }
+        Node editable = editable(node);
+        Object[] array = new Object[node.array.length - 1];
+        System.arraycopy(node.array, 0, array, 0, index);
+        System.arraycopy(node.array, index + 1, array, index, array.length - index);
+        editable.array = array;
+        editable.bitmap &= ~bit;
+        return editable;
+    }
+
+    /**
+     * Returns the node itself if this map created it, else a copy of it that this map may change.
+     */
+    private Node editable(Node node) {
+        if (node.edit == edit) {
+            return node;
+        }
+        return new Node(edit, node.bitmap, node.array.clone());
+    }
+
+    private static int hash(int key) {
+        // An odd multiplier is a bijection of the ints, so different keys never share a full hash
+        return key * 0x9E3779B9;
+    }
+
+    /**
+     * A node of the trie: the bitmap of the used slots, and the leaves and sub nodes of the used slots in order.
+     */
+    private static final class Node {
+        final Object edit;
+        int bitmap;
+        Object[] array;
+
+        Node(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+    }
+
+    /**
+     * An entry of the map, never changed once created (it may be shared by forks).
+     */
+    private static final class Leaf {
+        final int key, hash;
+        final Object value;
+
+        Leaf(int key, int hash, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A depth first walk of the trie with a stack of the nodes and the next position in each.
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+        // The deepest trie is 7 levels (32 bits of hash by 5 bits per level)
+        private final Node[] nodes = new Node[8];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Leaf next;
+
+        ValueIterator(Node root) {
+            if (root != null) {
+                nodes[0] = root;
+                depth = 0;
+            }
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.array.length) {
+                    positions[depth] = 0;
+                    depth--;
+                    continue;
+                }
+                Object slot = node.array[positions[depth]++];
+                if (slot instanceof Leaf) {
+                    next = (Leaf) slot;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) slot;
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) next.value;
+            advance();
+            return value;
+        }
+    }
+}
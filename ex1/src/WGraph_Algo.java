@@ -12,11 +12,14 @@ import java.util.*;
  * 4. List<node_data> shortestPath(int src, int dest);(Return a list of the shortest path of two nodes).
  * 5. Save(file);
  * 6. Load(file);
+ * 7. saveSnapshot(file) / loadSnapshot(file); (binary snapshot, loaded by memory mapping).
  */
 
 public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
 
     private weighted_graph g;
+    // The shortest path data, rebuilt when the graph changes
+    private transient DijkstraEngine engine;
 
 
     /**
@@ -41,6 +44,7 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
 
     /**
      * Compute a deep copy of this graph.
+     * A WGraph_Persistent is copied in O(1) by a snapshot that shares its structure.
      * @return g1 - the new deep copied graph
      */
 
@@ -49,6 +53,9 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
         if (this.g == null) {
             return null;
         }
+        if (this.g instanceof WGraph_Persistent) {
+            return ((WGraph_Persistent) this.g).snapshot();
+        }
         return new WGraph_DS(this.g);
     }
 
@@ -62,14 +69,9 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
         if (g == null || g.getV().size() <= 1) {
             return true;
         }
-        node_info node = g.getV().iterator().next();
-        DijkstraAlgo(node.getKey());
-        for (node_info n : g.getV()) {
-            if (n.getTag() == Double.MAX_VALUE) {
-                return false;
-            }
-        }
-        return true;
+        prepareEngine();
+        engine.run(0, -1);
+        return engine.settled() == g.nodeSize();
     }
 
     /**
@@ -88,11 +90,8 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
         if (src == dest) {
             return 0;
         }
-        DijkstraAlgo(src,dest);
-        if (g.getNode(dest).getTag() == Double.MAX_VALUE) {
-            return -1;
-        }
-        return g.getNode(dest).getTag();
+        int d = search(src, dest);
+        return d == -1 ? -1 : engine.dist(d);
     }
 
     /**
@@ -106,7 +105,7 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
 
     @Override
     public List<node_info> shortestPath(int src, int dest) {
-        if (shortestPathDist(src, dest) == -1 || g.getV().isEmpty()) {
+        if (g == null || g.getNode(src) == null || g.getNode(dest) == null) {
             return null;
         }
         List<node_info> list = new ArrayList<>();
@@ -114,27 +113,24 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
             list.add(g.getNode(src));
             return list;
         }
-        node_info srcNode = g.getNode(src);
-        node_info destNode = g.getNode(dest);
-        list.add(destNode);
-        boolean finished = false;
-        int nextNodeIndex = 0;
-        while (!finished) { // while loop, adds shortest path from dest to src
-            node_info node = list.get(nextNodeIndex);
-            for (node_info n : g.getV(node.getKey())) {
-                if (n.getKey() == srcNode.getKey()) {
-                    list.add(n);
-                    finished = true;
-                } else if (Integer.parseInt(node.getInfo()) == n.getKey() && !list.contains(n)) {
-                    list.add(n);
-                    nextNodeIndex++;
-                }
-            }
+        int d = search(src, dest);
+        if (d == -1) {
+            return null;
+        }
+        // Walk the predecessors from dest back to src
+        for (int v = d; v != -1; v = engine.pred(v)) {
+            list.add(engine.node(v));
         }
         Collections.reverse(list);
         return list;
     }
 
+    /**
+     * Saves the graph to the given file with java serialization.
+     * A graph which is not Serializable (e.g. WGraph_Mapped) is saved as a WGraph_DS copy.
+     * @param file - the file name (may include a relative path).
+     * @return true - if and only if the file was successfully saved
+     */
     @Override
     public boolean save(String file) {
         if(file == null){
@@ -143,7 +139,7 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
         try {
             FileOutputStream fout = new FileOutputStream(file);
             ObjectOutputStream obj = new ObjectOutputStream(fout);
-            obj.writeObject(g);
+            obj.writeObject(g == null || g instanceof Serializable ? g : new WGraph_DS(g));
             obj.close();
             fout.close();
         } catch (IOException e) {
@@ -152,12 +148,58 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
         return true;
     }
 
+    /**
+     * Saves the graph to the given file as a compact binary snapshot (see WGraph_Mapped),
+     * which can be loaded back almost instantly by loadSnapshot.
+     * @param file - the file name (may include a relative path).
+     * @return true - if and only if the file was successfully saved
+     */
+    public boolean saveSnapshot(String file) {
+        if (file == null || g == null) {
+            return false;
+        }
+        try {
+            WGraph_Mapped.save(g, file);
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
 
+    /**
+     * Loads a binary snapshot saved by saveSnapshot, the file is memory mapped
+     * and the graph is a read only view of it (use copy() for a graph that can be changed).
+     * The file must not be changed while the graph is in use.
+     * If the file was not loaded the graph remains as is.
+     * @param file - the file name (may include a relative path).
+     * @return true - if and only if the graph was successfully loaded
+     */
+    public boolean loadSnapshot(String file) {
+        if (file == null) {
+            return false;
+        }
+        try {
+            g = WGraph_Mapped.load(file);
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Loads a graph saved by save, a binary snapshot saved by saveSnapshot is loaded by loadSnapshot.
+     * If the file was not loaded the graph remains as is.
+     * @param file - the file name (may include a relative path).
+     * @return true - if and only if the graph was successfully loaded
+     */
     @Override
     public boolean load(String file) {
         if(file == null){
             return false;
         }
+        if (WGraph_Mapped.isSnapshot(file)) {
+            return loadSnapshot(file);
+        }
         try {
             FileInputStream fin = new FileInputStream(file);
             ObjectInputStream obj = new ObjectInputStream(fin);
@@ -171,97 +213,25 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
     }
 
     /**
-     * Dijkstra method.
-     * Dijkstra is a algorithm used to go over all the nodes in the graph by lowest weight connected.
-     * In this method, it iterates over the nodes with the lowest weight in the graph and marks them with 'tag'.
-     * The tag is then used to count how much far is every node in the graph.
-     * This method should run in a O(n+v * log(v)) time complexity (n = number of nodes in the graph, v = number of edges in the graph).
-     * @param node1 int - arbitrary node to perform the BTS algorithm.
+     * Runs the Dijkstra algorithm from src until dest is settled.
+     * @param src - source node key
+     * @param dest - destination node key
+     * @return int - the ordinal of dest in the engine, -1 if dest is not reachable from src
      */
-
-    private void DijkstraAlgo(int node1) {
-        for (node_info n : g.getV()) {
-            n.setTag(Double.MAX_VALUE);
-            n.setInfo("");
-        }
-        g.getNode(node1).setTag(0);
-        node_info nodeOne = g.getNode(node1);
-        Queue<node_info> q = new PriorityQueue<>(new WeightComparator());
-        q.add(nodeOne);
-        while (!q.isEmpty()) {
-            node_info node = q.peek();
-            for (node_info n : g.getV(node.getKey())) {
-                if (n.getTag() > node.getTag() && !q.contains(n)) {
-                    q.add(n);
-                }
-                double edge = g.getEdge(node.getKey(), n.getKey());
-                if (node.getTag() + edge < n.getTag()) {
-                    n.setTag(node.getTag() + edge);
-                    n.setInfo("" + node.getKey());
-                }
-            }
-            q.remove();
-        }
+    private int search(int src, int dest) {
+        prepareEngine();
+        int d = engine.ordinalOf(dest);
+        engine.run(engine.ordinalOf(src), d);
+        return engine.dist(d) == Double.POSITIVE_INFINITY ? -1 : d;
     }
 
     /**
-     * Same as the first DijkstraAlgo method but stops when it encounters the dest node.
-     * Instead of running all over the graph, it stops on the dest node.
-     * Because we use priority queue it must be the shortest path.
-     * @param src - source node to start the algorithm
-     * @param dest - destination node which stops the algorithm
+     * Creates the engine if needed (it is not serialized) and makes it represent the current graph.
      */
-    private void DijkstraAlgo(int src, int dest) {
-        for (node_info n : g.getV()) {
-            n.setTag(Double.MAX_VALUE);
-            n.setInfo("");
-        }
-        g.getNode(src).setTag(0);
-        node_info nodeOne = g.getNode(src);
-        node_info nodeTwo = g.getNode(dest);
-        Queue<node_info> q = new PriorityQueue<>(new WeightComparator());
-        q.add(nodeOne);
-        while (!q.isEmpty()) {
-            node_info node = q.peek();
-            for (node_info n : g.getV(node.getKey())) {
-                if (node.getTag() < n.getTag() && !q.contains(n)) {
-                    q.add(n);
-                }
-                double edge = g.getEdge(node.getKey(), n.getKey());
-                if (node.getTag() + edge < n.getTag()) {
-                    n.setTag(node.getTag() + edge);
-                    n.setInfo("" + node.getKey());
-                }
-                if(q.peek() == nodeTwo){
-                    return;
-                }
-            }
-            q.remove();
-        }
-    }
-
-    /**
-     * Comparator class with one method
-     */
-    private static class WeightComparator implements Comparator<node_info> {
-
-        /**
-         * Overrides compare method by tag (weight), if node1 > node2 return 1, if node1 < node2 return -1, else return 0.
-         * used in the priorityQueue
-         * @param node1 - node1 to compare
-         * @param node2 - node2 to compare
-         * @return - int if node1 > node2 return 1, if node1 < node2 return -1, else return 0.
-         */
-
-        @Override
-        public int compare(node_info node1, node_info node2) {
-            if (node1.getTag() > node2.getTag()) {
-                return 1;
-            } else if (node1.getTag() < node2.getTag()) {
-                return -1;
-            }
-            return 0;
+    private void prepareEngine() {
+        if (engine == null) {
+            engine = new DijkstraEngine();
         }
+        engine.prepare(g);
     }
 }
-
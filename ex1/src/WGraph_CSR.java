@@ -0,0 +1,866 @@
+package src;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * This class represents an undirected weighted graph in a compact compressed-sparse-row (CSR) form.
+ * Every node gets a dense ordinal and the edges of all the nodes are kept in three primitive arrays:
+ * offsets (where the row of each ordinal starts), neighbors (ordinals) and weights, each row is sorted by neighbor.
+ * Changes are written to a small per-node delta layer and removed edges are marked in the CSR arrays,
+ * once there are too many pending changes the delta layer is merged back into the arrays (compaction).
+ * Every edge direction costs 12 bytes instead of a HashMap entry and a boxed Double like in WGraph_DS,
+ * so it can hold a graph of 10^6 nodes with average degree of 10 in a fraction of the heap.
+ */
+public class WGraph_CSR implements weighted_graph, Serializable {
+    // Pending changes needed before a compaction, at least MIN_COMPACTION or a quarter of the CSR arrays
+    private static final int MIN_COMPACTION = 1024;
+    // A single delta row is merged once it is longer than this and a quarter of its CSR row
+    private static final int MIN_DELTA_ROW = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int mc, edgeSize, nodeSize;
+    // Number of ordinals handed out so far (alive and removed)
+    private int ordinalCount;
+    // Maps a key to its ordinal, null as long as every key is equal to its ordinal
+    private IntIntMap ordinals;
+    private int[] keys;
+    private boolean[] alive;
+    // The tag and info of each node, allocated on the first use
+    private double[] tags;
+    private String[] infos;
+    // Removed ordinals that can be reused, only used when the ordinals map exists
+    private int[] free;
+    private int freeSize;
+
+    // The CSR arrays hold the rows of ordinals [0, baseNodes), a NaN weight marks a removed edge
+    private int baseNodes;
+    private int[] offsets;
+    private int[] neighbors;
+    private double[] weights;
+    private int tombstones;
+
+    // The delta layer, rows of edges which are not in the CSR arrays (allocated on the first use)
+    private int[][] deltaNeighbors;
+    private double[][] deltaWeights;
+    private int[] deltaSize;
+    private int deltaEntries;
+
+    /**
+     * Default constructor
+     */
+    public WGraph_CSR() {
+        this.keys = new int[INITIAL_CAPACITY];
+        this.alive = new boolean[INITIAL_CAPACITY];
+        this.offsets = new int[1];
+        this.neighbors = new int[0];
+        this.weights = new double[0];
+    }
+
+    /**
+     * Copy constructor. Deep copy of a graph, the edges are written straight into the CSR arrays.
+     * @param g graph - the desired graph to copy
+     */
+    public WGraph_CSR(weighted_graph g) {
+        this();
+        if (g == null) {
+            return;
+        }
+        ensureCapacity(g.nodeSize());
+        for (node_info n : g.getV()) { // loop and create new nodes and copy content from each node
+            int ord = newOrdinal(n.getKey());
+            keys[ord] = n.getKey();
+            alive[ord] = true;
+            if (n.getTag() != 0) {
+                setTag(ord, n.getTag());
+            }
+            if (n.getInfo() != null) {
+                setInfo(ord, n.getInfo());
+            }
+            nodeSize++;
+        }
+        int[] newOffsets = new int[ordinalCount + 1];
+        for (int a = 0; a < ordinalCount; a++) { // count the neighbors of each node
+            newOffsets[a + 1] = newOffsets[a] + (alive[a] ? g.getV(keys[a]).size() : 0);
+        }
+        int[] newNeighbors = new int[newOffsets[ordinalCount]];
+        double[] newWeights = new double[newNeighbors.length];
+        for (int a = 0; a < ordinalCount; a++) { // fill and sort the row of each node
+            if (alive[a]) {
+                int pos = newOffsets[a];
+                for (node_info n : g.getV(keys[a])) {
+                    newNeighbors[pos] = ordinalOf(n.getKey());
+                    newWeights[pos] = g.getEdge(keys[a], n.getKey());
+                    pos++;
+                }
+                sortRow(newNeighbors, newWeights, newOffsets[a], pos);
+            }
+        }
+        this.baseNodes = ordinalCount;
+        this.offsets = newOffsets;
+        this.neighbors = newNeighbors;
+        this.weights = newWeights;
+        this.edgeSize = g.edgeSize();
+        this.mc = g.getMC();
+    }
+
+    /**
+     * return the node_data by the key,
+     *
+     * @param key the node key
+     * @return the node_info by the key, null if none.
+     */
+    @Override
+    public node_info getNode(int key) {
+        return ordinalOf(key) == -1 ? null : new NodeRef(key);
+    }
+
+    /**
+     * return true if and only if there is an edge between node1 and node2
+     *
+     * @param node1 int , node with key 1
+     * @param node2 int , node with key 2
+     * @return boolean true if nodes are connected else false.
+     */
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        return getEdge(node1, node2) != -1;
+    }
+
+    /**
+     * return the value of the edge which is connection node1 and node2
+     * return -1 if no edge.
+     * Runs in O(log k) on the CSR row (k - the degree of node1) plus the short delta row.
+     *
+     * @param node1 - key of node 1
+     * @param node2 - key of node 2
+     * @return double - weight of the edge connecting the two nodes
+     */
+    @Override
+    public double getEdge(int node1, int node2) {
+        int a = ordinalOf(node1);
+        int b = ordinalOf(node2);
+        if (a == -1 || b == -1 || a == b) {
+            return -1;
+        }
+        int i = baseIndex(a, b);
+        if (i != -1) {
+            return Double.isNaN(weights[i]) ? -1 : weights[i];
+        }
+        int j = deltaIndex(a, b);
+        return j == -1 ? -1 : deltaWeights[a][j];
+    }
+
+    /**
+     * adds new node to the graph with given key.
+     * only adds new node if graph do not contains the same key.
+     * @param key the unique key which is associated with the node
+     */
+    @Override
+    public void addNode(int key) {
+        if (ordinalOf(key) == -1) {
+            int ord = newOrdinal(key);
+            keys[ord] = key;
+            alive[ord] = true;
+            if (tags != null) {
+                tags[ord] = 0;
+            }
+            if (infos != null) {
+                infos[ord] = null;
+            }
+            nodeSize++;
+            mc++;
+        }
+    }
+
+    /**
+     * Connect an edge between node1 and node2 with the given weight.
+     * If the edge already exists only the weight is updated,
+     * if one of the nodes is missing or the weight is negative it simply does nothing.
+     *
+     * @param node1 node with key 1
+     * @param node2 node with key 2
+     * @param w the weight of the edge which is connecting the two nodes
+     */
+    @Override
+    public void connect(int node1, int node2, double w) {
+        int a = ordinalOf(node1);
+        int b = ordinalOf(node2);
+        if (a == -1 || b == -1 || a == b || !(w >= 0)) {
+            return;
+        }
+        int i = baseIndex(a, b);
+        if (i != -1) { // the pair has a slot in the CSR arrays, revive or update it
+            double old = weights[i];
+            if (Double.isNaN(old)) {
+                weights[i] = w;
+                weights[baseIndex(b, a)] = w;
+                tombstones -= 2;
+                edgeSize++;
+                mc++;
+            } else if (old != w) {
+                weights[i] = w;
+                weights[baseIndex(b, a)] = w;
+                mc++;
+            }
+            return;
+        }
+        int j = deltaIndex(a, b);
+        if (j != -1) {
+            if (deltaWeights[a][j] != w) {
+                deltaWeights[a][j] = w;
+                deltaWeights[b][deltaIndex(b, a)] = w;
+                mc++;
+            }
+            return;
+        }
+        appendDelta(a, b, w);
+        appendDelta(b, a, w);
+        edgeSize++;
+        mc++;
+        if (deltaSize[a] > Math.max(MIN_DELTA_ROW, rowLength(a) / 4)
+                || deltaSize[b] > Math.max(MIN_DELTA_ROW, rowLength(b) / 4)) {
+            compact();
+        } else {
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * This method return a pointer for the
+     * collection representing all the nodes in the graph.
+     * The nodes are returned in the order they were added.
+     *
+     * @return Collection<node_info> - all the nodes in the graph
+     */
+    @Override
+    public Collection<node_info> getV() {
+        return new Nodes();
+    }
+
+    /**
+     * This method returns a collection containing all the
+     * nodes connected to node_id
+     *
+     * @return Collection<node_info> - of all the neighbors of node_id
+     */
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        int a = ordinalOf(node_id);
+        if (a == -1) {
+            return Collections.emptyList();
+        }
+        return new Neighbors(a);
+    }
+
+    /**
+     * Delete the node (by the given key) from the graph.
+     * Removes all edges which are connected with this node.
+     *
+     * @param key int - the node you wish to delete
+     * @return node_info, the removed node (null if none).
+     */
+    @Override
+    public node_info removeNode(int key) {
+        int a = ordinalOf(key);
+        if (a == -1) {
+            return null;
+        }
+        node_info removed = new RemovedNode(key, tags == null ? 0 : tags[a], infos == null ? null : infos[a]);
+        if (a < baseNodes) { // mark the CSR edges of the node and their mirrors as removed
+            for (int i = offsets[a]; i < offsets[a + 1]; i++) {
+                if (!Double.isNaN(weights[i])) {
+                    weights[i] = Double.NaN;
+                    weights[baseIndex(neighbors[i], a)] = Double.NaN;
+                    tombstones += 2;
+                    edgeSize--;
+                    mc++;
+                }
+            }
+        }
+        if (deltaSize != null) { // drop the delta edges of the node and their mirrors
+            for (int j = 0; j < deltaSize[a]; j++) {
+                int b = deltaNeighbors[a][j];
+                removeDelta(b, deltaIndex(b, a));
+                edgeSize--;
+                mc++;
+            }
+            deltaEntries -= deltaSize[a];
+            deltaSize[a] = 0;
+        }
+        alive[a] = false;
+        if (ordinals != null) {
+            ordinals.remove(key);
+            pushFree(a);
+        }
+        nodeSize--;
+        mc++;
+        compactIfNeeded();
+        return removed;
+    }
+
+    /**
+     * Delete the edge which is connected to node1 and node2.
+     *
+     * @param node1 int - key of node 1
+     * @param node2 int - key of node 2
+     */
+    @Override
+    public void removeEdge(int node1, int node2) {
+        int a = ordinalOf(node1);
+        int b = ordinalOf(node2);
+        if (a == -1 || b == -1 || a == b) {
+            return;
+        }
+        int i = baseIndex(a, b);
+        if (i != -1) {
+            if (!Double.isNaN(weights[i])) {
+                weights[i] = Double.NaN;
+                weights[baseIndex(b, a)] = Double.NaN;
+                tombstones += 2;
+                edgeSize--;
+                mc++;
+                compactIfNeeded();
+            }
+            return;
+        }
+        int j = deltaIndex(a, b);
+        if (j != -1) {
+            removeDelta(a, j);
+            removeDelta(b, deltaIndex(b, a));
+            edgeSize--;
+            mc++;
+        }
+    }
+
+    /**
+     * return the number of nodes in the graph.
+     *
+     * @return int - number of nodes.
+     */
+    @Override
+    public int nodeSize() {
+        return nodeSize;
+    }
+
+    /**
+     * return the number of edges in the graph.
+     *
+     * @return int - number of edges
+     */
+    @Override
+    public int edgeSize() {
+        return edgeSize;
+    }
+
+    /**
+     * return the Mode Count - for testing changes in the graph.
+     * Any change in the inner state of the graph should cause an increment in the ModeCount
+     * (a compaction does not change the graph so it does not count).
+     *
+     * @return int -  number of changed in the graph.
+     */
+    @Override
+    public int getMC() {
+        return mc;
+    }
+
+    /**
+     * Merges the delta layer into the CSR arrays and drops the removed edges.
+     * Runs in O(n+e), it is called automatically once there are enough pending changes.
+     */
+    public void compact() {
+        int n = ordinalCount;
+        int[] newOffsets = new int[n + 1];
+        for (int a = 0; a < n; a++) {
+            int count = deltaSize == null ? 0 : deltaSize[a];
+            if (a < baseNodes) {
+                for (int i = offsets[a]; i < offsets[a + 1]; i++) {
+                    if (!Double.isNaN(weights[i])) {
+                        count++;
+                    }
+                }
+            }
+            newOffsets[a + 1] = newOffsets[a] + count;
+        }
+        int[] newNeighbors = new int[newOffsets[n]];
+        double[] newWeights = new double[newNeighbors.length];
+        for (int a = 0; a < n; a++) {
+            int pos = newOffsets[a];
+            if (a < baseNodes) {
+                for (int i = offsets[a]; i < offsets[a + 1]; i++) {
+                    if (!Double.isNaN(weights[i])) {
+                        newNeighbors[pos] = neighbors[i];
+                        newWeights[pos] = weights[i];
+                        pos++;
+                    }
+                }
+            }
+            if (deltaSize != null && deltaSize[a] > 0) {
+                System.arraycopy(deltaNeighbors[a], 0, newNeighbors, pos, deltaSize[a]);
+                System.arraycopy(deltaWeights[a], 0, newWeights, pos, deltaSize[a]);
+                sortRow(newNeighbors, newWeights, newOffsets[a], newOffsets[a + 1]);
+            }
+        }
+        this.baseNodes = n;
+        this.offsets = newOffsets;
+        this.neighbors = newNeighbors;
+        this.weights = newWeights;
+        this.tombstones = 0;
+        this.deltaNeighbors = null;
+        this.deltaWeights = null;
+        this.deltaSize = null;
+        this.deltaEntries = 0;
+    }
+
+    /**
+     * Equals function, two graphs are equal if they have the same nodes and the same weighted edges.
+     *
+     * @param obj The graph you wish to compare it to,
+     * @return boolean true if both graphs are the same, false if even 1 param is different.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || obj.getClass() != this.getClass()) {
+            return false;
+        }
+        final WGraph_CSR graph = (WGraph_CSR) obj;
+        if (this.nodeSize != graph.nodeSize || this.edgeSize != graph.edgeSize) {
+            return false;
+        }
+        for (int a = 0; a < ordinalCount; a++) {
+            if (alive[a]) {
+                if (graph.ordinalOf(keys[a]) == -1) {
+                    return false;
+                }
+                for (node_info n : getV(keys[a])) {
+                    if (graph.getEdge(keys[a], n.getKey()) != getEdge(keys[a], n.getKey())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overrides the hashCode method, a must if equals method is overridden.
+     * @return int - new hashCode.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.nodeSize, this.edgeSize);
+    }
+
+    /**
+     * Returns the ordinal of the key, -1 if there is no such node.
+     */
+    private int ordinalOf(int key) {
+        if (ordinals == null) {
+            return key >= 0 && key < ordinalCount && alive[key] ? key : -1;
+        }
+        return ordinals.get(key);
+    }
+
+    /**
+     * Hands out an ordinal for a new key. While the keys are 0,1,2... the key itself is used,
+     * the first key that breaks this order switches the graph to the ordinals map.
+     */
+    private int newOrdinal(int key) {
+        if (ordinals == null) {
+            if (key >= 0 && key < ordinalCount) {
+                return key;
+            }
+            if (key == ordinalCount) {
+                ensureCapacity(ordinalCount + 1);
+                return ordinalCount++;
+            }
+            ordinals = new IntIntMap(Math.max(nodeSize, INITIAL_CAPACITY));
+            for (int ord = 0; ord < ordinalCount; ord++) {
+                if (alive[ord]) {
+                    ordinals.put(keys[ord], ord);
+                } else {
+                    pushFree(ord);
+                }
+            }
+        }
+        int ord;
+        if (freeSize > 0) {
+            ord = free[--freeSize];
+        } else {
+            ensureCapacity(ordinalCount + 1);
+            ord = ordinalCount++;
+        }
+        ordinals.put(key, ord);
+        return ord;
+    }
+
+    private void pushFree(int ord) {
+        if (free == null) {
+            free = new int[INITIAL_CAPACITY];
+        } else if (freeSize == free.length) {
+            free = Arrays.copyOf(free, freeSize * 2);
+        }
+        free[freeSize++] = ord;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length + (keys.length >> 1));
+            keys = Arrays.copyOf(keys, newCapacity);
+            alive = Arrays.copyOf(alive, newCapacity);
+            if (tags != null) {
+                tags = Arrays.copyOf(tags, newCapacity);
+            }
+            if (infos != null) {
+                infos = Arrays.copyOf(infos, newCapacity);
+            }
+            if (deltaSize != null) {
+                deltaNeighbors = Arrays.copyOf(deltaNeighbors, newCapacity);
+                deltaWeights = Arrays.copyOf(deltaWeights, newCapacity);
+                deltaSize = Arrays.copyOf(deltaSize, newCapacity);
+            }
+        }
+    }
+
+    private void setTag(int ord, double t) {
+        if (tags == null) {
+            tags = new double[keys.length];
+        }
+        tags[ord] = t;
+    }
+
+    private void setInfo(int ord, String s) {
+        if (infos == null) {
+            infos = new String[keys.length];
+        }
+        infos[ord] = s;
+    }
+
+    /**
+     * Binary search of b in the CSR row of a.
+     * @return the index of the slot (even if it is marked as removed), -1 if none
+     */
+    private int baseIndex(int a, int b) {
+        if (a >= baseNodes) {
+            return -1;
+        }
+        int lo = offsets[a], hi = offsets[a + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int n = neighbors[mid];
+            if (n < b) {
+                lo = mid + 1;
+            } else if (n > b) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Linear search of b in the delta row of a.
+     * @return the index in the delta row, -1 if none
+     */
+    private int deltaIndex(int a, int b) {
+        if (deltaSize == null) {
+            return -1;
+        }
+        int[] row = deltaNeighbors[a];
+        for (int j = 0; j < deltaSize[a]; j++) {
+            if (row[j] == b) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private int rowLength(int a) {
+        return a < baseNodes ? offsets[a + 1] - offsets[a] : 0;
+    }
+
+    private void appendDelta(int a, int b, double w) {
+        if (deltaSize == null) {
+            deltaNeighbors = new int[keys.length][];
+            deltaWeights = new double[keys.length][];
+            deltaSize = new int[keys.length];
+        }
+        int size = deltaSize[a];
+        if (deltaNeighbors[a] == null) {
+            deltaNeighbors[a] = new int[4];
+            deltaWeights[a] = new double[4];
+        } else if (size == deltaNeighbors[a].length) {
+            deltaNeighbors[a] = Arrays.copyOf(deltaNeighbors[a], size * 2);
+            deltaWeights[a] = Arrays.copyOf(deltaWeights[a], size * 2);
+        }
+        deltaNeighbors[a][size] = b;
+        deltaWeights[a][size] = w;
+        deltaSize[a] = size + 1;
+        deltaEntries++;
+    }
+
+    /**
+     * Removes entry j of the delta row of a by moving the last entry into its place.
+     */
+    private void removeDelta(int a, int j) {
+        int last = --deltaSize[a];
+        deltaNeighbors[a][j] = deltaNeighbors[a][last];
+        deltaWeights[a][j] = deltaWeights[a][last];
+        deltaEntries--;
+    }
+
+    private void compactIfNeeded() {
+        if (deltaEntries + tombstones > Math.max(MIN_COMPACTION, neighbors.length / 4)) {
+            compact();
+        }
+    }
+
+    /**
+     * Sorts the row [from, to) by neighbor ordinal and moves the weights along.
+     * Short rows use insertion sort, long rows sort packed (neighbor, position) pairs.
+     */
+    private static void sortRow(int[] nbrs, double[] ws, int from, int to) {
+        int len = to - from;
+        if (len <= 32) {
+            for (int i = from + 1; i < to; i++) {
+                int n = nbrs[i];
+                double w = ws[i];
+                int j = i - 1;
+                while (j >= from && nbrs[j] > n) {
+                    nbrs[j + 1] = nbrs[j];
+                    ws[j + 1] = ws[j];
+                    j--;
+                }
+                nbrs[j + 1] = n;
+                ws[j + 1] = w;
+            }
+            return;
+        }
+        long[] packed = new long[len];
+        for (int i = 0; i < len; i++) {
+            packed[i] = ((long) nbrs[from + i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        double[] copy = Arrays.copyOfRange(ws, from, to);
+        for (int i = 0; i < len; i++) {
+            nbrs[from + i] = (int) (packed[i] >>> 32);
+            ws[from + i] = copy[(int) packed[i]];
+        }
+    }
+
+    /**
+     * A lightweight view of a node, holds only the key and reads the tag and info
+     * from the arrays of the graph.
+     */
+    private class NodeRef implements node_info, Serializable {
+        private final int key;
+
+        public NodeRef(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public int getKey() {
+            return key;
+        }
+
+        @Override
+        public String getInfo() {
+            int ord = ordinalOf(key);
+            return ord == -1 || infos == null ? null : infos[ord];
+        }
+
+        @Override
+        public void setInfo(String s) {
+            int ord = ordinalOf(key);
+            if (ord != -1) {
+                WGraph_CSR.this.setInfo(ord, s);
+            }
+        }
+
+        @Override
+        public double getTag() {
+            int ord = ordinalOf(key);
+            return ord == -1 || tags == null ? 0 : tags[ord];
+        }
+
+        @Override
+        public void setTag(double t) {
+            int ord = ordinalOf(key);
+            if (ord != -1) {
+                WGraph_CSR.this.setTag(ord, t);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "" + key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null || obj.getClass() != this.getClass()) {
+                return false;
+            }
+            return this.key == ((NodeRef) obj).key;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(37 + this.key * 17);
+        }
+    }
+
+    /**
+     * A node that was removed from the graph, keeps the last tag and info it had.
+     */
+    private static class RemovedNode implements node_info, Serializable {
+        private final int key;
+        private double tag;
+        private String info;
+
+        public RemovedNode(int key, double tag, String info) {
+            this.key = key;
+            this.tag = tag;
+            this.info = info;
+        }
+
+        @Override
+        public int getKey() {
+            return key;
+        }
+
+        @Override
+        public String getInfo() {
+            return info;
+        }
+
+        @Override
+        public void setInfo(String s) {
+            this.info = s;
+        }
+
+        @Override
+        public double getTag() {
+            return tag;
+        }
+
+        @Override
+        public void setTag(double t) {
+            this.tag = t;
+        }
+
+        @Override
+        public String toString() {
+            return "" + key;
+        }
+    }
+
+    /**
+     * View of all the nodes of the graph, in ordinal order.
+     */
+    private class Nodes extends AbstractCollection<node_info> {
+
+        @Override
+        public Iterator<node_info> iterator() {
+            return new Iterator<node_info>() {
+                private int next = advance(0);
+
+                private int advance(int ord) {
+                    while (ord < ordinalCount && !alive[ord]) {
+                        ord++;
+                    }
+                    return ord;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < ordinalCount;
+                }
+
+                @Override
+                public node_info next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    node_info n = new NodeRef(keys[next]);
+                    next = advance(next + 1);
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof node_info && ordinalOf(((node_info) o).getKey()) != -1;
+        }
+
+        @Override
+        public int size() {
+            return nodeSize;
+        }
+    }
+
+    /**
+     * View of the neighbors of a single node, the CSR row first and then the delta row.
+     */
+    private class Neighbors extends AbstractCollection<node_info> {
+        private final int ord;
+
+        public Neighbors(int ord) {
+            this.ord = ord;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            return new Iterator<node_info>() {
+                private int base = ord < baseNodes ? offsets[ord] : 0;
+                private final int baseEnd = ord < baseNodes ? offsets[ord + 1] : 0;
+                private int delta = 0;
+
+                @Override
+                public boolean hasNext() {
+                    while (base < baseEnd && Double.isNaN(weights[base])) {
+                        base++;
+                    }
+                    return base < baseEnd || (deltaSize != null && delta < deltaSize[ord]);
+                }
+
+                @Override
+                public node_info next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int n = base < baseEnd ? neighbors[base++] : deltaNeighbors[ord][delta++];
+                    return new NodeRef(keys[n]);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof node_info && hasEdge(keys[ord], ((node_info) o).getKey());
+        }
+
+        @Override
+        public int size() {
+            int count = deltaSize == null ? 0 : deltaSize[ord];
+            if (ord < baseNodes) {
+                for (int i = offsets[ord]; i < offsets[ord + 1]; i++) {
+                    if (!Double.isNaN(weights[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+}
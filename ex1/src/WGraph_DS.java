@@ -1,8 +1,10 @@
 package src;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 
@@ -16,36 +18,63 @@ public class WGraph_DS implements weighted_graph, Serializable {
     private int mc, edgeSize;
     private final HashMap<Integer, node_info> keys;
     private final HashMap<Integer, HashMap<node_info, Double>> edges;
+    // The consumers of the changes and the changes not delivered yet, null while there are no consumers
+    private transient GraphListener[] listeners;
+    private transient GraphEvents events;
+    private transient int batchDepth;
 
 
     /**
      * Default constructor
      */
     public WGraph_DS() {
-        mc = 0;
-        edgeSize = 0;
-        this.keys = new HashMap<>();
-        this.edges = new HashMap<>();
+        this(0);
+    }
+
+    /**
+     * Constructor that creates a graph which can hold the expected amount of nodes
+     * without resizing its maps (used when the size is known, e.g. copying a graph).
+     * @param expectedNodes - the expected number of nodes
+     */
+    public WGraph_DS(int expectedNodes) {
+        int capacity = Math.max(16, capacityFor(expectedNodes));
+        this.keys = new HashMap<>(capacity);
+        this.edges = new HashMap<>(capacity);
     }
 
     /**
      * Copy constructor. Deep copy of a graph
+     * The neighbor map of every node is created at its final size and filled directly,
+     * the weights of a WGraph_DS are shared (a Double is immutable) instead of looked up again.
      * @param g graph - the desired graph to copy
      */
     public WGraph_DS(weighted_graph g) {
-        this.keys = new HashMap<>();
-        this.edges = new HashMap<>();
+        this(g == null ? 0 : g.nodeSize());
         if (g != null) {
             for (node_info n : g.getV()) { // loop and create new nodes and copy content from each node
                 node_info a = new NodeInfo(n);
                 this.keys.put(a.getKey(), a);
             }
             for (node_info node : g.getV()) { // loop through the nodes in the graph
-                for (node_info n : g.getV(node.getKey())) { // loop through the neighbors of each node
-                    if (g.hasEdge(node.getKey(), n.getKey())) { // check if already two nodes has an edge
-                        int node1 = node.getKey();
-                        int node2 = n.getKey();
-                        connect(getNode(node1).getKey(), getNode(node2).getKey(), g.getEdge(node1, node2)); // connect an edge with two nodes
+                int key = node.getKey();
+                if (g instanceof WGraph_DS) {
+                    HashMap<node_info, Double> row = ((WGraph_DS) g).edges.get(key);
+                    if (row != null) {
+                        HashMap<node_info, Double> copy = new HashMap<>(capacityFor(row.size()));
+                        for (Map.Entry<node_info, Double> e : row.entrySet()) {
+                            copy.put(keys.get(e.getKey().getKey()), e.getValue());
+                        }
+                        this.edges.put(key, copy);
+                    }
+                }
+                else {
+                    Collection<node_info> ni = g.getV(key);
+                    if (!ni.isEmpty()) {
+                        HashMap<node_info, Double> copy = new HashMap<>(capacityFor(ni.size()));
+                        for (node_info n : ni) { // every edge is seen from both of its nodes, each copies its own side
+                            copy.put(keys.get(n.getKey()), g.getEdge(key, n.getKey()));
+                        }
+                        this.edges.put(key, copy);
                     }
                 }
             }
@@ -54,6 +83,16 @@ public class WGraph_DS implements weighted_graph, Serializable {
         }
     }
 
+    /**
+     * Returns a builder of a graph of about the given amount of nodes and edges.
+     * @param expectedNodes - the expected number of nodes
+     * @param expectedEdges - the expected number of edges
+     * @return Builder - the builder
+     */
+    public static Builder builder(int expectedNodes, int expectedEdges) {
+        return new Builder(expectedNodes, expectedEdges);
+    }
+
     /**
      * return the node_data by the key,
      *
@@ -116,6 +155,9 @@ public class WGraph_DS implements weighted_graph, Serializable {
             node_info n = new NodeInfo(key);
             keys.put(key, n);
             mc++;
+            if (events != null) {
+                publish(GraphEvents.Type.NODE_ADDED, key, key, 0, 0);
+            }
         }
     }
 
@@ -147,11 +189,17 @@ public class WGraph_DS implements weighted_graph, Serializable {
                 edges.get(node2).put(nodeOne, w);
                 edgeSize++;
                 mc++;
+                if (events != null) {
+                    publish(GraphEvents.Type.EDGE_ADDED, node1, node2, w, 0);
+                }
             }
             else if (edges.get(node1).get(nodeTwo) != w){
-                edges.get(node1).replace(nodeTwo, w); // if problems then change replace with put
+                double old = edges.get(node1).replace(nodeTwo, w); // if problems then change replace with put
                 edges.get(node2).replace(nodeOne, w);
                 mc++;
+                if (events != null) {
+                    publish(GraphEvents.Type.WEIGHT_CHANGED, node1, node2, w, old);
+                }
             }
         }
     }
@@ -187,6 +235,7 @@ public class WGraph_DS implements weighted_graph, Serializable {
     /**
      * Delete the node (by the given key) from the graph.
      * Removes all edges which are connected with this node.
+     * The removal of the edges and of the node is delivered to the listeners as one batch.
      *
      * @param key int - the node you wish to delete
      * @return node_info, the removed node (null if none).
@@ -196,12 +245,17 @@ public class WGraph_DS implements weighted_graph, Serializable {
     public node_info removeNode(int key) {
         node_info node = keys.get(key);
         if (node != null) {
+            beginBatch();
             int size = getV(key).size();
             for (int i = 0; i < size; i++) {
                 removeEdge(key,getV(key).iterator().next().getKey());
             }
             keys.remove(key);
             mc++;
+            if (events != null) {
+                publish(GraphEvents.Type.NODE_REMOVED, key, key, 0, 0);
+            }
+            endBatch();
             return node;
         }
         return null;
@@ -220,10 +274,13 @@ public class WGraph_DS implements weighted_graph, Serializable {
         node_info nodeTwo = keys.get(node2);
         if (nodeOne != null && nodeTwo != null) {
             if (edges.get(node1).containsKey(nodeTwo) && edges.get(node2).containsKey(nodeOne)) {
-                edges.get(node1).remove(nodeTwo);
+                double w = edges.get(node1).remove(nodeTwo);
                 edges.get(node2).remove(nodeOne);
                 edgeSize--;
                 mc++;
+                if (events != null) {
+                    publish(GraphEvents.Type.EDGE_REMOVED, node1, node2, w, 0);
+                }
             }
         }
     }
@@ -289,6 +346,100 @@ public class WGraph_DS implements weighted_graph, Serializable {
         return mc;
     }
 
+    /**
+     * Registers a consumer of the changes of this graph, it gets every change made from now on
+     * (addNode, connect, removeNode and removeEdge, see GraphEvents). While there are no listeners
+     * the changes are not recorded at all. The listeners are not serialized with the graph.
+     * @param listener - the listener
+     */
+    public void addListener(GraphListener listener) {
+        if (listeners == null) {
+            listeners = new GraphListener[]{listener};
+            events = new GraphEvents();
+        }
+        else {
+            // A new array, so a delivery in progress keeps iterating the old one
+            listeners = Arrays.copyOf(listeners, listeners.length + 1);
+            listeners[listeners.length - 1] = listener;
+        }
+    }
+
+    /**
+     * Removes a consumer of the changes of this graph.
+     * @param listener - the listener
+     */
+    public void removeListener(GraphListener listener) {
+        if (listeners == null) {
+            return;
+        }
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    listeners = null;
+                    events = null;
+                    return;
+                }
+                GraphListener[] rest = new GraphListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, rest, 0, i);
+                System.arraycopy(listeners, i + 1, rest, i, rest.length - i);
+                listeners = rest;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts a batch of changes, the changes are delivered to the listeners together when the batch ends.
+     * Batches may be nested, the changes are delivered when the outermost batch ends.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch of changes started by beginBatch.
+     * @throws IllegalStateException if there is no batch to end
+     */
+    public void endBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("endBatch without beginBatch");
+        }
+        batchDepth--;
+        if (batchDepth == 0 && events != null) {
+            flush();
+        }
+    }
+
+    /**
+     * Records a change, and delivers it at once if no batch is open.
+     */
+    private void publish(GraphEvents.Type type, int node1, int node2, double w, double old) {
+        events.add(type, node1, node2, w, old);
+        if (batchDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Delivers the recorded changes to all the listeners.
+     * The changes are cleared even if a listener throws, so they are never delivered twice
+     * (the exception reaches the caller of the change, the listeners after the one that threw miss the batch).
+     */
+    private void flush() {
+        GraphEvents batch = events;
+        if (batch.size() == 0) {
+            return;
+        }
+        try {
+            for (GraphListener listener : listeners) {
+                listener.graphChanged(batch);
+            }
+        }
+        finally {
+            batch.clear();
+        }
+    }
+
     /**
      * Overrides the hashCode method, a must if equals method is overridden.
      * @return int - new hashCode.
@@ -298,6 +449,170 @@ public class WGraph_DS implements weighted_graph, Serializable {
         return Objects.hash(this.keys.values().iterator().next().getKey() * 17 * 37, this.edgeSize, this.mc);
     }
 
+    /**
+     * Returns the HashMap capacity that holds the expected amount of entries without resizing
+     * (HashMap resizes when it is 3/4 full).
+     */
+    private static int capacityFor(int expected) {
+        return (int) (expected / 0.75f) + 1;
+    }
+
+    /**
+     * This class builds a WGraph_DS in one pass from node keys and edges given up front.
+     * The keys and the edges are collected in primitive arrays (in any order, the edges may come before
+     * their nodes), then build counts the degree of every node and creates each neighbor map
+     * at its final size, so no map is ever rehashed, and both sides of an edge share one boxed weight.
+     * The graph is the same as adding the keys with addNode and then connecting the edges in order with connect:
+     * an edge given twice keeps the last weight, an edge of a missing node, a loop or a negative weight is ignored,
+     * and edgeSize and mc count the same changes.
+     */
+    public static final class Builder {
+        private final IntIntMap ordinals;
+        private int nodeSize, edgeSize;
+        private int[] keys;
+        private int[] node1, node2;
+        private double[] w;
+
+        private Builder(int expectedNodes, int expectedEdges) {
+            ordinals = new IntIntMap(Math.max(expectedNodes, 0));
+            keys = new int[Math.max(expectedNodes, 4)];
+            int capacity = Math.max(expectedEdges, 4);
+            node1 = new int[capacity];
+            node2 = new int[capacity];
+            w = new double[capacity];
+        }
+
+        /**
+         * Adds a node, a key which was already added is ignored.
+         * @param key - the key of the node
+         * @return Builder - this builder
+         */
+        public Builder addNode(int key) {
+            if (ordinals.get(key) == -1) {
+                if (nodeSize == keys.length) {
+                    keys = Arrays.copyOf(keys, 2 * nodeSize);
+                }
+                ordinals.put(key, nodeSize);
+                keys[nodeSize++] = key;
+            }
+            return this;
+        }
+
+        /**
+         * Adds a node for every key.
+         * @param keys - the keys of the nodes
+         * @return Builder - this builder
+         */
+        public Builder addNodes(int[] keys) {
+            for (int key : keys) {
+                addNode(key);
+            }
+            return this;
+        }
+
+        /**
+         * Adds an edge between node1 and node2.
+         * @param node1 - key of node 1
+         * @param node2 - key of node 2
+         * @param weight - the weight of the edge
+         * @return Builder - this builder
+         */
+        public Builder addEdge(int node1, int node2, double weight) {
+            ensureCapacity(edgeSize + 1);
+            this.node1[edgeSize] = node1;
+            this.node2[edgeSize] = node2;
+            this.w[edgeSize++] = weight;
+            return this;
+        }
+
+        /**
+         * Adds the edges node1[i] - node2[i] of weight weights[i], the three arrays are of the same length.
+         * @param node1 - the keys of one side of the edges
+         * @param node2 - the keys of the other side of the edges
+         * @param weights - the weights of the edges
+         * @return Builder - this builder
+         */
+        public Builder addEdges(int[] node1, int[] node2, double[] weights) {
+            if (node1.length != node2.length || node1.length != weights.length) {
+                throw new IllegalArgumentException("The edge arrays differ in length: "
+                        + node1.length + ", " + node2.length + ", " + weights.length);
+            }
+            ensureCapacity(edgeSize + node1.length);
+            System.arraycopy(node1, 0, this.node1, edgeSize, node1.length);
+            System.arraycopy(node2, 0, this.node2, edgeSize, node2.length);
+            System.arraycopy(weights, 0, this.w, edgeSize, weights.length);
+            edgeSize += node1.length;
+            return this;
+        }
+
+        /**
+         * Builds the graph.
+         * @return WGraph_DS - the graph
+         */
+        public WGraph_DS build() {
+            WGraph_DS graph = new WGraph_DS(nodeSize);
+            node_info[] nodes = new node_info[nodeSize];
+            for (int i = 0; i < nodeSize; i++) {
+                nodes[i] = new NodeInfo(keys[i]);
+                graph.keys.put(keys[i], nodes[i]);
+            }
+            graph.mc = nodeSize;
+            // The ordinals of the nodes of every edge, -1 for an ignored edge
+            int[] a = new int[edgeSize];
+            int[] b = new int[edgeSize];
+            int[] degree = new int[nodeSize];
+            for (int i = 0; i < edgeSize; i++) {
+                a[i] = ordinals.get(node1[i]);
+                b[i] = ordinals.get(node2[i]);
+                if (a[i] == -1 || b[i] == -1 || a[i] == b[i] || !(w[i] >= 0)) {
+                    a[i] = -1;
+                    continue;
+                }
+                degree[a[i]]++;
+                degree[b[i]]++;
+            }
+            @SuppressWarnings("unchecked")
+            HashMap<node_info, Double>[] rows = (HashMap<node_info, Double>[]) new HashMap<?, ?>[nodeSize];
+            for (int i = 0; i < edgeSize; i++) {
+                int x = a[i], y = b[i];
+                if (x == -1) {
+                    continue;
+                }
+                Double weight = w[i];
+                Double old = row(graph, rows, degree, x).put(nodes[y], weight);
+                row(graph, rows, degree, y).put(nodes[x], weight);
+                if (old == null) {
+                    graph.edgeSize++;
+                    graph.mc++;
+                }
+                else if (old != w[i]) {
+                    graph.mc++;
+                }
+            }
+            return graph;
+        }
+
+        /**
+         * Returns the neighbor map of ordinal v, created at its final size on the first edge.
+         */
+        private HashMap<node_info, Double> row(WGraph_DS graph, HashMap<node_info, Double>[] rows, int[] degree, int v) {
+            if (rows[v] == null) {
+                rows[v] = new HashMap<>(capacityFor(degree[v]));
+                graph.edges.put(keys[v], rows[v]);
+            }
+            return rows[v];
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > node1.length) {
+                int size = Math.max(capacity, 2 * node1.length);
+                node1 = Arrays.copyOf(node1, size);
+                node2 = Arrays.copyOf(node2, size);
+                w = Arrays.copyOf(w, size);
+            }
+        }
+    }
+
     /**
      * This class represents the set of functions applicable
      * on a node in an weighted graph.
@@ -0,0 +1,517 @@
+package src;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * This class represents a read only undirected weighted graph served from a binary snapshot file.
+ * The file is memory mapped (FileChannel.map) and the queries read the mapped arrays directly,
+ * so loading a graph of hundreds of MB takes only the time of reading the header.
+ * The snapshot format (version 1, big endian):
+ * 0. header - magic "WGSF", version, flags (bit 0 - every key equals its ordinal), nodes, edge entries (long), edges, mc.
+ * 1. keys - int[nodes], sorted, the ordinal of a node is its index.
+ * 2. offsets - int[nodes+1], the neighbors of ordinal v are in [offsets[v], offsets[v+1]).
+ * 3. neighbors - int[entries], the neighbor ordinals of every row, sorted (each edge appears in both rows).
+ * 4. weights - double[entries], aligned to 8 bytes.
+ * The graph can not be changed (addNode, connect, removeNode and removeEdge throw UnsupportedOperationException),
+ * only the tag and info of the nodes, which are kept in memory.
+ * The file must not be changed while the graph is in use.
+ */
+public class WGraph_Mapped implements weighted_graph {
+    private static final int MAGIC = 0x57475346;
+    private static final int VERSION = 1;
+    private static final int FLAG_DENSE_KEYS = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final int nodeSize, edgeSize, mc;
+    private final boolean denseKeys;
+    private final IntBuffer keys, offsets, neighbors;
+    private final DoubleBuffer weights;
+    // The tag and info of each node, allocated on the first use
+    private double[] tags;
+    private String[] infos;
+
+    private WGraph_Mapped(int flags, int nodeSize, int edgeSize, int mc,
+                          IntBuffer keys, IntBuffer offsets, IntBuffer neighbors, DoubleBuffer weights) {
+        this.denseKeys = (flags & FLAG_DENSE_KEYS) != 0;
+        this.nodeSize = nodeSize;
+        this.edgeSize = edgeSize;
+        this.mc = mc;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.weights = weights;
+    }
+
+    /**
+     * Writes a binary snapshot of the graph.
+     *
+     * @param g    - the graph
+     * @param file - the file name
+     * @throws IOException if the file can not be written
+     */
+    public static void save(weighted_graph g, String file) throws IOException {
+        int n = g.nodeSize();
+        int[] keys = new int[n];
+        int i = 0;
+        for (node_info node : g.getV()) {
+            keys[i++] = node.getKey();
+        }
+        Arrays.sort(keys);
+        boolean dense = true;
+        IntIntMap ordinals = new IntIntMap(n);
+        for (i = 0; i < n; i++) {
+            ordinals.put(keys[i], i);
+            dense &= keys[i] == i;
+        }
+        int[] offsets = new int[n + 1];
+        for (i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + g.getV(keys[i]).size();
+        }
+        int entries = offsets[n];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dense ? FLAG_DENSE_KEYS : 0);
+            out.writeInt(n);
+            out.writeLong(entries);
+            out.writeInt(g.edgeSize());
+            out.writeInt(g.getMC());
+            for (int key : keys) {
+                out.writeInt(key);
+            }
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            // Every row is sorted by neighbor, the weights are written in a second pass in the same order
+            for (i = 0; i < n; i++) {
+                for (int b : sortedRow(g, keys[i], ordinals)) {
+                    out.writeInt(b);
+                }
+            }
+            if ((HEADER_SIZE + 4L * (2 * n + 1 + entries)) % 8 != 0) {
+                out.writeInt(0);
+            }
+            for (i = 0; i < n; i++) {
+                for (int b : sortedRow(g, keys[i], ordinals)) {
+                    out.writeDouble(g.getEdge(keys[i], keys[b]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted neighbor ordinals of a node.
+     */
+    private static int[] sortedRow(weighted_graph g, int key, IntIntMap ordinals) {
+        Collection<node_info> ni = g.getV(key);
+        int[] row = new int[ni.size()];
+        int i = 0;
+        for (node_info n : ni) {
+            row[i++] = ordinals.get(n.getKey());
+        }
+        Arrays.sort(row);
+        return row;
+    }
+
+    /**
+     * Memory maps a binary snapshot written by save.
+     *
+     * @param file - the file name
+     * @return WGraph_Mapped - the read only graph
+     * @throws IOException if the file can not be read or is not a graph snapshot
+     */
+    public static WGraph_Mapped load(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a graph snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a graph snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported graph snapshot version " + version + ": " + file);
+            }
+            int flags = header.getInt();
+            int n = header.getInt();
+            long entries = header.getLong();
+            int edgeSize = header.getInt();
+            int mc = header.getInt();
+            long position = HEADER_SIZE;
+            long keysPos = position;
+            position += 4L * n;
+            long offsetsPos = position;
+            position += 4L * (n + 1);
+            long neighborsPos = position;
+            position += 4L * entries;
+            position += position % 8;
+            long weightsPos = position;
+            position += 8L * entries;
+            if (n < 0 || entries < 0 || channel.size() != position) {
+                throw new IOException("Corrupted graph snapshot: " + file);
+            }
+            return new WGraph_Mapped(flags, n, edgeSize, mc,
+                    map(channel, keysPos, 4L * n).asIntBuffer(),
+                    map(channel, offsetsPos, 4L * (n + 1)).asIntBuffer(),
+                    map(channel, neighborsPos, 4L * entries).asIntBuffer(),
+                    map(channel, weightsPos, 8L * entries).asDoubleBuffer());
+        }
+    }
+
+    /**
+     * Returns true if the file starts with the magic number of a graph snapshot.
+     *
+     * @param file - the file name
+     * @return boolean - true if the file is a graph snapshot, else false
+     */
+    public static boolean isSnapshot(String file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Graph snapshot section too large to map: " + size + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * return the node_data by the key,
+     *
+     * @param key the node key
+     * @return the node_info by the key, null if none.
+     */
+    @Override
+    public node_info getNode(int key) {
+        int ord = ordinalOf(key);
+        return ord == -1 ? null : new NodeRef(ord);
+    }
+
+    /**
+     * return true if and only if there is an edge between node1 and node2
+     *
+     * @param node1 int , node with key 1
+     * @param node2 int , node with key 2
+     * @return boolean true if nodes are connected else false.
+     */
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        return getEdge(node1, node2) != -1;
+    }
+
+    /**
+     * return the value of the edge which is connection node1 and node2
+     * return -1 if no edge.
+     * Runs in O(log k) on the mapped row (k - the degree of node1).
+     *
+     * @param node1 - key of node 1
+     * @param node2 - key of node 2
+     * @return double - weight of the edge connecting the two nodes
+     */
+    @Override
+    public double getEdge(int node1, int node2) {
+        int a = ordinalOf(node1);
+        int b = ordinalOf(node2);
+        if (a == -1 || b == -1 || a == b) {
+            return -1;
+        }
+        int low = offsets.get(a), high = offsets.get(a + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int n = neighbors.get(mid);
+            if (n < b) {
+                low = mid + 1;
+            } else if (n > b) {
+                high = mid - 1;
+            } else {
+                return weights.get(mid);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Not supported, the graph is read only.
+     *
+     * @param key - the key of the node
+     */
+    @Override
+    public void addNode(int key) {
+        throw new UnsupportedOperationException("A mapped graph is read only");
+    }
+
+    /**
+     * Not supported, the graph is read only.
+     *
+     * @param node1 - key of node 1
+     * @param node2 - key of node 2
+     * @param w     - weight of the edge
+     */
+    @Override
+    public void connect(int node1, int node2, double w) {
+        throw new UnsupportedOperationException("A mapped graph is read only");
+    }
+
+    /**
+     * This method return a pointer for the
+     * collection representing all the nodes in the graph,
+     * in the order of their keys.
+     *
+     * @return Collection<node_info> - all the nodes in the graph
+     */
+    @Override
+    public Collection<node_info> getV() {
+        return new Nodes();
+    }
+
+    /**
+     * This method returns a collection containing all the
+     * nodes connected to node_id
+     *
+     * @return Collection<node_info> - of all the neighbors of node_id
+     */
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        int a = ordinalOf(node_id);
+        if (a == -1) {
+            return Collections.emptyList();
+        }
+        return new Neighbors(a);
+    }
+
+    /**
+     * Not supported, the graph is read only.
+     *
+     * @param key - the key of the node
+     * @return nothing
+     */
+    @Override
+    public node_info removeNode(int key) {
+        throw new UnsupportedOperationException("A mapped graph is read only");
+    }
+
+    /**
+     * Not supported, the graph is read only.
+     *
+     * @param node1 - key of node 1
+     * @param node2 - key of node 2
+     */
+    @Override
+    public void removeEdge(int node1, int node2) {
+        throw new UnsupportedOperationException("A mapped graph is read only");
+    }
+
+    /**
+     * return the number of nodes in the graph.
+     *
+     * @return int - number of nodes.
+     */
+    @Override
+    public int nodeSize() {
+        return nodeSize;
+    }
+
+    /**
+     * return the number of edges in the graph.
+     *
+     * @return int - number of edges
+     */
+    @Override
+    public int edgeSize() {
+        return edgeSize;
+    }
+
+    /**
+     * return the mode counter of the graph that was saved.
+     *
+     * @return int - number of changes
+     */
+    @Override
+    public int getMC() {
+        return mc;
+    }
+
+    /**
+     * Returns the ordinal of the key (binary search over the sorted keys), -1 if there is no such node.
+     */
+    private int ordinalOf(int key) {
+        if (denseKeys) {
+            return key >= 0 && key < nodeSize ? key : -1;
+        }
+        int low = 0, high = nodeSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int k = keys.get(mid);
+            if (k < key) {
+                low = mid + 1;
+            } else if (k > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A lightweight view of a node, holds only the ordinal and reads the tag and info
+     * from the arrays of the graph.
+     */
+    private class NodeRef implements node_info {
+        private final int ord;
+
+        public NodeRef(int ord) {
+            this.ord = ord;
+        }
+
+        @Override
+        public int getKey() {
+            return keys.get(ord);
+        }
+
+        @Override
+        public String getInfo() {
+            return infos == null ? null : infos[ord];
+        }
+
+        @Override
+        public void setInfo(String s) {
+            if (infos == null) {
+                infos = new String[nodeSize];
+            }
+            infos[ord] = s;
+        }
+
+        @Override
+        public double getTag() {
+            return tags == null ? 0 : tags[ord];
+        }
+
+        @Override
+        public void setTag(double t) {
+            if (tags == null) {
+                tags = new double[nodeSize];
+            }
+            tags[ord] = t;
+        }
+
+        @Override
+        public String toString() {
+            return "" + getKey();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null || obj.getClass() != this.getClass()) {
+                return false;
+            }
+            return this.ord == ((NodeRef) obj).ord;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(37 + getKey() * 17);
+        }
+    }
+
+    /**
+     * View of all the nodes of the graph, in ordinal order.
+     */
+    private class Nodes extends AbstractCollection<node_info> {
+
+        @Override
+        public Iterator<node_info> iterator() {
+            return new Iterator<node_info>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < nodeSize;
+                }
+
+                @Override
+                public node_info next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new NodeRef(next++);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof node_info && ordinalOf(((node_info) o).getKey()) != -1;
+        }
+
+        @Override
+        public int size() {
+            return nodeSize;
+        }
+    }
+
+    /**
+     * View of the neighbors of a single node, a row of the mapped arrays.
+     */
+    private class Neighbors extends AbstractCollection<node_info> {
+        private final int ord;
+
+        public Neighbors(int ord) {
+            this.ord = ord;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            return new Iterator<node_info>() {
+                private int next = offsets.get(ord);
+                private final int end = offsets.get(ord + 1);
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public node_info next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new NodeRef(neighbors.get(next++));
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof node_info && hasEdge(keys.get(ord), ((node_info) o).getKey());
+        }
+
+        @Override
+        public int size() {
+            return offsets.get(ord + 1) - offsets.get(ord);
+        }
+    }
+}
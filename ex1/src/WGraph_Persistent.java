@@ -0,0 +1,383 @@
+package src;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * This class represents an undirected weighted graph, same as WGraph_DS,
+ * but the nodes and the neighbors are kept in persistent hash tries (PersistentIntMap),
+ * so a snapshot of the graph is taken in O(1) and shares all of its structure with the graph.
+ * After a snapshot the graph and the snapshot change independently, a change copies only the trie nodes
+ * on the paths it touches (the first change of a node's neighbors copies its path once,
+ * the following changes of the same node are made in place).
+ * Choose it over WGraph_DS when snapshots are taken often, e.g. planners working on a stable view of a live graph.
+ * The node_info objects are shared by a graph and its snapshots (like getV shares them with the caller),
+ * the snapshot is independent in which nodes and edges exist and in the edge weights.
+ */
+public class WGraph_Persistent implements weighted_graph {
+    private int mc, edgeSize;
+    // The edit token of this graph, the trie nodes created under it are changed in place
+    private Object edit;
+    private PersistentIntMap<node_info> keys;
+    // The neighbors of every node that has any, by the key of the neighbor
+    private PersistentIntMap<PersistentIntMap<Neighbor>> edges;
+
+    /**
+     * Default constructor
+     */
+    public WGraph_Persistent() {
+        this.edit = new Object();
+        this.keys = new PersistentIntMap<>(edit);
+        this.edges = new PersistentIntMap<>(edit);
+    }
+
+    /**
+     * Copy constructor. Deep copy of a graph, use snapshot to copy a WGraph_Persistent.
+     * @param g graph - the desired graph to copy
+     */
+    public WGraph_Persistent(weighted_graph g) {
+        this();
+        if (g != null) {
+            for (node_info n : g.getV()) { // loop and create new nodes and copy content from each node
+                keys.put(n.getKey(), new NodeInfo(n));
+            }
+            for (node_info node : g.getV()) { // every edge is seen from both of its nodes, connect adds it once
+                for (node_info n : g.getV(node.getKey())) {
+                    connect(node.getKey(), n.getKey(), g.getEdge(node.getKey(), n.getKey()));
+                }
+            }
+            this.edgeSize = g.edgeSize();
+            this.mc = g.getMC();
+        }
+    }
+
+    private WGraph_Persistent(Object edit, PersistentIntMap<node_info> keys,
+                              PersistentIntMap<PersistentIntMap<Neighbor>> edges, int edgeSize, int mc) {
+        this.edit = edit;
+        this.keys = keys;
+        this.edges = edges;
+        this.edgeSize = edgeSize;
+        this.mc = mc;
+    }
+
+    /**
+     * Returns a copy of this graph in O(1), sharing the whole structure with this graph.
+     * From now on neither graph changes the shared trie nodes in place, each copies what it changes.
+     * @return WGraph_Persistent - the snapshot
+     */
+    public WGraph_Persistent snapshot() {
+        Object other = new Object();
+        WGraph_Persistent copy = new WGraph_Persistent(other, keys.fork(other), edges.fork(other), edgeSize, mc);
+        // This graph moves to a new token too, the trie nodes of the old token are now shared
+        this.edit = new Object();
+        this.keys = keys.fork(edit);
+        this.edges = edges.fork(edit);
+        return copy;
+    }
+
+    /**
+     * return the node_data by the key,
+     *
+     * @param key the node key
+     * @return the node_info by the key, null if none.
+     */
+    @Override
+    public node_info getNode(int key) {
+        return keys.get(key);
+    }
+
+    /**
+     * return true if and only if there is an edge between node1 and node2
+     *
+     * @param node1 int , node with key 1
+     * @param node2 int , node with key 2
+     * @return boolean true if nodes are connected else false.
+     */
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        PersistentIntMap<Neighbor> row = edges.get(node1);
+        return row != null && row.containsKey(node2);
+    }
+
+    /**
+     * return the value of the edge which is connection node1 and node2
+     * return -1 if no edge
+     *
+     * @param node1 - key of node 1
+     * @param node2 - key of node 2
+     * @return double - weight of the edge connecting the two nodes
+     */
+    @Override
+    public double getEdge(int node1, int node2) {
+        PersistentIntMap<Neighbor> row = edges.get(node1);
+        Neighbor neighbor = row == null ? null : row.get(node2);
+        return neighbor == null ? -1 : neighbor.weight;
+    }
+
+    /**
+     * adds new node to the graph with given key.
+     * only adds new node if graph do not contains the same key.
+     * @param key the unique key which is associated with the node
+     */
+    @Override
+    public void addNode(int key) {
+        if (!keys.containsKey(key)) {
+            keys.put(key, new NodeInfo(key));
+            mc++;
+        }
+    }
+
+    /**
+     * Connect an edge between node1 and node2 with the given weight.
+     * If there is already edge between the nodes the weight is updated,
+     * if one or two of the nodes is missing it simply does nothing.
+     *
+     * @param node1 node with key 1
+     * @param node2 node with key 2
+     * @param w the weight of the edge which is connecting the two nodes
+     */
+    @Override
+    public void connect(int node1, int node2, double w) {
+        node_info nodeOne = keys.get(node1);
+        node_info nodeTwo = keys.get(node2);
+        if (nodeOne != null && nodeTwo != null && w >= 0 && node1 != node2) {
+            double old = getEdge(node1, node2);
+            if (old == w) {
+                return;
+            }
+            editable(node1).put(node2, new Neighbor(nodeTwo, w));
+            editable(node2).put(node1, new Neighbor(nodeOne, w));
+            if (old == -1) {
+                edgeSize++;
+            }
+            mc++;
+        }
+    }
+
+    /**
+     * Returns the neighbors map of the key which this graph may change,
+     * creates it if there is none and forks it if it is shared with a snapshot.
+     */
+    private PersistentIntMap<Neighbor> editable(int key) {
+        PersistentIntMap<Neighbor> row = edges.get(key);
+        if (row == null) {
+            row = new PersistentIntMap<>(edit);
+            edges.put(key, row);
+        }
+        else if (!row.isOwnedBy(edit)) {
+            row = row.fork(edit);
+            edges.put(key, row);
+        }
+        return row;
+    }
+
+    /**
+     * This method return a pointer for the
+     * collection representing all the nodes in the graph.
+     *
+     * @return Collection<node_info> - all the nodes in the graph
+     */
+    @Override
+    public Collection<node_info> getV() {
+        return keys.values();
+    }
+
+    /**
+     * This method returns a collection containing all the
+     * nodes connected to node_id
+     *
+     * @return Collection<node_info> - of all the nodes in the graph
+     */
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        PersistentIntMap<Neighbor> row = edges.get(node_id);
+        if (row == null) {
+            return Collections.emptyList();
+        }
+        return new Neighbors(row);
+    }
+
+    /**
+     * Delete the node (by the given key) from the graph.
+     * Removes all edges which are connected with this node.
+     *
+     * @param key int - the node you wish to delete
+     * @return node_info, the removed node (null if none).
+     */
+    @Override
+    public node_info removeNode(int key) {
+        node_info node = keys.get(key);
+        if (node == null) {
+            return null;
+        }
+        // The row of the node is dropped whole, only the rows of its neighbors change
+        PersistentIntMap<Neighbor> row = edges.remove(key);
+        if (row != null) {
+            for (Neighbor neighbor : row.values()) {
+                editable(neighbor.node.getKey()).remove(key);
+                edgeSize--;
+                mc++;
+            }
+        }
+        keys.remove(key);
+        mc++;
+        return node;
+    }
+
+    /**
+     * Delete the edge which is connected to node1 and node2.
+     *
+     * @param node1 int - key of node 1
+     * @param node2 int - key of node 2
+     */
+    @Override
+    public void removeEdge(int node1, int node2) {
+        if (hasEdge(node1, node2)) {
+            editable(node1).remove(node2);
+            editable(node2).remove(node1);
+            edgeSize--;
+            mc++;
+        }
+    }
+
+    /**
+     * return the number of nodes in the graph.
+     *
+     * @return int - number of nodes.
+     */
+    @Override
+    public int nodeSize() {
+        return keys.size();
+    }
+
+    /**
+     * return the number of edges in the graph.
+     *
+     * @return int - number of edges
+     */
+    @Override
+    public int edgeSize() {
+        return edgeSize;
+    }
+
+    /**
+     * return the Mode Count - for testing changes in the graph.
+     * Any change in the inner state of the graph should cause an increment in the ModeCount
+     *
+     * @return int -  number of changed in the graph.
+     */
+    @Override
+    public int getMC() {
+        return mc;
+    }
+
+    /**
+     * A neighbor of a node and the weight of the edge to it, never changed once created (it may be shared by snapshots).
+     */
+    private static final class Neighbor {
+        final node_info node;
+        final double weight;
+
+        Neighbor(node_info node, double weight) {
+            this.node = node;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * View of the neighbors of a single node.
+     */
+    private static final class Neighbors extends AbstractCollection<node_info> {
+        private final PersistentIntMap<Neighbor> row;
+
+        Neighbors(PersistentIntMap<Neighbor> row) {
+            this.row = row;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            Iterator<Neighbor> it = row.values().iterator();
+            return new Iterator<node_info>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public node_info next() {
+                    return it.next().node;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof node_info && row.containsKey(((node_info) o).getKey());
+        }
+
+        @Override
+        public int size() {
+            return row.size();
+        }
+    }
+
+    /**
+     * This class represents the set of functions applicable
+     * on a node in an weighted graph.
+     */
+    private static class NodeInfo implements node_info {
+        private final int key;
+        private double tag;
+        private String info;
+
+        /**
+         * Constructor, init the key value with the given key.
+         */
+        NodeInfo(int key) {
+            this.key = key;
+        }
+
+        /**
+         * Copy constructor, copy the values of the given node.
+         *
+         * @param n - Node which is copied from.
+         */
+        NodeInfo(node_info n) {
+            this.key = n.getKey();
+            this.tag = n.getTag();
+            this.info = n.getInfo();
+        }
+
+        @Override
+        public int getKey() {
+            return key;
+        }
+
+        @Override
+        public String getInfo() {
+            return info;
+        }
+
+        @Override
+        public void setInfo(String s) {
+            this.info = s;
+        }
+
+        @Override
+        public double getTag() {
+            return tag;
+        }
+
+        @Override
+        public void setTag(double t) {
+            this.tag = t;
+        }
+
+        @Override
+        public String toString() {
+            return "" + key;
+        }
+    }
+}
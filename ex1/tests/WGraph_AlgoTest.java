@@ -209,6 +209,23 @@ class WGraph_AlgoTest {
         assertNull(ga.shortestPath(13,14));
     }
     @Test
+    void tagAndInfoUntouched() {
+        weighted_graph g = graph();
+        for (node_info n : g.getV()) {
+            n.setTag(n.getKey());
+            n.setInfo("node " + n.getKey());
+        }
+        weighted_graph_algorithms ga = new WGraph_Algo();
+        ga.init(g);
+        ga.isConnected();
+        assertEquals(29, ga.shortestPathDist(8, 10));
+        assertEquals(7, ga.shortestPath(1, 6).size());
+        for (node_info n : g.getV()) {
+            assertEquals(n.getKey(), n.getTag());
+            assertEquals("node " + n.getKey(), n.getInfo());
+        }
+    }
+    @Test
     void saveAndLoadTests(){
         weighted_graph g1 = graph();
         weighted_graph g2 = graph();
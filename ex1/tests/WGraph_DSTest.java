@@ -1,12 +1,15 @@
 package tests;
 
 
+import src.GraphEvents;
 import src.WGraph_DS;
 import src.node_info;
 import src.weighted_graph;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -170,6 +173,133 @@ class WGraph_DSTest {
         assertEquals(28,g.getMC());
         assertEquals(0,h.getMC());
     }
+    @Test
+    void builder() {
+        weighted_graph g = graph();
+        WGraph_DS.Builder builder = WGraph_DS.builder(14, 14);
+        // The edges before the nodes, every edge is given from both of its nodes
+        for (int i = 1; i < 15; i++) {
+            for (node_info n : g.getV(i)) {
+                builder.addEdge(i, n.getKey(), g.getEdge(i, n.getKey()));
+            }
+        }
+        builder.addNodes(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14});
+        weighted_graph h = builder.build();
+        assertEquals(g.nodeSize(), h.nodeSize());
+        assertEquals(g.edgeSize(), h.edgeSize());
+        for (int i = 1; i < 15; i++) {
+            assertEquals(g.getV(i).size(), h.getV(i).size());
+            for (node_info n : g.getV(i)) {
+                assertEquals(g.getEdge(i, n.getKey()), h.getEdge(i, n.getKey()));
+                assertEquals(g.getEdge(i, n.getKey()), h.getEdge(n.getKey(), i));
+            }
+        }
+    }
+
+    @Test
+    void builderSameAsConnect() {
+        int[] node1 = {1, 2, 2, 3, 3, 9, 4, 3};
+        int[] node2 = {2, 3, 1, 3, 1, 1, 1, 2};
+        double[] w = {5, 2, 7, 1, -4, 1, 0, 2};
+        weighted_graph g = new WGraph_DS();
+        for (int i = 1; i < 5; i++) {
+            g.addNode(i);
+        }
+        for (int i = 0; i < node1.length; i++) {
+            g.connect(node1[i], node2[i], w[i]);
+        }
+        weighted_graph h = WGraph_DS.builder(0, 0)
+                .addNodes(new int[]{1, 2, 3, 4, 4})
+                .addEdges(node1, node2, w)
+                .build();
+        assertEquals(g, h);
+        assertEquals(3, h.edgeSize());
+        assertEquals(g.edgeSize(), h.edgeSize());
+        assertEquals(g.getMC(), h.getMC());
+        assertEquals(7, h.getEdge(1, 2));
+        assertEquals(-1, h.getEdge(1, 3));
+        assertFalse(h.hasEdge(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> WGraph_DS.builder(0, 0).addEdges(node1, new int[1], w));
+        h.removeNode(2);
+        assertEquals(1, h.edgeSize());
+    }
+
+    @Test
+    void copy() {
+        weighted_graph g = graph();
+        g.getNode(3).setInfo("three");
+        weighted_graph h = new WGraph_DS(g);
+        assertEquals(g, h);
+        assertEquals(g.edgeSize(), h.edgeSize());
+        assertEquals(g.getMC(), h.getMC());
+        assertEquals("three", h.getNode(3).getInfo());
+        assertEquals(g.getEdge(6, 11), h.getEdge(11, 6));
+        g.removeNode(5);
+        assertTrue(h.hasEdge(5, 9));
+    }
+
+    @Test
+    void listeners() {
+        WGraph_DS g = (WGraph_DS) graph();
+        List<String> batches = new ArrayList<>();
+        int[] mc = {g.getMC()};
+        g.addListener(events -> {
+            batches.add(events.toString());
+            // Every event is one change of the mode counter
+            mc[0] += events.size();
+        });
+        g.addNode(20);
+        g.addNode(20);
+        g.connect(20, 1, 3);
+        g.connect(1, 20, 3);
+        g.connect(1, 20, 4);
+        g.removeEdge(20, 1);
+        g.removeEdge(20, 1);
+        assertEquals("[NODE_ADDED 20]", batches.get(0));
+        assertEquals("[EDGE_ADDED 20-1 3.0]", batches.get(1));
+        assertEquals("[WEIGHT_CHANGED 1-20 4.0]", batches.get(2));
+        assertEquals("[EDGE_REMOVED 20-1 4.0]", batches.get(3));
+        assertEquals(4, batches.size());
+        // A node is removed with its edges in one batch
+        g.removeNode(12);
+        // (the neighbors of a node come in no particular order)
+        String removed = batches.get(4);
+        assertTrue(removed.equals("[EDGE_REMOVED 12-5 5.0, EDGE_REMOVED 12-13 7.0, NODE_REMOVED 12]")
+                || removed.equals("[EDGE_REMOVED 12-13 7.0, EDGE_REMOVED 12-5 5.0, NODE_REMOVED 12]"), removed);
+        assertEquals(g.getMC(), mc[0]);
+        // The changes of a batch are delivered when the outermost batch ends
+        g.beginBatch();
+        g.connect(1, 3, 2);
+        g.beginBatch();
+        g.connect(1, 4, 2);
+        g.endBatch();
+        assertEquals(5, batches.size());
+        g.endBatch();
+        assertEquals("[EDGE_ADDED 1-3 2.0, EDGE_ADDED 1-4 2.0]", batches.get(5));
+        assertThrows(IllegalStateException.class, g::endBatch);
+        // The old weight of a changed edge
+        double[] old = new double[1];
+        src.GraphListener listener = events -> old[0] = events.oldWeight(0);
+        g.addListener(listener);
+        g.connect(3, 1, 6);
+        assertEquals(2, old[0]);
+        g.removeListener(listener);
+        g.connect(3, 1, 7);
+        assertEquals(2, old[0]);
+        assertEquals(g.getMC(), mc[0]);
+        // A listener that throws does not leave its batch behind for the next change
+        src.GraphListener failing = events -> {
+            throw new IllegalStateException("listener failed");
+        };
+        g.addListener(failing);
+        assertThrows(IllegalStateException.class, () -> g.addNode(21));
+        g.removeListener(failing);
+        int size = batches.size();
+        g.addNode(22);
+        assertEquals("[NODE_ADDED 22]", batches.get(size));
+        assertEquals(g.getMC(), mc[0]);
+    }
+
     private static weighted_graph graph() {
         weighted_graph g = new WGraph_DS();
         for (int i = 1; i < 15; i++) {
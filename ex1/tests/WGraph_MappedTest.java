@@ -0,0 +1,118 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import src.WGraph_Algo;
+import src.WGraph_DS;
+import src.WGraph_Mapped;
+import src.node_info;
+import src.weighted_graph;
+import src.weighted_graph_algorithms;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a TEST class for the binary snapshot and the memory mapped read only graph.
+ */
+class WGraph_MappedTest {
+
+    @Test
+    void saveAndLoad() throws IOException {
+        // Dense keys (0 to n-1) and sparse keys use different key lookups
+        for (int step : new int[]{1, 7}) {
+            weighted_graph g = randomGraph(500, 2000, step);
+            File file = File.createTempFile("graph", ".wgs");
+            file.deleteOnExit();
+            WGraph_Mapped.save(g, file.getPath());
+            assertTrue(WGraph_Mapped.isSnapshot(file.getPath()));
+            weighted_graph h = WGraph_Mapped.load(file.getPath());
+            assertEquals(g.nodeSize(), h.nodeSize());
+            assertEquals(g.edgeSize(), h.edgeSize());
+            assertEquals(g.getMC(), h.getMC());
+            for (node_info n : g.getV()) {
+                assertEquals(n.getKey(), h.getNode(n.getKey()).getKey());
+                assertEquals(g.getV(n.getKey()).size(), h.getV(n.getKey()).size());
+                for (node_info ni : h.getV(n.getKey())) {
+                    assertEquals(g.getEdge(n.getKey(), ni.getKey()), h.getEdge(n.getKey(), ni.getKey()));
+                    assertEquals(h.getEdge(n.getKey(), ni.getKey()), h.getEdge(ni.getKey(), n.getKey()));
+                }
+            }
+            for (int i = -5; i < 500 * step + 5; i++) {
+                assertEquals(g.getNode(i) == null, h.getNode(i) == null);
+                assertEquals(g.hasEdge(i, i + step), h.hasEdge(i, i + step));
+            }
+        }
+    }
+
+    @Test
+    void readOnly() throws IOException {
+        weighted_graph g = randomGraph(10, 20, 1);
+        File file = File.createTempFile("graph", ".wgs");
+        file.deleteOnExit();
+        WGraph_Mapped.save(g, file.getPath());
+        weighted_graph h = WGraph_Mapped.load(file.getPath());
+        assertThrows(UnsupportedOperationException.class, () -> h.addNode(100));
+        assertThrows(UnsupportedOperationException.class, () -> h.connect(1, 2, 3));
+        assertThrows(UnsupportedOperationException.class, () -> h.removeNode(1));
+        assertThrows(UnsupportedOperationException.class, () -> h.removeEdge(1, 2));
+        // The tag and info of the nodes are kept in memory
+        h.getNode(3).setTag(4.5);
+        h.getNode(3).setInfo("three");
+        assertEquals(4.5, h.getNode(3).getTag());
+        assertEquals("three", h.getNode(3).getInfo());
+        assertEquals(0, h.getNode(4).getTag());
+        // A file which is not a snapshot is not loaded
+        File other = File.createTempFile("graph", ".txt");
+        other.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(other)) {
+            out.write("not a graph snapshot at all, just some text".getBytes());
+        }
+        assertFalse(WGraph_Mapped.isSnapshot(other.getPath()));
+        assertThrows(IOException.class, () -> WGraph_Mapped.load(other.getPath()));
+    }
+
+    @Test
+    void algorithms() throws IOException {
+        weighted_graph g = randomGraph(1000, 3000, 3);
+        weighted_graph_algorithms ga = new WGraph_Algo();
+        ga.init(g);
+        File file = File.createTempFile("graph", ".wgs");
+        file.deleteOnExit();
+        assertTrue(((WGraph_Algo) ga).saveSnapshot(file.getPath()));
+        weighted_graph_algorithms ha = new WGraph_Algo();
+        // load recognizes the snapshot
+        assertTrue(ha.load(file.getPath()));
+        assertTrue(ha.getGraph() instanceof WGraph_Mapped);
+        assertEquals(ga.isConnected(), ha.isConnected());
+        Random rand = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            int src = rand.nextInt(1000) * 3, dest = rand.nextInt(1000) * 3;
+            assertEquals(ga.shortestPathDist(src, dest), ha.shortestPathDist(src, dest), 0.000001);
+        }
+        // A copy can be changed, and save writes a mapped graph as a WGraph_DS
+        weighted_graph copy = ha.copy();
+        copy.removeNode(0);
+        assertEquals(g.nodeSize() - 1, copy.nodeSize());
+        File serialized = File.createTempFile("graph", ".obj");
+        serialized.deleteOnExit();
+        assertTrue(ha.save(serialized.getPath()));
+        assertTrue(ha.load(serialized.getPath()));
+        assertEquals(g, ha.getGraph());
+    }
+
+    private static weighted_graph randomGraph(int v, int e, int step) {
+        Random rand = new Random(v + e + step);
+        weighted_graph g = new WGraph_DS();
+        for (int i = 0; i < v; i++) {
+            g.addNode(i * step);
+        }
+        while (g.edgeSize() < e) {
+            g.connect(rand.nextInt(v) * step, rand.nextInt(v) * step, rand.nextInt(100));
+        }
+        return g;
+    }
+}
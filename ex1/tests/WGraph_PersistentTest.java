@@ -0,0 +1,160 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import src.WGraph_Algo;
+import src.WGraph_DS;
+import src.WGraph_Persistent;
+import src.node_info;
+import src.weighted_graph;
+import src.weighted_graph_algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a TEST class for the persistent graph and its O(1) snapshots.
+ */
+class WGraph_PersistentTest {
+
+    @Test
+    void sameAsWGraph_DS() {
+        weighted_graph g = graph(new WGraph_Persistent());
+        weighted_graph h = graph(new WGraph_DS());
+        assertSameGraph(h, g);
+        assertEquals(h.getMC(), g.getMC());
+        assertTrue(g.getV(5).contains(g.getNode(9)));
+        assertFalse(g.getV(5).contains(g.getNode(1)));
+        assertTrue(g.getV(8).isEmpty());
+        assertEquals(-1, g.getEdge(1, 3));
+        assertFalse(g.hasEdge(1, 1));
+        g.removeNode(4);
+        h.removeNode(4);
+        g.removeEdge(9, 14);
+        h.removeEdge(9, 14);
+        assertSameGraph(h, g);
+        assertEquals(h.getMC(), g.getMC());
+        assertNull(g.removeNode(4));
+    }
+
+    @Test
+    void snapshot() {
+        WGraph_Persistent g = (WGraph_Persistent) graph(new WGraph_Persistent());
+        WGraph_Persistent s = g.snapshot();
+        g.removeNode(5);
+        g.connect(1, 2, 8);
+        s.connect(13, 14, 1);
+        s.addNode(20);
+        assertNull(g.getNode(5));
+        assertEquals(8, g.getEdge(2, 1));
+        assertFalse(g.hasEdge(14, 13));
+        assertEquals(10, g.edgeSize());
+        assertEquals(12, s.getEdge(4, 5));
+        assertEquals(5, s.getEdge(2, 1));
+        assertEquals(1, s.getEdge(14, 13));
+        assertEquals(15, s.edgeSize());
+        assertEquals(15, s.nodeSize());
+        assertEquals(13, g.nodeSize());
+    }
+
+    @Test
+    void copy() {
+        weighted_graph_algorithms ga = new WGraph_Algo();
+        ga.init(graph(new WGraph_Persistent()));
+        weighted_graph c = ga.copy();
+        assertTrue(c instanceof WGraph_Persistent);
+        ga.getGraph().removeEdge(1, 2);
+        assertTrue(c.hasEdge(1, 2));
+        assertEquals(-1, ga.shortestPathDist(1, 4));
+        ga.init(c);
+        assertEquals(6, ga.shortestPathDist(1, 4));
+    }
+
+    @Test
+    void randomSnapshots() {
+        // Every snapshot is checked against a WGraph_DS copy taken at the same time,
+        // while the graph and all the snapshots keep changing
+        Random rand = new Random(1);
+        List<WGraph_Persistent> graphs = new ArrayList<>();
+        List<weighted_graph> expected = new ArrayList<>();
+        WGraph_Persistent g = new WGraph_Persistent();
+        weighted_graph h = new WGraph_DS();
+        for (int i = 0; i < 200; i++) {
+            g.addNode(i * 37);
+            h.addNode(i * 37);
+        }
+        graphs.add(g);
+        expected.add(h);
+        for (int i = 0; i < 30000; i++) {
+            int k = rand.nextInt(graphs.size());
+            WGraph_Persistent a = graphs.get(k);
+            weighted_graph b = expected.get(k);
+            int node1 = rand.nextInt(200) * 37;
+            int node2 = rand.nextInt(200) * 37;
+            int op = rand.nextInt(100);
+            if (op < 60) {
+                double w = rand.nextInt(10);
+                a.connect(node1, node2, w);
+                b.connect(node1, node2, w);
+            }
+            else if (op < 90) {
+                assertEquals(b.hasEdge(node1, node2), a.hasEdge(node1, node2));
+                if (b.hasEdge(node1, node2)) {
+                    a.removeEdge(node1, node2);
+                    b.removeEdge(node1, node2);
+                }
+            }
+            else if (op < 95) {
+                assertEquals(b.removeNode(node1) == null, a.removeNode(node1) == null);
+                a.addNode(node1);
+                b.addNode(node1);
+            }
+            else if (graphs.size() < 8) {
+                graphs.add(a.snapshot());
+                expected.add(new WGraph_DS(b));
+            }
+            assertEquals(b.edgeSize(), a.edgeSize());
+            assertEquals(b.getMC(), a.getMC());
+        }
+        for (int k = 0; k < graphs.size(); k++) {
+            assertSameGraph(expected.get(k), graphs.get(k));
+        }
+    }
+
+    private static void assertSameGraph(weighted_graph expected, weighted_graph g) {
+        assertEquals(expected.nodeSize(), g.nodeSize());
+        assertEquals(expected.edgeSize(), g.edgeSize());
+        for (node_info n : expected.getV()) {
+            int key = n.getKey();
+            assertNotNull(g.getNode(key));
+            assertEquals(expected.getV(key).size(), g.getV(key).size());
+            for (node_info ni : expected.getV(key)) {
+                assertEquals(expected.getEdge(key, ni.getKey()), g.getEdge(key, ni.getKey()));
+                assertEquals(expected.getEdge(key, ni.getKey()), g.getEdge(ni.getKey(), key));
+            }
+        }
+    }
+
+    private static weighted_graph graph(weighted_graph g) {
+        for (int i = 1; i < 15; i++) {
+            g.addNode(i);
+        }
+        g.connect(1, 2, 5);
+        g.connect(2, 3, 2);
+        g.connect(2, 4, 1);
+        g.connect(3, 4, 10);
+        g.connect(5, 4, 12);
+        g.connect(5, 6, 1);
+        g.connect(6, 11, 8);
+        g.connect(7, 3, 2);
+        g.connect(7, 4, 2);
+        g.connect(7, 9, 5);
+        g.connect(9, 14, 7);
+        g.connect(9, 5, 3);
+        g.connect(5, 12, 5);
+        g.connect(12, 13, 7);
+        return g;
+    }
+}
@@ -0,0 +1,126 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class represents an all pairs shortest path table of a directed_weighted_graph:
+ * the distance and the first node (next hop) on a shortest path of every ordered pair of nodes.
+ * The table is built once by running the Dijkstra algorithm from every node, the sources are split
+ * between the available cores, then dist and nextHop are answered in O(1) time without any search.
+ * It takes n*n doubles and ints, so it is meant for game sized graphs (up to a few thousand nodes).
+ * The table does not follow changes of the graph, isValidFor tells whether the graph changed (by its mode counter).
+ */
+public final class AllPairsTable {
+
+	private final GraphIndex index;
+	private final int n;
+	// dist[src*n+dest] - the shortest path distance, infinite if dest is not reachable from src
+	private final double[] dist;
+	// next[src*n+dest] - the ordinal of the node after src on a shortest path (dest itself when src == dest), -1 if none
+	private final int[] next;
+
+	/**
+	 * Constructor, builds the table in O(n*(n+e)log(n)) time split between the available cores.
+	 * @param g - the graph
+	 */
+	public AllPairsTable(directed_weighted_graph g) {
+		this.index = new GraphIndex(g);
+		this.n = index.size();
+		if ((long) n * n > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The graph is too large for an all pairs table: " + n + " nodes");
+		}
+		this.dist = new double[n * n];
+		this.next = new int[n * n];
+		// Every worker thread reuses its own scratch arrays
+		ThreadLocal<DijkstraSearch> searches = ThreadLocal.withInitial(DijkstraSearch::new);
+		IntStream.range(0, n).parallel().forEach(src -> fillRow(searches.get(), src));
+	}
+
+	/**
+	 * Runs the Dijkstra algorithm from src and fills its row of the table.
+	 * The next hop of a node is the next hop of its parent, and the parent is always settled first.
+	 */
+	private void fillRow(DijkstraSearch search, int src) {
+		search.run(index, src, -1);
+		int row = src * n;
+		Arrays.fill(dist, row, row + n, Double.POSITIVE_INFINITY);
+		Arrays.fill(next, row, row + n, -1);
+		dist[row + src] = 0;
+		next[row + src] = src;
+		for (int i = 1; i < search.settled(); i++) {
+			int v = search.settledAt(i);
+			int parent = search.parent(v);
+			dist[row + v] = search.dist(v);
+			next[row + v] = parent == src ? v : next[row + parent];
+		}
+	}
+
+	/**
+	 * Returns true if this table still represents the given graph.
+	 * @param g - the graph
+	 * @return boolean - true if it is the same graph and it did not change since the table was built, else false
+	 */
+	public boolean isValidFor(directed_weighted_graph g) {
+		return index.isValidFor(g);
+	}
+
+	/**
+	 * Returns the length of the shortest path between src to dest in O(1) time,
+	 * If no such path (or a node is not in the graph) -- returns -1.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return double - the shortest distance between src and dest
+	 */
+	public double dist(int src, int dest) {
+		int s = index.ordinalOf(src);
+		int d = index.ordinalOf(dest);
+		if (s == -1 || d == -1) {
+			return -1;
+		}
+		double value = dist[s * n + d];
+		return value == Double.POSITIVE_INFINITY ? -1 : value;
+	}
+
+	/**
+	 * Returns the node after src on a shortest path between src to dest in O(1) time,
+	 * If src and dest are equal -- returns src.
+	 * If no such path (or a node is not in the graph) -- returns null.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return node_data - the next node to go to from src
+	 */
+	public node_data nextHop(int src, int dest) {
+		int s = index.ordinalOf(src);
+		int d = index.ordinalOf(dest);
+		if (s == -1 || d == -1 || next[s * n + d] == -1) {
+			return null;
+		}
+		return index.nodeOf(next[s * n + d]);
+	}
+
+	/**
+	 * Returns the shortest path between src to dest - as an ordered List of nodes:
+	 * src--n1--n2--...dest, by following the next hops in O(path) time.
+	 * If no such path -- returns null.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return List of node_data
+	 */
+	public List<node_data> path(int src, int dest) {
+		int s = index.ordinalOf(src);
+		int d = index.ordinalOf(dest);
+		if (s == -1 || d == -1 || next[s * n + d] == -1) {
+			return null;
+		}
+		List<node_data> path = new ArrayList<>();
+		path.add(index.nodeOf(s));
+		for (int v = s; v != d; ) {
+			v = next[v * n + d];
+			path.add(index.nodeOf(v));
+		}
+		return path;
+	}
+}
@@ -0,0 +1,695 @@
+package api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class answers shortest path queries on a graph which does not change (like a road map),
+ * by a contraction hierarchy built once for the graph (build, or load of a saved hierarchy).
+ * The nodes are contracted one after the other (removed, adding a shortcut edge u-w instead of every path u-v-w
+ * through the removed node v that is the only shortest path), so every node gets a rank, the order of its removal.
+ * A query searches only edges toward higher ranks: up from src over the edges and up from dest over the reversed edges,
+ * the highest node of the shortest path is reached by both, and settles a small part of the nodes a Dijkstra search does
+ * (fewer still as a node reached shorter from a higher node is not expanded - stall on demand).
+ * The shortcuts keep the node they skip, so the path is unpacked back to the edges of the graph.
+ * The preprocessing runs in rounds, every round contracts in parallel a set of nodes of which no two are neighbors.
+ * The hierarchy does not follow changes of the graph, build it again after the graph changed.
+ * The queries may be called from several threads at once.
+ */
+public final class ContractionHierarchy {
+
+	private static final int MAGIC = 0x44574348;
+	private static final int VERSION = 1;
+	// A witness search gives up after settling this many nodes (and the shortcut is added),
+	// the searches that only estimate the shortcuts of a node for its priority give up much sooner
+	private static final int WITNESS_LIMIT = 500;
+	private static final int ESTIMATE_LIMIT = 20;
+
+	// The nodes by ordinal, the dense index of a key in this map is its ordinal
+	private final IntHashMap<node_data> nodes;
+	// The order of contraction of every ordinal
+	private final int[] rank;
+	// The edges to higher ranks: from ordinal v to upTo[i] for i in [upStart[v], upStart[v+1])
+	private final int[] upStart, upTo, upMiddle;
+	private final double[] upWeight;
+	// The edges from higher ranks: from downFrom[i] to ordinal v for i in [downStart[v], downStart[v+1])
+	private final int[] downStart, downFrom, downMiddle;
+	private final double[] downWeight;
+	// Scratch data of the queries, one per thread
+	private final ThreadLocal<Query> query = ThreadLocal.withInitial(Query::new);
+
+	private ContractionHierarchy(IntHashMap<node_data> nodes, int[] rank, int[] upStart, int[] upTo, int[] upMiddle,
+			double[] upWeight, int[] downStart, int[] downFrom, int[] downMiddle, double[] downWeight) {
+		this.nodes = nodes;
+		this.rank = rank;
+		this.upStart = upStart;
+		this.upTo = upTo;
+		this.upMiddle = upMiddle;
+		this.upWeight = upWeight;
+		this.downStart = downStart;
+		this.downFrom = downFrom;
+		this.downMiddle = downMiddle;
+		this.downWeight = downWeight;
+	}
+
+	/**
+	 * Builds the contraction hierarchy of a graph, the contraction rounds run on the common ForkJoinPool.
+	 * @param g - the graph
+	 * @return ContractionHierarchy - the hierarchy
+	 */
+	public static ContractionHierarchy build(directed_weighted_graph g) {
+		GraphIndex index = new GraphIndex(g);
+		int n = index.size();
+		IntHashMap<node_data> nodes = new IntHashMap<>(n);
+		for (int v = 0; v < n; v++) {
+			nodes.put(index.keyOf(v), index.nodeOf(v));
+		}
+		Contraction contraction = new Contraction(index);
+		contraction.run();
+		int[] rank = contraction.rank;
+		// The rows of a node kept at its contraction: the edges to and from the nodes of higher rank
+		Row[] out = contraction.out;
+		Row[] in = contraction.in;
+		int[] upStart = new int[n + 1];
+		int[] downStart = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			upStart[v + 1] = upStart[v] + out[v].size;
+			downStart[v + 1] = downStart[v] + in[v].size;
+		}
+		int[] upTo = new int[upStart[n]];
+		int[] upMiddle = new int[upTo.length];
+		double[] upWeight = new double[upTo.length];
+		int[] downFrom = new int[downStart[n]];
+		int[] downMiddle = new int[downFrom.length];
+		double[] downWeight = new double[downFrom.length];
+		for (int v = 0; v < n; v++) {
+			System.arraycopy(out[v].to, 0, upTo, upStart[v], out[v].size);
+			System.arraycopy(out[v].middle, 0, upMiddle, upStart[v], out[v].size);
+			System.arraycopy(out[v].weight, 0, upWeight, upStart[v], out[v].size);
+			System.arraycopy(in[v].to, 0, downFrom, downStart[v], in[v].size);
+			System.arraycopy(in[v].middle, 0, downMiddle, downStart[v], in[v].size);
+			System.arraycopy(in[v].weight, 0, downWeight, downStart[v], in[v].size);
+		}
+		return new ContractionHierarchy(nodes, rank, upStart, upTo, upMiddle, upWeight,
+				downStart, downFrom, downMiddle, downWeight);
+	}
+
+	/**
+	 * Returns the number of edges of the hierarchy, the edges of the graph and the shortcuts.
+	 * @return int - the number of edges
+	 */
+	public int edgeSize() {
+		return upTo.length + downFrom.length;
+	}
+
+	/**
+	 * Returns the length of the shortest path between src to dest,
+	 * If no such path -- returns -1.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return double - the shortest distance between src and dest
+	 */
+	public double shortestPathDist(int src, int dest) {
+		int s = nodes.indexOf(src);
+		int t = nodes.indexOf(dest);
+		if (s == -1 || t == -1) {
+			return -1;
+		}
+		double dist = query.get().run(s, t);
+		return dist == Double.POSITIVE_INFINITY ? -1 : dist;
+	}
+
+	/**
+	 * Returns the shortest path between src to dest - as an ordered List of nodes:
+	 * src--n1--n2--...dest, the shortcuts are unpacked to the nodes of the graph.
+	 * If no such path -- returns null.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return List of node_data
+	 */
+	public List<node_data> shortestPath(int src, int dest) {
+		int s = nodes.indexOf(src);
+		int t = nodes.indexOf(dest);
+		if (s == -1 || t == -1) {
+			return null;
+		}
+		Query q = query.get();
+		if (q.run(s, t) == Double.POSITIVE_INFINITY) {
+			return null;
+		}
+		// The ordinals of the hierarchy path: up from src to the meet node, then down to dest
+		List<Integer> up = new ArrayList<>();
+		for (int v = q.meet; v != -1; v = q.upParent[v]) {
+			up.add(v);
+		}
+		Collections.reverse(up);
+		for (int v = q.downParent[q.meet]; v != -1; v = q.downParent[v]) {
+			up.add(v);
+		}
+		List<node_data> path = new ArrayList<>();
+		path.add(nodes.valueAt(s));
+		for (int i = 1; i < up.size(); i++) {
+			unpack(up.get(i - 1), up.get(i), path);
+		}
+		return path;
+	}
+
+	/**
+	 * Adds the nodes of the edge from a to b after a to the path, replacing every shortcut by the two edges it skips.
+	 * @param a - the ordinal of the start of the edge
+	 * @param b - the ordinal of the end of the edge
+	 * @param path - the path, ends with a
+	 */
+	private void unpack(int a, int b, List<node_data> path) {
+		// The edges still to unpack, the next at the top
+		int[] stack = new int[16];
+		int size = 0;
+		stack[size++] = a;
+		stack[size++] = b;
+		while (size > 0) {
+			int to = stack[--size];
+			int from = stack[--size];
+			int middle = middle(from, to);
+			if (middle == -1) {
+				path.add(nodes.valueAt(to));
+				continue;
+			}
+			if (size + 4 > stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			stack[size++] = middle;
+			stack[size++] = to;
+			stack[size++] = from;
+			stack[size++] = middle;
+		}
+	}
+
+	/**
+	 * Returns the node skipped by the edge from a to b.
+	 * @param a - the ordinal of the start of the edge
+	 * @param b - the ordinal of the end of the edge
+	 * @return int - the ordinal of the skipped node, -1 for an edge of the graph
+	 */
+	private int middle(int a, int b) {
+		if (rank[b] > rank[a]) {
+			for (int i = upStart[a]; i < upStart[a + 1]; i++) {
+				if (upTo[i] == b) {
+					return upMiddle[i];
+				}
+			}
+		}
+		else {
+			for (int i = downStart[b]; i < downStart[b + 1]; i++) {
+				if (downFrom[i] == a) {
+					return downMiddle[i];
+				}
+			}
+		}
+		throw new IllegalStateException("No edge " + nodes.keyAt(a) + " -> " + nodes.keyAt(b) + " in the hierarchy");
+	}
+
+	/**
+	 * Saves the hierarchy to a binary file, to be loaded (with the same graph) by load.
+	 * The format (big endian): magic "DWCH", version, nodes, up edges, down edges, then the keys and the ranks
+	 * of the ordinals, and the start, end, skipped node and weight arrays of the up and the down edges.
+	 * @param file - the file name (may include a relative path)
+	 * @throws IOException if the file can not be written
+	 */
+	public void save(String file) throws IOException {
+		int n = rank.length;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(n);
+			out.writeInt(upTo.length);
+			out.writeInt(downFrom.length);
+			for (int v = 0; v < n; v++) {
+				out.writeInt(nodes.keyAt(v));
+			}
+			writeInts(out, rank);
+			writeInts(out, upStart);
+			writeInts(out, upTo);
+			writeInts(out, upMiddle);
+			for (double w : upWeight) {
+				out.writeDouble(w);
+			}
+			writeInts(out, downStart);
+			writeInts(out, downFrom);
+			writeInts(out, downMiddle);
+			for (double w : downWeight) {
+				out.writeDouble(w);
+			}
+		}
+	}
+
+	/**
+	 * Loads a hierarchy saved by save, the paths are made of the nodes of the given graph
+	 * (the graph the hierarchy was built for).
+	 * @param file - the file name (may include a relative path)
+	 * @param g - the graph
+	 * @return ContractionHierarchy - the hierarchy
+	 * @throws IOException if the file can not be read, is not a hierarchy, or a node is not in the graph
+	 */
+	public static ContractionHierarchy load(String file, directed_weighted_graph g) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a contraction hierarchy: " + file);
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported contraction hierarchy version " + version + ": " + file);
+			}
+			int n = in.readInt();
+			int up = in.readInt();
+			int down = in.readInt();
+			if (n < 0 || up < 0 || down < 0) {
+				throw new IOException("Corrupted contraction hierarchy: " + file);
+			}
+			if (n != g.nodeSize()) {
+				throw new IOException("The hierarchy has " + n + " nodes, the graph " + g.nodeSize() + ": " + file);
+			}
+			IntHashMap<node_data> nodes = new IntHashMap<>(n);
+			for (int v = 0; v < n; v++) {
+				int key = in.readInt();
+				node_data node = g.getNode(key);
+				if (node == null) {
+					throw new IOException("Node " + key + " of the hierarchy is not in the graph: " + file);
+				}
+				nodes.put(key, node);
+			}
+			int[] rank = readInts(in, n);
+			int[] upStart = readInts(in, n + 1);
+			int[] upTo = readInts(in, up);
+			int[] upMiddle = readInts(in, up);
+			double[] upWeight = readDoubles(in, up);
+			int[] downStart = readInts(in, n + 1);
+			int[] downFrom = readInts(in, down);
+			int[] downMiddle = readInts(in, down);
+			double[] downWeight = readDoubles(in, down);
+			return new ContractionHierarchy(nodes, rank, upStart, upTo, upMiddle, upWeight,
+					downStart, downFrom, downMiddle, downWeight);
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	private static int[] readInts(DataInputStream in, int size) throws IOException {
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+
+	private static double[] readDoubles(DataInputStream in, int size) throws IOException {
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = in.readDouble();
+		}
+		return values;
+	}
+
+	/**
+	 * The scratch data of a query: the distances and parents of the search up from src and the search up to dest.
+	 */
+	private final class Query {
+		private final double[] upDist = new double[rank.length];
+		private final double[] downDist = new double[rank.length];
+		private final int[] upParent = new int[rank.length];
+		private final int[] downParent = new int[rank.length];
+		private final int[] touched = new int[rank.length];
+		private int touchedSize;
+		private final IndexedMinHeap upHeap = new IndexedMinHeap(rank.length);
+		private final IndexedMinHeap downHeap = new IndexedMinHeap(rank.length);
+		// The highest node of the shortest path found by the last query
+		private int meet;
+
+		Query() {
+			Arrays.fill(upDist, Double.POSITIVE_INFINITY);
+			Arrays.fill(downDist, Double.POSITIVE_INFINITY);
+		}
+
+		/**
+		 * Runs the two upward searches, each until its nearest unsettled node is not closer than the best path found.
+		 * @param s - the ordinal of the start node
+		 * @param t - the ordinal of the end node
+		 * @return double - the shortest distance, Double.POSITIVE_INFINITY if t is not reachable
+		 */
+		double run(int s, int t) {
+			for (int i = 0; i < touchedSize; i++) {
+				upDist[touched[i]] = Double.POSITIVE_INFINITY;
+				downDist[touched[i]] = Double.POSITIVE_INFINITY;
+			}
+			touchedSize = 0;
+			touched[touchedSize++] = s;
+			if (t != s) {
+				touched[touchedSize++] = t;
+			}
+			upDist[s] = 0;
+			upParent[s] = -1;
+			upHeap.insert(s, 0);
+			downDist[t] = 0;
+			downParent[t] = -1;
+			downHeap.insert(t, 0);
+			double best = Double.POSITIVE_INFINITY;
+			meet = -1;
+			while (true) {
+				boolean up = !upHeap.isEmpty() && upHeap.peekKey() < best;
+				boolean down = !downHeap.isEmpty() && downHeap.peekKey() < best;
+				if (!up && !down) {
+					break;
+				}
+				int v;
+				if (up && (!down || upHeap.peekKey() <= downHeap.peekKey())) {
+					v = upHeap.poll();
+					if (!isStalled(v, upDist, downStart, downFrom, downWeight)) {
+						relax(v, upDist, upParent, upHeap, upStart, upTo, upWeight);
+					}
+				}
+				else {
+					v = downHeap.poll();
+					if (!isStalled(v, downDist, upStart, upTo, upWeight)) {
+						relax(v, downDist, downParent, downHeap, downStart, downFrom, downWeight);
+					}
+				}
+				if (upDist[v] + downDist[v] < best) {
+					best = upDist[v] + downDist[v];
+					meet = v;
+				}
+			}
+			upHeap.clear();
+			downHeap.clear();
+			return best;
+		}
+
+		/**
+		 * Returns true if a node is reached shorter through an edge from a higher node than by the search (stall on demand),
+		 * then the node is not on a shortest path of the search and its edges are not relaxed.
+		 */
+		private boolean isStalled(int v, double[] dist, int[] start, int[] to, double[] weight) {
+			double d = dist[v];
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				if (dist[to[i]] + weight[i] < d) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void relax(int v, double[] dist, int[] parent, IndexedMinHeap heap, int[] start, int[] to, double[] weight) {
+			double d = dist[v];
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				int u = to[i];
+				double sum = d + weight[i];
+				if (sum < dist[u]) {
+					// Every ordinal is touched at most once by each search
+					if (upDist[u] == Double.POSITIVE_INFINITY && downDist[u] == Double.POSITIVE_INFINITY) {
+						touched[touchedSize++] = u;
+					}
+					dist[u] = sum;
+					parent[u] = v;
+					heap.insertOrDecrease(u, sum);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A growable row of edges of the graph being contracted.
+	 */
+	private static final class Row {
+		int[] to = new int[4];
+		int[] middle = new int[4];
+		double[] weight = new double[4];
+		int size;
+
+		int indexOf(int v) {
+			for (int i = 0; i < size; i++) {
+				if (to[i] == v) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		void add(int v, double w, int m) {
+			if (size == to.length) {
+				to = Arrays.copyOf(to, 2 * size);
+				middle = Arrays.copyOf(middle, 2 * size);
+				weight = Arrays.copyOf(weight, 2 * size);
+			}
+			to[size] = v;
+			middle[size] = m;
+			weight[size] = w;
+			size++;
+		}
+
+		void remove(int v) {
+			int i = indexOf(v);
+			size--;
+			to[i] = to[size];
+			middle[i] = middle[size];
+			weight[i] = weight[size];
+		}
+	}
+
+	/**
+	 * The preprocessing: the graph of the nodes not contracted yet as rows of out and in edges that grow by the shortcuts
+	 * (a contracted node leaves the rows of its neighbors and keeps its own rows, its edges to higher ranks),
+	 * the priority of every node (twice the edges its contraction adds minus the edges it removes,
+	 * plus its contracted neighbors, to spread the contraction over the graph) and the rank it gets.
+	 */
+	private static final class Contraction {
+		private static final byte ACTIVE = 0, IN_ROUND = 1, CONTRACTED = 2;
+
+		final Row[] out, in;
+		final int[] rank;
+		private final byte[] state;
+		private final int[] priority, contractedNeighbors;
+		private final ThreadLocal<Witness> witness;
+
+		Contraction(GraphIndex index) {
+			int n = index.size();
+			out = new Row[n];
+			in = new Row[n];
+			for (int v = 0; v < n; v++) {
+				out[v] = new Row();
+				in[v] = new Row();
+			}
+			for (int v = 0; v < n; v++) {
+				for (int i = index.outStart[v]; i < index.outStart[v + 1]; i++) {
+					int w = index.outTo[i];
+					if (w != v) {
+						out[v].add(w, index.outWeight[i], -1);
+						in[w].add(v, index.outWeight[i], -1);
+					}
+				}
+			}
+			rank = new int[n];
+			state = new byte[n];
+			priority = new int[n];
+			contractedNeighbors = new int[n];
+			witness = ThreadLocal.withInitial(() -> new Witness(n));
+		}
+
+		void run() {
+			int n = rank.length;
+			IntStream.range(0, n).parallel().forEach(v -> priority[v] = priority(v));
+			int contracted = 0;
+			while (contracted < n) {
+				// The nodes of lower priority than all their neighbors, no two of them are neighbors
+				int[] round = IntStream.range(0, n).parallel()
+						.filter(v -> state[v] == ACTIVE && isLocalMinimum(v)).toArray();
+				for (int v : round) {
+					state[v] = IN_ROUND;
+				}
+				Shortcuts[] shortcuts = new Shortcuts[round.length];
+				IntStream.range(0, round.length).parallel().forEach(i -> shortcuts[i] = shortcuts(round[i], true));
+				// The rows change one node after the other, then the neighbors of the round get their new priorities
+				boolean[] touched = new boolean[n];
+				for (int i = 0; i < round.length; i++) {
+					int v = round[i];
+					state[v] = CONTRACTED;
+					rank[v] = contracted++;
+					Shortcuts s = shortcuts[i];
+					for (int j = 0; j < s.size; j++) {
+						connect(s.from[j], s.to[j], s.weight[j], v);
+					}
+					for (int j = 0; j < out[v].size; j++) {
+						int w = out[v].to[j];
+						in[w].remove(v);
+						contractedNeighbors[w]++;
+						touched[w] = true;
+					}
+					for (int j = 0; j < in[v].size; j++) {
+						int u = in[v].to[j];
+						out[u].remove(v);
+						contractedNeighbors[u]++;
+						touched[u] = true;
+					}
+				}
+				IntStream.range(0, n).parallel().filter(v -> touched[v]).forEach(v -> priority[v] = priority(v));
+			}
+		}
+
+		private boolean isLocalMinimum(int v) {
+			return isLocalMinimum(v, out[v]) && isLocalMinimum(v, in[v]);
+		}
+
+		private boolean isLocalMinimum(int v, Row row) {
+			for (int j = 0; j < row.size; j++) {
+				int u = row.to[j];
+				if (priority[u] < priority[v] || (priority[u] == priority[v] && u < v)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private int priority(int v) {
+			return 2 * (shortcuts(v, false).size - out[v].size - in[v].size) + contractedNeighbors[v];
+		}
+
+		/**
+		 * Finds the shortcuts the contraction of v needs: u-v-w for every in neighbor u and out neighbor w
+		 * unless a witness path from u to w not longer than it avoids v.
+		 * @param v - the node
+		 * @param round - true if the nodes of the round (v among them) are being contracted,
+		 * then the witness paths avoid all of them, else only v (to estimate the priority)
+		 * @return Shortcuts - the shortcuts
+		 */
+		private Shortcuts shortcuts(int v, boolean round) {
+			Shortcuts result = new Shortcuts();
+			Row ins = in[v];
+			Row outs = out[v];
+			Witness search = witness.get();
+			for (int i = 0; i < ins.size; i++) {
+				int u = ins.to[i];
+				double limit = -1;
+				for (int j = 0; j < outs.size; j++) {
+					int w = outs.to[j];
+					if (w != u) {
+						limit = Math.max(limit, ins.weight[i] + outs.weight[j]);
+					}
+				}
+				if (limit < 0) {
+					continue;
+				}
+				search.run(out, state, u, v, round, limit);
+				for (int j = 0; j < outs.size; j++) {
+					int w = outs.to[j];
+					double through = ins.weight[i] + outs.weight[j];
+					if (w != u && search.dist(w) > through) {
+						result.add(u, w, through);
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Adds the shortcut from u to w skipping v, or lowers the weight of the edge from u to w.
+		 */
+		private void connect(int u, int w, double weight, int v) {
+			int i = out[u].indexOf(w);
+			if (i == -1) {
+				out[u].add(w, weight, v);
+				in[w].add(u, weight, v);
+			}
+			else if (weight < out[u].weight[i]) {
+				out[u].weight[i] = weight;
+				out[u].middle[i] = v;
+				int j = in[w].indexOf(u);
+				in[w].weight[j] = weight;
+				in[w].middle[j] = v;
+			}
+		}
+	}
+
+	/**
+	 * The shortcuts of a node: from, to and weight.
+	 */
+	private static final class Shortcuts {
+		int[] from = new int[4];
+		int[] to = new int[4];
+		double[] weight = new double[4];
+		int size;
+
+		void add(int u, int w, double d) {
+			if (size == from.length) {
+				from = Arrays.copyOf(from, 2 * size);
+				to = Arrays.copyOf(to, 2 * size);
+				weight = Arrays.copyOf(weight, 2 * size);
+			}
+			from[size] = u;
+			to[size] = w;
+			weight[size] = d;
+			size++;
+		}
+	}
+
+	/**
+	 * A Dijkstra search over the nodes not contracted yet, limited by distance and by settled nodes.
+	 */
+	private static final class Witness {
+		private final double[] dist;
+		private final int[] touched;
+		private int touchedSize;
+		private final IndexedMinHeap heap;
+
+		Witness(int n) {
+			dist = new double[n];
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+			touched = new int[n];
+			heap = new IndexedMinHeap(n);
+		}
+
+		void run(Row[] out, byte[] state, int src, int avoid, boolean round, double limit) {
+			for (int i = 0; i < touchedSize; i++) {
+				dist[touched[i]] = Double.POSITIVE_INFINITY;
+			}
+			touchedSize = 0;
+			dist[src] = 0;
+			touched[touchedSize++] = src;
+			heap.insert(src, 0);
+			int settled = 0;
+			while (!heap.isEmpty() && heap.peekKey() <= limit && settled++ < (round ? WITNESS_LIMIT : ESTIMATE_LIMIT)) {
+				int v = heap.poll();
+				Row row = out[v];
+				for (int i = 0; i < row.size; i++) {
+					int u = row.to[i];
+					if (u == avoid || (round && state[u] != Contraction.ACTIVE)) {
+						continue;
+					}
+					double sum = dist[v] + row.weight[i];
+					if (sum < dist[u]) {
+						if (dist[u] == Double.POSITIVE_INFINITY) {
+							touched[touchedSize++] = u;
+						}
+						dist[u] = sum;
+						heap.insertOrDecrease(u, sum);
+					}
+				}
+			}
+			heap.clear();
+		}
+
+		double dist(int v) {
+			return dist[v];
+		}
+	}
+}
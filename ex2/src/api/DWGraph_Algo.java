@@ -1,24 +1,18 @@
 package api;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.lang.reflect.Type;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.stream.IntStream;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 
 /**
@@ -27,16 +21,26 @@ import com.google.gson.JsonParseException;
  * 0. clone(); (copy)
  * 1. init(graph);
  * 2. isConnected(); // strongly (all ordered pais connected)
+ * 2.1. stronglyConnectedComponents();
  * 3. double shortestPathDist(int src, int dest);
+ * 3.1. double[][] shortestPathDist(int[] sources, int[] targets); // in parallel
  * 4. List of node_data - shortestPath(int src, int dest);
- * 5. Save(file); // JSON file
+ * 4.1. setPathStrategy(strategy); // Dijkstra, A* or bidirectional Dijkstra for 3 and 4
+ * 5. Save(file); // JSON file (the format of the game)
  * 6. Load(file); // JSON file
+ * 7. saveSnapshot(file) / loadSnapshot(file); // binary snapshot, loaded by memory mapping
+ * The queries may be called from several threads at once, as long as the graph is not changed meanwhile
+ * (a DWGraph_Concurrent may be changed meanwhile, every query sees a consistent state of it).
  */
 public class DWGraph_Algo implements dw_graph_algorithms {
 
 	private directed_weighted_graph graph;
-	// HashMap that holds for each node the information gathered by the Dijkstra algorithm 
-	private HashMap<Integer, DijkstraNodeInfo> dijkstraNodeMap;
+	// Array snapshot of the graph, rebuilt whenever the graph changes
+	private volatile GraphIndex index;
+	// Scratch data of the Dijkstra algorithm (distances, parents and the indexed heap), one per thread
+	private final ThreadLocal<DijkstraSearch> search = ThreadLocal.withInitial(DijkstraSearch::new);
+	// The algorithm of a single pair shortest path
+	private volatile PathStrategy strategy = PathStrategy.DIJKSTRA;
 
 	/**
 	 * Init the graph on which this set of algorithms operates on.
@@ -58,12 +62,24 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 
 	/**
 	 * Compute a deep copy of this weighted graph.
+	 * A DWGraph_Persistent is copied in O(1) by a snapshot that shares its structure,
+	 * any other graph (DWGraph_Frozen and DWGraph_Mapped too) is copied to a DWGraph_DS that can be changed.
 	 * @return directed_weighted_graph - copied graph
 	 */
 	@Override
 	public directed_weighted_graph copy() {
 		// If this graph is not null, then copy
 		if (this.graph != null) {
+			// Keep the implementation that was chosen when the graph was constructed
+			if (this.graph instanceof DWGraph_Persistent) {
+				return ((DWGraph_Persistent) this.graph).snapshot();
+			}
+			if (this.graph instanceof DWGraph_IntDS) {
+				return new DWGraph_IntDS(this.graph);
+			}
+			if (this.graph instanceof DWGraph_Concurrent) {
+				return new DWGraph_Concurrent(this.graph);
+			}
 			// Using deep copy constructor in DWGraph_DS class
 			return new DWGraph_DS(this.graph);
 
@@ -75,8 +91,8 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 	 * Returns true if and only if there is a valid path from each node to each
 	 * other node. NOTE: assume directional graph (all n*(n-1) ordered pairs).
 	 * If graph is null or size of nodes in the graph is zero or equals to one, then graph is connected.
-	 * This function uses Dijkstra algorithm to gather information about each node
-	 * by passing all the nodes in the graph. 
+	 * This function runs one traversal over the edges and one over the reversed edges (the parents)
+	 * from the same node, the graph is strongly connected iff both reach all the nodes, O(n+e) time.
 	 * @return boolean - true if graph is strongly connected and false if not connected
 	 */
 	@Override
@@ -87,16 +103,32 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 		if (graph == null || graph.getV().size() <= 1) {
 			return true;
 		}
-		// Loop over the nodes in the graph
-		for (node_data node : graph.getV()) {
-			// Use the private function Dijkstra to save all sum weights that were passed through in the HashMap
-			Dijkstra(node.getKey(), null);
-			// If the amount of nodes in the graph is not equal to the amount in the HashMap, then the graph is not connected
-			if (dijkstraNodeMap.size() != graph.nodeSize()) {
-				return false;
-			}
+		return StrongComponents.isStronglyConnected(index());
+	}
+
+	/**
+	 * Returns the strongly connected components of the graph, in each component
+	 * every node has a path to every other node of the component.
+	 * The components are computed by the Tarjan algorithm in O(n+e) time and are
+	 * in reverse topological order: no edge goes from a component to an earlier component in the list.
+	 * A node which can not reach (or be reached by) a node lies in a different component.
+	 * @return List of the components, each is a List of node_data (empty if the graph is null)
+	 */
+	public List<List<node_data>> stronglyConnectedComponents() {
+		List<List<node_data>> components = new ArrayList<>();
+		if (graph == null) {
+			return components;
 		}
-		return true;
+		GraphIndex index = index();
+		int[] component = new int[index.size()];
+		int count = StrongComponents.components(index, component);
+		for (int i = 0; i < count; i++) {
+			components.add(new ArrayList<>());
+		}
+		for (int v = 0; v < index.size(); v++) {
+			components.get(component[v]).add(index.nodeOf(v));
+		}
+		return components;
 	}
 
 	/**
@@ -116,15 +148,51 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 		if (src == dest) {
 			return 0;
 		}
-		// Using Dijkstra algorithm to find the shortest path according to the weight from src to dest
-		Dijkstra(src,dest);
-		// If the hashMap does not contain the dest key, then it did not reach the dest node,
-		// then return -1
-		if (!dijkstraNodeMap.containsKey(dest)) {
-			return -1;
+		// Using the chosen algorithm to find the shortest path according to the weight from src to dest
+		GraphIndex index = index();
+		double dist = search(this.search.get(), index, index.ordinalOf(src), index.ordinalOf(dest), strategy);
+		// If the distance is infinite, then it did not reach the dest node, then return -1
+		return dist == Double.POSITIVE_INFINITY ? -1 : dist;
+	}
+
+	/**
+	 * Returns the length of the shortest path between every source to every target:
+	 * dist[i][j] is the distance from sources[i] to targets[j], -1 if no such path (or a node is not in the graph).
+	 * One Dijkstra search runs from every source, the sources are split between the workers
+	 * of the common ForkJoinPool and every worker uses its own scratch arrays.
+	 * @param sources - the start nodes
+	 * @param targets - the end (target) nodes
+	 * @return double[][] - the distance matrix, sources.length x targets.length
+	 */
+	public double[][] shortestPathDist(int[] sources, int[] targets) {
+		double[][] dist = new double[sources.length][targets.length];
+		if (graph == null) {
+			for (double[] row : dist) {
+				Arrays.fill(row, -1);
+			}
+			return dist;
+		}
+		GraphIndex index = index();
+		int[] targetOrdinals = new int[targets.length];
+		for (int j = 0; j < targets.length; j++) {
+			targetOrdinals[j] = index.ordinalOf(targets[j]);
 		}
-		// Returns the sum of the weights from dest node which was set to the shortest distance from src
-		return dijkstraNodeMap.get(dest).getSumWeight();
+		// A single target lets every search stop as soon as it is settled
+		int stop = targets.length == 1 ? targetOrdinals[0] : -1;
+		IntStream.range(0, sources.length).parallel().forEach(i -> {
+			int src = index.ordinalOf(sources[i]);
+			if (src == -1) {
+				Arrays.fill(dist[i], -1);
+				return;
+			}
+			DijkstraSearch search = this.search.get();
+			search.run(index, src, stop);
+			for (int j = 0; j < targets.length; j++) {
+				double d = targetOrdinals[j] == -1 ? Double.POSITIVE_INFINITY : search.dist(targetOrdinals[j]);
+				dist[i][j] = d == Double.POSITIVE_INFINITY ? -1 : d;
+			}
+		});
+		return dist;
 	}
 
 	/**
@@ -137,9 +205,8 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 	 */
 	@Override
 	public List<node_data> shortestPath(int src, int dest) {
-		// If the distance of the shortest path is equal to -1, then there is no path,
-		// or if the graph is empty, then return null
-		if (shortestPathDist(src, dest) == -1 || graph.getV().isEmpty()) {
+		// If the graph is null or src or dest are not in the graph, then there is no path, then return null
+		if (graph == null || graph.getNode(src) == null || graph.getNode(dest) == null) {
 			return null;
 		}
 		// List of nodes of the shortest path
@@ -149,70 +216,103 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 			list.add(graph.getNode(src));
 			return list;
 		}
-
-		// Add the dest node to the list
-		node_data destNode = graph.getNode(dest);
-		list.add(destNode);
-		boolean finished = false;
-		int nextNodeIndex = 0;
-		// While loop, adds shortest path from dest -> src
-		while (!finished) {
-			// Get the next node data from the list
-			node_data node = list.get(nextNodeIndex);
-			// Add the parent to the list and increment the index
-			list.add(dijkstraNodeMap.get(node.getKey()).getParent());
-			nextNodeIndex++;
-			// If reached the src node, then we have all the nodes from dest to src and we can end the loop
-			if(list.get(list.size() - 1) == graph.getNode(src)){
-				finished = true;
-			}
+		GraphIndex index = index();
+		int destOrdinal = index.ordinalOf(dest);
+		DijkstraSearch search = this.search.get();
+		PathStrategy strategy = this.strategy;
+		// If the distance is infinite, then it did not reach the dest node, then return null
+		if (search(search, index, index.ordinalOf(src), destOrdinal, strategy) == Double.POSITIVE_INFINITY) {
+			return null;
+		}
+		// The bidirectional search meets in the middle, the rest of the path is after the meet node
+		int last = strategy == PathStrategy.BIDIRECTIONAL ? search.meet() : destOrdinal;
+		// Walk the parents from last -> src, each step is O(1)
+		for (int v = last; v != -1; v = search.parent(v)) {
+			list.add(index.nodeOf(v));
 		}
 		// Using reverse function from collections, because we want the list to be from src -> dest
 		Collections.reverse(list);
+		if (last != destOrdinal) {
+			for (int v = search.next(last); v != -1; v = search.next(v)) {
+				list.add(index.nodeOf(v));
+			}
+		}
 		return list;
 	}
 
-	/** 
-	 * Private function that uses Dijkstra algorithm from src to dest nodes and for each node it saves
-	 * the minimum sum weight and its parent calculated from src.
-	 * @param src - starting node
-	 * @param dest - end (target) node
+	/**
+	 * Sets the algorithm of shortestPathDist(src, dest) and shortestPath(src, dest), they all find a shortest path:
+	 * A* settles fewer nodes when the weights of the edges grow with their lengths (like the game graphs),
+	 * the bidirectional search when they do not (or the nodes have no locations).
+	 * The default is the Dijkstra algorithm.
+	 * @param strategy - the algorithm
 	 */
-	private void Dijkstra(Integer src, Integer dest) {
-		dijkstraNodeMap = new HashMap<>();
-		// This priority queue is used for the Dijkstra algorithm, its priority is sorted according to the weights
-		Queue<node_data> queue = new PriorityQueue<>(new WeightComparator());
-		// Add the src node to the queue
-		node_data nodeSrc = graph.getNode(src);
-		queue.add(nodeSrc);
-		// Create DijkstraNodeInfo instance that holds the src (with sum weight of 0) node info and put it in the map
-		dijkstraNodeMap.put(src, new DijkstraNodeInfo(0, null));
+	public void setPathStrategy(PathStrategy strategy) {
+		if (strategy == null) {
+			throw new IllegalArgumentException("The path strategy must not be null");
+		}
+		this.strategy = strategy;
+	}
 
-		// Loop while queue is not empty
-		while (!queue.isEmpty()) {
-			// Get the node with the lowest weight from the priority queue
-			node_data node = queue.poll();
-			// Loop over all the edges of this node
-			for (edge_data edge : graph.getE(node.getKey())) {
-				// Calculate the sum weight by adding to the current weight of the edge to the previous sum weight
-				double sumWeight = edge.getWeight() + dijkstraNodeMap.get(node.getKey()).getSumWeight();
-				node_data neighbor = graph.getNode(edge.getDest());
-				// Check if the neighbor does not exists in the map and the queue
-				if (!dijkstraNodeMap.containsKey(neighbor.getKey()) && !queue.contains(neighbor)) {
-					// Add the neighbor to the map and to the queue
-					dijkstraNodeMap.put(edge.getDest(), new DijkstraNodeInfo(sumWeight, node));
-					queue.add(neighbor);
-				}
-				// If the neighbor already exists in the map and the sumWeight is lower, then replace it in the map
-				else if (sumWeight < dijkstraNodeMap.get(edge.getDest()).getSumWeight()) {
-					dijkstraNodeMap.put(edge.getDest(), new DijkstraNodeInfo(sumWeight, node));
-				}
-				// If the current node is equal to dest then return
-				if (dest != null && node.getKey() == dest){
-					return;
-				}
-			}
+	/**
+	 * Returns the algorithm of shortestPathDist(src, dest) and shortestPath(src, dest).
+	 * @return PathStrategy - the algorithm
+	 */
+	public PathStrategy getPathStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Returns the number of nodes settled by the last single pair shortest path query of the calling thread
+	 * (in both directions of a bidirectional search), to compare the strategies.
+	 * @return int - the number of settled nodes, 0 if this thread did not run a search
+	 */
+	public int lastSettled() {
+		return search.get().settledTotal();
+	}
+
+	/**
+	 * Runs a single pair search with the given algorithm.
+	 * @param search - the scratch data of this thread
+	 * @param index - the snapshot of the graph
+	 * @param src - the ordinal of the start node
+	 * @param dest - the ordinal of the end (target) node
+	 * @param strategy - the algorithm
+	 * @return double - the shortest distance, Double.POSITIVE_INFINITY if there is no path
+	 */
+	private static double search(DijkstraSearch search, GraphIndex index, int src, int dest, PathStrategy strategy) {
+		switch (strategy) {
+			case BIDIRECTIONAL:
+				return search.runBidirectional(index, src, dest);
+			case A_STAR:
+				search.runAStar(index, src, dest);
+				break;
+			default:
+				search.run(index, src, dest);
+		}
+		return search.dist(dest);
+	}
+
+	/**
+	 * Returns the array snapshot of the graph, builds a new one if the graph changed since the last call.
+	 * The snapshot of a DWGraph_Frozen is the graph's own arrays, so it is never built,
+	 * a DWGraph_Concurrent is read while holding its locks, so the snapshot is a consistent state of it.
+	 * @return GraphIndex - the snapshot of the graph
+	 */
+	private GraphIndex index() {
+		// A frozen graph never changes and comes with its own snapshot
+		if (graph instanceof DWGraph_Frozen) {
+			return ((DWGraph_Frozen) graph).index();
 		}
+		// Read the field once, another thread may replace it meanwhile
+		GraphIndex current = index;
+		if (current == null || !current.isValidFor(graph)) {
+			directed_weighted_graph g = graph;
+			// Other threads may change a concurrent graph, it is read while none of them can
+			current = g instanceof DWGraph_Concurrent ? ((DWGraph_Concurrent) g).locked(() -> new GraphIndex(g)) : new GraphIndex(g);
+			index = current;
+		}
+		return current;
 	}
 
 	/**
@@ -223,18 +323,14 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 	 */
 	@Override
 	public boolean save(String file) {
-		// Create JSON string from the graph
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		String json = gson.toJson(this.graph);	
-		try
-		{
-			// Write graph object which is in JSON format
-			PrintWriter pw = new PrintWriter(new File(file));
-			pw.write(json);
-			// Close PrintWriter
-			pw.close();
-		} 
-		catch (FileNotFoundException e) {
+		if (file == null || this.graph == null) {
+			return false;
+		}
+		// Write the graph in the JSON format of the game
+		try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+			GraphJson.write(this.graph, writer);
+		}
+		catch (IOException e) {
 			e.printStackTrace();
 			return false;
 		}
@@ -242,31 +338,18 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 	}
 
 	/**
-	 * This method load a graph to this graph algorithm.
-	 * if the file was successfully loaded - the underlying graph
-	 * of this class will be changed (to the loaded one), in case the
-	 * graph was not loaded the original graph should remain "as is".
-	 * @param file - file name of JSON file
-	 * @return true - if and only if the graph was successfully loaded
+	 * Saves this graph to the given file name as a binary snapshot (see DWGraph_Mapped),
+	 * which can be loaded back almost instantly by loadSnapshot.
+	 * @param file - the file name (may include a relative path)
+	 * @return true - if and only if the file was successfully saved
 	 */
-	@Override
-	public boolean load(String file) {
-		try 
-		{
-			// Create GsonBuilder
-			GsonBuilder gsonBuilder = new GsonBuilder();
-			gsonBuilder.setLenient();
-			// Register interfaces to classes so the GSON builder can use its constructors
-			gsonBuilder.registerTypeAdapter(node_data.class, new InterfaceAdapter<>(NodeData.class));
-			gsonBuilder.registerTypeAdapter(edge_data.class, new InterfaceAdapter<>(EdgeData.class));
-			// Create Gson from GsonBuilder
-			Gson gson = gsonBuilder.create();
-			// Read from JSON string to create the graph
-			FileReader reader = new FileReader(file);
-			this.graph = gson.fromJson(reader, DWGraph_DS.class);
-			// Close FileReader
-			reader.close();
-		} 
+	public boolean saveSnapshot(String file) {
+		if (file == null || this.graph == null) {
+			return false;
+		}
+		try {
+			DWGraph_Mapped.save(this.graph, file);
+		}
 		catch (IOException e) {
 			e.printStackTrace();
 			return false;
@@ -275,75 +358,52 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 	}
 
 	/**
-	 * This private class implements JsonDeserializer interface with generic type,
-	 * This is needed for the GsonBuilder to be able to deserialize interfaces.
+	 * Loads a binary snapshot saved by saveSnapshot, the file is memory mapped
+	 * and the graph is a read only view of it (use copy() for a graph that can be changed).
+	 * The file must not be changed while the graph is in use.
+	 * In case the graph was not loaded the original graph remains "as is".
+	 * @param file - the file name (may include a relative path)
+	 * @return true - if and only if the graph was successfully loaded
 	 */
-	private class InterfaceAdapter<T> implements JsonDeserializer<T> {
-
-		// Class that implements the interface
-		private Class<T> targetClass;
-
-		// Constructor
-		public InterfaceAdapter(Class<T> targetClass) {
-			this.targetClass = targetClass;
+	public boolean loadSnapshot(String file) {
+		if (file == null) {
+			return false;
 		}
-
-		// Override the deserialize method, so that the targetClass will be used to as a constructor for the interface
-		@Override
-		public T deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-			return context.deserialize(json.getAsJsonObject(), targetClass);
+		try {
+			this.graph = DWGraph_Mapped.load(file);
 		}
-	}
-
-	/**
-	 * This class implements Comparator interface and compare weights
-	 * that are used to save the distance from src.
-	 * This is needed for the priority queue.
-	 */
-	private class WeightComparator implements Comparator<node_data> {
-
-		/**
-		 * Overrides compare method by tag (weight), if node1 is greater than node2 return 1,
-		 * if node1 is less than node2 return -1, else return 0.
-		 * used in the priorityQueue.
-		 * @param node1 - node1 to compare
-		 * @param node2 - node2 to compare
-		 * @return If node1 is greater than node2 return 1, if node1 is less than node2 return -1, else return 0.
-		 */
-		@Override
-		public int compare(node_data node1, node_data node2) {
-			double sum1 = dijkstraNodeMap.get(node1.getKey()).getSumWeight();
-			double sum2 = dijkstraNodeMap.get(node2.getKey()).getSumWeight();
-			if (sum1 > sum2) {
-				return 1;
-			} else if (sum1 <sum2) {
-				return -1;
-			}
-			return 0;
+		catch (IOException e) {
+			e.printStackTrace();
+			return false;
 		}
+		return true;
 	}
 
 	/**
-	 * This private class represents node information gathered by the Dijkstra algorithm.
+	 * This method load a graph to this graph algorithm.
+	 * if the file was successfully loaded - the underlying graph
+	 * of this class will be changed (to the loaded one), in case the
+	 * graph was not loaded the original graph should remain "as is".
+	 * The file is read as a stream (see GraphJson), both the JSON format of the game
+	 * and the older format of this method are accepted, a binary snapshot is loaded by loadSnapshot.
+	 * @param file - file name of JSON file
+	 * @return true - if and only if the graph was successfully loaded
 	 */
-	private class DijkstraNodeInfo {
-		// The sum weight from src to this node
-		private double sumWeight;
-		// The parent of this node from src
-		private node_data parent;
-
-		// Constructor
-		public DijkstraNodeInfo(double sumWeight, node_data parent) {
-			this.parent = parent;
-			this.sumWeight = sumWeight;
+	@Override
+	public boolean load(String file) {
+		if (file == null) {
+			return false;
 		}
-
-		public double getSumWeight(){
-			return sumWeight;
+		if (DWGraph_Mapped.isSnapshot(file)) {
+			return loadSnapshot(file);
 		}
-
-		public node_data getParent() {
-			return parent;
+		try (Reader reader = new BufferedReader(new FileReader(file))) {
+			this.graph = GraphJson.read(reader);
+		}
+		catch (IOException | JsonParseException e) {
+			e.printStackTrace();
+			return false;
 		}
+		return true;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,349 @@
+package api;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * This class implements directed_weighted_graph interface
+ * that represents a directional weighted graph, same as DWGraph_DS,
+ * but it may be read and changed by several threads at once (e.g. the game thread changing the graph
+ * while planners and the drawing thread read it).
+ * The nodes and the adjacency are kept in ConcurrentHashMaps, so the reads take no lock:
+ * getNode and getEdge see every completed change, and the collections of getV, getE and getInE are
+ * weakly consistent views (they never throw ConcurrentModificationException, and see the changes made
+ * while iterating or not).
+ * The changes are guarded by striped locks, the stripe of a node is chosen by its key:
+ * addNode takes the stripe of the node, connect and removeEdge take the stripes of both nodes
+ * (in the order of the stripes, so they never deadlock), so changes of unrelated nodes run in parallel.
+ * removeNode changes the rows of all the neighbors of the node, so it takes all the stripes.
+ * edgeSize and the mode counter are atomic, so they are exact under any number of writers.
+ */
+public class DWGraph_Concurrent implements directed_weighted_graph {
+
+	// The number of lock stripes, a power of 2
+	private static final int STRIPES = 64;
+
+	// This map holds the nodes of this graph
+	private final ConcurrentHashMap<Integer, node_data> nodes;
+	// This map holds the node neighbors and the edges between them
+	private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, edge_data>> neighbors;
+	// This map holds the parents of nodes in the graph
+	private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, edge_data>> parents;
+	private final AtomicInteger edgeSize, mc;
+	private final ReentrantLock[] locks;
+
+	/**
+	 * Default constructor.
+	 */
+	public DWGraph_Concurrent() {
+		this.nodes = new ConcurrentHashMap<>();
+		this.neighbors = new ConcurrentHashMap<>();
+		this.parents = new ConcurrentHashMap<>();
+		this.edgeSize = new AtomicInteger();
+		this.mc = new AtomicInteger();
+		this.locks = new ReentrantLock[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Deep copy constructor that copies
+	 * an existing graph and creates a new graph.
+	 * A DWGraph_Concurrent is copied while holding all of its stripes, so the copy is a consistent state of it.
+	 * @param g - directed_weighted_graph
+	 */
+	public DWGraph_Concurrent(directed_weighted_graph g) {
+		this();
+		// Check if graph is null else copy
+		if (g == null) {
+			return;
+		}
+		if (g instanceof DWGraph_Concurrent) {
+			((DWGraph_Concurrent) g).locked(() -> {
+				copy(g);
+				return null;
+			});
+		}
+		else {
+			copy(g);
+		}
+	}
+
+	private void copy(directed_weighted_graph g) {
+		// Loop and create new nodes and copy content from each node
+		for (node_data n : g.getV()) {
+			nodes.put(n.getKey(), new NodeData(n.getKey()));
+		}
+		// Loop through the edges of each node
+		for (node_data node : g.getV()) {
+			for (edge_data edge : g.getE(node.getKey())) {
+				connect(edge.getSrc(), edge.getDest(), edge.getWeight());
+			}
+		}
+		// Set the mode counter and edge size to the same value as the copied graph
+		this.edgeSize.set(g.edgeSize());
+		this.mc.set(g.getMC());
+	}
+
+	/**
+	 * Runs the action while holding all the stripes, so no other thread changes the graph meanwhile
+	 * (the readers are not blocked). Used by the graph algorithms to read a consistent state of the graph.
+	 * @param action - the action
+	 * @param <T> - the type of the result
+	 * @return T - the result of the action
+	 */
+	<T> T locked(Supplier<T> action) {
+		for (ReentrantLock lock : locks) {
+			lock.lock();
+		}
+		try {
+			return action.get();
+		}
+		finally {
+			for (int i = STRIPES - 1; i >= 0; i--) {
+				locks[i].unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the lock stripe of the node key.
+	 */
+	private static int stripe(int key) {
+		return (key * 0x9E3779B9) >>> 26;
+	}
+
+	/**
+	 * Takes the stripes of both nodes, the lower stripe first.
+	 */
+	private void lock(int key1, int key2) {
+		int a = stripe(key1), b = stripe(key2);
+		locks[Math.min(a, b)].lock();
+		if (a != b) {
+			locks[Math.max(a, b)].lock();
+		}
+	}
+
+	/**
+	 * Releases the stripes taken by lock(key1, key2).
+	 */
+	private void unlock(int key1, int key2) {
+		int a = stripe(key1), b = stripe(key2);
+		if (a != b) {
+			locks[Math.max(a, b)].unlock();
+		}
+		locks[Math.min(a, b)].unlock();
+	}
+
+	/**
+	 * Returns the node_data by the node_id,
+	 * @param key - the node_id
+	 * @return the node_data by the node_id, null if none.
+	 */
+	@Override
+	public node_data getNode(int key) {
+		return nodes.get(key);
+	}
+
+	/**
+	 * Returns the data of the edge (src,dest), null if none.
+	 * @param src - the start node
+	 * @param dest - end (target) node
+	 * @return edge_data edge
+	 */
+	@Override
+	public edge_data getEdge(int src, int dest) {
+		// An edge can only exist between two nodes of the graph, so one lookup in the neighbors is enough
+		ConcurrentHashMap<Integer, edge_data> edges = neighbors.get(src);
+		return edges == null ? null : edges.get(dest);
+	}
+
+	/**
+	 * Adds a new node to the graph with the given node_data.
+	 * @param n - node needed to be added to the graph
+	 */
+	@Override
+	public void addNode(node_data n) {
+		ReentrantLock lock = locks[stripe(n.getKey())];
+		lock.lock();
+		try {
+			if (nodes.putIfAbsent(n.getKey(), n) == null) {
+				mc.incrementAndGet();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Connects an edge with weight w between node src to node dest.
+	 * @param src - the source of the edge.
+	 * @param dest - the destination of the edge.
+	 * @param w - positive weight representing the cost (aka time, price, etc) between src--dest.
+	 */
+	@Override
+	public void connect(int src, int dest, double w) {
+		if (src == dest || w < 0) {
+			return;
+		}
+		lock(src, dest);
+		try {
+			// The nodes can not be removed while their stripes are held
+			if (!nodes.containsKey(src) || !nodes.containsKey(dest)) {
+				return;
+			}
+			ConcurrentHashMap<Integer, edge_data> out = neighbors.computeIfAbsent(src, k -> new ConcurrentHashMap<>());
+			edge_data old = out.get(dest);
+			// Same as DWGraph_DS, an edge of the same weight is not changed
+			if (old != null && old.getWeight() == w) {
+				return;
+			}
+			edge_data edge = new EdgeData(src, dest, w);
+			out.put(dest, edge);
+			parents.computeIfAbsent(dest, k -> new ConcurrentHashMap<>()).put(src, edge);
+			if (old == null) {
+				edgeSize.incrementAndGet();
+			}
+			mc.incrementAndGet();
+		}
+		finally {
+			unlock(src, dest);
+		}
+	}
+
+	/**
+	 * This method returns a weakly consistent view of all the nodes in the graph.
+	 * @return Collection of node_data
+	 */
+	@Override
+	public Collection<node_data> getV() {
+		return nodes.values();
+	}
+
+	/**
+	 * This method returns a weakly consistent view of all the edges getting out of
+	 * the given node (all the edges starting (source) at the given node).
+	 * @return Collection of edge_data
+	 */
+	@Override
+	public Collection<edge_data> getE(int node_id) {
+		ConcurrentHashMap<Integer, edge_data> edges = neighbors.get(node_id);
+		if (edges == null) {
+			return Collections.emptyList();
+		}
+		return edges.values();
+	}
+
+	/**
+	 * This method returns a weakly consistent view of all the edges getting into
+	 * the given node (all the edges ending (destination) at the given node).
+	 * @param node_id - the key of the node
+	 * @return Collection of edge_data
+	 */
+	public Collection<edge_data> getInE(int node_id) {
+		ConcurrentHashMap<Integer, edge_data> edges = parents.get(node_id);
+		if (edges == null) {
+			return Collections.emptyList();
+		}
+		return edges.values();
+	}
+
+	/**
+	 * Deletes the node (with the given ID) from the graph -
+	 * and removes all edges which starts or ends at this node.
+	 * Takes all the stripes, as the rows of all the neighbors of the node change.
+	 * @return the data of the removed node (null if none).
+	 * @param key - the key of the node that needed to be removed from the graph
+	 */
+	@Override
+	public node_data removeNode(int key) {
+		if (!nodes.containsKey(key)) {
+			return null;
+		}
+		return locked(() -> {
+			node_data node = nodes.remove(key);
+			if (node == null) {
+				return null;
+			}
+			ConcurrentHashMap<Integer, edge_data> out = neighbors.remove(key);
+			if (out != null) {
+				for (edge_data edge : out.values()) {
+					parents.get(edge.getDest()).remove(key);
+					edgeSize.decrementAndGet();
+					mc.incrementAndGet();
+				}
+			}
+			ConcurrentHashMap<Integer, edge_data> in = parents.remove(key);
+			if (in != null) {
+				for (edge_data edge : in.values()) {
+					neighbors.get(edge.getSrc()).remove(key);
+					edgeSize.decrementAndGet();
+					mc.incrementAndGet();
+				}
+			}
+			mc.incrementAndGet();
+			return node;
+		});
+	}
+
+	/**
+	 * Deletes the edge from the graph,
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return edge_data - the data of the removed edge (null if none).
+	 */
+	@Override
+	public edge_data removeEdge(int src, int dest) {
+		if (getEdge(src, dest) == null) {
+			return null;
+		}
+		lock(src, dest);
+		try {
+			ConcurrentHashMap<Integer, edge_data> out = neighbors.get(src);
+			edge_data edge = out == null ? null : out.remove(dest);
+			if (edge == null) {
+				return null;
+			}
+			parents.get(dest).remove(src);
+			edgeSize.decrementAndGet();
+			mc.incrementAndGet();
+			return edge;
+		}
+		finally {
+			unlock(src, dest);
+		}
+	}
+
+	/**
+	 * Returns the number of vertices (nodes) in the graph.
+	 * @return int node size - the number of nodes in the graph
+	 */
+	@Override
+	public int nodeSize() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the number of edges (assume directional graph).
+	 * @return int edge size - the number of edges in the graph
+	 */
+	@Override
+	public int edgeSize() {
+		return edgeSize.get();
+	}
+
+	/**
+	 * Returns the Mode Count - for testing changes in the graph.
+	 * @return int mode counter - the count of any changes in the graph
+	 */
+	@Override
+	public int getMC() {
+		return mc.get();
+	}
+}
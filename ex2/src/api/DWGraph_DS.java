@@ -1,5 +1,7 @@
 package api;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -11,52 +13,75 @@ import java.util.HashMap;
 public class DWGraph_DS implements directed_weighted_graph {
 
 	// This HashMap holds the nodes of this graph
-	private HashMap<Integer, node_data> nodes = new HashMap<>();
+	private HashMap<Integer, node_data> nodes;
 	// This HashMap holds the node neighbors and the edges between them 
-	private HashMap<Integer, HashMap<Integer, edge_data>> neighbors = new HashMap<>();
+	private HashMap<Integer, HashMap<Integer, edge_data>> neighbors;
 	// This HashMap hold the parents of nodes in the graph
-	private HashMap<Integer, HashMap<Integer, edge_data>> parents = new HashMap<>();
+	private HashMap<Integer, HashMap<Integer, edge_data>> parents;
 	private int edgeSize, mc;
+	// The consumers of the changes and the changes not delivered yet, null while there are no consumers
+	private GraphListener[] listeners;
+	private GraphEvents events;
+	private int batchDepth;
 	
 	/**
 	 * Default constructor.
 	 */
 	public DWGraph_DS() {
-		this.edgeSize = 0;
-		this.mc = 0;
+		this(0);
+	}
+
+	/**
+	 * Constructor that creates a graph which can hold the expected amount of nodes
+	 * without resizing its maps (used when the size is known, e.g. loading a graph).
+	 * @param expectedNodes - the expected number of nodes
+	 */
+	public DWGraph_DS(int expectedNodes) {
+		int capacity = Math.max(16, capacityFor(expectedNodes));
+		this.nodes = new HashMap<>(capacity);
+		this.neighbors = new HashMap<>(capacity);
+		this.parents = new HashMap<>(capacity);
 	}
 
 	/**
 	 * Deep copy constructor that copies
 	 * an existing graph and creates a new graph.
+	 * The edge maps of every node are created at their final size (see Builder).
 	 * @param g - directed_weighted_graph
 	 */
 	public DWGraph_DS(directed_weighted_graph g) {
+		this(g == null ? 0 : g.nodeSize());
 		// Check if graph is null else copy
 		if (g == null) {
 			return;
 		}
+		Builder builder = new Builder(g.nodeSize(), g.edgeSize());
 		// Loop and create new nodes and copy content from each node
 		for (node_data n : g.getV()) {
-			int srcKey = n.getKey();
-			this.nodes.put(srcKey, new NodeData(srcKey));
+			builder.addNode(new NodeData(n.getKey()));
 		}
-		// Loop over the nodes and create new nodes, then copy content from each node
+		// Loop through the edges of each node
 		for (node_data node : g.getV()) {
-			int srcKey = node.getKey();
-			// Loop through the edges of each node
-			for (edge_data edge: g.getE(srcKey)) {
-				int destKey = edge.getDest();
-				double weight = edge.getWeight();
-				// Connect an edge with two nodes and their weight
-				connect(srcKey, destKey, weight);
+			for (edge_data edge : g.getE(node.getKey())) {
+				builder.addEdge(edge.getSrc(), edge.getDest(), edge.getWeight());
 			}
 		}
+		builder.buildInto(this);
 		// Set the mode counter and edge size to the same value as the copied graph
 		this.edgeSize = g.edgeSize();
 		this.mc = g.getMC();
 	}
 
+	/**
+	 * Returns a builder of a graph of about the given amount of nodes and edges.
+	 * @param expectedNodes - the expected number of nodes
+	 * @param expectedEdges - the expected number of edges
+	 * @return Builder - the builder
+	 */
+	public static Builder builder(int expectedNodes, int expectedEdges) {
+		return new Builder(expectedNodes, expectedEdges);
+	}
+
 	/**
 	 * Returns the node_data by the node_id,
 	 * @param key - the node_id
@@ -93,6 +118,9 @@ public class DWGraph_DS implements directed_weighted_graph {
 		if (!nodes.containsKey(n.getKey())) {
 			nodes.put(n.getKey(), n);
 			mc++;
+			if (events != null) {
+				publish(GraphEvents.Type.NODE_ADDED, n.getKey(), n.getKey(), 0, 0);
+			}
 		}
 	}
 
@@ -124,12 +152,20 @@ public class DWGraph_DS implements directed_weighted_graph {
 				parents.get(dest).put(src, edge);
 				edgeSize++;
 				mc++;	
+				if (events != null) {
+					publish(GraphEvents.Type.EDGE_ADDED, src, dest, w, 0);
+				}
 			}
 			// If src and dest are already neighbors, then update the weight
 			else if (neighbors.get(src).get(dest).getWeight() != w) {
 				edge_data edge = new EdgeData(src, dest, w);
-				neighbors.get(src).replace(dest, edge);
+				edge_data old = neighbors.get(src).replace(dest, edge);
+				// Keep the parents map pointing at the same edge
+				parents.get(dest).replace(src, edge);
 				mc++;
+				if (events != null) {
+					publish(GraphEvents.Type.WEIGHT_CHANGED, src, dest, w, old.getWeight());
+				}
 			}
 		}
 	}
@@ -159,10 +195,26 @@ public class DWGraph_DS implements directed_weighted_graph {
 		return neighbors.get(node_id).values();
 	}
 
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the edges getting into
+	 * the given node (all the edges ending (destination) at the given node).
+	 * Note: this method runs in O(1) time using the parents map.
+	 * @param node_id - the key of the node
+	 * @return Collection of edge_data
+	 */
+	public Collection<edge_data> getInE(int node_id) {
+		if (!parents.containsKey(node_id)) {
+			return new HashMap<Integer, edge_data>().values();
+		}
+		return parents.get(node_id).values();
+	}
+
 	/**
 	 * Deletes the node (with the given ID) from the graph -
 	 * and removes all edges which starts or ends at this node.
 	 * This method should run in O(k), V.degree=k, as all the edges should be removed.
+	 * The removal of the edges and of the node is delivered to the listeners as one batch.
 	 * @return the data of the removed node (null if none). 
 	 * @param key - the key of the node that needed to be removed from the graph
 	 */
@@ -171,18 +223,27 @@ public class DWGraph_DS implements directed_weighted_graph {
 		node_data node = nodes.get(key);
 		// If node is not in graph, then remove node
 		if (node != null) {
+			beginBatch();
 			int size = getE(key).size();
 			// Loop over the edges size and remove the edge between key and dest
 			for (int i = 0; i < size; i++) {
 				removeEdge(key,getE(key).iterator().next().getDest());
 			}
-			// Loop over the src from the parents map and remove their edges
-			for (int src : parents.get(key).keySet()) {
-				removeEdge(src, key);
+			// Loop over the src from the parents map and remove their edges,
+			// iterate a copy of the keys as removeEdge removes them from the parents map
+			if (parents.containsKey(key)) {
+				for (int src : new ArrayList<>(parents.get(key).keySet())) {
+					removeEdge(src, key);
+				}
+				parents.remove(key);
 			}
 			// Remove the node from the list of nodes in the graph
 			nodes.remove(key);
 			mc++;
+			if (events != null) {
+				publish(GraphEvents.Type.NODE_REMOVED, key, key, 0, 0);
+			}
+			endBatch();
 			return node;
 		}
 		return null;
@@ -203,7 +264,11 @@ public class DWGraph_DS implements directed_weighted_graph {
 				edgeSize--;
 				mc++;
 				parents.get(dest).remove(src);
-				return neighbors.get(src).remove(dest);
+				edge_data edge = neighbors.get(src).remove(dest);
+				if (events != null) {
+					publish(GraphEvents.Type.EDGE_REMOVED, src, dest, edge.getWeight(), 0);
+				}
+				return edge;
 			}
 		}
 		return null;
@@ -235,4 +300,285 @@ public class DWGraph_DS implements directed_weighted_graph {
 	public int getMC() {
 		return mc;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Registers a consumer of the changes of this graph, it gets every change made from now on
+	 * (addNode, connect, removeNode and removeEdge, see GraphEvents). While there are no listeners
+	 * the changes are not recorded at all.
+	 * @param listener - the listener
+	 */
+	public void addListener(GraphListener listener) {
+		if (listeners == null) {
+			listeners = new GraphListener[]{listener};
+			events = new GraphEvents();
+		}
+		else {
+			// A new array, so a delivery in progress keeps iterating the old one
+			listeners = Arrays.copyOf(listeners, listeners.length + 1);
+			listeners[listeners.length - 1] = listener;
+		}
+	}
+
+	/**
+	 * Removes a consumer of the changes of this graph.
+	 * @param listener - the listener
+	 */
+	public void removeListener(GraphListener listener) {
+		if (listeners == null) {
+			return;
+		}
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				if (listeners.length == 1) {
+					listeners = null;
+					events = null;
+					return;
+				}
+				GraphListener[] rest = new GraphListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, rest, 0, i);
+				System.arraycopy(listeners, i + 1, rest, i, rest.length - i);
+				listeners = rest;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Starts a batch of changes, the changes are delivered to the listeners together when the batch ends.
+	 * Batches may be nested, the changes are delivered when the outermost batch ends.
+	 */
+	public void beginBatch() {
+		batchDepth++;
+	}
+
+	/**
+	 * Ends a batch of changes started by beginBatch.
+	 * @throws IllegalStateException if there is no batch to end
+	 */
+	public void endBatch() {
+		if (batchDepth == 0) {
+			throw new IllegalStateException("endBatch without beginBatch");
+		}
+		batchDepth--;
+		if (batchDepth == 0 && events != null) {
+			flush();
+		}
+	}
+
+	/**
+	 * Records a change, and delivers it at once if no batch is open.
+	 */
+	private void publish(GraphEvents.Type type, int src, int dest, double w, double old) {
+		events.add(type, src, dest, w, old);
+		if (batchDepth == 0) {
+			flush();
+		}
+	}
+
+	/**
+	 * Delivers the recorded changes to all the listeners.
+	 * The changes are cleared even if a listener throws, so they are never delivered twice
+	 * (the exception reaches the caller of the change, the listeners after the one that threw miss the batch).
+	 */
+	private void flush() {
+		GraphEvents batch = events;
+		if (batch.size() == 0) {
+			return;
+		}
+		try {
+			for (GraphListener listener : listeners) {
+				listener.graphChanged(batch);
+			}
+		}
+		finally {
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Returns an immutable copy of the current state of this graph, backed by arrays (see DWGraph_Frozen).
+	 * Freeze a graph that is built once and then only read, e.g. the arena of a game, the graph algorithms
+	 * run on the arrays of the frozen graph directly. Changes to this graph after the call are not seen by the copy.
+	 * @return DWGraph_Frozen - the frozen graph
+	 */
+	public DWGraph_Frozen freeze() {
+		return new DWGraph_Frozen(this);
+	}
+
+	/**
+	 * Returns the HashMap capacity that holds the expected amount of entries without resizing
+	 * (HashMap resizes when it is 3/4 full).
+	 */
+	private static int capacityFor(int expected) {
+		return (int) (expected / 0.75f) + 1;
+	}
+
+	/**
+	 * This class builds a DWGraph_DS in one pass from nodes and edges given up front.
+	 * The nodes and the edges are collected in primitive arrays (in any order, the edges may come before
+	 * their nodes), then build counts the out and in degree of every node and creates each edge map
+	 * at its final size, so no map is ever rehashed.
+	 * The graph is the same as adding the nodes with addNode and then connecting the edges in order with connect:
+	 * a node key given twice keeps the first node, an edge given twice keeps the last weight,
+	 * an edge of a missing node, a loop or a negative weight is ignored, and edgeSize and mc count the same changes.
+	 */
+	public static final class Builder {
+		private final IntHashMap<node_data> nodes;
+		private int edgeSize;
+		private int[] src, dest;
+		private double[] w;
+
+		private Builder(int expectedNodes, int expectedEdges) {
+			nodes = new IntHashMap<>(Math.max(expectedNodes, 0));
+			int capacity = Math.max(expectedEdges, 4);
+			src = new int[capacity];
+			dest = new int[capacity];
+			w = new double[capacity];
+		}
+
+		/**
+		 * Adds a node, a node of a key which was already added is ignored.
+		 * @param n - the node
+		 * @return Builder - this builder
+		 */
+		public Builder addNode(node_data n) {
+			if (!nodes.containsKey(n.getKey())) {
+				nodes.put(n.getKey(), n);
+			}
+			return this;
+		}
+
+		/**
+		 * Adds a new NodeData for every key.
+		 * @param keys - the node keys
+		 * @return Builder - this builder
+		 */
+		public Builder addNodes(int[] keys) {
+			for (int key : keys) {
+				if (!nodes.containsKey(key)) {
+					nodes.put(key, new NodeData(key));
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Adds an edge from src to dest.
+		 * @param src - the source of the edge
+		 * @param dest - the destination of the edge
+		 * @param weight - the weight of the edge
+		 * @return Builder - this builder
+		 */
+		public Builder addEdge(int src, int dest, double weight) {
+			ensureCapacity(edgeSize + 1);
+			this.src[edgeSize] = src;
+			this.dest[edgeSize] = dest;
+			this.w[edgeSize++] = weight;
+			return this;
+		}
+
+		/**
+		 * Adds the edges src[i] -> dest[i] of weight weights[i], the three arrays are of the same length.
+		 * @param src - the sources of the edges
+		 * @param dest - the destinations of the edges
+		 * @param weights - the weights of the edges
+		 * @return Builder - this builder
+		 */
+		public Builder addEdges(int[] src, int[] dest, double[] weights) {
+			if (src.length != dest.length || src.length != weights.length) {
+				throw new IllegalArgumentException("The edge arrays differ in length: "
+						+ src.length + ", " + dest.length + ", " + weights.length);
+			}
+			ensureCapacity(edgeSize + src.length);
+			System.arraycopy(src, 0, this.src, edgeSize, src.length);
+			System.arraycopy(dest, 0, this.dest, edgeSize, dest.length);
+			System.arraycopy(weights, 0, this.w, edgeSize, weights.length);
+			edgeSize += src.length;
+			return this;
+		}
+
+		/**
+		 * Builds the graph.
+		 * @return DWGraph_DS - the graph
+		 */
+		public DWGraph_DS build() {
+			DWGraph_DS graph = new DWGraph_DS(nodes.size());
+			buildInto(graph);
+			return graph;
+		}
+
+		/**
+		 * Fills an empty graph, its node maps are already sized for the nodes.
+		 */
+		private void buildInto(DWGraph_DS graph) {
+			int n = nodes.size();
+			// Every key is boxed once and shared by all the maps
+			Integer[] keys = new Integer[n];
+			for (int v = 0; v < n; v++) {
+				keys[v] = nodes.keyAt(v);
+				graph.nodes.put(keys[v], nodes.valueAt(v));
+			}
+			graph.mc += n;
+			// The ordinals of the ends of every edge (the dense index in nodes), -1 for an ignored edge
+			int[] from = new int[edgeSize];
+			int[] to = new int[edgeSize];
+			int[] outDegree = new int[n];
+			int[] inDegree = new int[n];
+			for (int i = 0; i < edgeSize; i++) {
+				int s = nodes.indexOf(src[i]);
+				int d = nodes.indexOf(dest[i]);
+				if (s == -1 || d == -1 || s == d || !(w[i] >= 0)) {
+					from[i] = -1;
+					continue;
+				}
+				from[i] = s;
+				to[i] = d;
+				outDegree[s]++;
+				inDegree[d]++;
+			}
+			@SuppressWarnings("unchecked")
+			HashMap<Integer, edge_data>[] out = (HashMap<Integer, edge_data>[]) new HashMap<?, ?>[n];
+			@SuppressWarnings("unchecked")
+			HashMap<Integer, edge_data>[] in = (HashMap<Integer, edge_data>[]) new HashMap<?, ?>[n];
+			for (int i = 0; i < edgeSize; i++) {
+				int s = from[i];
+				if (s == -1) {
+					continue;
+				}
+				int d = to[i];
+				if (out[s] == null) {
+					out[s] = new HashMap<>(capacityFor(outDegree[s]));
+					graph.neighbors.put(keys[s], out[s]);
+				}
+				if (in[d] == null) {
+					in[d] = new HashMap<>(capacityFor(inDegree[d]));
+					graph.parents.put(keys[d], in[d]);
+				}
+				edge_data edge = new EdgeData(src[i], dest[i], w[i]);
+				edge_data old = out[s].put(keys[d], edge);
+				if (old == null) {
+					in[d].put(keys[s], edge);
+					graph.edgeSize++;
+					graph.mc++;
+				}
+				else if (old.getWeight() != w[i]) {
+					in[d].put(keys[s], edge);
+					graph.mc++;
+				}
+				else {
+					// Same as connect, an edge of the same weight is kept
+					out[s].put(keys[d], old);
+				}
+			}
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > src.length) {
+				int size = Math.max(capacity, 2 * src.length);
+				src = Arrays.copyOf(src, size);
+				dest = Arrays.copyOf(dest, size);
+				w = Arrays.copyOf(w, size);
+			}
+		}
+	}
+}
@@ -0,0 +1,543 @@
+package api;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements directed_weighted_graph interface as an immutable graph,
+ * made by DWGraph_DS.freeze(). Every node gets a dense ordinal (in the order of the keys) and the out edges
+ * and the in edges of all the nodes are kept in compressed-sparse-row arrays, the out edges of every node sorted
+ * by destination, so getEdge is a binary search over a row and getInE is a row of the in edges arrays.
+ * The node_data and edge_data objects are lightweight views made on request, they hold only an ordinal
+ * (or an index into the edge arrays), so a frozen graph keeps no object per node or edge.
+ * The arrays are shared with the GraphIndex of the graph, so DWGraph_Algo runs its array based algorithms
+ * on a frozen graph without building (or ever rebuilding) a snapshot of it.
+ * Nothing can be changed (the graph methods and the setters of the nodes and edges throw
+ * UnsupportedOperationException), so a frozen graph may be shared by any number of threads.
+ */
+public class DWGraph_Frozen implements directed_weighted_graph {
+
+	private static final String IMMUTABLE = "A frozen graph is immutable";
+
+	private final int edgeSize, mc;
+	// The dense index of a key in this map is its ordinal (the values are not used)
+	private final IntHashMap<node_data> ordinals;
+	// The out and in edges arrays
+	private final GraphIndex index;
+	// The index in the out edges arrays of every in edge
+	private final int[] inEdge;
+	// The x, y and z of every ordinal (NaN x for a node without a location)
+	private final double[] locations;
+	// The weight, info and tag of the nodes and the info and tag of the edges, null if all of them are the default
+	private final double[] nodeWeights;
+	private final String[] nodeInfos, edgeInfos;
+	private final int[] nodeTags, edgeTags;
+
+	/**
+	 * Constructor, freezes the current state of the graph in O(n log n + e log k) time (k - the highest out degree).
+	 * The in edges are read from the parents map of the graph.
+	 * @param g - the graph
+	 */
+	DWGraph_Frozen(DWGraph_DS g) {
+		int n = g.nodeSize();
+		int[] keys = new int[n];
+		int i = 0;
+		for (node_data node : g.getV()) {
+			keys[i++] = node.getKey();
+		}
+		Arrays.sort(keys);
+		this.ordinals = new IntHashMap<>(n);
+		for (int key : keys) {
+			ordinals.put(key, null);
+		}
+		// The nodes
+		this.locations = new double[3 * n];
+		double[] weights = null;
+		String[] infos = null;
+		int[] tags = null;
+		for (int v = 0; v < n; v++) {
+			node_data node = g.getNode(keys[v]);
+			geo_location pos = node.getLocation();
+			locations[3 * v] = pos == null ? Double.NaN : pos.x();
+			locations[3 * v + 1] = pos == null ? Double.NaN : pos.y();
+			locations[3 * v + 2] = pos == null ? Double.NaN : pos.z();
+			if (node.getWeight() != 0) {
+				weights = weights == null ? new double[n] : weights;
+				weights[v] = node.getWeight();
+			}
+			if (node.getInfo() != null) {
+				infos = infos == null ? new String[n] : infos;
+				infos[v] = node.getInfo();
+			}
+			if (node.getTag() != 0) {
+				tags = tags == null ? new int[n] : tags;
+				tags[v] = node.getTag();
+			}
+		}
+		this.nodeWeights = weights;
+		this.nodeInfos = infos;
+		this.nodeTags = tags;
+		// The out edges, every row sorted by destination
+		int[] outStart = new int[n + 1];
+		int maxDegree = 0;
+		for (int v = 0; v < n; v++) {
+			int degree = g.getE(keys[v]).size();
+			outStart[v + 1] = outStart[v] + degree;
+			maxDegree = Math.max(maxDegree, degree);
+		}
+		int e = outStart[n];
+		int[] outTo = new int[e];
+		double[] outWeight = new double[e];
+		infos = null;
+		tags = null;
+		edge_data[] row = new edge_data[maxDegree];
+		long[] order = new long[maxDegree];
+		for (int v = 0; v < n; v++) {
+			int k = 0;
+			for (edge_data edge : g.getE(keys[v])) {
+				row[k] = edge;
+				// The destination ordinal in the high bits and the place in the row in the low bits
+				order[k] = (long) ordinals.indexOf(edge.getDest()) << 32 | k;
+				k++;
+			}
+			Arrays.sort(order, 0, k);
+			for (int j = 0; j < k; j++) {
+				int pos = outStart[v] + j;
+				edge_data edge = row[(int) order[j]];
+				outTo[pos] = (int) (order[j] >>> 32);
+				outWeight[pos] = edge.getWeight();
+				if (edge.getInfo() != null) {
+					infos = infos == null ? new String[e] : infos;
+					infos[pos] = edge.getInfo();
+				}
+				if (edge.getTag() != 0) {
+					tags = tags == null ? new int[e] : tags;
+					tags[pos] = edge.getTag();
+				}
+			}
+		}
+		this.edgeInfos = infos;
+		this.edgeTags = tags;
+		// The in edges, from the parents map, every one points at its place in the out edges arrays
+		int[] inStart = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			inStart[v + 1] = inStart[v] + g.getInE(keys[v]).size();
+		}
+		int[] inFrom = new int[e];
+		double[] inWeight = new double[e];
+		this.inEdge = new int[e];
+		for (int v = 0; v < n; v++) {
+			int pos = inStart[v];
+			for (edge_data edge : g.getInE(keys[v])) {
+				int s = ordinals.indexOf(edge.getSrc());
+				int out = find(outStart, outTo, s, v);
+				inFrom[pos] = s;
+				inWeight[pos] = outWeight[out];
+				inEdge[pos] = out;
+				pos++;
+			}
+		}
+		this.edgeSize = g.edgeSize();
+		this.mc = g.getMC();
+		this.index = new GraphIndex(this, ordinals, outStart, outTo, outWeight, inStart, inFrom, inWeight);
+	}
+
+	/**
+	 * Returns the index of the edge (s,d) in the out edges arrays (binary search over the row of s), -1 if none.
+	 */
+	private static int find(int[] outStart, int[] outTo, int s, int d) {
+		int low = outStart[s], high = outStart[s + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int v = outTo[mid];
+			if (v < d) {
+				low = mid + 1;
+			}
+			else if (v > d) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the array snapshot of this graph, it is built with the graph and never changes.
+	 * @return GraphIndex - the out and in edges arrays of this graph
+	 */
+	GraphIndex index() {
+		return index;
+	}
+
+	/**
+	 * Returns the node of the given ordinal.
+	 * @param ordinal - the ordinal
+	 * @return node_data - a view of the node
+	 */
+	node_data nodeAt(int ordinal) {
+		return new Node(ordinal);
+	}
+
+	/**
+	 * Returns the node_data by the node_id,
+	 * @param key - the node_id
+	 * @return the node_data by the node_id, null if none.
+	 */
+	@Override
+	public node_data getNode(int key) {
+		int ord = ordinals.indexOf(key);
+		return ord == -1 ? null : new Node(ord);
+	}
+
+	/**
+	 * Returns the data of the edge (src,dest), null if none.
+	 * Runs in O(log k) on the row of src (k - the out degree of src).
+	 * @param src - the start node
+	 * @param dest - end (target) node
+	 * @return edge_data edge
+	 */
+	@Override
+	public edge_data getEdge(int src, int dest) {
+		int s = ordinals.indexOf(src);
+		int d = ordinals.indexOf(dest);
+		if (s == -1 || d == -1) {
+			return null;
+		}
+		int pos = find(index.outStart, index.outTo, s, d);
+		return pos == -1 ? null : new Edge(s, pos);
+	}
+
+	/**
+	 * Not supported, the graph is immutable.
+	 * @param n - the node
+	 */
+	@Override
+	public void addNode(node_data n) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	/**
+	 * Not supported, the graph is immutable.
+	 * @param src - the source of the edge.
+	 * @param dest - the destination of the edge.
+	 * @param w - the weight.
+	 */
+	@Override
+	public void connect(int src, int dest, double w) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	/**
+	 * This method returns a view of all the nodes in the graph, in the order of their keys.
+	 * @return Collection of node_data
+	 */
+	@Override
+	public Collection<node_data> getV() {
+		return new Nodes();
+	}
+
+	/**
+	 * This method returns a view of all the edges getting out of
+	 * the given node, sorted by destination.
+	 * @return Collection of edge_data
+	 */
+	@Override
+	public Collection<edge_data> getE(int node_id) {
+		int s = ordinals.indexOf(node_id);
+		if (s == -1) {
+			return Collections.emptyList();
+		}
+		return new Edges(s, false);
+	}
+
+	/**
+	 * This method returns a view of all the edges getting into
+	 * the given node (all the edges ending (destination) at the given node).
+	 * Note: this method runs in O(1) time, the in edges are a row of the in edges arrays.
+	 * @param node_id - the key of the node
+	 * @return Collection of edge_data
+	 */
+	public Collection<edge_data> getInE(int node_id) {
+		int d = ordinals.indexOf(node_id);
+		if (d == -1) {
+			return Collections.emptyList();
+		}
+		return new Edges(d, true);
+	}
+
+	/**
+	 * Not supported, the graph is immutable.
+	 * @param key - the key of the node
+	 * @return nothing
+	 */
+	@Override
+	public node_data removeNode(int key) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	/**
+	 * Not supported, the graph is immutable.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return nothing
+	 */
+	@Override
+	public edge_data removeEdge(int src, int dest) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	/**
+	 * Returns the number of vertices (nodes) in the graph.
+	 * @return int node size - the number of nodes in the graph
+	 */
+	@Override
+	public int nodeSize() {
+		return ordinals.size();
+	}
+
+	/**
+	 * Returns the number of edges (assume directional graph).
+	 * @return int edge size - the number of edges in the graph
+	 */
+	@Override
+	public int edgeSize() {
+		return edgeSize;
+	}
+
+	/**
+	 * Returns the Mode Count of the graph when it was frozen.
+	 * @return int mode counter - the count of any changes in the graph
+	 */
+	@Override
+	public int getMC() {
+		return mc;
+	}
+
+	/**
+	 * A lightweight view of a node, holds only the ordinal.
+	 */
+	private class Node implements node_data {
+		private final int ord;
+
+		Node(int ord) {
+			this.ord = ord;
+		}
+
+		private DWGraph_Frozen graph() {
+			return DWGraph_Frozen.this;
+		}
+
+		@Override
+		public int getKey() {
+			return ordinals.keyAt(ord);
+		}
+
+		@Override
+		public geo_location getLocation() {
+			double x = locations[ord * 3];
+			return Double.isNaN(x) ? null : new GeoLocation(x, locations[ord * 3 + 1], locations[ord * 3 + 2]);
+		}
+
+		@Override
+		public void setLocation(geo_location p) {
+			throw new UnsupportedOperationException(IMMUTABLE);
+		}
+
+		@Override
+		public double getWeight() {
+			return nodeWeights == null ? 0 : nodeWeights[ord];
+		}
+
+		@Override
+		public void setWeight(double w) {
+			throw new UnsupportedOperationException(IMMUTABLE);
+		}
+
+		@Override
+		public String getInfo() {
+			return nodeInfos == null ? null : nodeInfos[ord];
+		}
+
+		@Override
+		public void setInfo(String s) {
+			throw new UnsupportedOperationException(IMMUTABLE);
+		}
+
+		@Override
+		public int getTag() {
+			return nodeTags == null ? 0 : nodeTags[ord];
+		}
+
+		@Override
+		public void setTag(int t) {
+			throw new UnsupportedOperationException(IMMUTABLE);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Node && ((Node) obj).ord == ord && ((Node) obj).graph() == graph();
+		}
+
+		@Override
+		public int hashCode() {
+			return ord;
+		}
+
+		@Override
+		public String toString() {
+			return "" + getKey();
+		}
+	}
+
+	/**
+	 * A lightweight view of an edge, holds the source ordinal and the index of the edge in the out edges arrays.
+	 */
+	private class Edge implements edge_data {
+		private final int src, index;
+
+		Edge(int src, int index) {
+			this.src = src;
+			this.index = index;
+		}
+
+		private DWGraph_Frozen graph() {
+			return DWGraph_Frozen.this;
+		}
+
+		@Override
+		public int getSrc() {
+			return ordinals.keyAt(src);
+		}
+
+		@Override
+		public int getDest() {
+			return ordinals.keyAt(DWGraph_Frozen.this.index.outTo[index]);
+		}
+
+		@Override
+		public double getWeight() {
+			return DWGraph_Frozen.this.index.outWeight[index];
+		}
+
+		@Override
+		public String getInfo() {
+			return edgeInfos == null ? null : edgeInfos[index];
+		}
+
+		@Override
+		public void setInfo(String s) {
+			throw new UnsupportedOperationException(IMMUTABLE);
+		}
+
+		@Override
+		public int getTag() {
+			return edgeTags == null ? 0 : edgeTags[index];
+		}
+
+		@Override
+		public void setTag(int t) {
+			throw new UnsupportedOperationException(IMMUTABLE);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Edge && ((Edge) obj).index == index && ((Edge) obj).graph() == graph();
+		}
+
+		@Override
+		public int hashCode() {
+			return index;
+		}
+
+		@Override
+		public String toString() {
+			return getSrc() + "->" + getDest();
+		}
+	}
+
+	/**
+	 * View of all the nodes of the graph, in ordinal order.
+	 */
+	private class Nodes extends AbstractCollection<node_data> {
+
+		@Override
+		public Iterator<node_data> iterator() {
+			return new Iterator<node_data>() {
+				private int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return next < nodeSize();
+				}
+
+				@Override
+				public node_data next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return new Node(next++);
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof Node && ((Node) o).graph() == DWGraph_Frozen.this;
+		}
+
+		@Override
+		public int size() {
+			return nodeSize();
+		}
+	}
+
+	/**
+	 * View of the out edges or the in edges of a single node, a row of the edges arrays.
+	 */
+	private class Edges extends AbstractCollection<edge_data> {
+		private final int ord;
+		private final boolean in;
+
+		Edges(int ord, boolean in) {
+			this.ord = ord;
+			this.in = in;
+		}
+
+		private int[] start() {
+			return in ? index.inStart() : index.outStart;
+		}
+
+		@Override
+		public Iterator<edge_data> iterator() {
+			return new Iterator<edge_data>() {
+				private int next = start()[ord];
+				private final int end = start()[ord + 1];
+
+				@Override
+				public boolean hasNext() {
+					return next < end;
+				}
+
+				@Override
+				public edge_data next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					int i = next++;
+					return in ? new Edge(index.inFrom()[i], inEdge[i]) : new Edge(ord, i);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return start()[ord + 1] - start()[ord];
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package api;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * This class implements directed_weighted_graph interface
+ * that represents a directional weighted graph, same as DWGraph_DS,
+ * but the nodes and the adjacency are kept in primitive int keyed maps (IntHashMap)
+ * so looking up a node or an edge never boxes an Integer.
+ * Choose it over DWGraph_DS when the graph is large and lookup heavy (e.g. road networks).
+ */
+public class DWGraph_IntDS implements directed_weighted_graph {
+
+	// This map holds the nodes of this graph
+	private IntHashMap<node_data> nodes;
+	// This map holds the node neighbors and the edges between them
+	private IntHashMap<IntHashMap<edge_data>> neighbors;
+	// This map holds the parents of nodes in the graph
+	private IntHashMap<IntHashMap<edge_data>> parents;
+	private int edgeSize, mc;
+
+	/**
+	 * Default constructor.
+	 */
+	public DWGraph_IntDS() {
+		this.nodes = new IntHashMap<>();
+		this.neighbors = new IntHashMap<>();
+		this.parents = new IntHashMap<>();
+	}
+
+	/**
+	 * Deep copy constructor that copies
+	 * an existing graph and creates a new graph.
+	 * @param g - directed_weighted_graph
+	 */
+	public DWGraph_IntDS(directed_weighted_graph g) {
+		// Check if graph is null else copy
+		if (g == null) {
+			this.nodes = new IntHashMap<>();
+			this.neighbors = new IntHashMap<>();
+			this.parents = new IntHashMap<>();
+			return;
+		}
+		this.nodes = new IntHashMap<>(g.nodeSize());
+		this.neighbors = new IntHashMap<>(g.nodeSize());
+		this.parents = new IntHashMap<>(g.nodeSize());
+		// Loop and create new nodes and copy content from each node
+		for (node_data n : g.getV()) {
+			int srcKey = n.getKey();
+			this.nodes.put(srcKey, new NodeData(srcKey));
+		}
+		// Loop over the nodes and copy the edges of each node
+		for (node_data node : g.getV()) {
+			int srcKey = node.getKey();
+			for (edge_data edge : g.getE(srcKey)) {
+				connect(srcKey, edge.getDest(), edge.getWeight());
+			}
+		}
+		// Set the mode counter and edge size to the same value as the copied graph
+		this.edgeSize = g.edgeSize();
+		this.mc = g.getMC();
+	}
+
+	/**
+	 * Returns the node_data by the node_id,
+	 * @param key - the node_id
+	 * @return the node_data by the node_id, null if none.
+	 */
+	@Override
+	public node_data getNode(int key) {
+		return nodes.get(key);
+	}
+
+	/**
+	 * Returns the data of the edge (src,dest), null if none.
+	 * @param src - the start node
+	 * @param dest - end (target) node
+	 * @return edge_data edge
+	 */
+	@Override
+	public edge_data getEdge(int src, int dest) {
+		// An edge can only exist between two nodes of the graph, so one lookup in the neighbors is enough
+		IntHashMap<edge_data> edges = neighbors.get(src);
+		return edges == null ? null : edges.get(dest);
+	}
+
+	/**
+	 * Adds a new node to the graph with the given node_data.
+	 * @param n - node needed to be added to the graph
+	 */
+	@Override
+	public void addNode(node_data n) {
+		if (!nodes.containsKey(n.getKey())) {
+			nodes.put(n.getKey(), n);
+			mc++;
+		}
+	}
+
+	/**
+	 * Connects an edge with weight w between node src to node dest.
+	 * @param src - the source of the edge.
+	 * @param dest - the destination of the edge.
+	 * @param w - positive weight representing the cost (aka time, price, etc) between src--dest.
+	 */
+	@Override
+	public void connect(int src, int dest, double w) {
+		// Check if src is not equal to dest and if they exist in the graph
+		// and if the weight is positive, then connect
+		if (src != dest && nodes.containsKey(src) && nodes.containsKey(dest) && w >= 0) {
+			IntHashMap<edge_data> out = neighbors.get(src);
+			if (out == null) {
+				out = new IntHashMap<>();
+				neighbors.put(src, out);
+			}
+			IntHashMap<edge_data> in = parents.get(dest);
+			if (in == null) {
+				in = new IntHashMap<>();
+				parents.put(dest, in);
+			}
+			edge_data old = out.get(dest);
+			// If src and dest are not neighbors, then connect them
+			if (old == null) {
+				edge_data edge = new EdgeData(src, dest, w);
+				out.put(dest, edge);
+				in.put(src, edge);
+				edgeSize++;
+				mc++;
+			}
+			// If src and dest are already neighbors, then update the weight
+			else if (old.getWeight() != w) {
+				edge_data edge = new EdgeData(src, dest, w);
+				out.put(dest, edge);
+				in.put(src, edge);
+				mc++;
+			}
+		}
+	}
+
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the nodes in the graph.
+	 * @return Collection of node_data
+	 */
+	@Override
+	public Collection<node_data> getV() {
+		return nodes.values();
+	}
+
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the edges getting out of
+	 * the given node (all the edges starting (source) at the given node).
+	 * Note: this method should run in O(k) time, k being the collection size.
+	 * @return Collection of edge_data
+	 */
+	@Override
+	public Collection<edge_data> getE(int node_id) {
+		IntHashMap<edge_data> edges = neighbors.get(node_id);
+		if (edges == null) {
+			return Collections.emptyList();
+		}
+		return edges.values();
+	}
+
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the edges getting into
+	 * the given node (all the edges ending (destination) at the given node).
+	 * Note: this method runs in O(1) time using the parents map.
+	 * @param node_id - the key of the node
+	 * @return Collection of edge_data
+	 */
+	public Collection<edge_data> getInE(int node_id) {
+		IntHashMap<edge_data> edges = parents.get(node_id);
+		if (edges == null) {
+			return Collections.emptyList();
+		}
+		return edges.values();
+	}
+
+	/**
+	 * Deletes the node (with the given ID) from the graph -
+	 * and removes all edges which starts or ends at this node.
+	 * This method should run in O(k), V.degree=k, as all the edges should be removed.
+	 * @return the data of the removed node (null if none).
+	 * @param key - the key of the node that needed to be removed from the graph
+	 */
+	@Override
+	public node_data removeNode(int key) {
+		node_data node = nodes.get(key);
+		if (node == null) {
+			return null;
+		}
+		// Remove the edges from the last one, so removing does not move the edges still to be visited
+		IntHashMap<edge_data> out = neighbors.get(key);
+		if (out != null) {
+			for (int i = out.size() - 1; i >= 0; i--) {
+				removeEdge(key, out.keyAt(i));
+			}
+			neighbors.remove(key);
+		}
+		IntHashMap<edge_data> in = parents.get(key);
+		if (in != null) {
+			for (int i = in.size() - 1; i >= 0; i--) {
+				removeEdge(in.keyAt(i), key);
+			}
+			parents.remove(key);
+		}
+		nodes.remove(key);
+		mc++;
+		return node;
+	}
+
+	/**
+	 * Deletes the edge from the graph,
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return edge_data - the data of the removed edge (null if none).
+	 */
+	@Override
+	public edge_data removeEdge(int src, int dest) {
+		IntHashMap<edge_data> out = neighbors.get(src);
+		if (out == null) {
+			return null;
+		}
+		edge_data edge = out.remove(dest);
+		if (edge != null) {
+			parents.get(dest).remove(src);
+			edgeSize--;
+			mc++;
+		}
+		return edge;
+	}
+
+	/**
+	 * Returns the number of vertices (nodes) in the graph.
+	 * @return int node size - the number of nodes in the graph
+	 */
+	@Override
+	public int nodeSize() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the number of edges (assume directional graph).
+	 * @return int edge size - the number of edges in the graph
+	 */
+	@Override
+	public int edgeSize() {
+		return edgeSize;
+	}
+
+	/**
+	 * Returns the Mode Count - for testing changes in the graph.
+	 * @return int mode counter - the count of any changes in the graph
+	 */
+	@Override
+	public int getMC() {
+		return mc;
+	}
+}
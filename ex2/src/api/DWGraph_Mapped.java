@@ -0,0 +1,588 @@
+package api;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements directed_weighted_graph interface as a read only graph
+ * served from a binary snapshot file. The file is memory mapped (FileChannel.map)
+ * and the queries read the mapped arrays directly, so loading a graph of hundreds of MB
+ * takes only the time of reading the header.
+ * The snapshot format (version 1, big endian):
+ * 0. header - magic "DWGS", version, flags (bit 0 - every key equals its ordinal), nodes, edges (long), mc.
+ * 1. locations - double[3*nodes], x,y,z of every ordinal (NaN x for a node without a location).
+ * 2. keys - int[nodes], sorted, the ordinal of a node is its index.
+ * 3. offsets - int[nodes+1], the out edges of ordinal v are in [offsets[v], offsets[v+1]).
+ * 4. destinations - int[edges], the destination ordinals of every row, sorted.
+ * 5. weights - double[edges], aligned to 8 bytes.
+ * The graph can not be changed (addNode, connect, removeNode, removeEdge and setLocation throw
+ * UnsupportedOperationException), only the weight, info and tag of the nodes and edges, which are kept in memory.
+ * The file must not be changed while the graph is in use.
+ */
+public class DWGraph_Mapped implements directed_weighted_graph {
+
+	private static final int MAGIC = 0x44574753;
+	private static final int VERSION = 1;
+	private static final int FLAG_DENSE_KEYS = 1;
+	private static final int HEADER_SIZE = 32;
+
+	private final int nodeSize, edgeSize, mc;
+	private final boolean denseKeys;
+	private final DoubleBuffer locations;
+	private final IntBuffer keys, offsets, destinations;
+	private final DoubleBuffer weights;
+	// The weight, info and tag of the nodes and the info and tag of the edges, allocated on the first use
+	private double[] nodeWeights;
+	private String[] nodeInfos, edgeInfos;
+	private int[] nodeTags, edgeTags;
+
+	private DWGraph_Mapped(int flags, int nodeSize, int edgeSize, int mc, DoubleBuffer locations,
+			IntBuffer keys, IntBuffer offsets, IntBuffer destinations, DoubleBuffer weights) {
+		this.denseKeys = (flags & FLAG_DENSE_KEYS) != 0;
+		this.nodeSize = nodeSize;
+		this.edgeSize = edgeSize;
+		this.mc = mc;
+		this.locations = locations;
+		this.keys = keys;
+		this.offsets = offsets;
+		this.destinations = destinations;
+		this.weights = weights;
+	}
+
+	/**
+	 * Writes a binary snapshot of the graph.
+	 * @param g - the graph
+	 * @param file - the file name
+	 * @throws IOException if the file can not be written
+	 */
+	public static void save(directed_weighted_graph g, String file) throws IOException {
+		int n = g.nodeSize();
+		int[] keys = new int[n];
+		int i = 0;
+		for (node_data node : g.getV()) {
+			keys[i++] = node.getKey();
+		}
+		Arrays.sort(keys);
+		boolean dense = true;
+		IntHashMap<node_data> nodes = new IntHashMap<>(n);
+		for (i = 0; i < n; i++) {
+			nodes.put(keys[i], g.getNode(keys[i]));
+			dense &= keys[i] == i;
+		}
+		int[] offsets = new int[n + 1];
+		for (i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + g.getE(keys[i]).size();
+		}
+		int edges = offsets[n];
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(dense ? FLAG_DENSE_KEYS : 0);
+			out.writeInt(n);
+			out.writeLong(edges);
+			out.writeInt(g.getMC());
+			out.writeInt(0);
+			for (i = 0; i < n; i++) {
+				geo_location pos = nodes.valueAt(i).getLocation();
+				out.writeDouble(pos == null ? Double.NaN : pos.x());
+				out.writeDouble(pos == null ? Double.NaN : pos.y());
+				out.writeDouble(pos == null ? Double.NaN : pos.z());
+			}
+			for (int key : keys) {
+				out.writeInt(key);
+			}
+			for (int offset : offsets) {
+				out.writeInt(offset);
+			}
+			// Every row is sorted by destination, the weights are written in a second pass in the same order
+			for (i = 0; i < n; i++) {
+				for (int d : sortedRow(g, keys[i], nodes)) {
+					out.writeInt(d);
+				}
+			}
+			if ((2L * n + 1 + edges) % 2 != 0) {
+				out.writeInt(0);
+			}
+			for (i = 0; i < n; i++) {
+				for (int d : sortedRow(g, keys[i], nodes)) {
+					out.writeDouble(g.getEdge(keys[i], keys[d]).getWeight());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the sorted destination ordinals of the out edges of a node.
+	 */
+	private static int[] sortedRow(directed_weighted_graph g, int key, IntHashMap<node_data> nodes) {
+		Collection<edge_data> out = g.getE(key);
+		int[] row = new int[out.size()];
+		int i = 0;
+		for (edge_data edge : out) {
+			row[i++] = nodes.indexOf(edge.getDest());
+		}
+		Arrays.sort(row);
+		return row;
+	}
+
+	/**
+	 * Memory maps a binary snapshot written by save.
+	 * @param file - the file name
+	 * @return DWGraph_Mapped - the read only graph
+	 * @throws IOException if the file can not be read or is not a graph snapshot
+	 */
+	public static DWGraph_Mapped load(String file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException("Not a graph snapshot: " + file);
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a graph snapshot: " + file);
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported graph snapshot version " + version + ": " + file);
+			}
+			int flags = header.getInt();
+			int n = header.getInt();
+			long edges = header.getLong();
+			int mc = header.getInt();
+			if (n < 0 || edges < 0 || edges > Integer.MAX_VALUE) {
+				throw new IOException("Corrupted graph snapshot: " + file);
+			}
+			long position = HEADER_SIZE;
+			long locationsPos = position;
+			position += 24L * n;
+			long keysPos = position;
+			position += 4L * n;
+			long offsetsPos = position;
+			position += 4L * (n + 1);
+			long destinationsPos = position;
+			position += 4L * edges;
+			position += position % 8;
+			long weightsPos = position;
+			position += 8L * edges;
+			if (channel.size() != position) {
+				throw new IOException("Corrupted graph snapshot: " + file);
+			}
+			return new DWGraph_Mapped(flags, n, (int) edges, mc,
+					map(channel, locationsPos, 24L * n).asDoubleBuffer(),
+					map(channel, keysPos, 4L * n).asIntBuffer(),
+					map(channel, offsetsPos, 4L * (n + 1)).asIntBuffer(),
+					map(channel, destinationsPos, 4L * edges).asIntBuffer(),
+					map(channel, weightsPos, 8L * edges).asDoubleBuffer());
+		}
+	}
+
+	/**
+	 * Returns true if the file starts with the magic number of a graph snapshot.
+	 * @param file - the file name
+	 * @return boolean - true if the file is a graph snapshot, else false
+	 */
+	public static boolean isSnapshot(String file) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Graph snapshot section too large to map: " + size + " bytes");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+	}
+
+	/**
+	 * Returns the node_data by the node_id,
+	 * @param key - the node_id
+	 * @return the node_data by the node_id, null if none.
+	 */
+	@Override
+	public node_data getNode(int key) {
+		int ord = ordinalOf(key);
+		return ord == -1 ? null : new Node(ord);
+	}
+
+	/**
+	 * Returns the data of the edge (src,dest), null if none.
+	 * Runs in O(log k) on the mapped row (k - the out degree of src).
+	 * @param src - the start node
+	 * @param dest - end (target) node
+	 * @return edge_data edge
+	 */
+	@Override
+	public edge_data getEdge(int src, int dest) {
+		int s = ordinalOf(src);
+		int d = ordinalOf(dest);
+		if (s == -1 || d == -1) {
+			return null;
+		}
+		int low = offsets.get(s), high = offsets.get(s + 1) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int v = destinations.get(mid);
+			if (v < d) {
+				low = mid + 1;
+			}
+			else if (v > d) {
+				high = mid - 1;
+			}
+			else {
+				return new Edge(s, mid);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Not supported, the graph is read only.
+	 * @param n - the node
+	 */
+	@Override
+	public void addNode(node_data n) {
+		throw new UnsupportedOperationException("A mapped graph is read only");
+	}
+
+	/**
+	 * Not supported, the graph is read only.
+	 * @param src - the source of the edge.
+	 * @param dest - the destination of the edge.
+	 * @param w - the weight.
+	 */
+	@Override
+	public void connect(int src, int dest, double w) {
+		throw new UnsupportedOperationException("A mapped graph is read only");
+	}
+
+	/**
+	 * This method returns a view of all the nodes in the graph, in the order of their keys.
+	 * @return Collection of node_data
+	 */
+	@Override
+	public Collection<node_data> getV() {
+		return new Nodes();
+	}
+
+	/**
+	 * This method returns a view of all the edges getting out of
+	 * the given node, sorted by destination.
+	 * @return Collection of edge_data
+	 */
+	@Override
+	public Collection<edge_data> getE(int node_id) {
+		int s = ordinalOf(node_id);
+		if (s == -1) {
+			return Collections.emptyList();
+		}
+		return new Edges(s);
+	}
+
+	/**
+	 * Not supported, the graph is read only.
+	 * @param key - the key of the node
+	 * @return nothing
+	 */
+	@Override
+	public node_data removeNode(int key) {
+		throw new UnsupportedOperationException("A mapped graph is read only");
+	}
+
+	/**
+	 * Not supported, the graph is read only.
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return nothing
+	 */
+	@Override
+	public edge_data removeEdge(int src, int dest) {
+		throw new UnsupportedOperationException("A mapped graph is read only");
+	}
+
+	/**
+	 * Returns the number of vertices (nodes) in the graph.
+	 * @return int node size - the number of nodes in the graph
+	 */
+	@Override
+	public int nodeSize() {
+		return nodeSize;
+	}
+
+	/**
+	 * Returns the number of edges (assume directional graph).
+	 * @return int edge size - the number of edges in the graph
+	 */
+	@Override
+	public int edgeSize() {
+		return edgeSize;
+	}
+
+	/**
+	 * Returns the Mode Count of the graph that was saved.
+	 * @return int mode counter - the count of any changes in the graph
+	 */
+	@Override
+	public int getMC() {
+		return mc;
+	}
+
+	/**
+	 * Returns the ordinal of the key (binary search over the sorted keys), -1 if there is no such node.
+	 */
+	private int ordinalOf(int key) {
+		if (denseKeys) {
+			return key >= 0 && key < nodeSize ? key : -1;
+		}
+		int low = 0, high = nodeSize - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int k = keys.get(mid);
+			if (k < key) {
+				low = mid + 1;
+			}
+			else if (k > key) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A lightweight view of a node, holds only the ordinal and reads the mapped location.
+	 */
+	private class Node implements node_data {
+		private final int ord;
+
+		Node(int ord) {
+			this.ord = ord;
+		}
+
+		@Override
+		public int getKey() {
+			return keys.get(ord);
+		}
+
+		@Override
+		public geo_location getLocation() {
+			double x = locations.get(ord * 3);
+			return Double.isNaN(x) ? null : new GeoLocation(x, locations.get(ord * 3 + 1), locations.get(ord * 3 + 2));
+		}
+
+		@Override
+		public void setLocation(geo_location p) {
+			throw new UnsupportedOperationException("A mapped graph is read only");
+		}
+
+		@Override
+		public double getWeight() {
+			return nodeWeights == null ? 0 : nodeWeights[ord];
+		}
+
+		@Override
+		public void setWeight(double w) {
+			if (nodeWeights == null) {
+				nodeWeights = new double[nodeSize];
+			}
+			nodeWeights[ord] = w;
+		}
+
+		@Override
+		public String getInfo() {
+			return nodeInfos == null ? null : nodeInfos[ord];
+		}
+
+		@Override
+		public void setInfo(String s) {
+			if (nodeInfos == null) {
+				nodeInfos = new String[nodeSize];
+			}
+			nodeInfos[ord] = s;
+		}
+
+		@Override
+		public int getTag() {
+			return nodeTags == null ? 0 : nodeTags[ord];
+		}
+
+		@Override
+		public void setTag(int t) {
+			if (nodeTags == null) {
+				nodeTags = new int[nodeSize];
+			}
+			nodeTags[ord] = t;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Node && ((Node) obj).ord == ord;
+		}
+
+		@Override
+		public int hashCode() {
+			return ord;
+		}
+
+		@Override
+		public String toString() {
+			return "" + getKey();
+		}
+	}
+
+	/**
+	 * A lightweight view of an edge, holds the source ordinal and the index of the edge in the mapped arrays.
+	 */
+	private class Edge implements edge_data {
+		private final int src, index;
+
+		Edge(int src, int index) {
+			this.src = src;
+			this.index = index;
+		}
+
+		@Override
+		public int getSrc() {
+			return keys.get(src);
+		}
+
+		@Override
+		public int getDest() {
+			return keys.get(destinations.get(index));
+		}
+
+		@Override
+		public double getWeight() {
+			return weights.get(index);
+		}
+
+		@Override
+		public String getInfo() {
+			return edgeInfos == null ? null : edgeInfos[index];
+		}
+
+		@Override
+		public void setInfo(String s) {
+			if (edgeInfos == null) {
+				edgeInfos = new String[edgeSize];
+			}
+			edgeInfos[index] = s;
+		}
+
+		@Override
+		public int getTag() {
+			return edgeTags == null ? 0 : edgeTags[index];
+		}
+
+		@Override
+		public void setTag(int t) {
+			if (edgeTags == null) {
+				edgeTags = new int[edgeSize];
+			}
+			edgeTags[index] = t;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Edge && ((Edge) obj).index == index;
+		}
+
+		@Override
+		public int hashCode() {
+			return index;
+		}
+
+		@Override
+		public String toString() {
+			return getSrc() + "->" + getDest();
+		}
+	}
+
+	/**
+	 * View of all the nodes of the graph, in ordinal order.
+	 */
+	private class Nodes extends AbstractCollection<node_data> {
+
+		@Override
+		public Iterator<node_data> iterator() {
+			return new Iterator<node_data>() {
+				private int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return next < nodeSize;
+				}
+
+				@Override
+				public node_data next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return new Node(next++);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return nodeSize;
+		}
+	}
+
+	/**
+	 * View of the out edges of a single node, a row of the mapped arrays.
+	 */
+	private class Edges extends AbstractCollection<edge_data> {
+		private final int src;
+
+		Edges(int src) {
+			this.src = src;
+		}
+
+		@Override
+		public Iterator<edge_data> iterator() {
+			return new Iterator<edge_data>() {
+				private int next = offsets.get(src);
+				private final int end = offsets.get(src + 1);
+
+				@Override
+				public boolean hasNext() {
+					return next < end;
+				}
+
+				@Override
+				public edge_data next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return new Edge(src, next++);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return offsets.get(src + 1) - offsets.get(src);
+		}
+	}
+}
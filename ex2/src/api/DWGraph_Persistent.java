@@ -0,0 +1,297 @@
+package api;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * This class implements directed_weighted_graph interface
+ * that represents a directional weighted graph, same as DWGraph_DS,
+ * but the nodes and the adjacency are kept in persistent hash tries (PersistentIntMap),
+ * so a snapshot of the graph is taken in O(1) and shares all of its structure with the graph.
+ * After a snapshot the graph and the snapshot change independently, a change copies only the trie nodes
+ * on the paths it touches (the first change of a node's edges copies its out map and in map paths once,
+ * the following changes of the same node are made in place).
+ * Choose it over DWGraph_DS when snapshots are taken often, e.g. planners working on a stable view of a live graph.
+ * The node_data and edge_data objects are shared by a graph and its snapshots (like getV shares them with the caller),
+ * the snapshot is independent in which nodes and edges exist and in the edge weights.
+ */
+public class DWGraph_Persistent implements directed_weighted_graph {
+
+	// The edit token of this graph, the trie nodes created under it are changed in place
+	private Object edit;
+	// This map holds the nodes of this graph
+	private PersistentIntMap<node_data> nodes;
+	// This map holds the node neighbors and the edges between them
+	private PersistentIntMap<PersistentIntMap<edge_data>> neighbors;
+	// This map holds the parents of nodes in the graph
+	private PersistentIntMap<PersistentIntMap<edge_data>> parents;
+	private int edgeSize, mc;
+
+	/**
+	 * Default constructor.
+	 */
+	public DWGraph_Persistent() {
+		this.edit = new Object();
+		this.nodes = new PersistentIntMap<>(edit);
+		this.neighbors = new PersistentIntMap<>(edit);
+		this.parents = new PersistentIntMap<>(edit);
+	}
+
+	/**
+	 * Deep copy constructor that copies
+	 * an existing graph and creates a new graph, use snapshot to copy a DWGraph_Persistent.
+	 * @param g - directed_weighted_graph
+	 */
+	public DWGraph_Persistent(directed_weighted_graph g) {
+		this();
+		// Check if graph is null else copy
+		if (g == null) {
+			return;
+		}
+		// Loop and create new nodes and copy content from each node
+		for (node_data n : g.getV()) {
+			int srcKey = n.getKey();
+			this.nodes.put(srcKey, new NodeData(srcKey));
+		}
+		// Loop over the nodes and copy the edges of each node
+		for (node_data node : g.getV()) {
+			int srcKey = node.getKey();
+			for (edge_data edge : g.getE(srcKey)) {
+				connect(srcKey, edge.getDest(), edge.getWeight());
+			}
+		}
+		// Set the mode counter and edge size to the same value as the copied graph
+		this.edgeSize = g.edgeSize();
+		this.mc = g.getMC();
+	}
+
+	private DWGraph_Persistent(Object edit, PersistentIntMap<node_data> nodes,
+			PersistentIntMap<PersistentIntMap<edge_data>> neighbors,
+			PersistentIntMap<PersistentIntMap<edge_data>> parents, int edgeSize, int mc) {
+		this.edit = edit;
+		this.nodes = nodes;
+		this.neighbors = neighbors;
+		this.parents = parents;
+		this.edgeSize = edgeSize;
+		this.mc = mc;
+	}
+
+	/**
+	 * Returns a copy of this graph in O(1), sharing the whole structure with this graph.
+	 * From now on neither graph changes the shared trie nodes in place, each copies what it changes.
+	 * @return DWGraph_Persistent - the snapshot
+	 */
+	public DWGraph_Persistent snapshot() {
+		Object other = new Object();
+		DWGraph_Persistent copy = new DWGraph_Persistent(other, nodes.fork(other), neighbors.fork(other),
+				parents.fork(other), edgeSize, mc);
+		// This graph moves to a new token too, the trie nodes of the old token are now shared
+		this.edit = new Object();
+		this.nodes = nodes.fork(edit);
+		this.neighbors = neighbors.fork(edit);
+		this.parents = parents.fork(edit);
+		return copy;
+	}
+
+	/**
+	 * Returns the node_data by the node_id,
+	 * @param key - the node_id
+	 * @return the node_data by the node_id, null if none.
+	 */
+	@Override
+	public node_data getNode(int key) {
+		return nodes.get(key);
+	}
+
+	/**
+	 * Returns the data of the edge (src,dest), null if none.
+	 * @param src - the start node
+	 * @param dest - end (target) node
+	 * @return edge_data edge
+	 */
+	@Override
+	public edge_data getEdge(int src, int dest) {
+		// An edge can only exist between two nodes of the graph, so one lookup in the neighbors is enough
+		PersistentIntMap<edge_data> edges = neighbors.get(src);
+		return edges == null ? null : edges.get(dest);
+	}
+
+	/**
+	 * Adds a new node to the graph with the given node_data.
+	 * @param n - node needed to be added to the graph
+	 */
+	@Override
+	public void addNode(node_data n) {
+		if (!nodes.containsKey(n.getKey())) {
+			nodes.put(n.getKey(), n);
+			mc++;
+		}
+	}
+
+	/**
+	 * Connects an edge with weight w between node src to node dest.
+	 * @param src - the source of the edge.
+	 * @param dest - the destination of the edge.
+	 * @param w - positive weight representing the cost (aka time, price, etc) between src--dest.
+	 */
+	@Override
+	public void connect(int src, int dest, double w) {
+		// Check if src is not equal to dest and if they exist in the graph
+		// and if the weight is positive, then connect
+		if (src != dest && nodes.containsKey(src) && nodes.containsKey(dest) && w >= 0) {
+			PersistentIntMap<edge_data> out = neighbors.get(src);
+			edge_data old = out == null ? null : out.get(dest);
+			// Same as DWGraph_DS, an edge of the same weight is not changed
+			if (old != null && old.getWeight() == w) {
+				return;
+			}
+			edge_data edge = new EdgeData(src, dest, w);
+			editable(neighbors, src).put(dest, edge);
+			editable(parents, dest).put(src, edge);
+			if (old == null) {
+				edgeSize++;
+			}
+			mc++;
+		}
+	}
+
+	/**
+	 * Returns the inner map of the key which this graph may change,
+	 * creates it if there is none and forks it if it is shared with a snapshot.
+	 */
+	private PersistentIntMap<edge_data> editable(PersistentIntMap<PersistentIntMap<edge_data>> map, int key) {
+		PersistentIntMap<edge_data> edges = map.get(key);
+		if (edges == null) {
+			edges = new PersistentIntMap<>(edit);
+			map.put(key, edges);
+		}
+		else if (!edges.isOwnedBy(edit)) {
+			edges = edges.fork(edit);
+			map.put(key, edges);
+		}
+		return edges;
+	}
+
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the nodes in the graph.
+	 * @return Collection of node_data
+	 */
+	@Override
+	public Collection<node_data> getV() {
+		return nodes.values();
+	}
+
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the edges getting out of
+	 * the given node (all the edges starting (source) at the given node).
+	 * Note: this method should run in O(k) time, k being the collection size.
+	 * @return Collection of edge_data
+	 */
+	@Override
+	public Collection<edge_data> getE(int node_id) {
+		PersistentIntMap<edge_data> edges = neighbors.get(node_id);
+		if (edges == null) {
+			return Collections.emptyList();
+		}
+		return edges.values();
+	}
+
+	/**
+	 * This method returns a pointer (shallow copy) for the
+	 * collection representing all the edges getting into
+	 * the given node (all the edges ending (destination) at the given node).
+	 * Note: this method runs in O(1) time using the parents map.
+	 * @param node_id - the key of the node
+	 * @return Collection of edge_data
+	 */
+	public Collection<edge_data> getInE(int node_id) {
+		PersistentIntMap<edge_data> edges = parents.get(node_id);
+		if (edges == null) {
+			return Collections.emptyList();
+		}
+		return edges.values();
+	}
+
+	/**
+	 * Deletes the node (with the given ID) from the graph -
+	 * and removes all edges which starts or ends at this node.
+	 * This method should run in O(k), V.degree=k, as all the edges should be removed.
+	 * @return the data of the removed node (null if none).
+	 * @param key - the key of the node that needed to be removed from the graph
+	 */
+	@Override
+	public node_data removeNode(int key) {
+		node_data node = nodes.get(key);
+		if (node == null) {
+			return null;
+		}
+		// The rows of the node are dropped whole, only the rows of its neighbors change
+		PersistentIntMap<edge_data> out = neighbors.remove(key);
+		if (out != null) {
+			for (edge_data edge : out.values()) {
+				editable(parents, edge.getDest()).remove(key);
+				edgeSize--;
+				mc++;
+			}
+		}
+		PersistentIntMap<edge_data> in = parents.remove(key);
+		if (in != null) {
+			for (edge_data edge : in.values()) {
+				editable(neighbors, edge.getSrc()).remove(key);
+				edgeSize--;
+				mc++;
+			}
+		}
+		nodes.remove(key);
+		mc++;
+		return node;
+	}
+
+	/**
+	 * Deletes the edge from the graph,
+	 * @param src - start node
+	 * @param dest - end (target) node
+	 * @return edge_data - the data of the removed edge (null if none).
+	 */
+	@Override
+	public edge_data removeEdge(int src, int dest) {
+		PersistentIntMap<edge_data> out = neighbors.get(src);
+		if (out == null || !out.containsKey(dest)) {
+			return null;
+		}
+		edge_data edge = editable(neighbors, src).remove(dest);
+		editable(parents, dest).remove(src);
+		edgeSize--;
+		mc++;
+		return edge;
+	}
+
+	/**
+	 * Returns the number of vertices (nodes) in the graph.
+	 * @return int node size - the number of nodes in the graph
+	 */
+	@Override
+	public int nodeSize() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the number of edges (assume directional graph).
+	 * @return int edge size - the number of edges in the graph
+	 */
+	@Override
+	public int edgeSize() {
+		return edgeSize;
+	}
+
+	/**
+	 * Returns the Mode Count - for testing changes in the graph.
+	 * @return int mode counter - the count of any changes in the graph
+	 */
+	@Override
+	public int getMC() {
+		return mc;
+	}
+}
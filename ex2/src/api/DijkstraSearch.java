@@ -0,0 +1,258 @@
+package api;
+
+import java.util.Arrays;
+
+/**
+ * This class runs the Dijkstra algorithm over a GraphIndex and keeps its scratch data:
+ * the distance and the parent of every ordinal in primitive arrays and an IndexedMinHeap
+ * with a real decrease-key, so a search runs in O((n+e)log(n)) time.
+ * Only the ordinals touched by the previous search are reset, so the arrays are reused between searches.
+ * Two goal directed variants settle fewer nodes for a single pair:
+ * A* (runAStar) orders the heap by the distance plus an estimate of the rest of the way from the node locations,
+ * and the bidirectional search (runBidirectional) runs a second search back from the target over the in edges.
+ * An instance is not thread safe, every thread should use its own instance.
+ */
+final class DijkstraSearch {
+
+	private double[] dist = new double[0];
+	private int[] parent = new int[0];
+	// The ordinals whose distance was set by the current search
+	private int[] touched = new int[0];
+	private int touchedSize, settled;
+	// The ordinals in the order they were settled by the current search
+	private int[] order = new int[0];
+	private IndexedMinHeap heap = new IndexedMinHeap(0);
+	// The search back from the target of a bidirectional search, created by the first one
+	private DijkstraSearch reverse;
+	// The node where the two directions of the last bidirectional search meet
+	private int meet;
+	// The nodes settled by the last search, in both directions
+	private int total;
+
+	/**
+	 * Runs the Dijkstra algorithm from src, stops once dest is settled.
+	 * @param index - the graph snapshot
+	 * @param src - the ordinal of the start node
+	 * @param dest - the ordinal of the end (target) node, -1 to reach every node
+	 */
+	void run(GraphIndex index, int src, int dest) {
+		search(index, src, dest, null, 0);
+	}
+
+	/**
+	 * Runs the A* algorithm from src to dest: the heap is ordered by the distance from src plus
+	 * the straight line distance to dest times the lowest weight per length of an edge (GraphIndex.weightPerLength),
+	 * which is never more than the rest of the way, so dest is settled with its shortest distance.
+	 * Without locations the estimate is 0 and it is the Dijkstra algorithm.
+	 * @param index - the graph snapshot
+	 * @param src - the ordinal of the start node
+	 * @param dest - the ordinal of the end (target) node
+	 */
+	void runAStar(GraphIndex index, int src, int dest) {
+		index.ensureLocations();
+		double scale = index.weightPerLength();
+		search(index, src, dest, scale == 0 ? null : index.locations(), scale);
+	}
+
+	/**
+	 * Runs the Dijkstra algorithm from src over the out edges and from dest over the in edges,
+	 * always advancing the direction whose next node is closer, until the two nearest unsettled nodes
+	 * are together at least as far as the shortest path found through a node reached by both.
+	 * The path is the parents from meet() back to src, then the parents of the reverse search (next()) to dest.
+	 * @param index - the graph snapshot
+	 * @param src - the ordinal of the start node
+	 * @param dest - the ordinal of the end (target) node
+	 * @return double - the shortest distance, Double.POSITIVE_INFINITY if dest is not reachable
+	 */
+	double runBidirectional(GraphIndex index, int src, int dest) {
+		index.ensureInEdges();
+		if (reverse == null) {
+			reverse = new DijkstraSearch();
+		}
+		start(index.size(), src);
+		reverse.start(index.size(), dest);
+		double best = Double.POSITIVE_INFINITY;
+		meet = -1;
+		if (src == dest) {
+			best = 0;
+			meet = src;
+		}
+		while (!heap.isEmpty() && !reverse.heap.isEmpty()) {
+			double forwardKey = heap.peekKey();
+			double reverseKey = reverse.heap.peekKey();
+			if (forwardKey + reverseKey >= best) {
+				break;
+			}
+			int through = forwardKey <= reverseKey
+					? settleNext(reverse, index.outStart, index.outTo, index.outWeight)
+					: reverse.settleNext(this, index.inStart(), index.inFrom(), index.inWeight());
+			// A node reached by both directions is on a path from src to dest
+			if (through != -1 && dist[through] + reverse.dist[through] < best) {
+				best = dist[through] + reverse.dist[through];
+				meet = through;
+			}
+		}
+		heap.clear();
+		reverse.heap.clear();
+		total = settled + reverse.settled;
+		return best;
+	}
+
+	private void search(GraphIndex index, int src, int dest, double[] locations, double scale) {
+		reset(index.size());
+		setDist(src, 0, -1);
+		heap.insert(src, locations == null ? 0 : estimate(locations, src, dest, scale));
+		int[] outStart = index.outStart;
+		int[] outTo = index.outTo;
+		double[] outWeight = index.outWeight;
+		while (!heap.isEmpty()) {
+			int v = heap.poll();
+			order[settled++] = v;
+			if (v == dest) {
+				break;
+			}
+			double d = dist[v];
+			for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+				int u = outTo[i];
+				double sum = d + outWeight[i];
+				// A settled node (reached and no longer in the heap) is never opened again
+				if (sum < dist[u] && (dist[u] == Double.POSITIVE_INFINITY || heap.contains(u))) {
+					setDist(u, sum, v);
+					heap.insertOrDecrease(u, locations == null ? sum : sum + estimate(locations, u, dest, scale));
+				}
+			}
+		}
+		heap.clear();
+		total = settled;
+	}
+
+	/**
+	 * Settles the next node of one direction of a bidirectional search and relaxes its edges.
+	 * @param other - the search of the other direction
+	 * @param start - the edges rows of this direction
+	 * @param to - the other end of every edge
+	 * @param weight - the weight of every edge
+	 * @return int - a node reached by both directions whose distance improved, the nearest to the sources, or -1
+	 */
+	private int settleNext(DijkstraSearch other, int[] start, int[] to, double[] weight) {
+		int v = heap.poll();
+		order[settled++] = v;
+		double d = dist[v];
+		int through = -1;
+		double best = Double.POSITIVE_INFINITY;
+		for (int i = start[v]; i < start[v + 1]; i++) {
+			int u = to[i];
+			double sum = d + weight[i];
+			if (sum < dist[u]) {
+				setDist(u, sum, v);
+				heap.insertOrDecrease(u, sum);
+			}
+			if (dist[u] + other.dist[u] < best) {
+				best = dist[u] + other.dist[u];
+				through = u;
+			}
+		}
+		return through;
+	}
+
+	private static double estimate(double[] locations, int v, int dest, double scale) {
+		double dx = locations[3 * v] - locations[3 * dest];
+		double dy = locations[3 * v + 1] - locations[3 * dest + 1];
+		double dz = locations[3 * v + 2] - locations[3 * dest + 2];
+		return scale * Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+
+	/**
+	 * Returns the distance of an ordinal found by the last search.
+	 * @param v - the ordinal
+	 * @return double - the distance, Double.POSITIVE_INFINITY if not reached
+	 */
+	double dist(int v) {
+		return dist[v];
+	}
+
+	/**
+	 * Returns the parent of an ordinal on the shortest path found by the last search.
+	 * @param v - the ordinal
+	 * @return int - the parent ordinal, -1 for the source (only valid for reached ordinals)
+	 */
+	int parent(int v) {
+		return parent[v];
+	}
+
+	/**
+	 * Returns the number of nodes settled (polled from the heap) by the last search.
+	 * @return int - the number of settled nodes
+	 */
+	int settled() {
+		return settled;
+	}
+
+	/**
+	 * Returns the number of nodes settled by the last search in both directions,
+	 * the same as settled() except for a bidirectional search.
+	 * @return int - the number of settled nodes
+	 */
+	int settledTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the node where the two directions of the last bidirectional search meet.
+	 * @return int - the ordinal, -1 if dest was not reached
+	 */
+	int meet() {
+		return meet;
+	}
+
+	/**
+	 * Returns the next ordinal toward dest on the shortest path found by the last bidirectional search,
+	 * for the meet node and the ordinals after it.
+	 * @param v - the ordinal
+	 * @return int - the next ordinal, -1 for dest
+	 */
+	int next(int v) {
+		return reverse.parent(v);
+	}
+
+	/**
+	 * Returns the i-th ordinal settled by the last search,
+	 * a node is always settled after its parent.
+	 * @param i - the index in the range [0, settled())
+	 * @return int - the ordinal
+	 */
+	int settledAt(int i) {
+		return order[i];
+	}
+
+	private void start(int n, int src) {
+		reset(n);
+		setDist(src, 0, -1);
+		heap.insert(src, 0);
+	}
+
+	private void setDist(int v, double d, int p) {
+		if (dist[v] == Double.POSITIVE_INFINITY) {
+			touched[touchedSize++] = v;
+		}
+		dist[v] = d;
+		parent[v] = p;
+	}
+
+	private void reset(int n) {
+		if (dist.length < n) {
+			dist = new double[n];
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+			parent = new int[n];
+			touched = new int[n];
+			order = new int[n];
+			heap = new IndexedMinHeap(n);
+		} else {
+			for (int i = 0; i < touchedSize; i++) {
+				dist[touched[i]] = Double.POSITIVE_INFINITY;
+			}
+		}
+		touchedSize = 0;
+		settled = 0;
+	}
+}
@@ -0,0 +1,154 @@
+package api;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a batch of changes of a directed graph, delivered to the GraphListener of the graph.
+ * The events are kept in parallel primitive arrays (the type, source, destination and weights of every event),
+ * so recording an event allocates nothing and the same batch object is reused for every delivery.
+ * The events are read by index, in the order they were made:
+ * NODE_ADDED and NODE_REMOVED - key(i) is the node.
+ * EDGE_ADDED - src(i), dest(i) and weight(i) are the new edge.
+ * EDGE_REMOVED - src(i), dest(i) and weight(i) are the removed edge.
+ * WEIGHT_CHANGED - src(i), dest(i), the new weight(i) and the weight it replaced oldWeight(i).
+ * Removing a node first removes its edges, one EDGE_REMOVED per edge and then NODE_REMOVED
+ * (the same changes the mode counter counts).
+ */
+public final class GraphEvents {
+
+	/**
+	 * The type of a change.
+	 */
+	public enum Type {
+		NODE_ADDED,
+		NODE_REMOVED,
+		EDGE_ADDED,
+		EDGE_REMOVED,
+		WEIGHT_CHANGED
+	}
+
+	private static final int DEFAULT_CAPACITY = 8;
+	private Type[] types;
+	private int[] src, dest;
+	private double[] weight, oldWeight;
+	private int size;
+
+	/**
+	 * Default constructor.
+	 */
+	GraphEvents() {
+		this.types = new Type[DEFAULT_CAPACITY];
+		this.src = new int[DEFAULT_CAPACITY];
+		this.dest = new int[DEFAULT_CAPACITY];
+		this.weight = new double[DEFAULT_CAPACITY];
+		this.oldWeight = new double[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Returns the number of events.
+	 * @return int - the number of events
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the type of the event.
+	 * @param i - the index of the event in the range [0, size())
+	 * @return Type - the type
+	 */
+	public Type type(int i) {
+		return types[check(i)];
+	}
+
+	/**
+	 * Returns the node of a node event (the same as src).
+	 * @param i - the index of the event in the range [0, size())
+	 * @return int - the node key
+	 */
+	public int key(int i) {
+		return src[check(i)];
+	}
+
+	/**
+	 * Returns the source of an edge event.
+	 * @param i - the index of the event in the range [0, size())
+	 * @return int - the source node key
+	 */
+	public int src(int i) {
+		return src[check(i)];
+	}
+
+	/**
+	 * Returns the destination of an edge event.
+	 * @param i - the index of the event in the range [0, size())
+	 * @return int - the destination node key
+	 */
+	public int dest(int i) {
+		return dest[check(i)];
+	}
+
+	/**
+	 * Returns the weight of the edge of an edge event (the new weight of WEIGHT_CHANGED).
+	 * @param i - the index of the event in the range [0, size())
+	 * @return double - the weight, 0 for a node event
+	 */
+	public double weight(int i) {
+		return weight[check(i)];
+	}
+
+	/**
+	 * Returns the weight the edge had before a WEIGHT_CHANGED event.
+	 * @param i - the index of the event in the range [0, size())
+	 * @return double - the old weight, 0 for any other event
+	 */
+	public double oldWeight(int i) {
+		return oldWeight[check(i)];
+	}
+
+	/**
+	 * Records an event at the end of the batch.
+	 */
+	void add(Type type, int src, int dest, double weight, double oldWeight) {
+		if (size == types.length) {
+			int capacity = size * 2;
+			this.types = Arrays.copyOf(types, capacity);
+			this.src = Arrays.copyOf(this.src, capacity);
+			this.dest = Arrays.copyOf(this.dest, capacity);
+			this.weight = Arrays.copyOf(this.weight, capacity);
+			this.oldWeight = Arrays.copyOf(this.oldWeight, capacity);
+		}
+		this.types[size] = type;
+		this.src[size] = src;
+		this.dest[size] = dest;
+		this.weight[size] = weight;
+		this.oldWeight[size] = oldWeight;
+		size++;
+	}
+
+	/**
+	 * Removes all the events, the arrays are kept for the next batch.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	private int check(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Event " + i + " of " + size);
+		}
+		return i;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			sb.append(i == 0 ? "" : ", ").append(types[i]).append(' ').append(src[i]);
+			if (types[i] != Type.NODE_ADDED && types[i] != Type.NODE_REMOVED) {
+				sb.append("->").append(dest[i]).append(' ').append(weight[i]);
+			}
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,271 @@
+package api;
+
+import java.util.Collection;
+
+/**
+ * This class represents a read only snapshot of a directed_weighted_graph used by the graph algorithms.
+ * Every node gets a dense ordinal [0, n) (in the order of getV()) and the out edges of all the nodes
+ * are kept in compressed-sparse-row arrays, so the algorithms can work on primitive arrays
+ * instead of looking up nodes and edges in the graph maps.
+ * The in edges (the transposed graph) and the node locations are built only when an algorithm first asks for them.
+ * The snapshot is valid as long as the mode counter of the graph did not change.
+ * A DWGraph_Frozen is built with its snapshot, which shares the arrays of the graph and has its in edges from the start.
+ */
+final class GraphIndex {
+
+	private final directed_weighted_graph graph;
+	private final int mc;
+	// The nodes by ordinal, the dense index of a key in this map is its ordinal (no values for a frozen graph)
+	private final IntHashMap<node_data> nodes;
+	// The frozen graph that makes the nodes on request, null for any other graph
+	private final DWGraph_Frozen frozen;
+	// Out edges of ordinal v are outTo/outWeight[outStart[v], outStart[v+1])
+	final int[] outStart;
+	final int[] outTo;
+	final double[] outWeight;
+	// In edges of ordinal v are inFrom/inWeight[inStart[v], inStart[v+1]), null until built
+	private int[] inStart, inFrom;
+	private double[] inWeight;
+	// The x, y and z of every ordinal, and the lowest weight per unit of length of an edge, null until built
+	private double[] locations;
+	private double weightPerLength;
+
+	/**
+	 * Constructor, builds the snapshot of the graph in O(n+e) time.
+	 * @param g - the graph
+	 */
+	GraphIndex(directed_weighted_graph g) {
+		this.graph = g;
+		this.mc = g.getMC();
+		this.frozen = null;
+		int n = g.nodeSize();
+		this.nodes = new IntHashMap<>(n);
+		for (node_data node : g.getV()) {
+			nodes.put(node.getKey(), node);
+		}
+		this.outStart = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			outStart[v + 1] = outStart[v] + g.getE(nodes.keyAt(v)).size();
+		}
+		this.outTo = new int[outStart[n]];
+		this.outWeight = new double[outTo.length];
+		for (int v = 0; v < n; v++) {
+			int pos = outStart[v];
+			for (edge_data edge : g.getE(nodes.keyAt(v))) {
+				outTo[pos] = nodes.indexOf(edge.getDest());
+				outWeight[pos] = edge.getWeight();
+				pos++;
+			}
+		}
+	}
+
+	/**
+	 * Constructor of the snapshot of a frozen graph, made of the arrays of the graph (nothing is copied).
+	 * @param g - the frozen graph
+	 * @param ordinals - the keys of the nodes, the dense index of a key is its ordinal
+	 * @param outStart - the start offsets of the out edges rows
+	 * @param outTo - the destination ordinals of the out edges
+	 * @param outWeight - the weights of the out edges
+	 * @param inStart - the start offsets of the in edges rows
+	 * @param inFrom - the source ordinals of the in edges
+	 * @param inWeight - the weights of the in edges
+	 */
+	GraphIndex(DWGraph_Frozen g, IntHashMap<node_data> ordinals, int[] outStart, int[] outTo, double[] outWeight,
+			int[] inStart, int[] inFrom, double[] inWeight) {
+		this.graph = g;
+		this.mc = g.getMC();
+		this.frozen = g;
+		this.nodes = ordinals;
+		this.outStart = outStart;
+		this.outTo = outTo;
+		this.outWeight = outWeight;
+		this.inStart = inStart;
+		this.inFrom = inFrom;
+		this.inWeight = inWeight;
+	}
+
+	/**
+	 * Builds the in edges arrays if they were not built yet, in O(n+e) time.
+	 * The parents map of DWGraph_DS, DWGraph_IntDS and DWGraph_Persistent is used when available,
+	 * else the out edges arrays are transposed.
+	 * Synchronized, so a snapshot shared between threads builds the in edges once.
+	 */
+	synchronized void ensureInEdges() {
+		if (inStart != null) {
+			return;
+		}
+		int n = size();
+		int[] start = new int[n + 1];
+		int[] from = new int[outTo.length];
+		double[] weight = new double[outTo.length];
+		if (graph instanceof DWGraph_DS || graph instanceof DWGraph_IntDS || graph instanceof DWGraph_Persistent) {
+			for (int v = 0; v < n; v++) {
+				start[v + 1] = start[v] + inEdges(nodes.keyAt(v)).size();
+			}
+			for (int v = 0; v < n; v++) {
+				int pos = start[v];
+				for (edge_data edge : inEdges(nodes.keyAt(v))) {
+					from[pos] = nodes.indexOf(edge.getSrc());
+					weight[pos] = edge.getWeight();
+					pos++;
+				}
+			}
+		}
+		else {
+			// Count the in degree of every ordinal, then place every out edge in the row of its destination
+			for (int i = 0; i < outTo.length; i++) {
+				start[outTo[i] + 1]++;
+			}
+			for (int v = 0; v < n; v++) {
+				start[v + 1] += start[v];
+			}
+			int[] pos = new int[n];
+			System.arraycopy(start, 0, pos, 0, n);
+			for (int v = 0; v < n; v++) {
+				for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+					int p = pos[outTo[i]]++;
+					from[p] = v;
+					weight[p] = outWeight[i];
+				}
+			}
+		}
+		this.inFrom = from;
+		this.inWeight = weight;
+		this.inStart = start;
+	}
+
+	/**
+	 * Returns the start offsets of the in edges rows, ensureInEdges must be called first.
+	 * @return int[] - the in edges of ordinal v are in [inStart[v], inStart[v+1])
+	 */
+	int[] inStart() {
+		return inStart;
+	}
+
+	/**
+	 * Returns the source ordinals of the in edges, ensureInEdges must be called first.
+	 * @return int[] - the source ordinal of every in edge
+	 */
+	int[] inFrom() {
+		return inFrom;
+	}
+
+	/**
+	 * Returns the weights of the in edges, ensureInEdges must be called first.
+	 * @return double[] - the weight of every in edge
+	 */
+	double[] inWeight() {
+		return inWeight;
+	}
+
+	/**
+	 * Builds the locations array and the lowest weight per length of the edges if they were not built yet, in O(n+e) time.
+	 * Every edge weighs at least its (straight line) length times this ratio, so does every path,
+	 * so the distance between the locations of two nodes times the ratio never exceeds the shortest path between them.
+	 * The ratio is 0 (no estimate) if a node has no location or an edge of positive length weighs 0.
+	 * Synchronized, so a snapshot shared between threads builds them once.
+	 */
+	synchronized void ensureLocations() {
+		if (locations != null) {
+			return;
+		}
+		int n = size();
+		double[] xyz = new double[3 * n];
+		boolean located = true;
+		for (int v = 0; v < n && located; v++) {
+			geo_location pos = nodeOf(v).getLocation();
+			located = pos != null && !Double.isNaN(pos.x()) && !Double.isNaN(pos.y()) && !Double.isNaN(pos.z());
+			if (located) {
+				xyz[3 * v] = pos.x();
+				xyz[3 * v + 1] = pos.y();
+				xyz[3 * v + 2] = pos.z();
+			}
+		}
+		double ratio = Double.POSITIVE_INFINITY;
+		for (int v = 0; v < n && located; v++) {
+			for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+				int u = outTo[i];
+				double dx = xyz[3 * v] - xyz[3 * u];
+				double dy = xyz[3 * v + 1] - xyz[3 * u + 1];
+				double dz = xyz[3 * v + 2] - xyz[3 * u + 2];
+				double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+				if (length > 0) {
+					ratio = Math.min(ratio, outWeight[i] / length);
+				}
+			}
+		}
+		// A little below the ratio, so the rounding of the sums never makes an estimate too high
+		this.weightPerLength = located && ratio != Double.POSITIVE_INFINITY ? ratio * (1 - 1e-9) : 0;
+		this.locations = xyz;
+	}
+
+	/**
+	 * Returns the locations of the ordinals, ensureLocations must be called first.
+	 * @return double[] - the x, y and z of ordinal v are at [3v, 3v+3)
+	 */
+	double[] locations() {
+		return locations;
+	}
+
+	/**
+	 * Returns the lowest weight per unit of length of an edge, ensureLocations must be called first.
+	 * @return double - the ratio, 0 if the locations can not estimate the distances
+	 */
+	double weightPerLength() {
+		return weightPerLength;
+	}
+
+	private Collection<edge_data> inEdges(int key) {
+		if (graph instanceof DWGraph_DS) {
+			return ((DWGraph_DS) graph).getInE(key);
+		}
+		if (graph instanceof DWGraph_Persistent) {
+			return ((DWGraph_Persistent) graph).getInE(key);
+		}
+		return ((DWGraph_IntDS) graph).getInE(key);
+	}
+
+	/**
+	 * Returns true if this snapshot still represents the given graph.
+	 * @param g - the graph
+	 * @return boolean - true if it is the same graph and it did not change, else false
+	 */
+	boolean isValidFor(directed_weighted_graph g) {
+		return g == graph && g.getMC() == mc;
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 * @return int - the number of nodes
+	 */
+	int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the ordinal of the node with the given key.
+	 * @param key - the node key
+	 * @return int - the ordinal, -1 if none
+	 */
+	int ordinalOf(int key) {
+		return nodes.indexOf(key);
+	}
+
+	/**
+	 * Returns the key of the node with the given ordinal.
+	 * @param ordinal - the ordinal
+	 * @return int - the node key
+	 */
+	int keyOf(int ordinal) {
+		return nodes.keyAt(ordinal);
+	}
+
+	/**
+	 * Returns the node with the given ordinal.
+	 * @param ordinal - the ordinal
+	 * @return node_data - the node
+	 */
+	node_data nodeOf(int ordinal) {
+		return frozen == null ? nodes.valueAt(ordinal) : frozen.nodeAt(ordinal);
+	}
+}
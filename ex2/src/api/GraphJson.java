@@ -0,0 +1,464 @@
+package api;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * This class reads and writes directed weighted graphs in the JSON format of the game (ex2/data/A*):
+ * {"Edges":[{"src":0,"w":1.2,"dest":1},...],"Nodes":[{"pos":"x,y,z","id":0},...]}
+ * The tag and info of the edges and the tag, weight and info of the nodes are written as more fields
+ * of their objects ("tag", "info", "weight"), only when they are not the default (0 or null),
+ * so a graph without them is written exactly in the format of the game.
+ * The reader is streaming (token by token with a JsonReader), no JSON tree is built:
+ * the nodes and the edges are collected in primitive arrays in any order of the two arrays,
+ * then the graph is built from them in one pass by DWGraph_DS.Builder.
+ * The reader also accepts the older save format of DWGraph_Algo (the fields of DWGraph_DS: nodes, neighbors, parents).
+ */
+public final class GraphJson {
+
+	private GraphJson() {
+	}
+
+	/**
+	 * Reads a graph from a JSON string.
+	 * @param json - the JSON string
+	 * @return directed_weighted_graph - the graph
+	 * @throws JsonParseException if the JSON is not a graph
+	 */
+	public static directed_weighted_graph fromJson(String json) {
+		try {
+			return read(new StringReader(json));
+		} catch (IOException e) {
+			throw new JsonParseException(e);
+		}
+	}
+
+	/**
+	 * Reads a graph from a JSON stream, the reader is not closed.
+	 * @param in - the reader
+	 * @return directed_weighted_graph - the graph
+	 * @throws IOException if the stream can not be read
+	 * @throws JsonParseException if the JSON is not a graph
+	 */
+	public static directed_weighted_graph read(Reader in) throws IOException {
+		JsonReader reader = new JsonReader(in);
+		Buffer buffer = new Buffer();
+		// An object without any of the sections is not a graph (not even an empty one)
+		boolean graph = false;
+		try {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "Nodes":
+						readNodes(reader, buffer);
+						graph = true;
+						break;
+					case "Edges":
+						readEdges(reader, buffer);
+						graph = true;
+						break;
+					case "nodes":
+						readLegacyNodes(reader, buffer);
+						graph = true;
+						break;
+					case "neighbors":
+						readLegacyEdges(reader, buffer);
+						graph = true;
+						break;
+					default:
+						// The parents of the older format are the same edges as the neighbors
+						reader.skipValue();
+				}
+			}
+			reader.endObject();
+		} catch (IllegalStateException | NumberFormatException e) {
+			throw new JsonParseException(e);
+		}
+		if (!graph) {
+			throw new JsonParseException("No nodes or edges, not a graph");
+		}
+		return buffer.build();
+	}
+
+	/**
+	 * Writes the graph in the JSON format of the game, the writer is flushed but not closed.
+	 * @param g - the graph
+	 * @param out - the writer
+	 * @throws IOException if the stream can not be written
+	 */
+	public static void write(directed_weighted_graph g, Writer out) throws IOException {
+		JsonWriter writer = new JsonWriter(out);
+		writer.beginObject();
+		writer.name("Edges").beginArray();
+		for (node_data node : g.getV()) {
+			for (edge_data edge : g.getE(node.getKey())) {
+				writer.beginObject();
+				writer.name("src").value(edge.getSrc());
+				writer.name("w").value(edge.getWeight());
+				writer.name("dest").value(edge.getDest());
+				writeTagAndInfo(writer, edge.getTag(), edge.getInfo());
+				writer.endObject();
+			}
+		}
+		writer.endArray();
+		writer.name("Nodes").beginArray();
+		for (node_data node : g.getV()) {
+			writer.beginObject();
+			geo_location pos = node.getLocation();
+			if (pos != null) {
+				writer.name("pos").value(pos.x() + "," + pos.y() + "," + pos.z());
+			}
+			writer.name("id").value(node.getKey());
+			if (node.getWeight() != 0) {
+				writer.name("weight").value(node.getWeight());
+			}
+			writeTagAndInfo(writer, node.getTag(), node.getInfo());
+			writer.endObject();
+		}
+		writer.endArray();
+		writer.endObject();
+		writer.flush();
+	}
+
+	private static void writeTagAndInfo(JsonWriter writer, int tag, String info) throws IOException {
+		if (tag != 0) {
+			writer.name("tag").value(tag);
+		}
+		if (info != null) {
+			writer.name("info").value(info);
+		}
+	}
+
+	private static void readNodes(JsonReader reader, Buffer buffer) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			int id = 0, tag = 0;
+			boolean hasId = false;
+			double weight = 0;
+			String pos = null, info = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "id":
+						id = reader.nextInt();
+						hasId = true;
+						break;
+					case "pos":
+						pos = reader.nextString();
+						break;
+					case "tag":
+						tag = reader.nextInt();
+						break;
+					case "weight":
+						weight = reader.nextDouble();
+						break;
+					case "info":
+						info = readString(reader);
+						break;
+					default:
+						reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (!hasId) {
+				throw new JsonParseException("Node without id");
+			}
+			if (pos == null) {
+				buffer.addNode(id);
+			}
+			else {
+				// The position is "x,y,z"
+				int first = pos.indexOf(',');
+				int second = pos.indexOf(',', first + 1);
+				if (first == -1 || second == -1) {
+					throw new JsonParseException("Bad node position: " + pos);
+				}
+				buffer.addNode(id, Double.parseDouble(pos.substring(0, first)),
+						Double.parseDouble(pos.substring(first + 1, second)),
+						Double.parseDouble(pos.substring(second + 1)));
+			}
+			buffer.setNodeData(tag, weight, info);
+		}
+		reader.endArray();
+	}
+
+	/**
+	 * Reads a string value, null if the value is null.
+	 */
+	private static String readString(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		return reader.nextString();
+	}
+
+	private static void readEdges(JsonReader reader, Buffer buffer) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			reader.beginObject();
+			readEdge(reader, buffer, "w");
+			reader.endObject();
+		}
+		reader.endArray();
+	}
+
+	/**
+	 * Reads the fields of an edge object, the weight field is "w" in the game format and "weight" in the older format.
+	 */
+	private static void readEdge(JsonReader reader, Buffer buffer, String weightName) throws IOException {
+		int src = 0, dest = 0, tag = 0;
+		boolean hasSrc = false, hasDest = false;
+		double w = 0;
+		String info = null;
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (name.equals("src")) {
+				src = reader.nextInt();
+				hasSrc = true;
+			}
+			else if (name.equals("dest")) {
+				dest = reader.nextInt();
+				hasDest = true;
+			}
+			else if (name.equals(weightName)) {
+				w = reader.nextDouble();
+			}
+			else if (name.equals("tag")) {
+				tag = reader.nextInt();
+			}
+			else if (name.equals("info")) {
+				info = readString(reader);
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		if (!hasSrc || !hasDest) {
+			throw new JsonParseException("Edge without src or dest");
+		}
+		buffer.addEdge(src, dest, w);
+		buffer.setEdgeData(tag, info);
+	}
+
+	/**
+	 * Reads the nodes of the older format: {"1":{"key":1,"pos":{"x":0,"y":0,"z":0},...},...}
+	 */
+	private static void readLegacyNodes(JsonReader reader, Buffer buffer) throws IOException {
+		reader.beginObject();
+		while (reader.hasNext()) {
+			reader.nextName();
+			int key = 0, tag = 0;
+			boolean hasKey = false;
+			double weight = 0;
+			double[] pos = null;
+			String info = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if (name.equals("key")) {
+					key = reader.nextInt();
+					hasKey = true;
+				}
+				else if (name.equals("tag")) {
+					tag = reader.nextInt();
+				}
+				else if (name.equals("weight")) {
+					weight = reader.nextDouble();
+				}
+				else if (name.equals("info")) {
+					info = readString(reader);
+				}
+				else if (name.equals("pos") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+					pos = new double[3];
+					reader.beginObject();
+					while (reader.hasNext()) {
+						int axis = reader.nextName().charAt(0) - 'x';
+						if (axis >= 0 && axis < 3) {
+							pos[axis] = reader.nextDouble();
+						}
+						else {
+							reader.skipValue();
+						}
+					}
+					reader.endObject();
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (!hasKey) {
+				throw new JsonParseException("Node without key");
+			}
+			if (pos == null) {
+				buffer.addNode(key);
+			}
+			else {
+				buffer.addNode(key, pos[0], pos[1], pos[2]);
+			}
+			buffer.setNodeData(tag, weight, info);
+		}
+		reader.endObject();
+	}
+
+	/**
+	 * Reads the edges of the older format: {"src":{"dest":{"src":1,"dest":2,"weight":5.0,...},...},...}
+	 */
+	private static void readLegacyEdges(JsonReader reader, Buffer buffer) throws IOException {
+		reader.beginObject();
+		while (reader.hasNext()) {
+			reader.nextName();
+			reader.beginObject();
+			while (reader.hasNext()) {
+				reader.nextName();
+				reader.beginObject();
+				readEdge(reader, buffer, "weight");
+				reader.endObject();
+			}
+			reader.endObject();
+		}
+		reader.endObject();
+	}
+
+	/**
+	 * This class collects the nodes and the edges in growing primitive arrays,
+	 * so the edges can be read before the nodes they connect.
+	 * The tag, weight and info arrays are allocated only when a value that is not the default is read.
+	 */
+	private static final class Buffer {
+		private int nodeSize, edgeSize;
+		private int[] ids = new int[64];
+		private boolean[] hasPos = new boolean[64];
+		private double[] xyz = new double[64 * 3];
+		private int[] nodeTags;
+		private double[] nodeWeights;
+		private String[] nodeInfos;
+		private int[] src = new int[64];
+		private int[] dest = new int[64];
+		private double[] w = new double[64];
+		private int[] edgeTags;
+		private String[] edgeInfos;
+
+		void addNode(int id) {
+			if (nodeSize == ids.length) {
+				ids = Arrays.copyOf(ids, nodeSize * 2);
+				hasPos = Arrays.copyOf(hasPos, nodeSize * 2);
+				xyz = Arrays.copyOf(xyz, nodeSize * 6);
+			}
+			ids[nodeSize++] = id;
+		}
+
+		/**
+		 * Sets the tag, weight and info of the last node.
+		 */
+		void setNodeData(int tag, double weight, String info) {
+			int i = nodeSize - 1;
+			if (tag != 0) {
+				nodeTags = grow(nodeTags, ids.length);
+				nodeTags[i] = tag;
+			}
+			if (weight != 0) {
+				nodeWeights = grow(nodeWeights, ids.length);
+				nodeWeights[i] = weight;
+			}
+			if (info != null) {
+				nodeInfos = grow(nodeInfos, ids.length);
+				nodeInfos[i] = info;
+			}
+		}
+
+		/**
+		 * Sets the tag and info of the last edge.
+		 */
+		void setEdgeData(int tag, String info) {
+			int i = edgeSize - 1;
+			if (tag != 0) {
+				edgeTags = grow(edgeTags, src.length);
+				edgeTags[i] = tag;
+			}
+			if (info != null) {
+				edgeInfos = grow(edgeInfos, src.length);
+				edgeInfos[i] = info;
+			}
+		}
+
+		private static int[] grow(int[] array, int length) {
+			return array == null ? new int[length] : array.length < length ? Arrays.copyOf(array, length) : array;
+		}
+
+		private static double[] grow(double[] array, int length) {
+			return array == null ? new double[length] : array.length < length ? Arrays.copyOf(array, length) : array;
+		}
+
+		private static String[] grow(String[] array, int length) {
+			return array == null ? new String[length] : array.length < length ? Arrays.copyOf(array, length) : array;
+		}
+
+		void addNode(int id, double x, double y, double z) {
+			addNode(id);
+			int i = nodeSize - 1;
+			hasPos[i] = true;
+			xyz[i * 3] = x;
+			xyz[i * 3 + 1] = y;
+			xyz[i * 3 + 2] = z;
+		}
+
+		void addEdge(int s, int d, double weight) {
+			if (edgeSize == src.length) {
+				src = Arrays.copyOf(src, edgeSize * 2);
+				dest = Arrays.copyOf(dest, edgeSize * 2);
+				w = Arrays.copyOf(w, edgeSize * 2);
+			}
+			src[edgeSize] = s;
+			dest[edgeSize] = d;
+			w[edgeSize++] = weight;
+		}
+
+		/**
+		 * Builds the graph, edges of nodes which do not exist are ignored (same as connect).
+		 */
+		directed_weighted_graph build() {
+			DWGraph_DS.Builder builder = DWGraph_DS.builder(nodeSize, edgeSize);
+			for (int i = 0; i < nodeSize; i++) {
+				node_data n = new NodeData(ids[i]);
+				if (hasPos[i]) {
+					n.setLocation(new GeoLocation(xyz[i * 3], xyz[i * 3 + 1], xyz[i * 3 + 2]));
+				}
+				if (nodeTags != null && i < nodeTags.length) {
+					n.setTag(nodeTags[i]);
+				}
+				if (nodeWeights != null && i < nodeWeights.length) {
+					n.setWeight(nodeWeights[i]);
+				}
+				if (nodeInfos != null && i < nodeInfos.length) {
+					n.setInfo(nodeInfos[i]);
+				}
+				builder.addNode(n);
+			}
+			for (int i = 0; i < edgeSize; i++) {
+				builder.addEdge(src[i], dest[i], w[i]);
+			}
+			DWGraph_DS g = builder.build();
+			if (edgeTags != null || edgeInfos != null) {
+				// Set in the order of the edges, so an edge given twice keeps the data of the last one (like its weight)
+				for (int i = 0; i < edgeSize; i++) {
+					edge_data edge = g.getEdge(src[i], dest[i]);
+					if (edge != null) {
+						edge.setTag(edgeTags != null && i < edgeTags.length ? edgeTags[i] : 0);
+						edge.setInfo(edgeInfos != null && i < edgeInfos.length ? edgeInfos[i] : null);
+					}
+				}
+			}
+			return g;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package api;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents an indexed d-ary min heap of dense indexes [0, capacity) ordered by a double key.
+ * Each index is at most once in the heap and its position is tracked,
+ * so contains is O(1) and the key of an index can be decreased in place in O(log n) time
+ * (instead of searching a java.util.PriorityQueue in O(n) time).
+ */
+public class IndexedMinHeap {
+
+	public static final int DEFAULT_ARITY = 4;
+	private final int arity;
+	// The heap of indexes
+	private int[] heap;
+	// The key of each index
+	private double[] keys;
+	// The position of each index in the heap, -1 if it is not in the heap
+	private int[] position;
+	private int size;
+
+	/**
+	 * Constructor of a 4-ary heap.
+	 * @param capacity - the indexes are in the range [0, capacity)
+	 */
+	public IndexedMinHeap(int capacity) {
+		this(capacity, DEFAULT_ARITY);
+	}
+
+	/**
+	 * Constructor.
+	 * @param capacity - the indexes are in the range [0, capacity)
+	 * @param arity - the number of children of each heap node (at least 2)
+	 */
+	public IndexedMinHeap(int capacity, int arity) {
+		if (arity < 2) {
+			throw new IllegalArgumentException("arity must be at least 2, got: " + arity);
+		}
+		this.arity = arity;
+		this.heap = new int[capacity];
+		this.keys = new double[capacity];
+		this.position = new int[capacity];
+		Arrays.fill(this.position, -1);
+	}
+
+	/**
+	 * Makes sure indexes in the range [0, capacity) can be used, the heap must be empty.
+	 * @param capacity - the new capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > position.length) {
+			int old = position.length;
+			heap = Arrays.copyOf(heap, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+			position = Arrays.copyOf(position, capacity);
+			Arrays.fill(position, old, capacity, -1);
+		}
+	}
+
+	/**
+	 * Returns true if the index is in the heap.
+	 * @param index - the index
+	 * @return boolean - true if the index is in the heap, else false
+	 */
+	public boolean contains(int index) {
+		return position[index] != -1;
+	}
+
+	/**
+	 * Returns the key of an index in the heap.
+	 * @param index - the index
+	 * @return double - the key
+	 */
+	public double keyOf(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Inserts a new index into the heap.
+	 * @param index - an index that is not in the heap
+	 * @param key - its key
+	 */
+	public void insert(int index, double key) {
+		if (position[index] != -1) {
+			throw new IllegalArgumentException("index " + index + " is already in the heap");
+		}
+		keys[index] = key;
+		heap[size] = index;
+		position[index] = size;
+		siftUp(size++);
+	}
+
+	/**
+	 * Decreases the key of an index that is in the heap.
+	 * @param index - an index in the heap
+	 * @param key - the new key, not greater than the current key
+	 */
+	public void decreaseKey(int index, double key) {
+		if (key > keys[index]) {
+			throw new IllegalArgumentException("key " + key + " is greater than the current key " + keys[index]);
+		}
+		keys[index] = key;
+		siftUp(position[index]);
+	}
+
+	/**
+	 * Inserts the index, or decreases its key if it is already in the heap with a greater key.
+	 * @param index - the index
+	 * @param key - the key
+	 * @return boolean - true if the heap changed, else false
+	 */
+	public boolean insertOrDecrease(int index, double key) {
+		if (position[index] == -1) {
+			insert(index, key);
+			return true;
+		}
+		if (key < keys[index]) {
+			decreaseKey(index, key);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the index with the minimal key without removing it.
+	 * @return int - the index with the minimal key
+	 */
+	public int peek() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return heap[0];
+	}
+
+	/**
+	 * Returns the minimal key in the heap.
+	 * @return double - the minimal key
+	 */
+	public double peekKey() {
+		return keys[peek()];
+	}
+
+	/**
+	 * Removes and returns the index with the minimal key.
+	 * @return int - the index with the minimal key
+	 */
+	public int poll() {
+		int min = peek();
+		position[min] = -1;
+		int last = heap[--size];
+		if (size > 0) {
+			heap[0] = last;
+			position[last] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	/**
+	 * Returns the number of indexes in the heap.
+	 * @return int - size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the heap is empty.
+	 * @return boolean - true if empty, else false
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all the indexes from the heap in O(size) time.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			position[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private void siftUp(int pos) {
+		int index = heap[pos];
+		double key = keys[index];
+		while (pos > 0) {
+			int parentPos = (pos - 1) / arity;
+			int parent = heap[parentPos];
+			if (keys[parent] <= key) {
+				break;
+			}
+			heap[pos] = parent;
+			position[parent] = pos;
+			pos = parentPos;
+		}
+		heap[pos] = index;
+		position[index] = pos;
+	}
+
+	private void siftDown(int pos) {
+		int index = heap[pos];
+		double key = keys[index];
+		while (true) {
+			int first = pos * arity + 1;
+			if (first >= size) {
+				break;
+			}
+			// Find the child with the minimal key
+			int best = first;
+			int end = Math.min(first + arity, size);
+			for (int c = first + 1; c < end; c++) {
+				if (keys[heap[c]] < keys[heap[best]]) {
+					best = c;
+				}
+			}
+			if (keys[heap[best]] >= key) {
+				break;
+			}
+			heap[pos] = heap[best];
+			position[heap[pos]] = pos;
+			pos = best;
+		}
+		heap[pos] = index;
+		position[index] = pos;
+	}
+}
@@ -0,0 +1,272 @@
+package api;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a hash map from primitive int keys to objects (open addressing with linear probing).
+ * The entries are kept in dense arrays in insertion order and the hash table only holds indexes into them,
+ * so a lookup never boxes the key and iterating the values is a plain array scan.
+ * Removing an entry moves the last entry into its place, so the dense index of an entry
+ * is stable as long as nothing is removed.
+ * @param <V> - the type of the values
+ */
+public class IntHashMap<V> {
+
+	private static final int DEFAULT_CAPACITY = 8;
+	// The keys and values in dense insertion order
+	private int[] keys;
+	private Object[] values;
+	// The hash table, each slot holds the dense index of an entry plus one (0 is an empty slot)
+	private int[] table;
+	private int size, mask;
+
+	/**
+	 * Default constructor.
+	 */
+	public IntHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor that creates a map which can hold the expected amount of entries without resizing.
+	 * @param expected - the expected number of entries
+	 */
+	public IntHashMap(int expected) {
+		int capacity = Math.max(expected, 2);
+		this.keys = new int[capacity];
+		this.values = new Object[capacity];
+		this.table = new int[tableSize(capacity)];
+		this.mask = table.length - 1;
+	}
+
+	/**
+	 * Returns the value associated with the key.
+	 * @param key - the key
+	 * @return V - the value, null if none
+	 */
+	public V get(int key) {
+		int index = indexOf(key);
+		return index == -1 ? null : valueAt(index);
+	}
+
+	/**
+	 * Returns true if the map contains the key.
+	 * @param key - the key
+	 * @return boolean - true if the key exists, else false
+	 */
+	public boolean containsKey(int key) {
+		return indexOf(key) != -1;
+	}
+
+	/**
+	 * Returns the dense index of the key, the index is in the range [0, size()).
+	 * @param key - the key
+	 * @return int - the index, -1 if none
+	 */
+	public int indexOf(int key) {
+		int slot = hash(key) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (keys[entry - 1] == key) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the key of the entry at the given dense index.
+	 * @param index - the index in the range [0, size())
+	 * @return int - the key
+	 */
+	public int keyAt(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Returns the value of the entry at the given dense index.
+	 * @param index - the index in the range [0, size())
+	 * @return V - the value
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int index) {
+		return (V) values[index];
+	}
+
+	/**
+	 * Associates the value with the key.
+	 * @param key - the key
+	 * @param value - the value
+	 * @return V - the previous value, null if none
+	 */
+	public V put(int key, V value) {
+		int slot = hash(key) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (keys[entry - 1] == key) {
+				V old = valueAt(entry - 1);
+				values[entry - 1] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (size == keys.length) {
+			grow();
+			slot = hash(key) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+		}
+		keys[size] = key;
+		values[size] = value;
+		table[slot] = ++size;
+		return null;
+	}
+
+	/**
+	 * Removes the key from the map, the last entry is moved into the index of the removed entry.
+	 * @param key - the key
+	 * @return V - the removed value, null if none
+	 */
+	public V remove(int key) {
+		int slot = hash(key) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (keys[entry - 1] == key) {
+				break;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (entry == 0) {
+			return null;
+		}
+		int index = entry - 1;
+		V old = valueAt(index);
+		shiftBack(slot);
+		int last = --size;
+		if (index != last) {
+			// Move the last entry into the free index and point its slot to the new index
+			keys[index] = keys[last];
+			values[index] = values[last];
+			int s = hash(keys[index]) & mask;
+			while (table[s] != last + 1) {
+				s = (s + 1) & mask;
+			}
+			table[s] = index + 1;
+		}
+		values[last] = null;
+		return old;
+	}
+
+	/**
+	 * Removes all the entries, keeps the allocated capacity.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 * @return int - size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the map has no entries.
+	 * @return boolean - true if empty, else false
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns a live view of the values in dense index order.
+	 * Note: this method runs in O(1) time, the view must not be iterated while the map changes.
+	 * @return Collection of V
+	 */
+	public Collection<V> values() {
+		return new AbstractCollection<V>() {
+			@Override
+			public Iterator<V> iterator() {
+				return new Iterator<V>() {
+					private int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return next < size;
+					}
+
+					@Override
+					public V next() {
+						if (next >= size) {
+							throw new NoSuchElementException();
+						}
+						return valueAt(next++);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Closes the gap left at the given slot by moving back entries which probed past it.
+	 * @param slot - the emptied slot
+	 */
+	private void shiftBack(int slot) {
+		int gap = slot;
+		int s = (slot + 1) & mask;
+		int entry;
+		while ((entry = table[s]) != 0) {
+			int home = hash(keys[entry - 1]) & mask;
+			// Move the entry if its home slot is not in the cyclic range (gap, s]
+			if (((s - home) & mask) >= ((s - gap) & mask)) {
+				table[gap] = entry;
+				gap = s;
+			}
+			s = (s + 1) & mask;
+		}
+		table[gap] = 0;
+	}
+
+	/**
+	 * Doubles the dense arrays and rebuilds the hash table.
+	 */
+	private void grow() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		values = Arrays.copyOf(values, capacity);
+		table = new int[tableSize(capacity)];
+		mask = table.length - 1;
+		for (int i = 0; i < size; i++) {
+			int s = hash(keys[i]) & mask;
+			while (table[s] != 0) {
+				s = (s + 1) & mask;
+			}
+			table[s] = i + 1;
+		}
+	}
+
+	// The table is kept at most half full
+	private static int tableSize(int capacity) {
+		return Integer.highestOneBit(capacity * 2 - 1) << 1;
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
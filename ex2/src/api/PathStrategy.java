@@ -0,0 +1,14 @@
+package api;
+
+/**
+ * This enum represents the algorithms DWGraph_Algo can find a shortest path between two nodes with
+ * (see DWGraph_Algo.setPathStrategy), all of them find a shortest path, they differ in the nodes they settle:
+ * 0. DIJKSTRA - settles every node closer to src than dest.
+ * 1. A_STAR - prefers the nodes toward the location of dest (needs the locations of the nodes).
+ * 2. BIDIRECTIONAL - searches from src and back from dest until the searches meet.
+ */
+public enum PathStrategy {
+	DIJKSTRA,
+	A_STAR,
+	BIDIRECTIONAL
+}
@@ -0,0 +1,122 @@
+package api;
+
+/**
+ * This class holds the strong connectivity algorithms over a GraphIndex, both run in O(n+e) time:
+ * 1. isStronglyConnected - one traversal over the out edges and one over the in edges from the same node,
+ * the graph is strongly connected iff both reach every node.
+ * 2. components - an iterative Tarjan algorithm (explicit stacks, so deep graphs do not overflow the call stack).
+ */
+final class StrongComponents {
+
+	private StrongComponents() {
+	}
+
+	/**
+	 * Returns true if every node can reach every other node.
+	 * @param index - the graph snapshot
+	 * @return boolean - true if the graph is strongly connected, else false
+	 */
+	static boolean isStronglyConnected(GraphIndex index) {
+		if (index.size() <= 1) {
+			return true;
+		}
+		if (!reachesAll(index.size(), index.outStart, index.outTo)) {
+			return false;
+		}
+		index.ensureInEdges();
+		return reachesAll(index.size(), index.inStart(), index.inFrom());
+	}
+
+	/**
+	 * Computes the strongly connected components of the graph.
+	 * The components are numbered in reverse topological order:
+	 * an edge between two components always goes from a higher number to a lower (or equal) number.
+	 * @param index - the graph snapshot
+	 * @param component - output array, the component number of every ordinal (length at least size)
+	 * @return int - the number of components
+	 */
+	static int components(GraphIndex index, int[] component) {
+		int n = index.size();
+		int[] outStart = index.outStart;
+		int[] outTo = index.outTo;
+		// The discovery number (starts at 1, 0 is not visited) and the low link of every ordinal
+		int[] num = new int[n];
+		int[] low = new int[n];
+		// The next out edge to visit of every ordinal on the call stack
+		int[] next = new int[n];
+		int[] call = new int[n];
+		int[] stack = new int[n];
+		int callSize = 0, stackSize = 0, counter = 0, count = 0;
+		for (int v = 0; v < n; v++) {
+			component[v] = -1;
+		}
+		for (int root = 0; root < n; root++) {
+			if (num[root] != 0) {
+				continue;
+			}
+			num[root] = low[root] = ++counter;
+			next[root] = outStart[root];
+			call[callSize++] = root;
+			stack[stackSize++] = root;
+			while (callSize > 0) {
+				int v = call[callSize - 1];
+				if (next[v] < outStart[v + 1]) {
+					int u = outTo[next[v]++];
+					if (num[u] == 0) {
+						// Visit the child
+						num[u] = low[u] = ++counter;
+						next[u] = outStart[u];
+						call[callSize++] = u;
+						stack[stackSize++] = u;
+					}
+					// A node with no component yet that was visited is on the stack
+					else if (component[u] == -1 && num[u] < low[v]) {
+						low[v] = num[u];
+					}
+					continue;
+				}
+				// All the edges of v were visited, return to the parent
+				callSize--;
+				if (callSize > 0) {
+					int parent = call[callSize - 1];
+					if (low[v] < low[parent]) {
+						low[parent] = low[v];
+					}
+				}
+				// v is the root of a component, pop the component from the stack
+				if (low[v] == num[v]) {
+					int u;
+					do {
+						u = stack[--stackSize];
+						component[u] = count;
+					} while (u != v);
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns true if ordinal 0 reaches every ordinal over the given adjacency arrays.
+	 */
+	private static boolean reachesAll(int n, int[] start, int[] adj) {
+		boolean[] seen = new boolean[n];
+		int[] stack = new int[n];
+		int stackSize = 0, reached = 1;
+		seen[0] = true;
+		stack[stackSize++] = 0;
+		while (stackSize > 0) {
+			int v = stack[--stackSize];
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				int u = adj[i];
+				if (!seen[u]) {
+					seen[u] = true;
+					reached++;
+					stack[stackSize++] = u;
+				}
+			}
+		}
+		return reached == n;
+	}
+}
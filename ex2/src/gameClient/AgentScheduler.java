@@ -0,0 +1,247 @@
+package gameClient;
+
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.game_service;
+import api.geo_location;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * This class decides when to call game.move(): instead of moving at fixed intervals it predicts
+ * the next events of every agent and moves only when the earliest one is due.
+ * The events of an agent on an edge are its arrival at the end of the edge and the capture
+ * of a pokemon which lies on that edge (an agent which was just sent along an edge starts at its start node).
+ * An agent crosses an edge in weight/speed seconds, so the time of an event is the part of the edge
+ * left to the event point times weight/speed.
+ * The clock is the game clock, game.timeToEnd(): an event is due when timeToEnd reaches its time.
+ * The scheduler also counts the moves, and the wasted moves - moves after which no agent arrived at a node,
+ * left a node, changed its edge or captured a pokemon.
+ */
+public class AgentScheduler {
+
+	/** Time (ms) to wait after the predicted time of an event, so the agent is surely there. */
+	public static final long SLACK = 5;
+	/** The time (ms) to wait when no event is predicted (no agent is on an edge). */
+	public static final long IDLE_WAIT = 100;
+
+	private final game_service game;
+	private final directed_weighted_graph graph;
+	private final LongConsumer sleeper;
+	// The game clock (timeToEnd) of the predicted events, the earliest (largest timeToEnd) first
+	private final PriorityQueue<Long> events = new PriorityQueue<>(Collections.reverseOrder());
+	// The state of every agent (by id) when the last move was made, to tell whether the move was wasted
+	private Map<Integer, AgentState> beforeMove;
+	private long moves, wastedMoves;
+	private long firstMoveNanos, lastMoveNanos;
+
+	/**
+	 * Constructor, the scheduler sleeps with Thread.sleep.
+	 * @param game - the game service
+	 * @param graph - the directed weighted graph of the game
+	 */
+	public AgentScheduler(game_service game, directed_weighted_graph graph) {
+		this(game, graph, AgentScheduler::sleep);
+	}
+
+	/**
+	 * Constructor.
+	 * @param game - the game service
+	 * @param graph - the directed weighted graph of the game
+	 * @param sleeper - waits the given number of milliseconds of the game clock
+	 */
+	public AgentScheduler(game_service game, directed_weighted_graph graph, LongConsumer sleeper) {
+		this.game = game;
+		this.graph = graph;
+		this.sleeper = sleeper;
+	}
+
+	/**
+	 * Returns true if this scheduler runs the given game.
+	 * @param g - the game service
+	 * @return boolean - true if it is the game of this scheduler, else false
+	 */
+	public boolean isFor(game_service g) {
+		return g == game;
+	}
+
+	/**
+	 * Predicts the next events of the agents, replacing the earlier predictions.
+	 * Called with the latest state of the agents (after chooseNextEdge, with the next node set on the agents)
+	 * and of the pokemons (with their edges). It also checks whether the last move was wasted.
+	 * @param agents - the agents
+	 * @param pokemons - the pokemons
+	 */
+	public void schedule(List<CL_Agent> agents, List<CL_Pokemon> pokemons) {
+		long now = game.timeToEnd();
+		Map<Integer, AgentState> state = new HashMap<>();
+		for (CL_Agent agent : agents) {
+			state.put(agent.getID(), new AgentState(agent, atNode(agent)));
+		}
+		if (beforeMove != null) {
+			if (beforeMove.equals(state)) {
+				wastedMoves++;
+			}
+			beforeMove = null;
+		}
+		events.clear();
+		for (CL_Agent agent : agents) {
+			edge_data edge = agent.get_curr_edge();
+			if (edge == null || agent.getSpeed() <= 0) {
+				continue;
+			}
+			geo_location src = graph.getNode(edge.getSrc()).getLocation();
+			geo_location dest = graph.getNode(edge.getDest()).getLocation();
+			events.add(now - timeTo(agent, edge, src, dest, dest));
+			for (CL_Pokemon pokemon : pokemons) {
+				edge_data on = pokemon.get_edge();
+				if (on != null && on.getSrc() == edge.getSrc() && on.getDest() == edge.getDest()
+						&& ahead(agent.getLocation(), pokemon.getLocation(), dest)) {
+					events.add(now - timeTo(agent, edge, src, dest, pokemon.getLocation()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the time (ms of the game clock) until the earliest predicted event.
+	 * @return long - the time until the earliest event (0 if it is due), -1 if no event is predicted
+	 */
+	public long timeToNextEvent() {
+		if (events.isEmpty()) {
+			return -1;
+		}
+		return Math.max(0, game.timeToEnd() - events.peek());
+	}
+
+	/**
+	 * Waits for the earliest predicted event and then calls game.move().
+	 * If no event is predicted it waits IDLE_WAIT without moving, since a move would not change anything.
+	 * @param agents - the agents, as given to schedule
+	 * @return boolean - true if game.move() was called, else false
+	 */
+	public boolean moveAtNextEvent(List<CL_Agent> agents) {
+		long wait = timeToNextEvent();
+		if (wait == -1) {
+			sleeper.accept(IDLE_WAIT);
+			return false;
+		}
+		// Even a due event waits SLACK, so the game clock always moves between two moves
+		sleeper.accept(wait + SLACK);
+		beforeMove = new HashMap<>();
+		for (CL_Agent agent : agents) {
+			beforeMove.put(agent.getID(), new AgentState(agent, atNode(agent)));
+		}
+		game.move();
+		long nanos = System.nanoTime();
+		if (moves == 0) {
+			firstMoveNanos = nanos;
+		}
+		lastMoveNanos = nanos;
+		moves++;
+		return true;
+	}
+
+	/**
+	 * Returns the number of moves made.
+	 * @return long - the number of moves
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Returns the number of wasted moves: moves which did not change the state of any agent.
+	 * @return long - the number of wasted moves
+	 */
+	public long getWastedMoves() {
+		return wastedMoves;
+	}
+
+	/**
+	 * Returns the average number of moves per second, between the first and the last move.
+	 * @return double - the moves per second, 0 if less than two moves were made
+	 */
+	public double getMovesPerSecond() {
+		if (moves < 2) {
+			return 0;
+		}
+		return (moves - 1) * 1e9 / (lastMoveNanos - firstMoveNanos);
+	}
+
+	/**
+	 * Returns the metrics of the scheduler as a string.
+	 * @return String - the moves, the wasted moves and the moves per second
+	 */
+	public String metrics() {
+		return String.format("moves: %d, wasted moves: %d, moves per second: %.2f", moves, wastedMoves, getMovesPerSecond());
+	}
+
+	/**
+	 * Returns the time (ms) the agent needs to get from its position to the target point on its edge.
+	 */
+	private static long timeTo(CL_Agent agent, edge_data edge, geo_location src, geo_location dest, geo_location target) {
+		double length = src.distance(dest);
+		double part = length == 0 ? 0 : agent.getLocation().distance(target) / length;
+		return (long) (1000.0 * part * edge.getWeight() / agent.getSpeed());
+	}
+
+	/**
+	 * Returns true if the point lies between the position and the end of the edge (it was not passed yet).
+	 */
+	private static boolean ahead(geo_location pos, geo_location point, geo_location dest) {
+		return point.distance(dest) <= pos.distance(dest) + Arena.EPS1;
+	}
+
+	/**
+	 * Returns true if the agent stands on the start node of its edge (or on its node when it has no edge).
+	 */
+	private boolean atNode(CL_Agent agent) {
+		geo_location node = graph.getNode(agent.getSrcNode()).getLocation();
+		return agent.getLocation().distance(node) < CL_Agent.EPS;
+	}
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * The part of the state of an agent a useful move changes.
+	 */
+	private static class AgentState {
+		private final int src, dest;
+		private final double value;
+		private final boolean atNode;
+
+		AgentState(CL_Agent agent, boolean atNode) {
+			this.src = agent.getSrcNode();
+			this.dest = agent.getNextNode();
+			this.value = agent.getValue();
+			this.atNode = atNode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AgentState)) {
+				return false;
+			}
+			AgentState other = (AgentState) obj;
+			return src == other.src && dest == other.dest && value == other.value && atNode == other.atNode;
+		}
+
+		@Override
+		public int hashCode() {
+			return src * 31 + dest;
+		}
+	}
+}
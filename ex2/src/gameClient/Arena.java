@@ -15,6 +15,7 @@ import org.json.JSONObject;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class represents a multi Agents Arena which move on a graph - grabs Pokemons.
@@ -27,9 +28,17 @@ public class Arena {
 	private List<CL_Agent> _agents;
 	private List<CL_Pokemon> _pokemons;
 	private List<String> _info;
+	// The GameServer info of the first info string, parsed once per move
+	private volatile GameInfo _gameInfo;
 	private long time;
+	// The last published snapshot (a single slot, the drawing thread reads only the latest),
+	// and the listener told of every new one
+	private final AtomicReference<ArenaSnapshot> _snapshot = new AtomicReference<>();
+	private volatile Runnable _snapshotListener;
 	private static Point3D MIN = new Point3D(0, 100,0);
 	private static Point3D MAX = new Point3D(0, 100,0);
+	// The grid of the edges of the last graph given to updateEdge
+	private static volatile EdgeSpatialIndex edgeIndex;
 
 	/**
 	 * Default constructor.
@@ -122,11 +131,49 @@ public class Arena {
 	}
 	
 	/**
-	 * Set the info of the arena.
+	 * Set the info of the arena, the first string (the GameServer JSON string) is parsed here once.
 	 * @param _info - List of String
 	 */
 	public void set_info(List<String> _info) {
 		this._info = _info;
+		this._gameInfo = _info == null || _info.isEmpty() ? null : GameInfo.parse(_info.get(0));
+	}
+
+	/**
+	 * Get the game info parsed from the info of the arena.
+	 * @return GameInfo - the game info, null if the info has no GameServer JSON string
+	 */
+	public GameInfo getGameInfo() {
+		return _gameInfo;
+	}
+
+	/**
+	 * Copies the arena into a new snapshot, puts it in the slot instead of the last one and tells the listener.
+	 * Called by the game thread after every move. Without a listener nothing is copied (a headless game).
+	 */
+	public void publishSnapshot() {
+		Runnable listener = _snapshotListener;
+		if (listener != null) {
+			_snapshot.set(new ArenaSnapshot(this));
+			listener.run();
+		}
+	}
+
+	/**
+	 * Get the last published snapshot of the arena.
+	 * @return ArenaSnapshot - the snapshot, null if none was published
+	 */
+	public ArenaSnapshot getSnapshot() {
+		return _snapshot.get();
+	}
+
+	/**
+	 * Set the listener of the snapshots, it runs on the game thread and must return at once
+	 * (for example wake up the drawing thread).
+	 * @param listener - Runnable, null for no listener
+	 */
+	public void setSnapshotListener(Runnable listener) {
+		this._snapshotListener = listener;
 	}
 
 	/**
@@ -179,67 +226,21 @@ public class Arena {
 	
 	/**
 	 * Update the edge of the arena.
+	 * The edge is found by a grid of the edges of the graph (EdgeSpatialIndex),
+	 * built on the first call and rebuilt only when the graph changes.
+	 * If the pokemon lies on no edge, its edge is not changed.
 	 * @param pokemon - CL_Pokemon
 	 * @param g - directed_weighted_graph
 	 */
 	public static void updateEdge(CL_Pokemon pokemon, directed_weighted_graph g) {
-		//	oop_edge_data ans = null;
-		Iterator<node_data> itr = g.getV().iterator();
-		while(itr.hasNext()) {
-			node_data v = itr.next();
-			Iterator<edge_data> iter = g.getE(v.getKey()).iterator();
-			while(iter.hasNext()) {
-				edge_data e = iter.next();
-				boolean f = isOnEdge(pokemon.getLocation(), e,pokemon.getType(), g);
-				if(f) {pokemon.set_edge(e);}
-			}
+		// Read the field once, another thread may replace it meanwhile
+		EdgeSpatialIndex index = edgeIndex;
+		if (index == null || !index.isValidFor(g)) {
+			index = new EdgeSpatialIndex(g);
+			edgeIndex = index;
 		}
-	}
-
-	/**
-	 * Check if position is on edge.
-	 * @param pos - geo_location
-	 * @param src - geo_location
-	 * @param dest - geo_location
-	 * @return boolean - returns true if the position given is on the edge, else returns false
-	 */
-	private static boolean isOnEdge(geo_location pos, geo_location src, geo_location dest) {
-
-		boolean isOnEdge = false;
-		double distance = src.distance(dest);
-		double sumDistance = src.distance(pos) + pos.distance(dest);
-		if(distance>sumDistance-EPS2) {isOnEdge = true;}
-		return isOnEdge;
-	}
-	
-	/**
-	 * Check if position is on edge.
-	 * @param pos - geo_location
-	 * @param s - the src node
-	 * @param d - the dest node
-	 * @param g - directed_weighted_graph
-	 * @return boolean - returns true if the position given is on the edge, else returns false
-	 */
-	private static boolean isOnEdge(geo_location pos, int s, int d, directed_weighted_graph g) {
-		geo_location src = g.getNode(s).getLocation();
-		geo_location dest = g.getNode(d).getLocation();
-		return isOnEdge(pos,src,dest);
-	}
-	
-	/**
-	 * Check if position is on edge.
-	 * @param pos - geo_location
-	 * @param edge - edge_data
-	 * @param type - int
-	 * @param g - directed_weighted_graph
-	 * @return boolean - returns true if the position given is on the edge, else returns false
-	 */
-	private static boolean isOnEdge(geo_location pos, edge_data edge, int type, directed_weighted_graph g) {
-		int src = g.getNode(edge.getSrc()).getKey();
-		int dest = g.getNode(edge.getDest()).getKey();
-		if(type<0 && dest>src) {return false;}
-		if(type>0 && src>dest) {return false;}
-		return isOnEdge(pos,src, dest, g);
+		edge_data e = index.edgeOf(pokemon.getLocation(), pokemon.getType());
+		if(e != null) {pokemon.set_edge(e);}
 	}
 
 	/**
@@ -0,0 +1,160 @@
+package gameClient;
+
+import api.directed_weighted_graph;
+import api.geo_location;
+
+import java.util.List;
+
+/**
+ * This class represents the state of the arena after a single move, copied from the arena
+ * (the graph, the agents, the pokemons, the game info and the time left).
+ * It is immutable: the game thread publishes it (Arena.publishSnapshot) and the drawing thread reads it,
+ * while the agents and the pokemons of the arena itself are updated in place by the next move.
+ */
+public final class ArenaSnapshot {
+	private final directed_weighted_graph graph;
+	private final int[] agentIds;
+	private final double[] agentValues;
+	// The x and y of every agent and pokemon: [x0, y0, x1, y1, ...]
+	private final double[] agentLocations;
+	private final double[] pokemonLocations;
+	private final int[] pokemonTypes;
+	private final GameInfo info;
+	private final long time;
+
+	/**
+	 * Copies the state of the arena.
+	 * @param arena - the arena
+	 */
+	ArenaSnapshot(Arena arena) {
+		this.graph = arena.getGraph();
+		this.info = arena.getGameInfo();
+		this.time = arena.getTime();
+		List<CL_Agent> agents = arena.getAgents();
+		int n = agents == null ? 0 : agents.size();
+		agentIds = new int[n];
+		agentValues = new double[n];
+		agentLocations = new double[2 * n];
+		for (int i = 0; i < n; i++) {
+			CL_Agent agent = agents.get(i);
+			agentIds[i] = agent.getID();
+			agentValues[i] = agent.getValue();
+			geo_location c = agent.getLocation();
+			agentLocations[2 * i] = c.x();
+			agentLocations[2 * i + 1] = c.y();
+		}
+		List<CL_Pokemon> pokemons = arena.getPokemons();
+		int m = pokemons == null ? 0 : pokemons.size();
+		pokemonTypes = new int[m];
+		pokemonLocations = new double[2 * m];
+		for (int i = 0; i < m; i++) {
+			CL_Pokemon pokemon = pokemons.get(i);
+			pokemonTypes[i] = pokemon.getType();
+			pokemonLocations[2 * i] = pokemon.getLocation().x();
+			pokemonLocations[2 * i + 1] = pokemon.getLocation().y();
+		}
+	}
+
+	/**
+	 * Returns the graph of the game (the graph does not change during the game, so it is not copied).
+	 * @return directed_weighted_graph - the graph
+	 */
+	public directed_weighted_graph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the game info of the move.
+	 * @return GameInfo - the info, null if the arena had none
+	 */
+	public GameInfo getInfo() {
+		return info;
+	}
+
+	/**
+	 * Returns the time left in the game at the move.
+	 * @return long - the time left in milliseconds
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the number of agents.
+	 * @return int - the number of agents
+	 */
+	public int agents() {
+		return agentIds.length;
+	}
+
+	/**
+	 * Returns the ID of an agent.
+	 * @param i - the index of the agent
+	 * @return int - the ID
+	 */
+	public int agentId(int i) {
+		return agentIds[i];
+	}
+
+	/**
+	 * Returns the value (score) of an agent.
+	 * @param i - the index of the agent
+	 * @return double - the value
+	 */
+	public double agentValue(int i) {
+		return agentValues[i];
+	}
+
+	/**
+	 * Returns the x of an agent.
+	 * @param i - the index of the agent
+	 * @return double - the x
+	 */
+	public double agentX(int i) {
+		return agentLocations[2 * i];
+	}
+
+	/**
+	 * Returns the y of an agent.
+	 * @param i - the index of the agent
+	 * @return double - the y
+	 */
+	public double agentY(int i) {
+		return agentLocations[2 * i + 1];
+	}
+
+	/**
+	 * Returns the number of pokemons.
+	 * @return int - the number of pokemons
+	 */
+	public int pokemons() {
+		return pokemonTypes.length;
+	}
+
+	/**
+	 * Returns the type of a pokemon.
+	 * @param i - the index of the pokemon
+	 * @return int - the type
+	 */
+	public int pokemonType(int i) {
+		return pokemonTypes[i];
+	}
+
+	/**
+	 * Returns the x of a pokemon.
+	 * @param i - the index of the pokemon
+	 * @return double - the x
+	 */
+	public double pokemonX(int i) {
+		return pokemonLocations[2 * i];
+	}
+
+	/**
+	 * Returns the y of a pokemon.
+	 * @param i - the index of the pokemon
+	 * @return double - the y
+	 */
+	public double pokemonY(int i) {
+		return pokemonLocations[2 * i + 1];
+	}
+}
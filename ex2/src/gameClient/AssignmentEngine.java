@@ -0,0 +1,242 @@
+package gameClient;
+
+import java.util.Arrays;
+
+/**
+ * This class assigns agents to pokemons: at most one pokemon per agent and one agent per pokemon,
+ * so the sum of the benefits of the pairs is the highest possible.
+ * The benefits are given as a matrix, benefit[agent][pokemon] (see GameStrategy), a benefit of 0 or less means
+ * the pair is never assigned.
+ * Up to HUNGARIAN_LIMIT agents and pokemons the Hungarian algorithm is used, O(n^3) and optimal.
+ * Above it the auction algorithm (with epsilon scaling) is used, which is faster for large counts
+ * and optimal up to the last epsilon.
+ * Both stop at the latency budget of a single call: the agents that are not assigned by then
+ * are assigned greedily (each agent, in order, to its best free pokemon), so a call always returns in time.
+ */
+public final class AssignmentEngine {
+
+	/** The largest number of agents or pokemons solved by the Hungarian algorithm. */
+	public static final int HUNGARIAN_LIMIT = 64;
+	/** The default latency budget of a call, in nanoseconds. */
+	public static final long DEFAULT_BUDGET = 2000000;
+	/** A budget that never runs out, for games on a virtual clock whose result must not depend on the machine. */
+	public static final long NO_BUDGET = Long.MAX_VALUE;
+	// The bids of the auction between two checks of the clock
+	private static final int CLOCK_CHECK = 64;
+
+	private final long budgetNanos;
+	private boolean overBudget;
+
+	/**
+	 * Constructor with the default latency budget.
+	 */
+	public AssignmentEngine() {
+		this(DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Constructor.
+	 * @param budgetNanos - the latency budget of a single call, in nanoseconds
+	 */
+	public AssignmentEngine(long budgetNanos) {
+		if (budgetNanos <= 0) {
+			throw new IllegalArgumentException("The budget must be positive: " + budgetNanos);
+		}
+		this.budgetNanos = budgetNanos;
+	}
+
+	/**
+	 * Returns the latency budget of a single call.
+	 * @return long - the budget in nanoseconds
+	 */
+	public long getBudget() {
+		return budgetNanos;
+	}
+
+	/**
+	 * Returns true if the last call ran out of its budget and finished greedily.
+	 * @return boolean - true if the last assignment may not be optimal
+	 */
+	public boolean wasOverBudget() {
+		return overBudget;
+	}
+
+	/**
+	 * Assigns the agents (rows) to the pokemons (columns).
+	 * @param benefit - benefit[agent][pokemon], all the rows of the same length
+	 * @return int[] - the pokemon of every agent, -1 for an agent without a pokemon
+	 */
+	public int[] assign(double[][] benefit) {
+		// May overflow (NO_BUDGET), so the clock is compared to it by difference
+		long deadline = System.nanoTime() + budgetNanos;
+		int agents = benefit.length;
+		int pokemons = agents == 0 ? 0 : benefit[0].length;
+		int size = Math.max(agents, pokemons);
+		// A square matrix: the missing agents and pokemons and the pairs that are never assigned get 0
+		double[][] square = new double[size][size];
+		for (int i = 0; i < agents; i++) {
+			for (int j = 0; j < pokemons; j++) {
+				square[i][j] = Math.max(0, benefit[i][j]);
+			}
+		}
+		int[] match = size <= HUNGARIAN_LIMIT ? hungarian(square, deadline) : auction(square, deadline);
+		overBudget = greedy(square, match);
+		int[] ans = new int[agents];
+		for (int i = 0; i < agents; i++) {
+			ans[i] = match[i] < pokemons && square[i][match[i]] > 0 ? match[i] : -1;
+		}
+		return ans;
+	}
+
+	/**
+	 * The Hungarian algorithm (with potentials), adding an agent at a time: after every agent the assignment
+	 * of the agents so far is optimal. Stops at the deadline.
+	 * @return int[] - the pokemon of every agent, -1 for the agents it did not reach
+	 */
+	static int[] hungarian(double[][] benefit, long deadline) {
+		int n = benefit.length;
+		// 1-based arrays: u, v - the potentials, p[j] - the agent of pokemon j, way - the previous pokemon on the path
+		double[] u = new double[n + 1], v = new double[n + 1], minv = new double[n + 1];
+		int[] p = new int[n + 1], way = new int[n + 1];
+		boolean[] used = new boolean[n + 1];
+		for (int i = 1; i <= n; i++) {
+			if (System.nanoTime() - deadline > 0) {
+				break;
+			}
+			p[0] = i;
+			int j0 = 0;
+			Arrays.fill(minv, Double.POSITIVE_INFINITY);
+			Arrays.fill(used, false);
+			do {
+				used[j0] = true;
+				int i0 = p[j0], j1 = 0;
+				double delta = Double.POSITIVE_INFINITY;
+				for (int j = 1; j <= n; j++) {
+					if (!used[j]) {
+						double cur = -benefit[i0 - 1][j - 1] - u[i0] - v[j];
+						if (cur < minv[j]) {
+							minv[j] = cur;
+							way[j] = j0;
+						}
+						if (minv[j] < delta) {
+							delta = minv[j];
+							j1 = j;
+						}
+					}
+				}
+				for (int j = 0; j <= n; j++) {
+					if (used[j]) {
+						u[p[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minv[j] -= delta;
+					}
+				}
+				j0 = j1;
+			} while (p[j0] != 0);
+			do {
+				int j1 = way[j0];
+				p[j0] = p[j1];
+				j0 = j1;
+			} while (j0 != 0);
+		}
+		int[] match = new int[n];
+		Arrays.fill(match, -1);
+		for (int j = 1; j <= n; j++) {
+			if (p[j] != 0) {
+				match[p[j] - 1] = j - 1;
+			}
+		}
+		return match;
+	}
+
+	/**
+	 * The auction algorithm: every free agent bids on its best pokemon (by benefit minus price),
+	 * raising its price by the difference to its second best plus epsilon, and takes it from its owner.
+	 * Epsilon shrinks by a factor of 4 from the largest benefit down to a tiny fraction of it, the prices
+	 * are kept between the rounds. Stops at the deadline.
+	 * @return int[] - the pokemon of every agent, -1 for the agents without one at the deadline
+	 */
+	static int[] auction(double[][] benefit, long deadline) {
+		int n = benefit.length;
+		double max = 0;
+		for (double[] row : benefit) {
+			for (double b : row) {
+				max = Math.max(max, b);
+			}
+		}
+		double[] price = new double[n];
+		int[] match = new int[n], owner = new int[n];
+		int[] queue = new int[n];
+		double minEpsilon = Math.max(max, 1e-12) / (n + 1) * 1e-6;
+		int bids = 0;
+		for (double epsilon = Math.max(max, 1e-12) / 4; ; epsilon = Math.max(epsilon / 4, minEpsilon)) {
+			Arrays.fill(match, -1);
+			Arrays.fill(owner, -1);
+			int head = 0, tail = 0, free = n;
+			for (int i = 0; i < n; i++) {
+				queue[tail++ % n] = i;
+			}
+			while (free > 0) {
+				if (++bids % CLOCK_CHECK == 0 && System.nanoTime() - deadline > 0) {
+					return match;
+				}
+				int i = queue[head++ % n];
+				int best = -1;
+				double bestValue = Double.NEGATIVE_INFINITY, secondValue = Double.NEGATIVE_INFINITY;
+				for (int j = 0; j < n; j++) {
+					double value = benefit[i][j] - price[j];
+					if (value > bestValue) {
+						secondValue = bestValue;
+						bestValue = value;
+						best = j;
+					} else if (value > secondValue) {
+						secondValue = value;
+					}
+				}
+				price[best] += (n == 1 ? 0 : bestValue - secondValue) + epsilon;
+				if (owner[best] != -1) {
+					match[owner[best]] = -1;
+					queue[tail++ % n] = owner[best];
+				} else {
+					free--;
+				}
+				owner[best] = i;
+				match[i] = best;
+			}
+			if (epsilon == minEpsilon) {
+				return match;
+			}
+		}
+	}
+
+	/**
+	 * Assigns every agent without a pokemon to its best free pokemon, in the order of the agents.
+	 * @return boolean - true if any agent was assigned here
+	 */
+	private static boolean greedy(double[][] benefit, int[] match) {
+		int n = benefit.length;
+		boolean[] taken = new boolean[n];
+		boolean any = false;
+		for (int m : match) {
+			if (m != -1) {
+				taken[m] = true;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			if (match[i] != -1) {
+				continue;
+			}
+			int best = -1;
+			for (int j = 0; j < n; j++) {
+				if (!taken[j] && (best == -1 || benefit[i][j] > benefit[i][best])) {
+					best = j;
+				}
+			}
+			taken[best] = true;
+			match[i] = best;
+			any = true;
+		}
+		return any;
+	}
+}
@@ -17,6 +17,8 @@ public class CL_Agent {
 		private int _id;
 	//	private long _key;
 		private geo_location _pos;
+		// The point of the agent, reused by every update in place
+		private Point3D _own_pos;
 		private double _speed;
 		private edge_data _curr_edge;
 		private node_data _curr_node;
@@ -70,6 +72,29 @@ public class CL_Agent {
 				e.printStackTrace();
 			}
 		}
+		/**
+		 * Updates the agent in place from the given values (used by GameStateParser every move),
+		 * the location is kept in a point of the agent, so no object is created.
+		 * @param id - the agent ID
+		 * @param value - the value of the agent
+		 * @param src - the source node
+		 * @param dest - the destination node, -1 if the agent stands on the source node
+		 * @param speed - the speed of the agent
+		 * @param x - the x of the location
+		 * @param y - the y of the location
+		 * @param z - the z of the location
+		 */
+		void update(int id, double value, int src, int dest, double speed, double x, double y, double z) {
+			_id = id;
+			if(_own_pos == null) {_own_pos = new Point3D(x, y, z);}
+			else {_own_pos.set(x, y, z);}
+			this._pos = _own_pos;
+			this.setCurrNode(src);
+			this.setSpeed(speed);
+			this.setNextNode(dest);
+			this.setMoney(value);
+		}
+		
 		/**
 		 * Get the src node of the agent.
 		 * @return src node - int
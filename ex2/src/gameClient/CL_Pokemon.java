@@ -51,6 +51,24 @@ public class CL_Pokemon {
 		return ans;
 	}
 
+	/**
+	 * Updates the pokemon in place from the given values (used by GameStateParser every move),
+	 * the location point of the pokemon is moved and the edge is cleared.
+	 * @param t - the type
+	 * @param v - the value
+	 * @param x - the x of the location
+	 * @param y - the y of the location
+	 * @param z - the z of the location
+	 */
+	void update(int t, double v, double x, double y, double z) {
+		_type = t;
+		_value = v;
+		_pos.set(x, y, z);
+		_edge = null;
+		min_dist = -1;
+		min_ro = -1;
+	}
+
 	public String toString() {return "F:{v="+_value+", t="+_type+"}";}
 	
 	/**
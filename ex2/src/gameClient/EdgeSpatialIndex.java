@@ -0,0 +1,210 @@
+package gameClient;
+
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.geo_location;
+import api.node_data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a uniform grid over the edges of a graph (by the locations of their nodes),
+ * used to find the edge a pokemon lies on without checking every edge of the graph.
+ * Every edge is registered in the grid cells its segment passes through (widened by the tolerance of
+ * isOnEdge), so a query checks only the few edges of the cell of the point, in near constant time.
+ * The grid has about one cell per edge and is built once in O(n+e) time (for edges of a typical length).
+ * The index does not follow changes of the graph, isValidFor tells whether the graph changed (by its mode counter).
+ */
+public final class EdgeSpatialIndex {
+
+	private final directed_weighted_graph graph;
+	private final int mc;
+	// The edges in the order of the graph iteration (getV, then getE of every node)
+	private final edge_data[] edges;
+	private final int[] srcKey, destKey;
+	private final geo_location[] srcPos, destPos;
+	// The grid covers [minX, minX+cols*cellWidth) x [minY, minY+rows*cellHeight)
+	private final double minX, minY, cellWidth, cellHeight;
+	private final int cols, rows;
+	// The edges of cell c are cellEdges[cellStart[c], cellStart[c+1]), in increasing edge order
+	private final int[] cellStart;
+	private final int[] cellEdges;
+
+	/**
+	 * Constructor, builds the grid of the edges of the graph.
+	 * Edges with a node without a location are not indexed.
+	 * @param g - the graph
+	 */
+	public EdgeSpatialIndex(directed_weighted_graph g) {
+		this.graph = g;
+		this.mc = g.getMC();
+		List<edge_data> list = new ArrayList<>(g.edgeSize());
+		for (node_data node : g.getV()) {
+			if (node.getLocation() == null) {
+				continue;
+			}
+			for (edge_data edge : g.getE(node.getKey())) {
+				if (g.getNode(edge.getDest()).getLocation() != null) {
+					list.add(edge);
+				}
+			}
+		}
+		int m = list.size();
+		this.edges = list.toArray(new edge_data[0]);
+		this.srcKey = new int[m];
+		this.destKey = new int[m];
+		this.srcPos = new geo_location[m];
+		this.destPos = new geo_location[m];
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		double maxMargin = 0;
+		for (int e = 0; e < m; e++) {
+			srcKey[e] = edges[e].getSrc();
+			destKey[e] = edges[e].getDest();
+			srcPos[e] = g.getNode(srcKey[e]).getLocation();
+			destPos[e] = g.getNode(destKey[e]).getLocation();
+			x0 = Math.min(x0, Math.min(srcPos[e].x(), destPos[e].x()));
+			y0 = Math.min(y0, Math.min(srcPos[e].y(), destPos[e].y()));
+			x1 = Math.max(x1, Math.max(srcPos[e].x(), destPos[e].x()));
+			y1 = Math.max(y1, Math.max(srcPos[e].y(), destPos[e].y()));
+			maxMargin = Math.max(maxMargin, margin(e));
+		}
+		if (m == 0) {
+			x0 = y0 = x1 = y1 = 0;
+		}
+		this.minX = x0 - maxMargin;
+		this.minY = y0 - maxMargin;
+		double width = Math.max(x1 + maxMargin - minX, Arena.EPS2);
+		double height = Math.max(y1 + maxMargin - minY, Arena.EPS2);
+		// About one cell per edge, with the aspect ratio of the graph
+		int cells = Math.max(1, m);
+		this.cols = (int) Math.max(1, Math.min(cells, Math.round(Math.sqrt(cells * width / height))));
+		this.rows = Math.max(1, Math.min(cells, (cells + cols - 1) / cols));
+		this.cellWidth = width / cols;
+		this.cellHeight = height / rows;
+		// Two passes over the cells of every edge: count, then fill
+		this.cellStart = new int[cols * rows + 1];
+		for (int e = 0; e < m; e++) {
+			cover(e, null);
+		}
+		for (int c = 0; c < cols * rows; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		this.cellEdges = new int[cellStart[cols * rows]];
+		int[] next = new int[cols * rows];
+		System.arraycopy(cellStart, 0, next, 0, next.length);
+		for (int e = 0; e < m; e++) {
+			cover(e, next);
+		}
+	}
+
+	/**
+	 * Returns the edge the position lies on, by the rule of Arena.updateEdge:
+	 * a negative type lies only on an edge from a higher key to a lower key, a positive type only on
+	 * an edge from a lower key to a higher key. If it lies on several edges, the last one in the order
+	 * of the graph iteration is returned (the same edge the full scan would end with).
+	 * @param pos - the position
+	 * @param type - the type of the pokemon
+	 * @return edge_data - the edge, null if none
+	 */
+	public edge_data edgeOf(geo_location pos, int type) {
+		double fx = (pos.x() - minX) / cellWidth, fy = (pos.y() - minY) / cellHeight;
+		if (!(fx >= 0 && fx < cols && fy >= 0 && fy < rows)) {
+			return null;
+		}
+		int c = (int) fy * cols + (int) fx;
+		for (int i = cellStart[c + 1] - 1; i >= cellStart[c]; i--) {
+			int e = cellEdges[i];
+			if (type < 0 && destKey[e] > srcKey[e]) {
+				continue;
+			}
+			if (type > 0 && srcKey[e] > destKey[e]) {
+				continue;
+			}
+			if (isOnEdge(pos, srcPos[e], destPos[e])) {
+				return edges[e];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true if this index still represents the given graph.
+	 * @param g - the graph
+	 * @return boolean - true if it is the same graph and it did not change since the index was built, else false
+	 */
+	public boolean isValidFor(directed_weighted_graph g) {
+		return g == graph && g.getMC() == mc;
+	}
+
+	/**
+	 * Check if position is on edge: the distances from the position to the nodes of the edge
+	 * sum to the length of the edge (up to Arena.EPS2).
+	 * @param pos - geo_location
+	 * @param src - geo_location
+	 * @param dest - geo_location
+	 * @return boolean - returns true if the position given is on the edge, else returns false
+	 */
+	private static boolean isOnEdge(geo_location pos, geo_location src, geo_location dest) {
+		double distance = src.distance(dest);
+		double sumDistance = src.distance(pos) + pos.distance(dest);
+		return distance > sumDistance - Arena.EPS2;
+	}
+
+	/**
+	 * Returns how far from its segment (in x or y) a point on the edge can be.
+	 * The points on the edge are inside the ellipse with the nodes as foci and a major axis
+	 * of the edge length plus Arena.EPS2, its semi minor axis bounds the distance.
+	 */
+	private double margin(int e) {
+		double length = srcPos[e].distance(destPos[e]);
+		return Math.sqrt((2 * length * Arena.EPS2 + Arena.EPS2 * Arena.EPS2) / 4) + Arena.EPS2;
+	}
+
+	/**
+	 * Visits the cells within the margin of the segment of the edge, column by column:
+	 * in every column only the rows of the part of the segment above the column are visited.
+	 * Counts the cells of the edge in cellStart if next is null, else adds the edge to them.
+	 */
+	private void cover(int e, int[] next) {
+		double r = margin(e);
+		double ax = srcPos[e].x(), ay = srcPos[e].y(), bx = destPos[e].x(), by = destPos[e].y();
+		double xlo = Math.min(ax, bx), xhi = Math.max(ax, bx);
+		int c0 = col(xlo - r), c1 = col(xhi + r);
+		for (int c = c0; c <= c1; c++) {
+			double ylo, yhi;
+			if (ax == bx) {
+				ylo = Math.min(ay, by);
+				yhi = Math.max(ay, by);
+			}
+			else {
+				// The segment above the column (widened by the margin) starts and ends at these x values
+				double sx0 = Math.max(xlo, Math.min(xhi, minX + c * cellWidth - r));
+				double sx1 = Math.max(xlo, Math.min(xhi, minX + (c + 1) * cellWidth + r));
+				double ya = ay + (by - ay) * (sx0 - ax) / (bx - ax);
+				double yb = ay + (by - ay) * (sx1 - ax) / (bx - ax);
+				ylo = Math.min(ya, yb);
+				yhi = Math.max(ya, yb);
+			}
+			int r0 = row(ylo - r), r1 = row(yhi + r);
+			for (int row = r0; row <= r1; row++) {
+				int cell = row * cols + c;
+				if (next == null) {
+					cellStart[cell + 1]++;
+				}
+				else {
+					cellEdges[next[cell]++] = e;
+				}
+			}
+		}
+	}
+
+	private int col(double x) {
+		return Math.max(0, Math.min(cols - 1, (int) ((x - minX) / cellWidth)));
+	}
+
+	private int row(double y) {
+		return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellHeight)));
+	}
+}
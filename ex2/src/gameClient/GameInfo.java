@@ -0,0 +1,91 @@
+package gameClient;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * This class represents the state of the game of a single move, parsed once from the GameServer JSON string
+ * of game.toString(): {"GameServer":{"pokemons":1,"moves":0,"grade":0.0,"game_level":0,...,"agents":1}}
+ * It is immutable, so the game thread can hand it to the drawing thread as is.
+ */
+public final class GameInfo {
+	private final int pokemons;
+	private final int moves;
+	private final int grade;
+	private final int level;
+	private final int agents;
+
+	/**
+	 * Constructor.
+	 * @param pokemons - the number of pokemons
+	 * @param moves - the number of moves so far
+	 * @param grade - the grade so far
+	 * @param level - the game level
+	 * @param agents - the number of agents
+	 */
+	public GameInfo(int pokemons, int moves, int grade, int level, int agents) {
+		this.pokemons = pokemons;
+		this.moves = moves;
+		this.grade = grade;
+		this.level = level;
+		this.agents = agents;
+	}
+
+	/**
+	 * Parses the GameServer JSON string.
+	 * @param json - the JSON string of game.toString()
+	 * @return GameInfo - the info, or null if the string is not a GameServer JSON string
+	 */
+	public static GameInfo parse(String json) {
+		if (json == null) {
+			return null;
+		}
+		try {
+			JSONObject server = new JSONObject(json).getJSONObject("GameServer");
+			return new GameInfo(server.getInt("pokemons"), server.getInt("moves"), server.getInt("grade"),
+					server.getInt("game_level"), server.getInt("agents"));
+		} catch (JSONException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the number of pokemons.
+	 * @return int - the number of pokemons
+	 */
+	public int getPokemons() {
+		return pokemons;
+	}
+
+	/**
+	 * Returns the number of moves so far.
+	 * @return int - the number of moves
+	 */
+	public int getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Returns the grade so far.
+	 * @return int - the grade
+	 */
+	public int getGrade() {
+		return grade;
+	}
+
+	/**
+	 * Returns the game level.
+	 * @return int - the level
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns the number of agents.
+	 * @return int - the number of agents
+	 */
+	public int getAgents() {
+		return agents;
+	}
+}
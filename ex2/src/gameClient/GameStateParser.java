@@ -0,0 +1,369 @@
+package gameClient;
+
+import api.directed_weighted_graph;
+import gameClient.util.Point3D;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class parses the JSON strings of game.getAgents() and game.getPokemons() every move.
+ * It reads the characters of the string straight into the fields (no JSON tree, no substrings, no String.split)
+ * and updates the same CL_Agent and CL_Pokemon objects in place: the i-th agent (pokemon) of the string
+ * updates the i-th object of a pool, which grows only when the string has more entities than ever before.
+ * So after the first moves parsing a move creates no garbage, unlike Arena.getAgents and Arena.json2Pokemons.
+ * The lists returned are owned by the parser and are updated by the next call, copy them to keep the state.
+ * The parser is not thread safe, every game has its own parser.
+ */
+public final class GameStateParser {
+
+	// The powers of ten which are exact doubles, and the mantissas which are exact doubles
+	private static final double[] POW10 = new double[23];
+	private static final long MAX_EXACT = 1L << 53;
+	// The largest mantissa read without Double.parseDouble
+	private static final long MAX_MANTISSA = 1L << 62;
+
+	static {
+		POW10[0] = 1;
+		for (int i = 1; i < POW10.length; i++) {
+			POW10[i] = POW10[i - 1] * 10;
+		}
+	}
+
+	private final directed_weighted_graph graph;
+	private final ArrayList<CL_Agent> agents = new ArrayList<>();
+	private final ArrayList<CL_Pokemon> pokemons = new ArrayList<>();
+
+	// The string being parsed and the position in it
+	private String json;
+	private int at;
+	// The bounds of the last key
+	private int keyStart, keyEnd;
+	// The fields of the last entity
+	private int id, src, dest, type;
+	private double value, speed, x, y, z;
+
+	/**
+	 * Constructor.
+	 * @param graph - the graph of the game, the nodes of the agents
+	 */
+	public GameStateParser(directed_weighted_graph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Parses the agents of game.getAgents(): {"Agents":[{"Agent":{"id":..,"value":..,"src":..,"dest":..,"speed":..,"pos":"x,y,z"}},..]}
+	 * @param json - the JSON string of the agents
+	 * @return List of CL_Agent - the agents, in the order of the string (updated by the next call)
+	 * @throws IllegalArgumentException if the string is not in the format of the game server
+	 */
+	public List<CL_Agent> agents(String json) {
+		int count = 0;
+		begin(json);
+		if (!entities()) {
+			do {
+				entity();
+				CL_Agent agent;
+				if (count < agents.size()) {
+					agent = agents.get(count);
+				} else {
+					agent = new CL_Agent(graph, src);
+					agents.add(agent);
+				}
+				agent.update(id, value, src, dest, speed, x, y, z);
+				count++;
+			} while (next(']'));
+		}
+		trim(agents, count);
+		return agents;
+	}
+
+	/**
+	 * Parses the pokemons of game.getPokemons(): {"Pokemons":[{"Pokemon":{"value":..,"type":..,"pos":"x,y,z"}},..]}
+	 * The edges of the pokemons are cleared, they are found by the caller (Arena.updateEdge or EdgeSpatialIndex).
+	 * @param json - the JSON string of the pokemons
+	 * @return List of CL_Pokemon - the pokemons, in the order of the string (updated by the next call)
+	 * @throws IllegalArgumentException if the string is not in the format of the game server
+	 */
+	public List<CL_Pokemon> pokemons(String json) {
+		int count = 0;
+		begin(json);
+		if (!entities()) {
+			do {
+				entity();
+				if (count < pokemons.size()) {
+					pokemons.get(count).update(type, value, x, y, z);
+				} else {
+					pokemons.add(new CL_Pokemon(new Point3D(x, y, z), type, value, 0, null));
+				}
+				count++;
+			} while (next(']'));
+		}
+		trim(pokemons, count);
+		return pokemons;
+	}
+
+	/**
+	 * Removes the objects after the given count, only when there are less entities than before.
+	 */
+	private static <T> void trim(ArrayList<T> list, int count) {
+		while (list.size() > count) {
+			list.remove(list.size() - 1);
+		}
+	}
+
+	private void begin(String json) {
+		this.json = json;
+		this.at = 0;
+		id = src = dest = type = -1;
+		value = speed = x = y = z = 0;
+	}
+
+	/**
+	 * Reads {"Name":[ and returns true if the array is empty.
+	 */
+	private boolean entities() {
+		expect('{');
+		key();
+		expect(':');
+		expect('[');
+		skipSpaces();
+		if (at < json.length() && json.charAt(at) == ']') {
+			at++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads {"Name":{fields}} into the fields of the parser, unknown fields are skipped.
+	 */
+	private void entity() {
+		expect('{');
+		key();
+		expect(':');
+		expect('{');
+		skipSpaces();
+		if (at < json.length() && json.charAt(at) == '}') {
+			at++;
+		} else {
+			do {
+				key();
+				expect(':');
+				if (isKey("id")) {
+					id = (int) number();
+				} else if (isKey("value")) {
+					value = number();
+				} else if (isKey("src")) {
+					src = (int) number();
+				} else if (isKey("dest")) {
+					dest = (int) number();
+				} else if (isKey("speed")) {
+					speed = number();
+				} else if (isKey("type")) {
+					type = (int) number();
+				} else if (isKey("pos")) {
+					expect('"');
+					x = number();
+					expect(',');
+					y = number();
+					expect(',');
+					z = number();
+					expect('"');
+				} else {
+					skipValue();
+				}
+			} while (next('}'));
+		}
+		expect('}');
+	}
+
+	/**
+	 * Reads a ',' and returns true, or the closing char and returns false.
+	 */
+	private boolean next(char close) {
+		skipSpaces();
+		if (at < json.length() && json.charAt(at) == ',') {
+			at++;
+			return true;
+		}
+		expect(close);
+		return false;
+	}
+
+	/**
+	 * Reads a key string, keeping its bounds in keyStart and keyEnd.
+	 */
+	private void key() {
+		expect('"');
+		keyStart = at;
+		while (at < json.length() && json.charAt(at) != '"') {
+			if (json.charAt(at) == '\\') {
+				at++;
+			}
+			at++;
+		}
+		keyEnd = at;
+		expect('"');
+	}
+
+	private boolean isKey(String name) {
+		return keyEnd - keyStart == name.length() && json.regionMatches(keyStart, name, 0, name.length());
+	}
+
+	/**
+	 * Reads a number, the result is always the same as Double.parseDouble.
+	 * The digits (below 2^62) times a power of ten from 10^-22 to 10^22 - all the numbers of the game server -
+	 * are converted without objects, other numbers fall back to Double.parseDouble of the substring.
+	 */
+	private double number() {
+		skipSpaces();
+		int start = at;
+		boolean negative = false;
+		if (at < json.length() && (json.charAt(at) == '-' || json.charAt(at) == '+')) {
+			negative = json.charAt(at) == '-';
+			at++;
+		}
+		long mantissa = 0;
+		int exponent = 0, digits = 0;
+		boolean exact = true;
+		char c;
+		while (at < json.length() && (c = json.charAt(at)) >= '0' && c <= '9') {
+			exact &= digit(mantissa);
+			mantissa = mantissa * 10 + (c - '0');
+			digits++;
+			at++;
+		}
+		if (at < json.length() && json.charAt(at) == '.') {
+			at++;
+			while (at < json.length() && (c = json.charAt(at)) >= '0' && c <= '9') {
+				exact &= digit(mantissa);
+				mantissa = mantissa * 10 + (c - '0');
+				exponent--;
+				digits++;
+				at++;
+			}
+		}
+		if (at < json.length() && (json.charAt(at) == 'e' || json.charAt(at) == 'E')) {
+			at++;
+			boolean negativeExp = false;
+			if (at < json.length() && (json.charAt(at) == '-' || json.charAt(at) == '+')) {
+				negativeExp = json.charAt(at) == '-';
+				at++;
+			}
+			int exp = 0;
+			while (at < json.length() && (c = json.charAt(at)) >= '0' && c <= '9') {
+				exp = Math.min(exp * 10 + (c - '0'), 10000);
+				at++;
+			}
+			exponent += negativeExp ? -exp : exp;
+		}
+		if (digits == 0) {
+			throw error("a number");
+		}
+		double d;
+		if (!exact || exponent < -22 || exponent > 22 || (exponent > 0 && mantissa >= MAX_EXACT)) {
+			return Double.parseDouble(json.substring(start, at));
+		} else if (exponent >= 0) {
+			d = mantissa * POW10[exponent];
+		} else if (mantissa < MAX_EXACT) {
+			d = mantissa / POW10[-exponent];
+		} else {
+			d = divide(mantissa, POW10[-exponent]);
+		}
+		return negative ? -d : d;
+	}
+
+	/**
+	 * Returns true if another digit can be added to the mantissa, keeping it below MAX_MANTISSA.
+	 */
+	private static boolean digit(long mantissa) {
+		return mantissa < MAX_MANTISSA / 10 - 1;
+	}
+
+	/**
+	 * Returns the double closest to mantissa / p, where the mantissa (below 2^62) is not an exact double.
+	 * The quotient of the doubles is at most an ulp away, so the closest of it and its two neighbours
+	 * is chosen by the remainders c*p - mantissa, computed exactly enough with Math.fma (a tie goes to the even double).
+	 */
+	private static double divide(long mantissa, double p) {
+		double m = mantissa;
+		double low = mantissa - (long) m;
+		double best = m / p;
+		double down = Math.nextDown(best), up = Math.nextUp(best);
+		double error = Math.abs(remainder(best, p, m, low));
+		double downError = Math.abs(remainder(down, p, m, low)), upError = Math.abs(remainder(up, p, m, low));
+		if (downError < error || (downError == error && isEven(down))) {
+			best = down;
+			error = downError;
+		}
+		if (upError < error || (upError == error && isEven(up))) {
+			best = up;
+		}
+		return best;
+	}
+
+	/**
+	 * Returns c*p - (m + low): c*p is split into hi + lo exactly by Math.fma.
+	 */
+	private static double remainder(double c, double p, double m, double low) {
+		double hi = c * p;
+		double lo = Math.fma(c, p, -hi);
+		return (hi - m) + (lo - low);
+	}
+
+	private static boolean isEven(double d) {
+		return (Double.doubleToRawLongBits(d) & 1) == 0;
+	}
+
+	/**
+	 * Skips a value of a field the parser does not need: a string, a number, a literal, an object or an array.
+	 */
+	private void skipValue() {
+		skipSpaces();
+		int depth = 0;
+		while (at < json.length()) {
+			char c = json.charAt(at);
+			if (c == '"') {
+				at++;
+				while (at < json.length() && json.charAt(at) != '"') {
+					if (json.charAt(at) == '\\') {
+						at++;
+					}
+					at++;
+				}
+			} else if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				if (depth == 0) {
+					return;
+				}
+				depth--;
+			} else if (c == ',' && depth == 0) {
+				return;
+			}
+			at++;
+			if (depth == 0 && (c == '"' || c == '}' || c == ']')) {
+				return;
+			}
+		}
+	}
+
+	private void expect(char c) {
+		skipSpaces();
+		if (at >= json.length() || json.charAt(at) != c) {
+			throw error("'" + c + "'");
+		}
+		at++;
+	}
+
+	private void skipSpaces() {
+		while (at < json.length() && Character.isWhitespace(json.charAt(at))) {
+			at++;
+		}
+	}
+
+	private IllegalArgumentException error(String expected) {
+		return new IllegalArgumentException("Expected " + expected + " at " + at + " of the game JSON: " + json);
+	}
+}
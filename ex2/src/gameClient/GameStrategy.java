@@ -0,0 +1,246 @@
+package gameClient;
+
+import api.AllPairsTable;
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.game_service;
+import api.node_data;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * This class represents the strategy of the agents in a single game, it keeps all the state of the game
+ * (the arena, the assignment engine, the shortest paths table, the edges grid and the scheduler),
+ * so several games can be played at once, each by its own instance.
+ * It has no user interface: Ex2 shows the arena of the strategy in a frame, TournamentRunner plays headless.
+ * The strategy:
+ * 0. insertAgents - every agent starts near one of the pokemons with the highest values.
+ * 1. moveAgents - the agents are assigned to the pokemons (AssignmentEngine, the highest sum of values per time),
+ *    every agent which stands on a node is sent towards its pokemon, then the scheduler moves at the next predicted event.
+ * 2. play - moves the agents until the game ends.
+ */
+public class GameStrategy {
+
+	private final game_service game;
+	private final directed_weighted_graph graph;
+	private final Arena arena;
+	// Assigns the agents to the pokemons every move
+	private final AssignmentEngine assignment;
+	// Parses the agents and the pokemons of every move into the same objects
+	private final GameStateParser parser;
+	// The shortest paths between all the nodes of the game graph
+	private final AllPairsTable distances;
+	// The grid of the edges of the game graph, to find the edges of the pokemons
+	private final EdgeSpatialIndex edges;
+	// Decides when to call game.move(), by the predicted events of the agents
+	private final AgentScheduler scheduler;
+
+	/**
+	 * Constructor, the scheduler waits with Thread.sleep.
+	 * @param game - the game service
+	 * @param graph - the directed weighted graph of the game
+	 */
+	public GameStrategy(game_service game, directed_weighted_graph graph) {
+		this(game, graph, null);
+	}
+
+	/**
+	 * Constructor.
+	 * @param game - the game service
+	 * @param graph - the directed weighted graph of the game
+	 * @param sleeper - waits the given number of milliseconds of the game clock (null for Thread.sleep)
+	 */
+	public GameStrategy(game_service game, directed_weighted_graph graph, LongConsumer sleeper) {
+		this(game, graph, sleeper, new AssignmentEngine());
+	}
+
+	/**
+	 * Constructor.
+	 * @param game - the game service
+	 * @param graph - the directed weighted graph of the game
+	 * @param sleeper - waits the given number of milliseconds of the game clock (null for Thread.sleep)
+	 * @param assignment - assigns the agents to the pokemons, with its latency budget per move
+	 */
+	public GameStrategy(game_service game, directed_weighted_graph graph, LongConsumer sleeper, AssignmentEngine assignment) {
+		this.game = game;
+		this.assignment = assignment;
+		this.graph = graph;
+		this.arena = new Arena();
+		arena.setGraph(graph);
+		this.parser = new GameStateParser(graph);
+		this.edges = new EdgeSpatialIndex(graph);
+		arena.setPokemons(pokemons());
+		this.distances = new AllPairsTable(graph);
+		this.scheduler = sleeper == null ? new AgentScheduler(game, graph) : new AgentScheduler(game, graph, sleeper);
+	}
+
+	/**
+	 * Returns the arena of the game: the graph, the agents and the pokemons of the last move.
+	 * The agents and the pokemons are updated in place by every move.
+	 * @return Arena - the arena
+	 */
+	public Arena getArena() {
+		return arena;
+	}
+
+	/**
+	 * Returns the scheduler of the moves, with the moves metrics.
+	 * @return AgentScheduler - the scheduler
+	 */
+	public AgentScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * Moves the agents until the game ends, the game must be started.
+	 */
+	public void play() {
+		while (game.isRunning()) {
+			List<String> info = new ArrayList<>();
+			info.add("" + game.toString());
+			arena.setTime(game.timeToEnd());
+			arena.set_info(info);
+			moveAgents();
+		}
+	}
+
+	/**
+	 * This method move the agents in the graph of the game to capture the pokemons.
+	 * The agents are assigned to the pokemons by the assignment engine, by the values of the pokemons
+	 * and the times to reach them, and every agent which stands on a node is sent towards its pokemon, then the scheduler
+	 * predicts when the next agent arrives at a node or captures a pokemon and moves only then.
+	 */
+	public void moveAgents() {
+		List<CL_Agent> agentList = parser.agents(game.getAgents());
+		arena.setAgents(agentList);
+		List<CL_Pokemon> pokemonList = pokemons();
+		arena.setPokemons(pokemonList);
+
+		// The moving agents are assigned too, so no other agent goes after the pokemons they go to
+		int[] target = assignment.assign(benefits(agentList, pokemonList));
+		for (int i = 0; i < agentList.size(); i++) {
+			CL_Agent agent = agentList.get(i);
+			// An agent on an edge can not change its way until it arrives at the next node
+			if (agent.isMoving() || target[i] == -1) {
+				continue;
+			}
+			int src = agent.getSrcNode();
+			edge_data toEdge = pokemonList.get(target[i]).get_edge();
+			node_data nextNode = toEdge.getSrc() == src ? graph.getNode(toEdge.getDest()) : distances.nextHop(src, toEdge.getSrc());
+			if (nextNode == null) {
+				continue;
+			}
+			int next = nextNode.getKey();
+			game.chooseNextEdge(agent.getID(), next);
+			agent.setNextNode(next);
+		}
+		// The frame (if any) draws a copy of this move, the scheduler sleeps meanwhile
+		arena.publishSnapshot();
+		scheduler.schedule(agentList, pokemonList);
+		scheduler.moveAtNextEvent(agentList);
+	}
+
+	/**
+	 * This method inserts the agents of the game, each near one of the pokemons with the highest values.
+	 */
+	public void insertAgents() {
+		List<CL_Pokemon> pokemons = new ArrayList<>(pokemons());
+		pokemons.sort(new ValueComparator());
+		try {
+			JSONObject gameJsonObject = new JSONObject(game.toString());
+			JSONObject gameJsonServer = gameJsonObject.getJSONObject("GameServer");
+			int agentNumber = gameJsonServer.getInt("agents");
+			for (int i = 0; i < agentNumber; i++) {
+				CL_Pokemon pokemon = pokemons.get(i % pokemons.size());
+				game.addAgent(pokemon.get_edge().getSrc());
+				game.chooseNextEdge(i, pokemon.get_edge().getSrc());
+			}
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the pokemons of the game, each with its edge (the list of the parser, updated in place).
+	 */
+	private List<CL_Pokemon> pokemons() {
+		List<CL_Pokemon> pokemons = parser.pokemons(game.getPokemons());
+		for (CL_Pokemon pokemon : pokemons) {
+			pokemon.set_edge(edges.edgeOf(pokemon.getLocation(), pokemon.getType()));
+		}
+		return pokemons;
+	}
+
+	/**
+	 * Builds the benefits matrix of the assignment: benefit[agent][pokemon] is the square root of the value
+	 * of the pokemon per the time (in seconds, plus one) the agent needs to capture it - the shortest path distance from the node
+	 * of the agent (its next node, if it moves) to the edge of the pokemon and along the edge, by the agent speed.
+	 * A pokemon ahead of an agent on its edge takes no time, an unreachable pokemon has no benefit.
+	 * The root keeps the agents from crossing the graph for a pokemon of a high value (the captured pokemons
+	 * are replaced at once, so the near ones are worth more), with it the grade per move is higher on every level.
+	 * @param agents - the list of agents
+	 * @param pokemons - the list of pokemons
+	 * @return double[][] - the benefits matrix
+	 */
+	private double[][] benefits(List<CL_Agent> agents, List<CL_Pokemon> pokemons) {
+		double[][] benefit = new double[agents.size()][pokemons.size()];
+		for (int i = 0; i < agents.size(); i++) {
+			CL_Agent agent = agents.get(i);
+			int node = agent.isMoving() ? agent.getNextNode() : agent.getSrcNode();
+			double speed = agent.getSpeed() > 0 ? agent.getSpeed() : 1;
+			for (int j = 0; j < pokemons.size(); j++) {
+				edge_data edge = pokemons.get(j).get_edge();
+				if (edge == null) {
+					continue;
+				}
+				double dist;
+				if (agent.isMoving() && agent.get_curr_edge().getSrc() == edge.getSrc() && agent.get_curr_edge().getDest() == edge.getDest()) {
+					dist = 0;
+				} else {
+					dist = node == edge.getSrc() ? 0 : distances.dist(node, edge.getSrc());
+					if (dist < 0) {
+						continue;
+					}
+					dist += edge.getWeight();
+				}
+				benefit[i][j] = Math.sqrt(pokemons.get(j).getValue()) / (dist / speed + 1);
+			}
+		}
+		return benefit;
+	}
+
+	/**
+	 * This private class implements Comparator interface and compare values
+	 * that are stored in the pokemons to sort the pokemon list by the pokemon values,
+	 * so that the highest value of a pokemon will be the first one at the list.
+	 * The function insertAgents uses this Comparator to insert the agents
+	 * in the game in the location of where the highest pokemons values are placed in.
+	 */
+	private static class ValueComparator implements Comparator<CL_Pokemon> {
+
+		/**
+		 * Overrides compare method by the value of pokemons,
+		 * if pokemon1 is larger than pokemon2 return -1,
+		 * if pokemon1 is less than pokemon2 return 1, else return 0.
+		 * used in the priorityQueue.
+		 *
+		 * @param pokemon1 to compare
+		 * @param pokemon2 to compare
+		 * @return - int if pokemon1 is larger than pokemon2 return -1, if pokemon1 is less than pokemon2 return 1, else return 0.
+		 */
+		@Override
+		public int compare(CL_Pokemon pokemon1, CL_Pokemon pokemon2) {
+			if (pokemon1.getValue() > pokemon2.getValue()) {
+				return -1;
+			} else if (pokemon1.getValue() < pokemon2.getValue()) {
+				return 1;
+			}
+			return 0;
+		}
+	}
+}
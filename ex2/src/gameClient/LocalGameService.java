@@ -0,0 +1,443 @@
+package gameClient;
+
+import api.GeoLocation;
+import api.GraphJson;
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.game_service;
+import api.geo_location;
+import api.node_data;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class implements game_service as a local game simulator, so the agent logic
+ * can run without the game server (Ex2_Server jar): headless, offline and many games in a row.
+ * The rules of the simulation:
+ * 0. The pokemons lie on random edges (at 10% - 90% of the edge), their value is 5 - 15,
+ *    their type is 1 on an edge from a lower key to a higher key and -1 otherwise.
+ *    All the random choices come from one seeded Random, so the same seed plays the same game.
+ * 1. An agent crosses an edge in weight/speed seconds. It starts moving when chooseNextEdge is called,
+ *    and stops on the next node (dest -1) until the next chooseNextEdge.
+ * 2. On every move() the agents advance by the time passed since their last move. As in the game server,
+ *    an agent captures a pokemon only if the pokemon is within CAPTURE_RADIUS of the agent at the move()
+ *    (on an edge towards the next node of the agent), a pokemon passed between two moves is not captured.
+ *    Its value goes to the agent and a new pokemon appears on a random edge.
+ * 3. As in the game server, the speed of an agent starts at 1 and grows on a move() of the agent on an edge:
+ *    to 2 once it has DOUBLE_SPEED_VALUE, and from 2 to 5 once it has TURBO_SPEED_VALUE.
+ * 4. The game ends after the given time, the grade is the sum of the values of the agents.
+ * The clock is either the real time or a virtual clock which moves only by advance(ms),
+ * so a game of a minute can be played in a few milliseconds.
+ * The JSON strings (getAgents, getPokemons, getGraph, toString) have the same shape as the game server.
+ */
+public class LocalGameService implements game_service {
+
+	/** The distance (in the units of the node locations) of a pokemon from an agent, under which move() captures it. */
+	public static final double CAPTURE_RADIUS = 0.1 / 100;
+	/** The value from which an agent of speed 1 moves at speed 2. */
+	public static final double DOUBLE_SPEED_VALUE = 50;
+	/** The value from which an agent of speed 2 moves at speed 5. */
+	public static final double TURBO_SPEED_VALUE = 100;
+
+	private final String graphName;
+	private final directed_weighted_graph graph;
+	private final int agentNumber, pokemonNumber;
+	private final long duration;
+	private final boolean virtualClock;
+	private final Random rand;
+	// The edges pokemons can appear on, in the order of the graph iteration
+	private final List<edge_data> edges = new ArrayList<>();
+	private final List<Agent> agents = new ArrayList<>();
+	private final List<Pokemon> pokemons = new ArrayList<>();
+	private long loginId;
+	private boolean started;
+	private long startTime, virtualNow;
+	private int moves;
+
+	/**
+	 * Constructor.
+	 * @param graphName - the name of the graph (for toString)
+	 * @param graph - the graph of the game, every node must have a location
+	 * @param agents - the number of agents
+	 * @param pokemons - the number of pokemons
+	 * @param duration - the length of the game (ms)
+	 * @param seed - the random seed
+	 * @param virtualClock - true for a virtual clock (moved by advance), false for the real time
+	 */
+	public LocalGameService(String graphName, directed_weighted_graph graph, int agents, int pokemons,
+			long duration, long seed, boolean virtualClock) {
+		this.graphName = graphName;
+		this.graph = graph;
+		this.agentNumber = agents;
+		this.pokemonNumber = pokemons;
+		this.duration = duration;
+		this.virtualClock = virtualClock;
+		this.rand = new Random(seed);
+		for (node_data node : graph.getV()) {
+			edges.addAll(graph.getE(node.getKey()));
+		}
+		if (edges.isEmpty() && pokemons > 0) {
+			throw new IllegalArgumentException("A graph without edges has no place for pokemons");
+		}
+		for (int i = 0; i < pokemons; i++) {
+			this.pokemons.add(randomPokemon());
+		}
+	}
+
+	/**
+	 * Creates a game on a graph file in the JSON format of the game (ex2/data/A0 - A5).
+	 * @param file - the graph file
+	 * @param agents - the number of agents
+	 * @param pokemons - the number of pokemons
+	 * @param duration - the length of the game (ms)
+	 * @param seed - the random seed
+	 * @param virtualClock - true for a virtual clock (moved by advance), false for the real time
+	 * @return LocalGameService - the game
+	 */
+	public static LocalGameService fromFile(String file, int agents, int pokemons, long duration, long seed, boolean virtualClock) {
+		try (Reader reader = new BufferedReader(new FileReader(file))) {
+			return new LocalGameService(file, GraphJson.read(reader), agents, pokemons, duration, seed, virtualClock);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Moves the virtual clock forward.
+	 * @param ms - the time to move (ms)
+	 * @throws IllegalStateException if the game runs on the real time
+	 */
+	public synchronized void advance(long ms) {
+		if (!virtualClock) {
+			throw new IllegalStateException("The game runs on the real time");
+		}
+		virtualNow += ms;
+	}
+
+	/**
+	 * Returns the graph of the game as a JSON string.
+	 * @return String - the graph in the JSON format of the game
+	 */
+	@Override
+	public String getGraph() {
+		StringWriter writer = new StringWriter();
+		try {
+			GraphJson.write(graph, writer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Returns the graph of the game.
+	 * @return directed_weighted_graph - the graph
+	 */
+	@Override
+	public directed_weighted_graph getJava_Graph_Not_to_be_used() {
+		return graph;
+	}
+
+	/**
+	 * Returns the pokemons as a JSON string: {"Pokemons":[{"Pokemon":{"value":5.0,"type":-1,"pos":"x,y,z"}},...]}
+	 * @return String - the pokemons
+	 */
+	@Override
+	public synchronized String getPokemons() {
+		StringBuilder sb = new StringBuilder("{\"Pokemons\":[");
+		for (int i = 0; i < pokemons.size(); i++) {
+			Pokemon p = pokemons.get(i);
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"Pokemon\":{\"value\":").append(p.value)
+					.append(",\"type\":").append(p.edge.getSrc() < p.edge.getDest() ? 1 : -1)
+					.append(",\"pos\":\"").append(position(p.edge, p.at)).append("\"}}");
+		}
+		return sb.append("]}").toString();
+	}
+
+	/**
+	 * Returns the agents as a JSON string:
+	 * {"Agents":[{"Agent":{"id":0,"value":0.0,"src":0,"dest":-1,"speed":1.0,"pos":"x,y,z"}},...]}
+	 * @return String - the agents
+	 */
+	@Override
+	public synchronized String getAgents() {
+		StringBuilder sb = new StringBuilder("{\"Agents\":[");
+		for (int i = 0; i < agents.size(); i++) {
+			Agent a = agents.get(i);
+			if (i > 0) {
+				sb.append(',');
+			}
+			String pos = a.edge == null ? location(graph.getNode(a.src).getLocation()) : position(a.edge, a.at);
+			sb.append("{\"Agent\":{\"id\":").append(i)
+					.append(",\"value\":").append(a.value)
+					.append(",\"src\":").append(a.src)
+					.append(",\"dest\":").append(a.edge == null ? -1 : a.edge.getDest())
+					.append(",\"speed\":").append(a.speed)
+					.append(",\"pos\":\"").append(pos).append("\"}}");
+		}
+		return sb.append("]}").toString();
+	}
+
+	/**
+	 * Adds an agent on the given node, before the game starts.
+	 * @param start_node - the key of the node
+	 * @return boolean - true if the agent was added, else false
+	 */
+	@Override
+	public synchronized boolean addAgent(int start_node) {
+		if (started || agents.size() >= agentNumber || graph.getNode(start_node) == null) {
+			return false;
+		}
+		agents.add(new Agent(start_node));
+		return true;
+	}
+
+	/**
+	 * Starts the game, the game clock starts now.
+	 * @return long - the start time
+	 */
+	@Override
+	public synchronized long startGame() {
+		if (!started) {
+			started = true;
+			startTime = now();
+			for (Agent a : agents) {
+				a.lastMove = startTime;
+			}
+		}
+		return startTime;
+	}
+
+	/**
+	 * Returns true if the game started and its time did not end.
+	 * @return boolean - true if the game is running, else false
+	 */
+	@Override
+	public synchronized boolean isRunning() {
+		return started && now() - startTime < duration;
+	}
+
+	/**
+	 * Ends the game now.
+	 * @return long - the end time
+	 */
+	@Override
+	public synchronized long stopGame() {
+		long now = now();
+		if (started) {
+			startTime = now - duration;
+		}
+		return now;
+	}
+
+	/**
+	 * Sends the agent along the edge to the next node, only when the agent stands on a node.
+	 * @param id - the id of the agent
+	 * @param next_node - the next node
+	 * @return long - the next node, -1 if the agent was not sent
+	 */
+	@Override
+	public synchronized long chooseNextEdge(int id, int next_node) {
+		if (id < 0 || id >= agents.size()) {
+			return -1;
+		}
+		Agent a = agents.get(id);
+		edge_data edge = graph.getEdge(a.src, next_node);
+		if (a.edge != null || edge == null) {
+			return -1;
+		}
+		a.edge = edge;
+		a.at = 0;
+		a.lastMove = now();
+		return next_node;
+	}
+
+	/**
+	 * Returns the time left to the end of the game (ms), the full game time before the game starts.
+	 * @return long - the time to the end of the game, 0 after it ended
+	 */
+	@Override
+	public synchronized long timeToEnd() {
+		if (!started) {
+			return duration;
+		}
+		return Math.max(0, duration - (now() - startTime));
+	}
+
+	/**
+	 * Moves the agents by the time passed since the last move and captures the pokemons at their new positions.
+	 * @return String - the agents as a JSON string (see getAgents)
+	 */
+	@Override
+	public synchronized String move() {
+		if (isRunning()) {
+			long now = now();
+			moves++;
+			for (Agent a : agents) {
+				step(a, (now - a.lastMove) / 1000.0);
+				a.lastMove = now;
+			}
+		}
+		return getAgents();
+	}
+
+	/**
+	 * Logs in with the given id.
+	 * @param id - the id
+	 * @return boolean - always true
+	 */
+	@Override
+	public synchronized boolean login(long id) {
+		loginId = id;
+		return true;
+	}
+
+	/**
+	 * Returns the state of the game as a JSON string:
+	 * {"GameServer":{"pokemons":1,"is_logged_in":false,"moves":0,"grade":0.0,"game_level":0,"max_user_level":-1,"id":0,"graph":"data/A0","agents":1}}
+	 * @return String - the state of the game
+	 */
+	@Override
+	public synchronized String toString() {
+		return "{\"GameServer\":{\"pokemons\":" + pokemonNumber
+				+ ",\"is_logged_in\":" + (loginId != 0)
+				+ ",\"moves\":" + moves
+				+ ",\"grade\":" + getGrade()
+				+ ",\"game_level\":0,\"max_user_level\":-1"
+				+ ",\"id\":" + loginId
+				+ ",\"graph\":\"" + graphName + "\""
+				+ ",\"agents\":" + agentNumber + "}}";
+	}
+
+	/**
+	 * Returns the grade: the sum of the values of the agents.
+	 * @return double - the grade
+	 */
+	public synchronized double getGrade() {
+		double grade = 0;
+		for (Agent a : agents) {
+			grade += a.value;
+		}
+		return grade;
+	}
+
+	/**
+	 * Returns the number of moves made.
+	 * @return int - the number of moves
+	 */
+	public synchronized int getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Moves the agent along its edge by the given time, it stops at the next node.
+	 * The speed is updated first, then the pokemons within CAPTURE_RADIUS of the new position are captured.
+	 */
+	private void step(Agent a, double seconds) {
+		if (a.edge == null) {
+			return;
+		}
+		updateSpeed(a);
+		double to = a.at + seconds * a.speed / a.edge.getWeight();
+		if (to >= 1) {
+			// On the node there is nothing to capture, the pokemons lie inside the edges
+			a.src = a.edge.getDest();
+			a.edge = null;
+			a.at = 0;
+			return;
+		}
+		a.at = to;
+		geo_location pos = point(a.edge, to);
+		for (int i = 0; i < pokemons.size(); i++) {
+			Pokemon p = pokemons.get(i);
+			if (p.edge.getDest() == a.edge.getDest() && point(p.edge, p.at).distance(pos) < CAPTURE_RADIUS) {
+				a.value += p.value;
+				pokemons.set(i, randomPokemon());
+			}
+		}
+	}
+
+	/**
+	 * The speed grows by the value of the agent, a single step per move (1 to 2, 2 to 5).
+	 */
+	private static void updateSpeed(Agent a) {
+		double speed = a.speed;
+		if (speed == 1 && a.value >= DOUBLE_SPEED_VALUE) {
+			a.speed = 2;
+		}
+		if (speed == 2 && a.value >= TURBO_SPEED_VALUE) {
+			a.speed = 5;
+		}
+	}
+
+	private Pokemon randomPokemon() {
+		edge_data edge = edges.get(rand.nextInt(edges.size()));
+		return new Pokemon(edge, 0.1 + 0.8 * rand.nextDouble(), 5 + rand.nextInt(11));
+	}
+
+	/**
+	 * Returns the point at the given part (0 - 1) of the edge.
+	 */
+	private geo_location point(edge_data edge, double at) {
+		geo_location s = graph.getNode(edge.getSrc()).getLocation();
+		geo_location d = graph.getNode(edge.getDest()).getLocation();
+		return new GeoLocation(s.x() + at * (d.x() - s.x()), s.y() + at * (d.y() - s.y()), s.z() + at * (d.z() - s.z()));
+	}
+
+	/**
+	 * Returns the point at the given part (0 - 1) of the edge as "x,y,z".
+	 */
+	private String position(edge_data edge, double at) {
+		return location(point(edge, at));
+	}
+
+	private static String location(geo_location pos) {
+		return pos.x() + "," + pos.y() + "," + pos.z();
+	}
+
+	private long now() {
+		return virtualClock ? virtualNow : System.currentTimeMillis();
+	}
+
+	/**
+	 * An agent: on node src, or on edge at the given part of it.
+	 */
+	private static class Agent {
+		private int src;
+		private edge_data edge;
+		private double at;
+		private long lastMove;
+		private double value;
+		private double speed = 1;
+
+		Agent(int src) {
+			this.src = src;
+		}
+	}
+
+	/**
+	 * A pokemon at the given part of an edge.
+	 */
+	private static class Pokemon {
+		private final edge_data edge;
+		private final double at;
+		private final double value;
+
+		Pokemon(edge_data edge, double at, double value) {
+			this.edge = edge;
+			this.at = at;
+			this.value = value;
+		}
+	}
+}
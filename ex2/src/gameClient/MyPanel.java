@@ -4,51 +4,83 @@ import api.*;
 import gameClient.util.Point3D;
 import gameClient.util.Range;
 import gameClient.util.Range2D;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.List;
+import java.awt.image.BufferedImage;
 
 /**
- * This class extends JPanel Class that creates the panel for the game on the frame,
- * and implements ActionListener for receiving action events.
+ * This class extends JPanel Class that creates the panel for the game on the frame.
+ * It shows a snapshot of the arena (ArenaSnapshot): the drawing thread (RenderLoop) gives it every new snapshot
+ * with show(), so the panel never reads the arena while the game thread updates it.
+ * The graph does not change during the game, so it is drawn once into an image (the graph layer),
+ * which is drawn again only when the size of the panel or the graph (its MC) changes.
+ * The pokemons, the agents and the info are drawn over it on every repaint (the image also clears the panel).
  */
-public class MyPanel extends JPanel implements ActionListener {
-	private Arena arena;
+public class MyPanel extends JPanel {
+	// The snapshot shown, replaced by the drawing thread
+	private volatile ArenaSnapshot snapshot;
 	private gameClient.util.Range2Range point;
-	private Timer timer;
+	// The background and the graph drawn on an opaque image, with the graph and its MC when it was drawn
+	private BufferedImage graphLayer;
+	private directed_weighted_graph layerGraph;
+	private int layerMC;
+	// A point of the event dispatch thread, to convert the snapshot locations
+	private final Point3D location = new Point3D(0, 0, 0);
 
 	/**
-	 * Constructor used to start a timer for the repaint function.
+	 * This method shows the current state of the arena of the pokemon game.
+	 * @param ar - the arena of the game
 	 */
-	public MyPanel() {
-		timer = new Timer(10, this);
-		timer.start();
+	public void update(Arena ar) {
+		show(new ArenaSnapshot(ar));
 	}
 
 	/**
-	 * This method update the arena of the pokemon game.
-	 * @param ar - the arena of the game
+	 * This method shows the given snapshot of the arena, it may be called from any thread.
+	 * @param s - the snapshot
 	 */
-	public void update(Arena ar) {
-		this.arena = ar;
-		updateFrame();
+	public void show(ArenaSnapshot s) {
+		this.snapshot = s;
+		repaint();
 	}
 
 	/**
 	 * This method update the frame and set it width and height of the pokemon game.
+	 * @param gg - the graph of the game
 	 */
-	private void updateFrame() {
+	private void updateFrame(directed_weighted_graph gg) {
 		Range rx = new Range(20, this.getWidth() - 20);
 		Range ry = new Range(this.getHeight() - 10, 150);
 		Range2D frame = new Range2D(rx, ry);
-		directed_weighted_graph g = arena.getGraph();
-		point = Arena.w2f(g, frame);
+		point = Arena.w2f(gg, frame);
+	}
+
+	/**
+	 * This method draws the graph layer again if the size of the panel or the graph changed since it was drawn,
+	 * together with the world to frame conversion of the pokemons and the agents.
+	 * @param gg - the graph of the game
+	 */
+	private void updateGraphLayer(directed_weighted_graph gg) {
+		int w = Math.max(this.getWidth(), 1);
+		int h = Math.max(this.getHeight(), 1);
+		int mc = gg.getMC();
+		if (graphLayer != null && graphLayer.getWidth() == w && graphLayer.getHeight() == h
+				&& layerGraph == gg && layerMC == mc) {
+			return;
+		}
+		updateFrame(gg);
+		// An opaque image is copied to the panel without blending, the pokemons are drawn over it
+		graphLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		Graphics2D layer = graphLayer.createGraphics();
+		layer.setBackground(this.getBackground());
+		layer.clearRect(0, 0, w, h);
+		layer.setFont(this.getFont());
+		drawGraph(layer, gg);
+		layer.dispose();
+		layerGraph = gg;
+		layerMC = mc;
 	}
 
 	/**
@@ -58,65 +90,54 @@ public class MyPanel extends JPanel implements ActionListener {
 	 */
 	@Override
 	public void paintComponent(Graphics g) {
-		super.paintComponent(g);
-		int w = this.getWidth();
-		int h = this.getHeight();
-		g.clearRect(0, 0, w, h);
-		updateFrame();
-		drawPokemons(g);
-		drawGraph(g);
-		drawAgents(g);
-		drawInfo(g);
-		drawScores(g);
+		ArenaSnapshot s = snapshot;
+		if (s == null || s.getGraph() == null) {
+			super.paintComponent(g);
+			return;
+		}
+		updateGraphLayer(s.getGraph());
+		g.drawImage(graphLayer, 0, 0, null);
+		drawPokemons(g, s);
+		drawAgents(g, s);
+		drawInfo(g, s);
+		drawScores(g, s);
 	}
 
 	/**
 	 * This method draws info into the panel.
 	 * @param g - Graphics
+	 * @param s - the snapshot
 	 */
-	private void drawInfo(Graphics g) {
-		List<String> str = arena.get_info();
-		if (str != null && !str.isEmpty() && str.get(0) != null) {
-			String gameString = str.get(0);
-			JSONObject gameJsonObject;
-			try {
-				gameJsonObject = new JSONObject(gameString);
-				JSONObject gameJsonServer = gameJsonObject.getJSONObject("GameServer");
-				int pokemons = gameJsonServer.getInt("pokemons");
-				int moves = gameJsonServer.getInt("moves");
-				int grade = gameJsonServer.getInt("grade");
-				int level = gameJsonServer.getInt("game_level");
-				long time = arena.getTime();
-				int w = this.getWidth();
-				int h = this.getHeight();
-
-				g.setFont(new java.awt.Font("Verdana", Font.ITALIC, 13));
-				g.setColor(Color.BLACK);
-				g.drawString("Pokemons on graph : " + pokemons, (int)(w/4), (int)(h/12));
-				g.drawString("Moves : " + moves, (int)(w/2), (int)(h/12));
-				g.drawString("Total Grade: " + grade, (int)(w/4), (int)(h/8));
-				g.drawString("Level : " + level, (int)(w/50), (int)(h/12));
-				g.drawString("Time left: " + time / 1000, (int)(w/50), (int)(h/8));
-				g.drawRect((int)(w/70),(int)(h/30),(int)(w/1.05),(int)(h/8));
-
-			} catch (JSONException e) {
-				e.printStackTrace();
-			}
+	private void drawInfo(Graphics g, ArenaSnapshot s) {
+		GameInfo info = s.getInfo();
+		if (info != null) {
+			long time = s.getTime();
+			int w = this.getWidth();
+			int h = this.getHeight();
+
+			g.setFont(new java.awt.Font("Verdana", Font.ITALIC, 13));
+			g.setColor(Color.BLACK);
+			g.drawString("Pokemons on graph : " + info.getPokemons(), (int)(w/4), (int)(h/12));
+			g.drawString("Moves : " + info.getMoves(), (int)(w/2), (int)(h/12));
+			g.drawString("Total Grade: " + info.getGrade(), (int)(w/4), (int)(h/8));
+			g.drawString("Level : " + info.getLevel(), (int)(w/50), (int)(h/12));
+			g.drawString("Time left: " + time / 1000, (int)(w/50), (int)(h/8));
+			g.drawRect((int)(w/70),(int)(h/30),(int)(w/1.05),(int)(h/8));
 		}
 	}
 
 	/**
 	 * This method draws the graph into the panel.
 	 * @param g - Graphics
+	 * @param gg - the graph of the game
 	 */
-	private void drawGraph(Graphics g) {
-		directed_weighted_graph gg = arena.getGraph();
+	private void drawGraph(Graphics g, directed_weighted_graph gg) {
 		for (node_data n : gg.getV()) {
 			g.setColor(Color.blue);
 			drawNode(n, 5, g);
 			for (edge_data e : gg.getE(n.getKey())) {
 				g.setColor(Color.gray);
-				drawEdge(e, g);
+				drawEdge(gg, e, g);
 			}
 		}
 	}
@@ -124,51 +145,36 @@ public class MyPanel extends JPanel implements ActionListener {
 	/**
 	 * This method draws the pokemons into the panel.
 	 * @param g - Graphics
+	 * @param s - the snapshot
 	 */
-	private void drawPokemons(Graphics g) {
-		List<CL_Pokemon> fs = arena.getPokemons();
-		if (fs != null) {
-			for (CL_Pokemon f : fs) {
-				Point3D c = f.getLocation();
-				int r = 10;
-				g.setColor(Color.green);
-				if (f.getType() < 0) {
-					g.setColor(Color.orange);
-				}
-				if (c != null) {
-					geo_location fp = this.point.world2frame(c);
-					g.fillOval((int) fp.x() - r, (int) fp.y() - r, 2 * r, 2 * r);
-				}
+	private void drawPokemons(Graphics g, ArenaSnapshot s) {
+		for (int i = 0; i < s.pokemons(); i++) {
+			int r = 10;
+			g.setColor(Color.green);
+			if (s.pokemonType(i) < 0) {
+				g.setColor(Color.orange);
 			}
+			location.set(s.pokemonX(i), s.pokemonY(i), 0);
+			geo_location fp = this.point.world2frame(location);
+			g.fillOval((int) fp.x() - r, (int) fp.y() - r, 2 * r, 2 * r);
 		}
 	}
 
 	/**
 	 * This method draws the agents into the panel.
 	 * @param g - Graphics
+	 * @param s - the snapshot
 	 */
-	private void drawAgents(Graphics g) {
-		List<CL_Agent> agents = arena.getAgents();
-		List<String> str = arena.get_info();
-		if (str != null && !str.isEmpty() && str.get(0) != null && agents != null) {
-			String gameString = str.get(0);
-			JSONObject gameJsonObject;
-			try {
-				gameJsonObject = new JSONObject(gameString);
-				JSONObject gameJsonServer = gameJsonObject.getJSONObject("GameServer");
-				int agentNumber = gameJsonServer.getInt("agents");
-				g.setColor(Color.red);
-				for (int i = 0; i < agentNumber; i++) {
-					geo_location c = agents.get(i).getLocation();
-					int r = 8;
-					if (c != null) {
-						geo_location fp = this.point.world2frame(c);
-						g.fillOval((int) fp.x() - r, (int) fp.y() - r, 2 * r, 2 * r);
-						g.drawString("" + i, (int) fp.x(), (int) fp.y() - 4 * r);
-					}
-				}
-			} catch (JSONException e) {
-				e.printStackTrace();
+	private void drawAgents(Graphics g, ArenaSnapshot s) {
+		GameInfo info = s.getInfo();
+		if (info != null) {
+			g.setColor(Color.red);
+			for (int i = 0; i < Math.min(info.getAgents(), s.agents()); i++) {
+				int r = 8;
+				location.set(s.agentX(i), s.agentY(i), 0);
+				geo_location fp = this.point.world2frame(location);
+				g.fillOval((int) fp.x() - r, (int) fp.y() - r, 2 * r, 2 * r);
+				g.drawString("" + i, (int) fp.x(), (int) fp.y() - 4 * r);
 			}
 		}
 	}
@@ -188,11 +194,11 @@ public class MyPanel extends JPanel implements ActionListener {
 
 	/**
 	 * This method draws the edge into the panel.
+	 * @param gg - the graph of the game
 	 * @param e - the current edge_data to draw
 	 * @param g - Graphics
 	 */
-	private void drawEdge (edge_data e, Graphics g){
-		directed_weighted_graph gg = arena.getGraph();
+	private void drawEdge (directed_weighted_graph gg, edge_data e, Graphics g){
 		geo_location s = gg.getNode(e.getSrc()).getLocation();
 		geo_location d = gg.getNode(e.getDest()).getLocation();
 		geo_location s0 = this.point.world2frame(s);
@@ -203,25 +209,14 @@ public class MyPanel extends JPanel implements ActionListener {
 	/**
 	 * This method draws the scores into the panel.
 	 * @param g - Graphics
+	 * @param s - the snapshot
 	 */
-	private void drawScores (Graphics g){
-		List<CL_Agent> agents = arena.getAgents();
+	private void drawScores (Graphics g, ArenaSnapshot s){
 		int indexY = 0;
-		if (agents != null) {
-			for (CL_Agent agent : agents) {
-				g.setColor(Color.BLACK);
-				g.drawString("Agent :(" + agent.getID() + "). Score is: " + agent.getValue(), (int) (this.getWidth() / 1.3), (int)(this.getHeight()/12) + indexY);
-				indexY += 20;
-			}
+		for (int i = 0; i < s.agents(); i++) {
+			g.setColor(Color.BLACK);
+			g.drawString("Agent :(" + s.agentId(i) + "). Score is: " + s.agentValue(i), (int) (this.getWidth() / 1.3), (int)(this.getHeight()/12) + indexY);
+			indexY += 20;
 		}
 	}
-
-	/**
-	 * This method repaint the panel when each action is being performed.
-	 * @param e - ActionEvent
-	 */
-	@Override
-	public void actionPerformed (ActionEvent e) {
-		repaint();
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package gameClient;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is the drawing thread of the game: it shows every new snapshot of the arena in the panel,
+ * at most maxFps times a second.
+ * The game thread publishes a snapshot after every move (Arena.publishSnapshot) into a single slot and wakes
+ * this thread, without locks, so the game thread never waits for the drawing (or for the event dispatch thread).
+ * This thread sleeps (parks) while there is no new snapshot, so a paused or idle game costs no CPU,
+ * and when several snapshots are published within a frame only the latest is shown.
+ */
+public final class RenderLoop implements Runnable {
+
+	/** The default frame rate cap. */
+	public static final int DEFAULT_FPS = 60;
+
+	private final Arena arena;
+	private final MyPanel panel;
+	private final long frameNanos;
+	private final Thread thread;
+	private volatile boolean running;
+	private volatile int frames;
+
+	/**
+	 * Constructor, the loop starts with start().
+	 * @param arena - the arena of the game, its snapshots are shown
+	 * @param panel - the panel to show them in
+	 * @param maxFps - the highest number of frames per second
+	 */
+	public RenderLoop(Arena arena, MyPanel panel, int maxFps) {
+		if (maxFps <= 0) {
+			throw new IllegalArgumentException("The frame rate must be positive: " + maxFps);
+		}
+		this.arena = arena;
+		this.panel = panel;
+		this.frameNanos = 1000000000L / maxFps;
+		this.thread = new Thread(this, "render");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts the drawing thread and listens to the snapshots of the arena.
+	 */
+	public void start() {
+		running = true;
+		arena.setSnapshotListener(() -> LockSupport.unpark(thread));
+		thread.start();
+	}
+
+	/**
+	 * Stops the drawing thread and waits for it to end.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void stop() throws InterruptedException {
+		running = false;
+		arena.setSnapshotListener(null);
+		LockSupport.unpark(thread);
+		thread.join();
+	}
+
+	/**
+	 * Returns the number of frames shown so far.
+	 * @return int - the number of frames
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	/**
+	 * The loop of the drawing thread: waits for a snapshot newer than the last one shown,
+	 * waits for the rest of the frame time, and shows the latest snapshot.
+	 */
+	@Override
+	public void run() {
+		ArenaSnapshot shown = null;
+		long lastFrame = System.nanoTime() - frameNanos;
+		while (running) {
+			if (arena.getSnapshot() == shown) {
+				// Woken up by the next publish (or stop), or spuriously
+				LockSupport.park(this);
+				continue;
+			}
+			long wait;
+			while (running && (wait = lastFrame + frameNanos - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, wait);
+			}
+			shown = arena.getSnapshot();
+			lastFrame = System.nanoTime();
+			panel.show(shown);
+			frames++;
+		}
+	}
+}
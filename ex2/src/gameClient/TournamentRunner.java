@@ -0,0 +1,143 @@
+package gameClient;
+
+import api.GraphJson;
+import api.directed_weighted_graph;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class plays many games of the strategy (GameStrategy) headless, on the local game simulator
+ * (LocalGameService with a virtual clock), a game per worker thread on all the cores.
+ * Every scenario level is played with the seeds 0 to games-1, so the same run always plays the same games:
+ * the assignment has no latency budget (AssignmentEngine.NO_BUDGET), so neither the load of the machine
+ * nor the number of threads changes a game.
+ * The grade, the moves and the wall time of every game are written to a CSV file.
+ * The levels of the simulator: level i plays the graph data/A(i%6) with AGENTS[i%6] agents,
+ * POKEMONS[i%6] pokemons for DURATION[i%6] ms (these are local scenarios, not the levels of the game server).
+ * Usage: TournamentRunner games output.csv [level ...] - the default levels are 0 to 5.
+ */
+public class TournamentRunner {
+
+	/** The number of agents of every level. */
+	public static final int[] AGENTS = {1, 1, 2, 2, 3, 3};
+	/** The number of pokemons of every level. */
+	public static final int[] POKEMONS = {1, 2, 3, 4, 5, 6};
+	/** The length (ms) of the game of every level. */
+	public static final long[] DURATION = {30000, 30000, 30000, 60000, 60000, 60000};
+
+	/**
+	 * The main function runs the tournament by the command line arguments.
+	 * @param args - the number of games per level, the CSV file name, and the levels (optional)
+	 * @throws IOException if the CSV file can not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: TournamentRunner games output.csv [level ...]");
+			return;
+		}
+		int games = Integer.parseInt(args[0]);
+		int[] levels = new int[args.length > 2 ? args.length - 2 : AGENTS.length];
+		for (int i = 0; i < levels.length; i++) {
+			levels[i] = args.length > 2 ? Integer.parseInt(args[i + 2]) : i;
+		}
+		long start = System.currentTimeMillis();
+		List<Result> results = run(levels, games, Runtime.getRuntime().availableProcessors());
+		try (Writer writer = new FileWriter(args[1])) {
+			writeCsv(results, writer);
+		}
+		System.out.println(results.size() + " games in " + (System.currentTimeMillis() - start) + " ms, written to " + args[1]);
+	}
+
+	/**
+	 * Plays the games of the given levels, the games are split between the given number of threads.
+	 * @param levels - the scenario levels
+	 * @param games - the number of games (seeds) per level
+	 * @param threads - the number of worker threads
+	 * @return List of Result - the results, by level and then by seed
+	 */
+	public static List<Result> run(int[] levels, int games, int threads) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Result>> futures = new ArrayList<>();
+			for (int level : levels) {
+				for (int seed = 0; seed < games; seed++) {
+					int s = seed;
+					futures.add(pool.submit(() -> play(level, s)));
+				}
+			}
+			List<Result> results = new ArrayList<>();
+			for (Future<Result> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The tournament was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A game failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays a single game of the level with the seed.
+	 * @param level - the scenario level
+	 * @param seed - the random seed of the game
+	 * @return Result - the result of the game
+	 */
+	public static Result play(int level, long seed) {
+		long start = System.nanoTime();
+		int i = Math.floorMod(level, AGENTS.length);
+		LocalGameService game = LocalGameService.fromFile("data/A" + i, AGENTS[i], POKEMONS[i], DURATION[i], seed, true);
+		directed_weighted_graph graph = GraphJson.fromJson(game.getGraph());
+		GameStrategy strategy = new GameStrategy(game, graph, game::advance, new AssignmentEngine(AssignmentEngine.NO_BUDGET));
+		strategy.insertAgents();
+		game.startGame();
+		strategy.play();
+		return new Result(level, seed, game.getGrade(), game.getMoves(), (System.nanoTime() - start) / 1000000);
+	}
+
+	/**
+	 * Writes the results as CSV: level,seed,grade,moves,wall_ms
+	 * @param results - the results
+	 * @param out - the writer, flushed but not closed
+	 */
+	public static void writeCsv(List<Result> results, Writer out) {
+		PrintWriter writer = new PrintWriter(out);
+		writer.println("level,seed,grade,moves,wall_ms");
+		for (Result r : results) {
+			writer.println(String.format(Locale.ROOT, "%d,%d,%.1f,%d,%d", r.level, r.seed, r.grade, r.moves, r.wallMillis));
+		}
+		writer.flush();
+	}
+
+	/**
+	 * The result of a single game.
+	 */
+	public static final class Result {
+		public final int level;
+		public final long seed;
+		public final double grade;
+		public final int moves;
+		public final long wallMillis;
+
+		Result(int level, long seed, double grade, int moves, long wallMillis) {
+			this.level = level;
+			this.seed = seed;
+			this.grade = grade;
+			this.moves = moves;
+			this.wallMillis = wallMillis;
+		}
+	}
+}
@@ -38,6 +38,15 @@ public class Point3D implements geo_location, Serializable{
             throw(e);
         }
     }
+    /**
+     * Moves this point to the given coordinates, so a point can be reused instead of creating a new one.
+     * Do not call it on a point that is shared (for example ORIGIN).
+     */
+    public void set(double x, double y, double z) {
+        _x=x;
+        _y=y;
+        _z=z;
+    }
     @Override
     public double x() {return _x;}
     @Override
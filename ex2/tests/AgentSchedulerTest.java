@@ -0,0 +1,176 @@
+import api.*;
+import gameClient.AgentScheduler;
+import gameClient.Arena;
+import gameClient.CL_Agent;
+import gameClient.CL_Pokemon;
+import gameClient.util.Point3D;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgentSchedulerTest {
+
+	@Test
+	void arrivalAndCapture() {
+		directed_weighted_graph g = graph();
+		ClockGame game = new ClockGame();
+		AgentScheduler scheduler = new AgentScheduler(game, g, game::sleep);
+		// A quarter of the way along 0->1 (weight 2) at speed 1: 1.5 seconds to node 1
+		List<CL_Agent> agents = agents(g, "{\"Agent\":{\"id\":0,\"value\":0,\"src\":0,\"dest\":1,\"speed\":1,\"pos\":\"0.25,0,0\"}}");
+		List<CL_Pokemon> pokemons = new ArrayList<>();
+		scheduler.schedule(agents, pokemons);
+		assertEquals(1500, scheduler.timeToNextEvent());
+		// A pokemon half way along the edge is captured after 0.5 seconds
+		pokemons.add(pokemon(g, 0.5, 1));
+		scheduler.schedule(agents, pokemons);
+		assertEquals(500, scheduler.timeToNextEvent());
+		// A pokemon behind the agent or on another edge is no event
+		pokemons.clear();
+		pokemons.add(pokemon(g, 0.1, 1));
+		pokemons.add(pokemon(g, 0.5, -1));
+		scheduler.schedule(agents, pokemons);
+		assertEquals(1500, scheduler.timeToNextEvent());
+		assertTrue(scheduler.moveAtNextEvent(agents));
+		assertEquals(1, game.moves);
+		assertEquals(1500 + AgentScheduler.SLACK, game.slept);
+	}
+
+	@Test
+	void idleAndSent() {
+		directed_weighted_graph g = graph();
+		ClockGame game = new ClockGame();
+		AgentScheduler scheduler = new AgentScheduler(game, g, game::sleep);
+		// An agent on a node without an edge has no events, a move would change nothing
+		List<CL_Agent> agents = agents(g, "{\"Agent\":{\"id\":0,\"value\":0,\"src\":0,\"dest\":-1,\"speed\":1,\"pos\":\"0,0,0\"}}");
+		scheduler.schedule(agents, new ArrayList<>());
+		assertEquals(-1, scheduler.timeToNextEvent());
+		assertFalse(scheduler.moveAtNextEvent(agents));
+		assertEquals(0, game.moves);
+		assertEquals(AgentScheduler.IDLE_WAIT, game.slept);
+		// Once it is sent along the edge (weight 2, speed 1) it arrives after 2 seconds
+		agents.get(0).setNextNode(1);
+		scheduler.schedule(agents, new ArrayList<>());
+		assertEquals(2000, scheduler.timeToNextEvent());
+		assertTrue(scheduler.moveAtNextEvent(agents));
+		assertEquals(AgentScheduler.IDLE_WAIT + 2000 + AgentScheduler.SLACK, game.slept);
+	}
+
+	@Test
+	void wastedMoves() {
+		directed_weighted_graph g = graph();
+		ClockGame game = new ClockGame();
+		AgentScheduler scheduler = new AgentScheduler(game, g, game::sleep);
+		List<CL_Agent> agents = agents(g, "{\"Agent\":{\"id\":0,\"value\":0,\"src\":0,\"dest\":1,\"speed\":1,\"pos\":\"0.25,0,0\"}}");
+		scheduler.schedule(agents, new ArrayList<>());
+		scheduler.moveAtNextEvent(agents);
+		// Still on the same edge after the move: wasted
+		agents = agents(g, "{\"Agent\":{\"id\":0,\"value\":0,\"src\":0,\"dest\":1,\"speed\":1,\"pos\":\"0.5,0,0\"}}");
+		scheduler.schedule(agents, new ArrayList<>());
+		assertEquals(1, scheduler.getWastedMoves());
+		scheduler.moveAtNextEvent(agents);
+		// Arrived at node 1: useful
+		agents = agents(g, "{\"Agent\":{\"id\":0,\"value\":0,\"src\":1,\"dest\":-1,\"speed\":1,\"pos\":\"1,0,0\"}}");
+		scheduler.schedule(agents, new ArrayList<>());
+		assertEquals(2, scheduler.getMoves());
+		assertEquals(1, scheduler.getWastedMoves());
+		assertTrue(scheduler.metrics().startsWith("moves: 2, wasted moves: 1"));
+	}
+
+	private static directed_weighted_graph graph() {
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 2; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(i, 0, 0));
+			g.addNode(n);
+		}
+		g.connect(0, 1, 2);
+		g.connect(1, 0, 2);
+		return g;
+	}
+
+	private static List<CL_Agent> agents(directed_weighted_graph g, String json) {
+		List<CL_Agent> agents = new ArrayList<>();
+		CL_Agent agent = new CL_Agent(g, 0);
+		agent.update(json);
+		agents.add(agent);
+		return agents;
+	}
+
+	private static CL_Pokemon pokemon(directed_weighted_graph g, double x, int type) {
+		CL_Pokemon pokemon = new CL_Pokemon(new Point3D(x, 0, 0), type, 5, 0, null);
+		Arena.updateEdge(pokemon, g);
+		return pokemon;
+	}
+
+	/**
+	 * A game which only has a clock: sleeping advances the game time.
+	 */
+	private static class ClockGame implements game_service {
+		long timeToEnd = 30000, slept;
+		int moves;
+
+		void sleep(long ms) {
+			timeToEnd -= ms;
+			slept += ms;
+		}
+
+		@Override
+		public long timeToEnd() {
+			return timeToEnd;
+		}
+
+		@Override
+		public String move() {
+			moves++;
+			return "";
+		}
+
+		@Override
+		public String getGraph() {
+			return null;
+		}
+
+		@Override
+		public String getPokemons() {
+			return null;
+		}
+
+		@Override
+		public String getAgents() {
+			return null;
+		}
+
+		@Override
+		public boolean addAgent(int start_node) {
+			return false;
+		}
+
+		@Override
+		public long startGame() {
+			return 0;
+		}
+
+		@Override
+		public boolean isRunning() {
+			return timeToEnd > 0;
+		}
+
+		@Override
+		public long stopGame() {
+			return 0;
+		}
+
+		@Override
+		public long chooseNextEdge(int id, int next_node) {
+			return next_node;
+		}
+
+		@Override
+		public boolean login(long id) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+import api.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllPairsTableTest {
+
+	@Test
+	void sameAsDijkstra() {
+		Random rand = new Random(5);
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 200; i++) {
+			g.addNode(new NodeData(i * 3));
+		}
+		while (g.edgeSize() < 800) {
+			g.connect(rand.nextInt(200) * 3, rand.nextInt(200) * 3, rand.nextDouble() * 10);
+		}
+		AllPairsTable table = new AllPairsTable(g);
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		ga.init(g);
+		for (node_data src : g.getV()) {
+			for (node_data dest : g.getV()) {
+				int s = src.getKey(), d = dest.getKey();
+				double dist = ga.shortestPathDist(s, d);
+				assertEquals(dist, table.dist(s, d), 0.000001);
+				List<node_data> path = table.path(s, d);
+				if (dist == -1) {
+					assertNull(path);
+					assertNull(table.nextHop(s, d));
+					continue;
+				}
+				// The path must start at src, end at dest and have the shortest length
+				assertSame(src, path.get(0));
+				assertSame(dest, path.get(path.size() - 1));
+				assertSame(path.size() == 1 ? src : path.get(1), table.nextHop(s, d));
+				double sum = 0;
+				for (int i = 1; i < path.size(); i++) {
+					sum += g.getEdge(path.get(i - 1).getKey(), path.get(i).getKey()).getWeight();
+				}
+				assertEquals(dist, sum, 0.000001);
+			}
+		}
+	}
+
+	@Test
+	void invalidation() {
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 3; i++) {
+			g.addNode(new NodeData(i));
+		}
+		g.connect(0, 1, 1);
+		g.connect(1, 2, 1);
+		AllPairsTable table = new AllPairsTable(g);
+		assertTrue(table.isValidFor(g));
+		assertFalse(table.isValidFor(new DWGraph_DS(g)));
+		assertEquals(2, table.dist(0, 2));
+		assertEquals(-1, table.dist(2, 0));
+		assertEquals(-1, table.dist(0, 7));
+		assertEquals(1, table.nextHop(0, 2).getKey());
+		assertEquals(0, table.nextHop(0, 0).getKey());
+		g.connect(0, 2, 1);
+		assertFalse(table.isValidFor(g));
+		table = new AllPairsTable(g);
+		assertEquals(1, table.dist(0, 2));
+		assertEquals(2, table.nextHop(0, 2).getKey());
+	}
+}
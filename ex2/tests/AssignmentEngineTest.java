@@ -0,0 +1,127 @@
+import gameClient.AssignmentEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentEngineTest {
+
+	private static final long SECOND = 1000000000L;
+
+	@Test
+	void hungarianIsOptimal() {
+		Random rand = new Random(1);
+		AssignmentEngine engine = new AssignmentEngine(SECOND);
+		for (int t = 0; t < 200; t++) {
+			int agents = 1 + rand.nextInt(5), pokemons = 1 + rand.nextInt(5);
+			double[][] benefit = random(rand, agents, pokemons);
+			int[] match = engine.assign(benefit);
+			assertFalse(engine.wasOverBudget());
+			assertValid(match, pokemons);
+			assertEquals(best(benefit, 0, new boolean[pokemons]), sum(benefit, match), 1e-9);
+		}
+	}
+
+	@Test
+	void auctionIsOptimal() {
+		Random rand = new Random(2);
+		int n = AssignmentEngine.HUNGARIAN_LIMIT;
+		double[][] benefit = random(rand, n, n);
+		int[] hungarian = new AssignmentEngine(10 * SECOND).assign(benefit);
+		// A column of zeros more does not change the optimum, but the matrix is solved by the auction
+		int[] auction = new AssignmentEngine(10 * SECOND).assign(pad(benefit, 1));
+		assertValid(auction, n + 1);
+		assertEquals(sum(benefit, hungarian), sum(benefit, auction), 1e-4);
+	}
+
+	@Test
+	void noBenefitNoPokemon() {
+		AssignmentEngine engine = new AssignmentEngine();
+		// Two agents, one pokemon: the agent with the higher benefit gets it
+		int[] match = engine.assign(new double[][]{{1}, {2}});
+		assertArrayEquals(new int[]{-1, 0}, match);
+		// A pokemon without benefit (unreachable) is never assigned
+		match = engine.assign(new double[][]{{0, 3}, {0, 5}});
+		assertArrayEquals(new int[]{-1, 1}, match);
+		assertArrayEquals(new int[0], engine.assign(new double[0][0]));
+	}
+
+	@Test
+	void budget() {
+		Random rand = new Random(3);
+		double[][] benefit = random(rand, 400, 400);
+		AssignmentEngine engine = new AssignmentEngine(1);
+		int[] match = engine.assign(benefit);
+		// Out of budget at once: every agent still gets a pokemon, greedily
+		assertTrue(engine.wasOverBudget());
+		assertValid(match, 400);
+		for (int a : match) {
+			assertNotEquals(-1, a);
+		}
+		assertThrows(IllegalArgumentException.class, () -> new AssignmentEngine(0));
+		// The deadline of no budget overflows, it must still never run out
+		engine = new AssignmentEngine(AssignmentEngine.NO_BUDGET);
+		assertArrayEquals(new AssignmentEngine(10 * SECOND).assign(benefit), engine.assign(benefit));
+		assertFalse(engine.wasOverBudget());
+	}
+
+	private static double[][] random(Random rand, int agents, int pokemons) {
+		double[][] benefit = new double[agents][pokemons];
+		for (double[] row : benefit) {
+			for (int j = 0; j < pokemons; j++) {
+				row[j] = rand.nextInt(10) == 0 ? 0 : rand.nextDouble() * 10;
+			}
+		}
+		return benefit;
+	}
+
+	/**
+	 * Adds columns of zeros, so the matrix is solved by the auction.
+	 */
+	private static double[][] pad(double[][] benefit, int columns) {
+		double[][] ans = new double[benefit.length][benefit[0].length + columns];
+		for (int i = 0; i < benefit.length; i++) {
+			System.arraycopy(benefit[i], 0, ans[i], 0, benefit[i].length);
+		}
+		return ans;
+	}
+
+	private static void assertValid(int[] match, int pokemons) {
+		boolean[] taken = new boolean[pokemons];
+		for (int m : match) {
+			if (m != -1) {
+				assertFalse(taken[m]);
+				taken[m] = true;
+			}
+		}
+	}
+
+	private static double sum(double[][] benefit, int[] match) {
+		double sum = 0;
+		for (int i = 0; i < match.length; i++) {
+			if (match[i] != -1) {
+				sum += benefit[i][match[i]];
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * The optimum by brute force.
+	 */
+	private static double best(double[][] benefit, int agent, boolean[] taken) {
+		if (agent == benefit.length) {
+			return 0;
+		}
+		double ans = best(benefit, agent + 1, taken);
+		for (int j = 0; j < taken.length; j++) {
+			if (!taken[j]) {
+				taken[j] = true;
+				ans = Math.max(ans, benefit[agent][j] + best(benefit, agent + 1, taken));
+				taken[j] = false;
+			}
+		}
+		return ans;
+	}
+}
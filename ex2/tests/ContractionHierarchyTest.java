@@ -0,0 +1,126 @@
+import api.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+	@Test
+	void sameAsDijkstra() {
+		// A road like graph of random points, edges between close points in both directions (not always the same weight)
+		int v = 3000;
+		Random rand = new Random(1);
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < v; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(rand.nextDouble() * 100, rand.nextDouble() * 100, 0));
+			g.addNode(n);
+		}
+		while (g.edgeSize() < 5 * v) {
+			int a = rand.nextInt(v);
+			int b = rand.nextInt(v);
+			double length = g.getNode(a).getLocation().distance(g.getNode(b).getLocation());
+			if (a != b && length < 6) {
+				g.connect(a, b, length * (1 + rand.nextDouble()));
+				if (rand.nextInt(4) != 0) {
+					g.connect(b, a, length * (1 + rand.nextDouble()));
+				}
+			}
+		}
+		checkAgainstDijkstra(g, ContractionHierarchy.build(g), 500);
+	}
+
+	@Test
+	void scenarioGraphs() {
+		for (int level = 0; level < 6; level++) {
+			DWGraph_Algo ga = new DWGraph_Algo();
+			assertTrue(ga.load("data/A" + level));
+			directed_weighted_graph g = ga.getGraph();
+			checkAgainstDijkstra(g, ContractionHierarchy.build(g), 300);
+		}
+	}
+
+	@Test
+	void edgeCases() {
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 6; i++) {
+			g.addNode(new NodeData(i));
+		}
+		// 0 -> 1 -> 2 and a heavier direct edge 0 -> 2, 3 is not reachable, 4 <-> 5 weigh 0
+		g.connect(0, 1, 1);
+		g.connect(1, 2, 1);
+		g.connect(0, 2, 5);
+		g.connect(2, 4, 2);
+		g.connect(4, 5, 0);
+		g.connect(5, 4, 0);
+		ContractionHierarchy ch = ContractionHierarchy.build(g);
+		assertEquals(2, ch.shortestPathDist(0, 2));
+		assertEquals(4, ch.shortestPathDist(0, 5));
+		assertEquals(0, ch.shortestPathDist(3, 3));
+		assertEquals(-1, ch.shortestPathDist(0, 3));
+		assertEquals(-1, ch.shortestPathDist(2, 0));
+		assertEquals(-1, ch.shortestPathDist(0, 10));
+		assertNull(ch.shortestPath(0, 3));
+		assertNull(ch.shortestPath(10, 0));
+		assertEquals(1, ch.shortestPath(3, 3).size());
+		List<node_data> path = ch.shortestPath(0, 5);
+		int[] expected = {0, 1, 2, 4, 5};
+		assertEquals(expected.length, path.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], path.get(i).getKey());
+		}
+		// An empty graph
+		assertEquals(-1, ContractionHierarchy.build(new DWGraph_DS()).shortestPathDist(0, 0));
+	}
+
+	@Test
+	void saveAndLoad() throws IOException {
+		DWGraph_Algo ga = new DWGraph_Algo();
+		assertTrue(ga.load("data/A5"));
+		directed_weighted_graph g = ga.getGraph();
+		ContractionHierarchy ch = ContractionHierarchy.build(g);
+		File file = File.createTempFile("hierarchy", ".ch");
+		try {
+			ch.save(file.getPath());
+			ContractionHierarchy loaded = ContractionHierarchy.load(file.getPath(), g);
+			assertEquals(ch.edgeSize(), loaded.edgeSize());
+			checkAgainstDijkstra(g, loaded, 300);
+			// Another graph, or a file which is not a hierarchy
+			assertThrows(IOException.class, () -> ContractionHierarchy.load(file.getPath(), new DWGraph_DS()));
+			assertThrows(IOException.class, () -> ContractionHierarchy.load("data/A5", g));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	private static void checkAgainstDijkstra(directed_weighted_graph g, ContractionHierarchy ch, int queries) {
+		DWGraph_Algo ga = new DWGraph_Algo();
+		ga.init(g);
+		Random rand = new Random(2);
+		int v = g.nodeSize();
+		for (int k = 0; k < queries; k++) {
+			int src = rand.nextInt(v);
+			int dest = rand.nextInt(v);
+			double expected = ga.shortestPathDist(src, dest);
+			assertEquals(expected, ch.shortestPathDist(src, dest), 0.000001, src + " -> " + dest);
+			List<node_data> path = ch.shortestPath(src, dest);
+			if (expected == -1) {
+				assertNull(path);
+				continue;
+			}
+			assertEquals(src, path.get(0).getKey());
+			assertEquals(dest, path.get(path.size() - 1).getKey());
+			double sum = 0;
+			for (int j = 1; j < path.size(); j++) {
+				sum += g.getEdge(path.get(j - 1).getKey(), path.get(j).getKey()).getWeight();
+			}
+			assertEquals(expected, sum, 0.000001);
+		}
+	}
+}
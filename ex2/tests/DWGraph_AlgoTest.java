@@ -3,6 +3,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,6 +63,64 @@ class DWGraph_AlgoTest {
 		assertTrue(ga.isConnected());
 	}
 
+	@Test
+	void stronglyConnectedComponents() {
+		DWGraph_Algo ga = new DWGraph_Algo();
+		assertTrue(ga.stronglyConnectedComponents().isEmpty());
+		directed_weighted_graph g = graph();
+		ga.init(g);
+		List<List<node_data>> components = ga.stronglyConnectedComponents();
+		assertEquals(12, components.size());
+		int[] component = new int[15];
+		for (int i = 0; i < components.size(); i++) {
+			for (node_data n : components.get(i)) {
+				component[n.getKey()] = i;
+			}
+		}
+		assertEquals(component[2], component[3]);
+		assertEquals(component[10], component[11]);
+		assertEquals(2, components.get(component[2]).size());
+		assertNotEquals(component[1], component[2]);
+		// No edge goes to a later component
+		for (node_data n : g.getV()) {
+			for (edge_data edge : g.getE(n.getKey())) {
+				assertTrue(component[edge.getSrc()] >= component[edge.getDest()]);
+			}
+		}
+		g.connect(2,1,10);
+		g.connect(3,8,10);
+		g.connect(14,9,10);
+		g.connect(13,12,10);
+		g.connect(4,2,10);
+		g.connect(6,5,10);
+		g.connect(4,7,10);
+		g.connect(12,5,10);
+		assertEquals(1, ga.stronglyConnectedComponents().size());
+		assertEquals(14, ga.stronglyConnectedComponents().get(0).size());
+	}
+
+	@Test
+	void isConnectedRuntime() {
+		// A 200,000 nodes cycle is strongly connected, the traversals must not overflow the stack
+		int v = 200000;
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < v; i++) {
+			g.addNode(new NodeData(i));
+		}
+		for (int i = 0; i < v; i++) {
+			g.connect(i, (i + 1) % v, 1);
+		}
+		DWGraph_Algo ga = new DWGraph_Algo();
+		ga.init(g);
+		long start = System.currentTimeMillis();
+		assertTrue(ga.isConnected());
+		assertEquals(1, ga.stronglyConnectedComponents().size());
+		g.removeEdge(v / 2, v / 2 + 1);
+		assertFalse(ga.isConnected());
+		assertEquals(v, ga.stronglyConnectedComponents().size());
+		assertTrue(System.currentTimeMillis() - start < 10000);
+	}
+
 	@Test
 	void shortestPathDist() {
 		directed_weighted_graph g = fullGraph();
@@ -135,6 +194,160 @@ class DWGraph_AlgoTest {
 
 	}
 
+	@Test
+	void shortestPathDistBatch() {
+		directed_weighted_graph g = fullGraph();
+		DWGraph_Algo ga = new DWGraph_Algo();
+		ga.init(g);
+		// 20 and -3 are not in the graph
+		int[] sources = {8, 9, 13, 5, 14, 10, 20};
+		int[] targets = {10, 2, 5, 13, 8, 15, 4, -3};
+		double[][] dist = ga.shortestPathDist(sources, targets);
+		assertEquals(sources.length, dist.length);
+		for (int i = 0; i < sources.length; i++) {
+			assertEquals(targets.length, dist[i].length);
+			for (int j = 0; j < targets.length; j++) {
+				assertEquals(ga.shortestPathDist(sources[i], targets[j]), dist[i][j]);
+			}
+		}
+		assertEquals(21.5, dist[0][0]);
+		assertEquals(-1, dist[5][5]);
+		assertEquals(-1, dist[6][0]);
+		// A single target
+		assertEquals(21, ga.shortestPathDist(new int[]{9}, new int[]{2})[0][0]);
+		assertEquals(0, ga.shortestPathDist(new int[0], targets).length);
+	}
+
+	@Test
+	void concurrentQueries() throws InterruptedException {
+		directed_weighted_graph g = fullGraph();
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		ga.init(g);
+		// Every thread checks its own pairs against the expected distances while the others search
+		int[][] pairs = {{8, 10}, {9, 2}, {13, 5}, {5, 13}, {13, 8}, {8, 13}, {14, 2}, {2, 14}};
+		double[] expected = new double[pairs.length];
+		for (int i = 0; i < pairs.length; i++) {
+			expected[i] = ga.shortestPathDist(pairs[i][0], pairs[i][1]);
+		}
+		List<Throwable> errors = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int offset = t;
+			Thread thread = new Thread(() -> {
+				for (int k = 0; k < 2000; k++) {
+					int i = (k + offset) % pairs.length;
+					List<node_data> path = ga.shortestPath(pairs[i][0], pairs[i][1]);
+					if (ga.shortestPathDist(pairs[i][0], pairs[i][1]) != expected[i]
+							|| path.get(path.size() - 1).getKey() != pairs[i][1]) {
+						throw new AssertionError("Wrong path from " + pairs[i][0] + " to " + pairs[i][1]);
+					}
+				}
+			});
+			thread.setUncaughtExceptionHandler((th, e) -> {
+				synchronized (errors) {
+					errors.add(e);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(errors.isEmpty(), errors.toString());
+	}
+
+	@Test
+	void pathStrategies() {
+		// A graph of random points, every edge weighs at least its length, and a graph without locations
+		int v = 2000;
+		Random rand = new Random(2);
+		directed_weighted_graph located = new DWGraph_DS();
+		for (int i = 0; i < v; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(rand.nextDouble() * 100, rand.nextDouble() * 100, 0));
+			located.addNode(n);
+		}
+		while (located.edgeSize() < 3 * v) {
+			int a = rand.nextInt(v);
+			int b = rand.nextInt(v);
+			double length = located.getNode(a).getLocation().distance(located.getNode(b).getLocation());
+			if (length < 10) {
+				located.connect(a, b, length * (1 + rand.nextDouble()));
+			}
+		}
+		DWGraph_Algo dijkstra = new DWGraph_Algo();
+		dijkstra.init(located);
+		assertEquals(PathStrategy.DIJKSTRA, dijkstra.getPathStrategy());
+		assertThrows(IllegalArgumentException.class, () -> dijkstra.setPathStrategy(null));
+		for (directed_weighted_graph g : new directed_weighted_graph[]{located, fullGraph()}) {
+			dijkstra.init(g);
+			int[] settled = new int[PathStrategy.values().length];
+			for (PathStrategy strategy : PathStrategy.values()) {
+				DWGraph_Algo ga = new DWGraph_Algo();
+				ga.init(g);
+				ga.setPathStrategy(strategy);
+				Random pairs = new Random(3);
+				for (int k = 0; k < 200; k++) {
+					int src = pairs.nextInt(g.nodeSize()) + (g == located ? 0 : 1);
+					int dest = pairs.nextInt(g.nodeSize()) + (g == located ? 0 : 1);
+					double expected = dijkstra.shortestPathDist(src, dest);
+					assertEquals(expected, ga.shortestPathDist(src, dest), 0.000001, strategy + " " + src + " " + dest);
+					settled[strategy.ordinal()] += ga.lastSettled();
+					List<node_data> path = ga.shortestPath(src, dest);
+					if (expected == -1) {
+						assertNull(path);
+						continue;
+					}
+					assertEquals(src, path.get(0).getKey());
+					assertEquals(dest, path.get(path.size() - 1).getKey());
+					double sum = 0;
+					for (int j = 1; j < path.size(); j++) {
+						sum += g.getEdge(path.get(j - 1).getKey(), path.get(j).getKey()).getWeight();
+					}
+					assertEquals(expected, sum, 0.000001);
+				}
+			}
+			if (g == located) {
+				// The goal directed searches settle fewer nodes
+				assertTrue(settled[PathStrategy.A_STAR.ordinal()] < settled[PathStrategy.DIJKSTRA.ordinal()]);
+				assertTrue(settled[PathStrategy.BIDIRECTIONAL.ordinal()] < settled[PathStrategy.DIJKSTRA.ordinal()]);
+			}
+		}
+	}
+
+	@Test
+	void shortestPathRuntime() {
+		// A 100,000 nodes graph, a chain keeps it connected and random edges add shortcuts
+		int v = 100000;
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < v; i++) {
+			g.addNode(new NodeData(i));
+		}
+		Random rand = new Random(1);
+		for (int i = 0; i < v - 1; i++) {
+			g.connect(i, i + 1, 10);
+		}
+		while (g.edgeSize() < 5 * v) {
+			g.connect(rand.nextInt(v), rand.nextInt(v), 1 + rand.nextInt(100));
+		}
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		ga.init(g);
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++) {
+			int src = rand.nextInt(v / 2);
+			List<node_data> path = ga.shortestPath(src, v - 1);
+			assertEquals(src, path.get(0).getKey());
+			assertEquals(v - 1, path.get(path.size() - 1).getKey());
+			double sum = 0;
+			for (int j = 1; j < path.size(); j++) {
+				sum += g.getEdge(path.get(j - 1).getKey(), path.get(j).getKey()).getWeight();
+			}
+			assertEquals(ga.shortestPathDist(src, v - 1), sum, 0.000001);
+		}
+		assertTrue(System.currentTimeMillis() - start < 10000);
+	}
+
 	private static directed_weighted_graph graph() {
 		directed_weighted_graph g = new DWGraph_DS();
 		for (int i = 1; i < 15; i++) {
@@ -0,0 +1,240 @@
+import api.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DWGraph_ConcurrentTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int NODES_PER_WRITER = 10000;
+    private static final int CHANGES_PER_WRITER = 50000;
+    // A racing HashMap may never finish an operation, a thread still running after this is a problem too
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    @Test
+    void sameAsDWGraph_DS() {
+        directed_weighted_graph g = graph(new DWGraph_Concurrent());
+        directed_weighted_graph h = graph(new DWGraph_DS());
+        assertEquals(h.nodeSize(), g.nodeSize());
+        assertEquals(h.edgeSize(), g.edgeSize());
+        assertEquals(h.getMC(), g.getMC());
+        g.connect(1, 2, 5);
+        assertEquals(h.getMC(), g.getMC());
+        assertNull(g.getEdge(4, 2));
+        assertEquals(4, ((DWGraph_Concurrent) g).getInE(4).size());
+        assertEquals(h.removeNode(5).getKey(), g.removeNode(5).getKey());
+        assertEquals(h.removeEdge(2, 3).getWeight(), g.removeEdge(2, 3).getWeight());
+        assertNull(g.removeEdge(2, 3));
+        assertNull(g.removeNode(5));
+        assertEquals(h.edgeSize(), g.edgeSize());
+        assertEquals(h.getMC(), g.getMC());
+        for (node_data n : h.getV()) {
+            assertEquals(h.getE(n.getKey()).size(), g.getE(n.getKey()).size());
+            assertEquals(((DWGraph_DS) h).getInE(n.getKey()).size(), ((DWGraph_Concurrent) g).getInE(n.getKey()).size());
+        }
+    }
+
+    @Test
+    void algorithms() {
+        DWGraph_Algo ga = new DWGraph_Algo();
+        ga.init(graph(new DWGraph_Concurrent()));
+        assertEquals(6, ga.shortestPathDist(1, 4), 0.0001);
+        directed_weighted_graph copy = ga.copy();
+        assertTrue(copy instanceof DWGraph_Concurrent);
+        assertEquals(ga.getGraph().getMC(), copy.getMC());
+        ga.getGraph().removeEdge(2, 4);
+        assertEquals(17, ga.shortestPathDist(1, 4), 0.0001);
+        assertEquals(1, copy.getEdge(2, 4).getWeight());
+    }
+
+    @Test
+    void stress() throws InterruptedException {
+        // The same load as stressDWGraph_DS, the graph must come out exactly as the writers left it
+        for (int round = 0; round < 3; round++) {
+            List<String> problems = stress(DWGraph_Concurrent::new);
+            assertTrue(problems.isEmpty(), problems.toString());
+        }
+    }
+
+    /**
+     * DWGraph_DS is not thread safe: under the same load it loses changes or its readers fail.
+     * Whether the race shows up depends on the scheduler, so the test is tagged "stress"
+     * and runs only with mvn test -Pstress, a few rounds make sure the race shows up even on a single core.
+     */
+    @Test
+    @Tag("stress")
+    void stressDWGraph_DS() throws InterruptedException {
+        List<String> problems = new ArrayList<>();
+        for (int round = 0; round < 10 && problems.isEmpty(); round++) {
+            problems = stress(DWGraph_DS::new);
+        }
+        assertFalse(problems.isEmpty(), "DWGraph_DS showed no race under concurrent load");
+    }
+
+    /**
+     * Writers add their own nodes and then connect and remove the out edges of their nodes to any node,
+     * while readers iterate the nodes and the edges the way the drawing thread does.
+     * Every writer keeps the edges of its nodes in a model, so the final graph is known exactly.
+     * Returns the problems found, empty if the graph is the same as the models.
+     */
+    private static List<String> stress(Supplier<directed_weighted_graph> factory) throws InterruptedException {
+        directed_weighted_graph g = factory.get();
+        int nodes = WRITERS * NODES_PER_WRITER;
+        Collection<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<Map<Long, Double>> models = new ArrayList<>();
+        int[] changes = new int[WRITERS];
+        CyclicBarrier added = new CyclicBarrier(WRITERS);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < WRITERS; t++) {
+            int id = t;
+            Map<Long, Double> model = new HashMap<>();
+            models.add(model);
+            writers.add(thread(() -> {
+                try {
+                    Random rand = new Random(id);
+                    for (int i = 0; i < NODES_PER_WRITER; i++) {
+                        g.addNode(new NodeData(id * NODES_PER_WRITER + i));
+                    }
+                    added.await();
+                    for (int i = 0; i < CHANGES_PER_WRITER; i++) {
+                        int src = id * NODES_PER_WRITER + rand.nextInt(NODES_PER_WRITER);
+                        int dest = rand.nextInt(nodes);
+                        long edge = (long) src * nodes + dest;
+                        if (rand.nextInt(4) == 0) {
+                            g.removeEdge(src, dest);
+                            if (model.remove(edge) != null) {
+                                changes[id]++;
+                            }
+                        }
+                        else if (src != dest) {
+                            double w = 1 + rand.nextInt(10);
+                            g.connect(src, dest, w);
+                            Double old = model.put(edge, w);
+                            if (old == null || old != w) {
+                                changes[id]++;
+                            }
+                        }
+                    }
+                }
+                catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < READERS; t++) {
+            readers.add(thread(() -> {
+                try {
+                    while (writers.stream().anyMatch(Thread::isAlive)) {
+                        double sum = 0;
+                        for (node_data n : g.getV()) {
+                            for (edge_data e : g.getE(n.getKey())) {
+                                sum += e.getWeight();
+                            }
+                        }
+                        assertTrue(sum >= 0);
+                    }
+                }
+                catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+        long end = System.currentTimeMillis() + TIMEOUT;
+        List<String> problems = new ArrayList<>();
+        for (Thread thread : writers) {
+            thread.join(Math.max(1, end - System.currentTimeMillis()));
+        }
+        for (Thread thread : readers) {
+            thread.join(Math.max(1, end - System.currentTimeMillis()));
+        }
+        for (Thread thread : writers) {
+            if (thread.isAlive()) {
+                // Stuck in the graph, the model can not be compared
+                problems.add(thread.getName() + " did not finish");
+                return problems;
+            }
+        }
+        for (Throwable e : errors) {
+            problems.add(e.toString());
+        }
+        int edges = 0, mc = nodes;
+        for (int t = 0; t < WRITERS; t++) {
+            edges += models.get(t).size();
+            mc += changes[t];
+            for (Map.Entry<Long, Double> entry : models.get(t).entrySet()) {
+                int src = (int) (entry.getKey() / nodes);
+                int dest = (int) (entry.getKey() % nodes);
+                edge_data edge = g.getEdge(src, dest);
+                if (edge == null || edge.getWeight() != entry.getValue()) {
+                    problems.add("edge " + src + "->" + dest + " is " + edge);
+                    break;
+                }
+            }
+        }
+        int found = 0;
+        for (node_data n : g.getV()) {
+            found += g.getE(n.getKey()).size();
+        }
+        if (g.nodeSize() != nodes) {
+            problems.add("nodeSize " + g.nodeSize() + " instead of " + nodes);
+        }
+        if (g.edgeSize() != edges || found != edges) {
+            problems.add("edgeSize " + g.edgeSize() + " and " + found + " edges instead of " + edges);
+        }
+        if (g.getMC() != mc) {
+            problems.add("mc " + g.getMC() + " instead of " + mc);
+        }
+        return problems;
+    }
+
+    /**
+     * Returns a daemon thread, so a thread stuck in a racing HashMap never keeps the test JVM alive.
+     */
+    private static Thread thread(Runnable action) {
+        Thread thread = new Thread(action);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static directed_weighted_graph graph(directed_weighted_graph g) {
+        for (int i = 1; i < 15; i++) {
+            g.addNode(new NodeData(i));
+        }
+        g.connect(1, 2, 5);
+        g.connect(2, 3, 2);
+        g.connect(3, 2, 5);
+        g.connect(2, 4, 1);
+        g.connect(3, 4, 10);
+        g.connect(5, 4, 12);
+        g.connect(5, 6, 1);
+        g.connect(6, 11, 4);
+        g.connect(7, 3, 2);
+        g.connect(7, 4, 2);
+        g.connect(7, 9, 5);
+        g.connect(9, 14, 7);
+        g.connect(9, 5, 3);
+        g.connect(5, 12, 17);
+        g.connect(12, 13, 2);
+        g.connect(8, 3, 6);
+        g.connect(10, 11, 4);
+        g.connect(11, 10, 4);
+        g.connect(10, 12, 2);
+        return g;
+    }
+}
@@ -1,10 +1,14 @@
 import api.DWGraph_DS;
+import api.GraphEvents;
 import api.NodeData;
 import api.directed_weighted_graph;
+import api.edge_data;
 import api.node_data;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -114,6 +118,25 @@ class DWGraph_DSTest {
         assertNull(g.getEdge(5,12));
     }
 
+    @Test
+    void getInE() {
+        DWGraph_DS g = (DWGraph_DS) graph();
+        assertEquals(4, g.getInE(4).size());
+        assertTrue(g.getInE(1).isEmpty());
+        for (edge_data edge : g.getInE(3)) {
+            assertEquals(3, edge.getDest());
+            assertSame(g.getEdge(edge.getSrc(), 3), edge);
+        }
+        g.connect(7, 4, 8);
+        for (edge_data edge : g.getInE(4)) {
+            assertSame(g.getEdge(edge.getSrc(), 4), edge);
+        }
+        assertNotNull(g.removeNode(4));
+        assertTrue(g.getInE(4).isEmpty());
+        assertEquals(15, g.edgeSize());
+        assertNull(g.getEdge(7, 4));
+    }
+
     @Test
     void removeEdge() {
         directed_weighted_graph g = graph();
@@ -157,6 +180,153 @@ class DWGraph_DSTest {
         assertEquals(0,h.getMC());
     }
 
+    @Test
+    void builder() {
+        directed_weighted_graph g = graph();
+        DWGraph_DS.Builder builder = DWGraph_DS.builder(14, 19);
+        // The edges before the nodes, same as the graph
+        for (int i = 1; i < 15; i++) {
+            for (edge_data e : g.getE(i)) {
+                builder.addEdge(e.getSrc(), e.getDest(), e.getWeight());
+            }
+        }
+        builder.addNodes(new int[]{1, 2, 3, 4, 5, 6, 7});
+        for (int i = 8; i < 15; i++) {
+            builder.addNode(new NodeData(i));
+        }
+        directed_weighted_graph h = builder.build();
+        assertEquals(g.nodeSize(), h.nodeSize());
+        assertEquals(g.edgeSize(), h.edgeSize());
+        assertEquals(g.getMC(), h.getMC());
+        for (int i = 1; i < 15; i++) {
+            assertEquals(g.getE(i).size(), h.getE(i).size());
+            assertEquals(((DWGraph_DS) g).getInE(i).size(), ((DWGraph_DS) h).getInE(i).size());
+            for (edge_data e : g.getE(i)) {
+                assertEquals(e.getWeight(), h.getEdge(e.getSrc(), e.getDest()).getWeight());
+            }
+        }
+        // The parents map holds the same edge objects as the neighbors map
+        for (edge_data e : ((DWGraph_DS) h).getInE(4)) {
+            assertSame(e, h.getEdge(e.getSrc(), 4));
+        }
+    }
+
+    @Test
+    void builderSameAsConnect() {
+        int[] src = {1, 2, 1, 3, 3, 9, 2, 2, 1};
+        int[] dest = {2, 3, 2, 3, 1, 1, 1, 3, 2};
+        double[] w = {5, 2, 7, -1, 4, 1, 0, 2, 7};
+        directed_weighted_graph g = new DWGraph_DS();
+        for (int i = 1; i < 5; i++) {
+            g.addNode(new NodeData(i));
+        }
+        for (int i = 0; i < src.length; i++) {
+            g.connect(src[i], dest[i], w[i]);
+        }
+        // A repeated key keeps the first node
+        node_data first = new NodeData(1);
+        directed_weighted_graph h = DWGraph_DS.builder(0, 0)
+                .addNode(first).addNode(new NodeData(1))
+                .addNodes(new int[]{2, 3, 4, 4})
+                .addEdges(src, dest, w)
+                .build();
+        assertSame(first, h.getNode(1));
+        assertEquals(g.nodeSize(), h.nodeSize());
+        assertEquals(4, h.edgeSize());
+        assertEquals(g.edgeSize(), h.edgeSize());
+        assertEquals(g.getMC(), h.getMC());
+        assertEquals(7, h.getEdge(1, 2).getWeight());
+        assertEquals(0, h.getEdge(2, 1).getWeight());
+        assertNull(h.getEdge(3, 3));
+        assertNull(h.getEdge(9, 1));
+        assertThrows(IllegalArgumentException.class, () -> DWGraph_DS.builder(0, 0).addEdges(src, dest, new double[1]));
+        // The built graph changes like any other
+        h.removeNode(2);
+        assertEquals(1, h.edgeSize());
+        assertEquals(0, DWGraph_DS.builder(0, 0).build().nodeSize());
+    }
+
+    @Test
+    void copy() {
+        directed_weighted_graph g = graph();
+        directed_weighted_graph h = new DWGraph_DS(g);
+        assertEquals(g.nodeSize(), h.nodeSize());
+        assertEquals(g.edgeSize(), h.edgeSize());
+        assertEquals(g.getMC(), h.getMC());
+        for (int i = 1; i < 15; i++) {
+            for (edge_data e : g.getE(i)) {
+                assertEquals(e.getWeight(), h.getEdge(e.getSrc(), e.getDest()).getWeight());
+            }
+        }
+        g.removeNode(5);
+        assertNotNull(h.getEdge(5, 12));
+    }
+
+    @Test
+    void listeners() {
+        DWGraph_DS g = (DWGraph_DS) graph();
+        List<String> batches = new ArrayList<>();
+        int[] mc = {g.getMC()};
+        g.addListener(events -> {
+            batches.add(events.toString());
+            // Every event is one change of the mode counter
+            mc[0] += events.size();
+        });
+        g.addNode(new NodeData(20));
+        g.addNode(new NodeData(20));
+        g.connect(20, 1, 3);
+        g.connect(20, 1, 3);
+        g.connect(20, 1, 4);
+        g.removeEdge(20, 1);
+        g.removeEdge(20, 1);
+        assertEquals("[NODE_ADDED 20]", batches.get(0));
+        assertEquals("[EDGE_ADDED 20->1 3.0]", batches.get(1));
+        assertEquals("[WEIGHT_CHANGED 20->1 4.0]", batches.get(2));
+        assertEquals("[EDGE_REMOVED 20->1 4.0]", batches.get(3));
+        assertEquals(4, batches.size());
+        // A node is removed with its edges in one batch
+        g.removeNode(5);
+        assertEquals("[EDGE_REMOVED 5->4 12.0, EDGE_REMOVED 5->6 1.0, EDGE_REMOVED 5->12 17.0, EDGE_REMOVED 9->5 3.0, NODE_REMOVED 5]",
+                batches.get(4));
+        assertEquals(g.getMC(), mc[0]);
+        // The changes of a batch are delivered when the outermost batch ends
+        g.beginBatch();
+        g.connect(1, 3, 2);
+        g.beginBatch();
+        g.connect(1, 4, 2);
+        g.endBatch();
+        assertEquals(5, batches.size());
+        g.endBatch();
+        assertEquals("[EDGE_ADDED 1->3 2.0, EDGE_ADDED 1->4 2.0]", batches.get(5));
+        assertThrows(IllegalStateException.class, g::endBatch);
+        assertEquals(g.getMC(), mc[0]);
+        // Two listeners get the same batch, a removed listener gets nothing
+        List<GraphEvents.Type> types = new ArrayList<>();
+        GraphEvents.Type[] first = new GraphEvents.Type[1];
+        api.GraphListener second = events -> types.add(events.type(0));
+        g.addListener(second);
+        g.addListener(events -> first[0] = events.type(0));
+        g.removeNode(1);
+        assertEquals(GraphEvents.Type.EDGE_REMOVED, types.get(0));
+        assertEquals(GraphEvents.Type.EDGE_REMOVED, first[0]);
+        g.removeListener(second);
+        g.addNode(new NodeData(1));
+        assertEquals(1, types.size());
+        assertEquals(GraphEvents.Type.NODE_ADDED, first[0]);
+        assertEquals(g.getMC(), mc[0]);
+        // A listener that throws does not leave its batch behind for the next change
+        api.GraphListener failing = events -> {
+            throw new IllegalStateException("listener failed");
+        };
+        g.addListener(failing);
+        assertThrows(IllegalStateException.class, () -> g.addNode(new NodeData(21)));
+        g.removeListener(failing);
+        int size = batches.size();
+        g.addNode(new NodeData(22));
+        assertEquals("[NODE_ADDED 22]", batches.get(size));
+        assertEquals(g.getMC(), mc[0]);
+    }
+
     private static directed_weighted_graph graph() {
         directed_weighted_graph g = new DWGraph_DS();
         for (int i = 1; i < 15; i++) {
@@ -0,0 +1,145 @@
+import api.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DWGraph_FrozenTest {
+
+	@Test
+	void sameAsGraph() {
+		DWGraph_DS g = randomGraph(500, 2500);
+		g.getNode(7).setTag(3);
+		g.getNode(7).setInfo("seven");
+		g.getNode(8).setWeight(2.5);
+		edge_data first = g.getE(9).iterator().next();
+		first.setTag(5);
+		DWGraph_Frozen h = g.freeze();
+		assertEquals(g.nodeSize(), h.nodeSize());
+		assertEquals(g.edgeSize(), h.edgeSize());
+		assertEquals(g.getMC(), h.getMC());
+		int edges = 0;
+		for (node_data n : g.getV()) {
+			int key = n.getKey();
+			node_data m = h.getNode(key);
+			assertEquals(key, m.getKey());
+			assertEquals(n.getTag(), m.getTag());
+			assertEquals(n.getInfo(), m.getInfo());
+			assertEquals(n.getWeight(), m.getWeight());
+			if (n.getLocation() == null) {
+				assertNull(m.getLocation());
+			}
+			else {
+				assertEquals(n.getLocation().x(), m.getLocation().x());
+				assertEquals(n.getLocation().y(), m.getLocation().y());
+			}
+			assertEquals(g.getE(key).size(), h.getE(key).size());
+			assertEquals(g.getInE(key).size(), h.getInE(key).size());
+			int last = Integer.MIN_VALUE;
+			for (edge_data e : h.getE(key)) {
+				// The out edges are sorted by destination
+				assertTrue(last < e.getDest());
+				last = e.getDest();
+				assertEquals(key, e.getSrc());
+				assertEquals(g.getEdge(key, e.getDest()).getWeight(), e.getWeight());
+				edges++;
+			}
+			for (edge_data e : h.getInE(key)) {
+				assertEquals(key, e.getDest());
+				assertEquals(h.getEdge(e.getSrc(), key), e);
+				assertEquals(g.getEdge(e.getSrc(), key).getWeight(), e.getWeight());
+			}
+		}
+		assertEquals(edges, h.edgeSize());
+		assertEquals(5, h.getEdge(first.getSrc(), first.getDest()).getTag());
+		for (int i = -5; i < 505; i++) {
+			assertEquals(g.getNode(i) == null, h.getNode(i) == null);
+			assertEquals(g.getEdge(i, i + 1) == null, h.getEdge(i, i + 1) == null);
+		}
+		assertTrue(h.getE(1000).isEmpty());
+		assertTrue(h.getInE(-1).isEmpty());
+	}
+
+	@Test
+	void views() {
+		DWGraph_Frozen h = randomGraph(50, 200).freeze();
+		Set<node_data> nodes = new HashSet<>(h.getV());
+		assertEquals(50, nodes.size());
+		assertTrue(nodes.contains(h.getNode(3)));
+		assertTrue(h.getV().contains(h.getNode(3)));
+		assertFalse(h.getV().contains(new NodeData(3)));
+		// The views of two frozen graphs are never equal
+		DWGraph_Frozen other = randomGraph(50, 200).freeze();
+		assertNotEquals(h.getNode(3), other.getNode(3));
+		assertFalse(h.getV().contains(other.getNode(3)));
+	}
+
+	@Test
+	void immutable() {
+		DWGraph_DS g = randomGraph(10, 20);
+		DWGraph_Frozen h = g.freeze();
+		assertThrows(UnsupportedOperationException.class, () -> h.addNode(new NodeData(100)));
+		assertThrows(UnsupportedOperationException.class, () -> h.connect(1, 2, 3));
+		assertThrows(UnsupportedOperationException.class, () -> h.removeNode(1));
+		assertThrows(UnsupportedOperationException.class, () -> h.removeEdge(1, 2));
+		assertThrows(UnsupportedOperationException.class, () -> h.getNode(1).setLocation(new GeoLocation(0, 0, 0)));
+		assertThrows(UnsupportedOperationException.class, () -> h.getNode(1).setTag(1));
+		assertThrows(UnsupportedOperationException.class, () -> h.getE(1).iterator().next().setInfo("edge"));
+		// Changes to the graph after freeze are not seen
+		int edges = g.edgeSize();
+		g.removeNode(1);
+		g.addNode(new NodeData(100));
+		assertNotNull(h.getNode(1));
+		assertNull(h.getNode(100));
+		assertEquals(edges, h.edgeSize());
+	}
+
+	@Test
+	void algorithms() {
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		assertTrue(ga.load("data/A5"));
+		DWGraph_Frozen frozen = ((DWGraph_DS) ga.getGraph()).freeze();
+		DWGraph_Algo ha = new DWGraph_Algo();
+		ha.init(frozen);
+		assertEquals(ga.isConnected(), ha.isConnected());
+		assertEquals(((DWGraph_Algo) ga).stronglyConnectedComponents().size(), ha.stronglyConnectedComponents().size());
+		for (PathStrategy strategy : PathStrategy.values()) {
+			ha.setPathStrategy(strategy);
+			for (node_data src : ga.getGraph().getV()) {
+				for (node_data dest : ga.getGraph().getV()) {
+					assertEquals(ga.shortestPathDist(src.getKey(), dest.getKey()), ha.shortestPathDist(src.getKey(), dest.getKey()), 0.000001);
+				}
+			}
+		}
+		List<node_data> path = ha.shortestPath(0, 20);
+		assertEquals(0, path.get(0).getKey());
+		assertEquals(20, path.get(path.size() - 1).getKey());
+		// A copy is a graph that can be changed
+		directed_weighted_graph copy = ha.copy();
+		assertTrue(copy instanceof DWGraph_DS);
+		copy.removeNode(0);
+		assertEquals(frozen.nodeSize() - 1, copy.nodeSize());
+		assertEquals(-1, ha.shortestPathDist(0, 1000));
+	}
+
+	private static DWGraph_DS randomGraph(int v, int e) {
+		Random rand = new Random(v + e);
+		DWGraph_DS g = new DWGraph_DS();
+		for (int i = 0; i < v; i++) {
+			node_data n = new NodeData(i);
+			// Some nodes have no location
+			if (i % 5 != 0) {
+				n.setLocation(new GeoLocation(rand.nextDouble(), rand.nextDouble(), 0));
+			}
+			g.addNode(n);
+		}
+		while (g.edgeSize() < e) {
+			g.connect(rand.nextInt(v), rand.nextInt(v), 1 + rand.nextInt(100));
+		}
+		return g;
+	}
+}
@@ -0,0 +1,124 @@
+import api.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DWGraph_MappedTest {
+
+	@Test
+	void saveAndLoad() throws IOException {
+		// Dense keys (0 to n-1) and sparse keys use different key lookups
+		for (int step : new int[]{1, 7}) {
+			directed_weighted_graph g = randomGraph(500, 2000, step);
+			File file = File.createTempFile("graph", ".dwgs");
+			file.deleteOnExit();
+			DWGraph_Mapped.save(g, file.getPath());
+			assertTrue(DWGraph_Mapped.isSnapshot(file.getPath()));
+			directed_weighted_graph h = DWGraph_Mapped.load(file.getPath());
+			assertEquals(g.nodeSize(), h.nodeSize());
+			assertEquals(g.edgeSize(), h.edgeSize());
+			assertEquals(g.getMC(), h.getMC());
+			for (node_data n : g.getV()) {
+				node_data m = h.getNode(n.getKey());
+				assertEquals(n.getKey(), m.getKey());
+				if (n.getLocation() == null) {
+					assertNull(m.getLocation());
+				}
+				else {
+					assertEquals(n.getLocation().x(), m.getLocation().x());
+					assertEquals(n.getLocation().y(), m.getLocation().y());
+				}
+				assertEquals(g.getE(n.getKey()).size(), h.getE(n.getKey()).size());
+				for (edge_data e : h.getE(n.getKey())) {
+					assertEquals(n.getKey(), e.getSrc());
+					assertEquals(g.getEdge(e.getSrc(), e.getDest()).getWeight(), e.getWeight());
+				}
+			}
+			for (int i = -5; i < 500 * step + 5; i++) {
+				assertEquals(g.getNode(i) == null, h.getNode(i) == null);
+				assertEquals(g.getEdge(i, i + step) == null, h.getEdge(i, i + step) == null);
+			}
+		}
+	}
+
+	@Test
+	void readOnly() throws IOException {
+		directed_weighted_graph g = randomGraph(10, 20, 1);
+		File file = File.createTempFile("graph", ".dwgs");
+		file.deleteOnExit();
+		DWGraph_Mapped.save(g, file.getPath());
+		directed_weighted_graph h = DWGraph_Mapped.load(file.getPath());
+		assertThrows(UnsupportedOperationException.class, () -> h.addNode(new NodeData(100)));
+		assertThrows(UnsupportedOperationException.class, () -> h.connect(1, 2, 3));
+		assertThrows(UnsupportedOperationException.class, () -> h.removeNode(1));
+		assertThrows(UnsupportedOperationException.class, () -> h.removeEdge(1, 2));
+		assertThrows(UnsupportedOperationException.class, () -> h.getNode(1).setLocation(new GeoLocation(0, 0, 0)));
+		// The tag, info and weight of the nodes and edges are kept in memory
+		h.getNode(3).setTag(4);
+		h.getNode(3).setInfo("three");
+		assertEquals(4, h.getNode(3).getTag());
+		assertEquals("three", h.getNode(3).getInfo());
+		assertEquals(0, h.getNode(4).getTag());
+		edge_data e = h.getE(3).iterator().next();
+		e.setTag(2);
+		assertEquals(2, h.getEdge(e.getSrc(), e.getDest()).getTag());
+		// A file which is not a snapshot is not loaded
+		File other = File.createTempFile("graph", ".txt");
+		other.deleteOnExit();
+		try (FileOutputStream out = new FileOutputStream(other)) {
+			out.write("not a graph snapshot at all, just some text".getBytes());
+		}
+		assertFalse(DWGraph_Mapped.isSnapshot(other.getPath()));
+		assertThrows(IOException.class, () -> DWGraph_Mapped.load(other.getPath()));
+	}
+
+	@Test
+	void algorithms() throws IOException {
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		assertTrue(ga.load("data/A5"));
+		File file = File.createTempFile("graph", ".dwgs");
+		file.deleteOnExit();
+		assertTrue(((DWGraph_Algo) ga).saveSnapshot(file.getPath()));
+		dw_graph_algorithms ha = new DWGraph_Algo();
+		// load recognizes the snapshot
+		assertTrue(ha.load(file.getPath()));
+		assertTrue(ha.getGraph() instanceof DWGraph_Mapped);
+		assertEquals(ga.isConnected(), ha.isConnected());
+		for (node_data src : ga.getGraph().getV()) {
+			for (node_data dest : ga.getGraph().getV()) {
+				assertEquals(ga.shortestPathDist(src.getKey(), dest.getKey()), ha.shortestPathDist(src.getKey(), dest.getKey()), 0.000001);
+			}
+		}
+		// A copy can be changed, and the JSON save works for a mapped graph
+		directed_weighted_graph copy = ha.copy();
+		copy.removeNode(0);
+		assertEquals(ga.getGraph().nodeSize() - 1, copy.nodeSize());
+		File json = File.createTempFile("graph", ".json");
+		json.deleteOnExit();
+		assertTrue(ha.save(json.getPath()));
+		assertTrue(ha.load(json.getPath()));
+		assertEquals(ga.getGraph().edgeSize(), ha.getGraph().edgeSize());
+	}
+
+	private static directed_weighted_graph randomGraph(int v, int e, int step) {
+		Random rand = new Random(v + e + step);
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < v; i++) {
+			node_data n = new NodeData(i * step);
+			// Some nodes have no location
+			if (i % 5 != 0) {
+				n.setLocation(new GeoLocation(rand.nextDouble(), rand.nextDouble(), 0));
+			}
+			g.addNode(n);
+		}
+		while (g.edgeSize() < e) {
+			g.connect(rand.nextInt(v) * step, rand.nextInt(v) * step, 1 + rand.nextInt(100));
+		}
+		return g;
+	}
+}
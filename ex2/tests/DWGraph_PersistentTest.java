@@ -0,0 +1,215 @@
+import api.DWGraph_Algo;
+import api.DWGraph_DS;
+import api.DWGraph_Persistent;
+import api.NodeData;
+import api.directed_weighted_graph;
+import api.edge_data;
+import api.node_data;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DWGraph_PersistentTest {
+
+    @Test
+    void getEdge() {
+        directed_weighted_graph g = graph();
+        assertEquals(1,g.getEdge(2,4).getWeight());
+        assertNull(g.getEdge(4,2));
+        assertNull(g.getEdge(11,6));
+        assertEquals(17,g.getEdge(5,12).getWeight());
+        assertEquals(13,g.getEdge(12,13).getDest());
+        assertEquals(12,g.getEdge(12,13).getSrc());
+        assertNull(g.getEdge(1,15));
+        assertNull(g.getEdge(3,3));
+    }
+
+    @Test
+    void getV() {
+        directed_weighted_graph g = graph();
+        Set<Integer> keys = new HashSet<>();
+        for (node_data n : g.getV()) {
+            assertSame(g.getNode(n.getKey()), n);
+            keys.add(n.getKey());
+        }
+        assertEquals(14, keys.size());
+        assertEquals(14, g.getV().size());
+        assertTrue(new DWGraph_Persistent().getV().isEmpty());
+    }
+
+    @Test
+    void getInE() {
+        DWGraph_Persistent g = (DWGraph_Persistent) graph();
+        assertEquals(4, g.getInE(4).size());
+        assertTrue(g.getInE(1).isEmpty());
+        for (edge_data edge : g.getInE(3)) {
+            assertEquals(3, edge.getDest());
+            assertSame(g.getEdge(edge.getSrc(), 3), edge);
+        }
+        assertNotNull(g.removeNode(4));
+        assertTrue(g.getInE(4).isEmpty());
+        assertTrue(g.getE(4).isEmpty());
+        assertEquals(15, g.edgeSize());
+        assertNull(g.removeNode(4));
+    }
+
+    @Test
+    void sizesAndMC() {
+        directed_weighted_graph g = graph();
+        assertEquals(14, g.nodeSize());
+        assertEquals(19, g.edgeSize());
+        assertEquals(33, g.getMC());
+        g.connect(1, 2, 5);
+        assertEquals(33, g.getMC());
+        g.removeEdge(1,2);
+        g.removeEdge(2,1);
+        g.removeNode(5);
+        assertEquals(14, g.edgeSize());
+        assertEquals(39, g.getMC());
+    }
+
+    @Test
+    void snapshot() {
+        DWGraph_Persistent g = (DWGraph_Persistent) graph();
+        DWGraph_Persistent s = g.snapshot();
+        g.removeNode(5);
+        g.connect(2, 4, 9);
+        g.connect(13, 1, 1);
+        s.removeEdge(12, 13);
+        s.addNode(new NodeData(20));
+        s.connect(20, 1, 3);
+        // The graph
+        assertNull(g.getNode(5));
+        assertNull(g.getNode(20));
+        assertEquals(9, g.getEdge(2, 4).getWeight());
+        assertNotNull(g.getEdge(12, 13));
+        assertEquals(16, g.edgeSize());
+        // The snapshot
+        assertNotNull(s.getNode(5));
+        assertEquals(17, s.getEdge(5, 12).getWeight());
+        assertEquals(1, s.getEdge(2, 4).getWeight());
+        assertNull(s.getEdge(13, 1));
+        assertNull(s.getEdge(12, 13));
+        assertEquals(3, s.getEdge(20, 1).getWeight());
+        assertEquals(15, s.nodeSize());
+        assertEquals(19, s.edgeSize());
+        assertEquals(4, s.getInE(4).size());
+        assertEquals(3, g.getInE(4).size());
+    }
+
+    @Test
+    void copy() {
+        DWGraph_Algo ga = new DWGraph_Algo();
+        ga.init(graph());
+        directed_weighted_graph c = ga.copy();
+        assertTrue(c instanceof DWGraph_Persistent);
+        ga.getGraph().removeNode(2);
+        assertEquals(5, c.getEdge(1, 2).getWeight());
+        assertEquals(19, c.edgeSize());
+        assertEquals(2, ga.shortestPathDist(12, 13));
+        ga.init(c);
+        assertEquals(6, ga.shortestPathDist(1, 4), 0.0001);
+        assertEquals(-1, ga.shortestPathDist(4, 1));
+    }
+
+    @Test
+    void randomSnapshots() {
+        // Every snapshot is checked against a DWGraph_DS copy taken at the same time,
+        // while the graph and all the snapshots keep changing
+        Random rand = new Random(1);
+        List<DWGraph_Persistent> graphs = new ArrayList<>();
+        List<directed_weighted_graph> expected = new ArrayList<>();
+        DWGraph_Persistent g = new DWGraph_Persistent();
+        directed_weighted_graph h = new DWGraph_DS();
+        for (int i = 0; i < 200; i++) {
+            g.addNode(new NodeData(i * 37));
+            h.addNode(new NodeData(i * 37));
+        }
+        graphs.add(g);
+        expected.add(h);
+        for (int i = 0; i < 30000; i++) {
+            int k = rand.nextInt(graphs.size());
+            DWGraph_Persistent a = graphs.get(k);
+            directed_weighted_graph b = expected.get(k);
+            int src = rand.nextInt(200) * 37;
+            int dest = rand.nextInt(200) * 37;
+            int op = rand.nextInt(100);
+            if (op < 60) {
+                double w = rand.nextInt(10);
+                a.connect(src, dest, w);
+                b.connect(src, dest, w);
+            }
+            else if (op < 90) {
+                assertEquals(b.removeEdge(src, dest) == null, a.removeEdge(src, dest) == null);
+            }
+            else if (op < 95) {
+                assertEquals(b.removeNode(src) == null, a.removeNode(src) == null);
+                a.addNode(new NodeData(src));
+                b.addNode(new NodeData(src));
+            }
+            else if (graphs.size() < 8) {
+                graphs.add(a.snapshot());
+                expected.add(new DWGraph_DS(b));
+            }
+            assertEquals(b.edgeSize(), a.edgeSize());
+            assertEquals(b.getMC(), a.getMC());
+        }
+        for (int k = 0; k < graphs.size(); k++) {
+            assertSameGraph(expected.get(k), graphs.get(k));
+        }
+    }
+
+    private static void assertSameGraph(directed_weighted_graph expected, DWGraph_Persistent g) {
+        assertEquals(expected.nodeSize(), g.nodeSize());
+        assertEquals(expected.edgeSize(), g.edgeSize());
+        int edges = 0;
+        for (node_data n : expected.getV()) {
+            int key = n.getKey();
+            assertNotNull(g.getNode(key));
+            assertEquals(expected.getE(key).size(), g.getE(key).size());
+            assertEquals(((DWGraph_DS) expected).getInE(key).size(), g.getInE(key).size());
+            for (edge_data e : expected.getE(key)) {
+                assertEquals(e.getWeight(), g.getEdge(e.getSrc(), e.getDest()).getWeight());
+                edges++;
+            }
+            for (edge_data e : g.getInE(key)) {
+                assertSame(g.getEdge(e.getSrc(), key), e);
+            }
+        }
+        assertEquals(edges, g.edgeSize());
+    }
+
+    private static directed_weighted_graph graph() {
+        directed_weighted_graph g = new DWGraph_Persistent();
+        for (int i = 1; i < 15; i++) {
+            node_data n = new NodeData(i);
+            g.addNode(n);
+        }
+        g.connect(1, 2, 5);
+        g.connect(2, 3, 2);
+        g.connect(3, 2, 5);
+        g.connect(2, 4, 1);
+        g.connect(3, 4, 10);
+        g.connect(5, 4, 12);
+        g.connect(5, 6, 1);
+        g.connect(6, 11, 4);
+        g.connect(7, 3, 2);
+        g.connect(7, 4, 2);
+        g.connect(7, 9, 5);
+        g.connect(9, 14, 7);
+        g.connect(9, 5, 3);
+        g.connect(5, 12, 17);
+        g.connect(12, 13, 2);
+        g.connect(8,3,6);
+        g.connect(10,11,4);
+        g.connect(11,10,4);
+        g.connect(10,12,2);
+        return g;
+    }
+}
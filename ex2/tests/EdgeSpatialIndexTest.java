@@ -0,0 +1,94 @@
+import api.*;
+import gameClient.CL_Pokemon;
+import gameClient.Arena;
+import gameClient.EdgeSpatialIndex;
+import gameClient.util.Point3D;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeSpatialIndexTest {
+
+	@Test
+	void sameEdgeAsFullScan() throws IOException {
+		Random rand = new Random(1);
+		for (int i = 0; i < 6; i++) {
+			directed_weighted_graph g;
+			try (Reader reader = new FileReader("data/A" + i)) {
+				g = GraphJson.read(reader);
+			}
+			EdgeSpatialIndex index = new EdgeSpatialIndex(g);
+			for (node_data n : g.getV()) {
+				for (edge_data e : g.getE(n.getKey())) {
+					// A point on the edge, and points near it which may be on no edge
+					geo_location a = n.getLocation(), b = g.getNode(e.getDest()).getLocation();
+					double t = rand.nextDouble();
+					Point3D on = new Point3D(a.x() + t * (b.x() - a.x()), a.y() + t * (b.y() - a.y()), 0);
+					Point3D near = new Point3D(on.x() + (rand.nextDouble() - 0.5) * 0.00001, on.y() + (rand.nextDouble() - 0.5) * 0.00001, 0);
+					for (int type : new int[]{-1, 1}) {
+						assertSame(fullScan(g, on, type), index.edgeOf(on, type));
+						assertSame(fullScan(g, near, type), index.edgeOf(near, type));
+						assertSame(fullScan(g, a, type), index.edgeOf(a, type));
+					}
+					assertNotNull(index.edgeOf(on, e.getSrc() < e.getDest() ? 1 : -1));
+				}
+			}
+			assertNull(index.edgeOf(new Point3D(1000, 1000, 0), 1));
+		}
+	}
+
+	@Test
+	void updateEdge() {
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 3; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(i, i % 2, 0));
+			g.addNode(n);
+		}
+		g.connect(0, 1, 1);
+		g.connect(1, 0, 1);
+		CL_Pokemon up = new CL_Pokemon(new Point3D(0.5, 0.5, 0), 1, 5, 0, null);
+		CL_Pokemon down = new CL_Pokemon(new Point3D(0.5, 0.5, 0), -1, 5, 0, null);
+		Arena.updateEdge(up, g);
+		Arena.updateEdge(down, g);
+		assertEquals(0, up.get_edge().getSrc());
+		assertEquals(1, down.get_edge().getSrc());
+		// A change of the graph is seen by the next call
+		g.connect(1, 2, 1);
+		CL_Pokemon next = new CL_Pokemon(new Point3D(1.5, 0.5, 0), 1, 5, 0, null);
+		Arena.updateEdge(next, g);
+		assertEquals(2, next.get_edge().getDest());
+		// A pokemon on no edge keeps its edge
+		CL_Pokemon away = new CL_Pokemon(new Point3D(5, 5, 0), 1, 5, 0, g.getEdge(0, 1));
+		Arena.updateEdge(away, g);
+		assertSame(g.getEdge(0, 1), away.get_edge());
+	}
+
+	/**
+	 * The scan over all the edges that Arena.updateEdge used to run, the last matching edge wins.
+	 */
+	private static edge_data fullScan(directed_weighted_graph g, geo_location pos, int type) {
+		edge_data ans = null;
+		for (node_data n : g.getV()) {
+			for (edge_data e : g.getE(n.getKey())) {
+				if (type < 0 && e.getDest() > e.getSrc()) {
+					continue;
+				}
+				if (type > 0 && e.getSrc() > e.getDest()) {
+					continue;
+				}
+				geo_location src = g.getNode(e.getSrc()).getLocation();
+				geo_location dest = g.getNode(e.getDest()).getLocation();
+				if (src.distance(dest) > src.distance(pos) + pos.distance(dest) - Arena.EPS2) {
+					ans = e;
+				}
+			}
+		}
+		return ans;
+	}
+}
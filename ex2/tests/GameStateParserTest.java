@@ -0,0 +1,92 @@
+import api.*;
+import gameClient.Arena;
+import gameClient.CL_Agent;
+import gameClient.CL_Pokemon;
+import gameClient.GameStateParser;
+import gameClient.LocalGameService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateParserTest {
+
+	@Test
+	void sameAsJsonTree() {
+		LocalGameService game = LocalGameService.fromFile("data/A5", 3, 6, 60000, 3, true);
+		directed_weighted_graph g = GraphJson.fromJson(game.getGraph());
+		GameStateParser parser = new GameStateParser(g);
+		for (int i = 0; i < 3; i++) {
+			game.addAgent(i * 7);
+		}
+		game.startGame();
+		for (int i = 0; i < 3; i++) {
+			game.chooseNextEdge(i, g.getE(i * 7).iterator().next().getDest());
+		}
+		List<CL_Agent> first = parser.agents(game.getAgents());
+		for (int tick = 0; tick < 5; tick++) {
+			game.advance(300);
+			game.move();
+			List<CL_Agent> agents = parser.agents(game.getAgents());
+			List<CL_Agent> expected = Arena.getAgents(game.getAgents(), g);
+			// The same list and objects every move
+			assertSame(first, agents);
+			assertEquals(expected.size(), agents.size());
+			for (int i = 0; i < agents.size(); i++) {
+				assertEquals(expected.get(i).toString(), agents.get(i).toString());
+			}
+			List<CL_Pokemon> pokemons = parser.pokemons(game.getPokemons());
+			List<CL_Pokemon> expectedPokemons = Arena.json2Pokemons(game.getPokemons());
+			assertEquals(6, pokemons.size());
+			for (int i = 0; i < pokemons.size(); i++) {
+				assertEquals(expectedPokemons.get(i).getType(), pokemons.get(i).getType());
+				assertEquals(expectedPokemons.get(i).getValue(), pokemons.get(i).getValue());
+				assertEquals(expectedPokemons.get(i).getLocation(), pokemons.get(i).getLocation());
+				assertNull(pokemons.get(i).get_edge());
+			}
+		}
+	}
+
+	@Test
+	void formats() {
+		directed_weighted_graph g = new DWGraph_DS();
+		g.addNode(new NodeData(0));
+		g.addNode(new NodeData(1));
+		g.connect(0, 1, 1);
+		GameStateParser parser = new GameStateParser(g);
+		List<CL_Pokemon> pokemons = parser.pokemons("{ \"Pokemons\" : [ {\"Pokemon\":{\"value\":5.0,\"type\":-1,"
+				+ "\"pos\":\"35.197656770719604,-32.10191878639921,1E-3\"}},{\"Pokemon\":{\"value\":1e1,\"type\":1,"
+				+ "\"extra\":{\"a\":[1,\"}]\"]},\"pos\":\"0.12345678901234567890,2,0\"}} ] }");
+		assertEquals(2, pokemons.size());
+		assertEquals(-1, pokemons.get(0).getType());
+		assertEquals(35.197656770719604, pokemons.get(0).getLocation().x());
+		assertEquals(-32.10191878639921, pokemons.get(0).getLocation().y());
+		assertEquals(0.001, pokemons.get(0).getLocation().z());
+		assertEquals(10, pokemons.get(1).getValue());
+		// A long number falls back to Double.parseDouble
+		assertEquals(0.12345678901234567890, pokemons.get(1).getLocation().x());
+		// Less pokemons than before: the list shrinks, the first object is reused
+		CL_Pokemon reused = pokemons.get(0);
+		pokemons = parser.pokemons("{\"Pokemons\":[{\"Pokemon\":{\"value\":2,\"type\":1,\"pos\":\"1,2,3\"}}]}");
+		assertEquals(1, pokemons.size());
+		assertSame(reused, pokemons.get(0));
+		assertEquals(1, reused.getType());
+		assertEquals(3, reused.getLocation().z());
+		assertTrue(parser.pokemons("{\"Pokemons\":[]}").isEmpty());
+		List<CL_Agent> agents = parser.agents("{\"Agents\":[{\"Agent\":{\"id\":0,\"value\":0.0,\"src\":0,\"dest\":1,\"speed\":1.0,\"pos\":\"0.5,0.0,0.0\"}}]}");
+		assertEquals(1, agents.get(0).getNextNode());
+		assertTrue(agents.get(0).isMoving());
+		// The full precision of Double.toString is read exactly as Double.parseDouble
+		Random rand = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			String x = Double.toString(35 + rand.nextDouble() / 100), y = Double.toString(rand.nextDouble());
+			pokemons = parser.pokemons("{\"Pokemons\":[{\"Pokemon\":{\"value\":1,\"type\":1,\"pos\":\"" + x + "," + y + ",0.0\"}}]}");
+			assertEquals(Double.parseDouble(x), pokemons.get(0).getLocation().x());
+			assertEquals(Double.parseDouble(y), pokemons.get(0).getLocation().y());
+		}
+		assertThrows(IllegalArgumentException.class, () -> parser.agents("{\"Agents\":[{\"Agent\":{\"id\":}}]}"));
+		assertThrows(IllegalArgumentException.class, () -> parser.agents("{\"Agents\":[{\"Agent\":{\"id\":0}"));
+	}
+}
@@ -0,0 +1,181 @@
+import api.*;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphJsonTest {
+
+	@Test
+	void readScenarios() throws IOException {
+		int[] nodes = {11, 17, 31, 49, 40, 48};
+		int[] edges = {22, 36, 80, 136, 102, 166};
+		for (int i = 0; i < 6; i++) {
+			try (Reader reader = new FileReader("data/A" + i)) {
+				directed_weighted_graph g = GraphJson.read(reader);
+				assertEquals(nodes[i], g.nodeSize());
+				assertEquals(edges[i], g.edgeSize());
+				for (node_data n : g.getV()) {
+					assertNotNull(n.getLocation());
+				}
+			}
+		}
+	}
+
+	@Test
+	void edgesBeforeAndAfterNodes() {
+		String nodes = "\"Nodes\":[{\"pos\":\"1.5,2.5,0.0\",\"id\":3},{\"id\":7,\"pos\":\"-1,2e1,3\"}]";
+		String edges = "\"Edges\":[{\"src\":3,\"w\":1.25,\"dest\":7},{\"dest\":3,\"src\":7,\"w\":2},{\"src\":7,\"w\":1,\"dest\":9}]";
+		for (String json : new String[]{"{" + edges + "," + nodes + "}", "{" + nodes + "," + edges + "}"}) {
+			directed_weighted_graph g = GraphJson.fromJson(json);
+			assertEquals(2, g.nodeSize());
+			assertEquals(2, g.edgeSize());
+			assertEquals(1.25, g.getEdge(3, 7).getWeight());
+			assertEquals(2, g.getEdge(7, 3).getWeight());
+			assertEquals(1.5, g.getNode(3).getLocation().x());
+			assertEquals(20, g.getNode(7).getLocation().y());
+		}
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{\"Nodes\":[{\"id\":1,\"pos\":\"1;2;3\"}]}"));
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("[1,2]"));
+	}
+
+	@Test
+	void notAGraph() throws IOException {
+		// An object without nodes or edges, and an edge without src or dest, are not graphs
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{\"foo\":1}"));
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{}"));
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{\"Nodes\":[{\"id\":0},{\"id\":1}],\"Edges\":[{\"src\":1,\"w\":2}]}"));
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{\"Nodes\":[{\"id\":0},{\"id\":1}],\"Edges\":[{\"dest\":0,\"w\":2}]}"));
+		// A node without id, in both formats
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{\"Nodes\":[{\"id\":0},{\"pos\":\"1,2,0\"}],\"Edges\":[]}"));
+		assertThrows(JsonParseException.class, () -> GraphJson.fromJson("{\"nodes\":{\"1\":{\"tag\":0}},\"neighbors\":{}}"));
+		// Empty sections are an empty graph
+		assertEquals(0, GraphJson.fromJson("{\"Edges\":[],\"Nodes\":[]}").nodeSize());
+		// load leaves the graph unchanged
+		File file = File.createTempFile("graph", ".json");
+		file.deleteOnExit();
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("{\"foo\":1}");
+		}
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		ga.init(randomGraph(10, 20, 1));
+		directed_weighted_graph g = ga.getGraph();
+		assertFalse(ga.load(file.getPath()));
+		assertSame(g, ga.getGraph());
+	}
+
+	@Test
+	void readOlderFormat() {
+		String json = "{\"nodes\":{\"1\":{\"key\":1,\"tag\":0,\"weight\":0.0,\"pos\":{\"x\":1.0,\"y\":2.0,\"z\":0.0}},"
+				+ "\"2\":{\"key\":2,\"tag\":0,\"weight\":0.0}},"
+				+ "\"neighbors\":{\"1\":{\"2\":{\"src\":1,\"dest\":2,\"tag\":0,\"weight\":5.0}}},"
+				+ "\"parents\":{\"2\":{\"1\":{\"src\":1,\"dest\":2,\"tag\":0,\"weight\":5.0}}},"
+				+ "\"edgeSize\":1,\"mc\":3}";
+		directed_weighted_graph g = GraphJson.fromJson(json);
+		assertEquals(2, g.nodeSize());
+		assertEquals(1, g.edgeSize());
+		assertEquals(5, g.getEdge(1, 2).getWeight());
+		assertEquals(2, g.getNode(1).getLocation().y());
+		assertNull(g.getNode(2).getLocation());
+	}
+
+	@Test
+	void saveAndLoad() throws IOException {
+		directed_weighted_graph g = randomGraph(1000, 5000, 2);
+		File file = File.createTempFile("graph", ".json");
+		file.deleteOnExit();
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		ga.init(g);
+		assertTrue(ga.save(file.getPath()));
+		dw_graph_algorithms ha = new DWGraph_Algo();
+		assertTrue(ha.load(file.getPath()));
+		directed_weighted_graph h = ha.getGraph();
+		assertEquals(g.nodeSize(), h.nodeSize());
+		assertEquals(g.edgeSize(), h.edgeSize());
+		for (node_data n : g.getV()) {
+			assertEquals(n.getLocation().x(), h.getNode(n.getKey()).getLocation().x());
+			assertEquals(n.getLocation().y(), h.getNode(n.getKey()).getLocation().y());
+			for (edge_data e : g.getE(n.getKey())) {
+				assertEquals(e.getWeight(), h.getEdge(e.getSrc(), e.getDest()).getWeight());
+			}
+		}
+		// A file which is not a graph does not change the graph
+		assertFalse(ha.load("data"));
+		assertFalse(ha.load("ReadMe.md"));
+		assertSame(h, ha.getGraph());
+	}
+
+	@Test
+	void saveAndLoadNodeAndEdgeData() throws IOException {
+		directed_weighted_graph g = new DWGraph_DS();
+		g.addNode(new NodeData(1));
+		g.addNode(new NodeData(2));
+		g.connect(1, 2, 4);
+		g.connect(2, 1, 5);
+		g.getNode(1).setInfo("hello");
+		g.getNode(1).setTag(7);
+		g.getNode(1).setWeight(3.5);
+		g.getEdge(1, 2).setInfo("edge \"1\"");
+		g.getEdge(1, 2).setTag(-2);
+		File file = File.createTempFile("graph", ".json");
+		file.deleteOnExit();
+		dw_graph_algorithms ga = new DWGraph_Algo();
+		ga.init(g);
+		assertTrue(ga.save(file.getPath()));
+		dw_graph_algorithms ha = new DWGraph_Algo();
+		assertTrue(ha.load(file.getPath()));
+		directed_weighted_graph h = ha.getGraph();
+		assertEquals("hello", h.getNode(1).getInfo());
+		assertEquals(7, h.getNode(1).getTag());
+		assertEquals(3.5, h.getNode(1).getWeight());
+		assertNull(h.getNode(2).getInfo());
+		assertEquals(0, h.getNode(2).getTag());
+		assertEquals(0, h.getNode(2).getWeight());
+		assertEquals("edge \"1\"", h.getEdge(1, 2).getInfo());
+		assertEquals(-2, h.getEdge(1, 2).getTag());
+		assertEquals(4, h.getEdge(1, 2).getWeight());
+		assertNull(h.getEdge(2, 1).getInfo());
+		assertEquals(0, h.getEdge(2, 1).getTag());
+		// A graph without the data (a copy has none) is written exactly in the format of the game
+		StringWriter json = new StringWriter();
+		GraphJson.write(new DWGraph_DS(g), json);
+		assertEquals("{\"Edges\":[{\"src\":1,\"w\":4.0,\"dest\":2},{\"src\":2,\"w\":5.0,\"dest\":1}],"
+				+ "\"Nodes\":[{\"id\":1},{\"id\":2}]}", json.toString());
+	}
+
+	@Test
+	void loadRuntime() throws IOException {
+		// 100,000 nodes and 1,000,000 edges, about 45MB of JSON
+		directed_weighted_graph g = randomGraph(100000, 1000000, 3);
+		File file = File.createTempFile("graph", ".json");
+		file.deleteOnExit();
+		try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+			GraphJson.write(g, writer);
+		}
+		long start = System.currentTimeMillis();
+		directed_weighted_graph h;
+		try (Reader reader = new BufferedReader(new FileReader(file))) {
+			h = GraphJson.read(reader);
+		}
+		long time = System.currentTimeMillis() - start;
+		assertEquals(g.edgeSize(), h.edgeSize());
+		assertTrue(time < 5000, "loading took " + time + "ms");
+	}
+
+	private static directed_weighted_graph randomGraph(int v, int e, long seed) {
+		Random rand = new Random(seed);
+		directed_weighted_graph g = new DWGraph_DS(v);
+		for (int i = 0; i < v; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(rand.nextDouble(), rand.nextDouble(), 0));
+			g.addNode(n);
+		}
+		while (g.edgeSize() < e) {
+			g.connect(rand.nextInt(v), rand.nextInt(v), rand.nextDouble() * 10);
+		}
+		return g;
+	}
+}
@@ -0,0 +1,54 @@
+import api.IndexedMinHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void pollOrder() {
+        Random rand = new Random(3);
+        for (int arity = 2; arity <= 8; arity++) {
+            IndexedMinHeap heap = new IndexedMinHeap(1000, arity);
+            double[] keys = new double[1000];
+            for (int i = 0; i < 1000; i++) {
+                keys[i] = rand.nextDouble() * 100;
+                heap.insert(i, keys[i]);
+            }
+            for (int i = 0; i < 1000; i += 3) {
+                keys[i] /= 2;
+                heap.decreaseKey(i, keys[i]);
+            }
+            double[] sorted = keys.clone();
+            Arrays.sort(sorted);
+            for (double key : sorted) {
+                int index = heap.poll();
+                assertEquals(key, keys[index]);
+                assertFalse(heap.contains(index));
+            }
+            assertTrue(heap.isEmpty());
+        }
+    }
+
+    @Test
+    void insertOrDecrease() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        assertTrue(heap.insertOrDecrease(2, 10));
+        assertTrue(heap.insertOrDecrease(1, 5));
+        assertFalse(heap.insertOrDecrease(2, 12));
+        assertTrue(heap.insertOrDecrease(2, 1));
+        assertEquals(2, heap.size());
+        assertEquals(1, heap.peekKey());
+        assertEquals(2, heap.poll());
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 6));
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 3));
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+        heap.insert(1, 3);
+        assertEquals(1, heap.poll());
+    }
+}
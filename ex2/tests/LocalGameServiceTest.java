@@ -0,0 +1,196 @@
+import api.*;
+import gameClient.AgentScheduler;
+import gameClient.Arena;
+import gameClient.CL_Agent;
+import gameClient.CL_Pokemon;
+import gameClient.LocalGameService;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalGameServiceTest {
+
+	@Test
+	void sameSeedSameGame() throws JSONException {
+		LocalGameService a = LocalGameService.fromFile("data/A1", 1, 5, 30000, 7, true);
+		LocalGameService b = LocalGameService.fromFile("data/A1", 1, 5, 30000, 7, true);
+		LocalGameService c = LocalGameService.fromFile("data/A1", 1, 5, 30000, 8, true);
+		assertEquals(a.getPokemons(), b.getPokemons());
+		assertNotEquals(a.getPokemons(), c.getPokemons());
+		// The same JSON shapes as the game server
+		directed_weighted_graph g = GraphJson.fromJson(a.getGraph());
+		assertEquals(17, g.nodeSize());
+		List<CL_Pokemon> pokemons = Arena.json2Pokemons(a.getPokemons());
+		assertEquals(5, pokemons.size());
+		for (CL_Pokemon pokemon : pokemons) {
+			Arena.updateEdge(pokemon, g);
+			assertNotNull(pokemon.get_edge());
+			assertEquals(pokemon.get_edge().getSrc() < pokemon.get_edge().getDest() ? 1 : -1, pokemon.getType());
+		}
+		assertEquals(5, new JSONObject(a.toString()).getJSONObject("GameServer").getInt("pokemons"));
+	}
+
+	@Test
+	void agentsMove() {
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 2; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(i, 0, 0));
+			g.addNode(n);
+		}
+		g.connect(0, 1, 2);
+		g.connect(1, 0, 2);
+		LocalGameService game = new LocalGameService("line", g, 1, 1, 10000, 1, true);
+		assertTrue(game.addAgent(0));
+		assertFalse(game.addAgent(1));
+		assertEquals(10000, game.timeToEnd());
+		assertFalse(game.isRunning());
+		game.startGame();
+		assertTrue(game.isRunning());
+		assertEquals(1, game.chooseNextEdge(0, 1));
+		game.advance(1000);
+		game.move();
+		CL_Agent agent = Arena.getAgents(game.getAgents(), g).get(0);
+		assertEquals(0.5, agent.getLocation().x(), 0.000001);
+		assertEquals(1, agent.getNextNode());
+		// An agent on an edge can not be sent elsewhere
+		assertEquals(-1, game.chooseNextEdge(0, 0));
+		game.advance(1500);
+		game.move();
+		agent = Arena.getAgents(game.getAgents(), g).get(0);
+		assertEquals(1, agent.getSrcNode());
+		assertEquals(-1, agent.getNextNode());
+		game.chooseNextEdge(0, 0);
+		game.advance(2000);
+		game.move();
+		// The agent went both ways and passed the pokemon, but no move() was near it
+		assertEquals(0, game.getGrade());
+		assertEquals(3, game.getMoves());
+		assertEquals(5500, game.timeToEnd());
+		game.advance(6000);
+		assertFalse(game.isRunning());
+		assertEquals(0, game.timeToEnd());
+	}
+
+	@Test
+	void captureOnMove() {
+		directed_weighted_graph g = line();
+		LocalGameService game = new LocalGameService("line", g, 1, 1, 1000000, 3, true);
+		CL_Pokemon pokemon = Arena.json2Pokemons(game.getPokemons()).get(0);
+		// The pokemon is on 0->1 (type 1) or on 1->0, the agent starts on the src of its edge
+		int src = pokemon.getType() == 1 ? 0 : 1;
+		assertTrue(game.addAgent(src));
+		game.startGame();
+		game.chooseNextEdge(0, 1 - src);
+		// A move before the pokemon captures nothing, a move on it captures it (the edge weight is 2, speed 1)
+		long ms = Math.round(Math.abs(pokemon.getLocation().x() - src) * 2000);
+		game.advance(ms - 10);
+		game.move();
+		assertEquals(0, game.getGrade());
+		game.advance(10);
+		game.move();
+		assertEquals(pokemon.getValue(), game.getGrade());
+		assertNotEquals(pokemon.getLocation().x(), Arena.json2Pokemons(game.getPokemons()).get(0).getLocation().x());
+	}
+
+	@Test
+	void speedGrows() throws JSONException {
+		directed_weighted_graph g = line();
+		LocalGameService game = new LocalGameService("line", g, 1, 1, 1000000, 5, true);
+		assertTrue(game.addAgent(0));
+		game.startGame();
+		while (game.getGrade() < LocalGameService.TURBO_SPEED_VALUE) {
+			double grade = game.getGrade();
+			double speed = capture(game, g);
+			if (grade < LocalGameService.DOUBLE_SPEED_VALUE) {
+				assertEquals(1, speed);
+			}
+			assertTrue(game.getGrade() > grade);
+		}
+		// The next moves on an edge speed the agent up to 2 and then to 5
+		capture(game, g);
+		assertEquals(5, new JSONObject(game.getAgents()).getJSONArray("Agents").getJSONObject(0).getJSONObject("Agent").getDouble("speed"));
+	}
+
+	/**
+	 * Sends the agent (on a node) to the only pokemon of the line and moves once exactly on it.
+	 * Returns the speed of the agent on the way.
+	 */
+	private static double capture(LocalGameService game, directed_weighted_graph g) throws JSONException {
+		CL_Pokemon pokemon = Arena.json2Pokemons(game.getPokemons()).get(0);
+		int src = pokemon.getType() == 1 ? 0 : 1;
+		CL_Agent agent = Arena.getAgents(game.getAgents(), g).get(0);
+		if (agent.getSrcNode() != src) {
+			game.chooseNextEdge(0, src);
+			game.advance(10000);
+			game.move();
+		}
+		assertEquals(1 - src, game.chooseNextEdge(0, 1 - src));
+		// A first short move updates the speed, the rest of the way is timed by it
+		game.advance(1);
+		game.move();
+		double speed = new JSONObject(game.getAgents()).getJSONArray("Agents").getJSONObject(0).getJSONObject("Agent").getDouble("speed");
+		double left = Math.abs(pokemon.getLocation().x() - src) - speed / 2000;
+		game.advance(Math.round(left * 2000 / speed));
+		game.move();
+		// Back on a node
+		game.advance(10000);
+		game.move();
+		return speed;
+	}
+
+	private static directed_weighted_graph line() {
+		directed_weighted_graph g = new DWGraph_DS();
+		for (int i = 0; i < 2; i++) {
+			node_data n = new NodeData(i);
+			n.setLocation(new GeoLocation(i, 0, 0));
+			g.addNode(n);
+		}
+		g.connect(0, 1, 2);
+		g.connect(1, 0, 2);
+		return g;
+	}
+
+	@Test
+	void virtualGame() {
+		// A minute long game with 3 agents, played on the virtual clock
+		LocalGameService game = LocalGameService.fromFile("data/A5", 3, 6, 60000, 1, true);
+		directed_weighted_graph g = GraphJson.fromJson(game.getGraph());
+		dw_graph_algorithms algo = new DWGraph_Algo();
+		algo.init(g);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(game.addAgent(i * 10));
+		}
+		AgentScheduler scheduler = new AgentScheduler(game, g, game::advance);
+		long start = System.currentTimeMillis();
+		game.startGame();
+		while (game.isRunning()) {
+			List<CL_Agent> agents = Arena.getAgents(game.getAgents(), g);
+			List<CL_Pokemon> pokemons = Arena.json2Pokemons(game.getPokemons());
+			for (CL_Pokemon pokemon : pokemons) {
+				Arena.updateEdge(pokemon, g);
+			}
+			// Every agent on a node goes towards the pokemon of the same index
+			for (CL_Agent agent : agents) {
+				if (agent.isMoving()) {
+					continue;
+				}
+				edge_data target = pokemons.get(agent.getID()).get_edge();
+				int next = agent.getSrcNode() == target.getSrc() ? target.getDest()
+						: algo.shortestPath(agent.getSrcNode(), target.getSrc()).get(1).getKey();
+				game.chooseNextEdge(agent.getID(), next);
+				agent.setNextNode(next);
+			}
+			scheduler.schedule(agents, pokemons);
+			scheduler.moveAtNextEvent(agents);
+		}
+		assertTrue(System.currentTimeMillis() - start < 10000);
+		assertTrue(game.getGrade() > 0);
+		// The last move may come after the end of the game
+		assertTrue(game.getMoves() > 0 && scheduler.getMoves() - game.getMoves() <= 1);
+	}
+}
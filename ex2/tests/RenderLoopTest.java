@@ -0,0 +1,74 @@
+import api.*;
+import gameClient.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderLoopTest {
+
+	@Test
+	void latestSnapshotAtCappedRate() throws InterruptedException {
+		LocalGameService game = LocalGameService.fromFile("data/A0", 1, 2, 30000, 1, true);
+		directed_weighted_graph g = GraphJson.fromJson(game.getGraph());
+		Arena arena = new Arena();
+		arena.setGraph(g);
+		arena.setPokemons(Arena.json2Pokemons(game.getPokemons()));
+		// Without a listener (headless) nothing is copied
+		arena.publishSnapshot();
+		assertNull(arena.getSnapshot());
+
+		RecordingPanel panel = new RecordingPanel();
+		RenderLoop render = new RenderLoop(arena, panel, 10);
+		render.start();
+		// Nothing published: no frames
+		Thread.sleep(200);
+		assertEquals(0, render.getFrames());
+
+		List<String> info = new ArrayList<>();
+		info.add(game.toString());
+		arena.set_info(info);
+		arena.publishSnapshot();
+		ArenaSnapshot first = arena.getSnapshot();
+		waitFor(() -> panel.shown == first);
+		assertEquals(2, first.pokemons());
+		assertEquals(1, first.getInfo().getAgents());
+
+		// A burst of snapshots within a few frames: only some of them are drawn, the last one for sure
+		int frames = render.getFrames();
+		for (int i = 0; i < 1000; i++) {
+			arena.setTime(i);
+			arena.publishSnapshot();
+		}
+		ArenaSnapshot last = arena.getSnapshot();
+		waitFor(() -> panel.shown == last);
+		assertEquals(999, panel.shown.getTime());
+		assertTrue(render.getFrames() - frames < 100);
+		render.stop();
+		assertEquals(render.getFrames(), panel.count);
+		// Stopped: the arena has no listener
+		arena.publishSnapshot();
+		assertSame(last, arena.getSnapshot());
+	}
+
+	private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+		long end = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+
+	private static class RecordingPanel extends MyPanel {
+		volatile ArenaSnapshot shown;
+		volatile int count;
+
+		@Override
+		public void show(ArenaSnapshot s) {
+			shown = s;
+			count++;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+import gameClient.TournamentRunner;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentRunnerTest {
+
+	@Test
+	void parallelGamesAreRepeatable() {
+		int[] levels = {0, 3, 5};
+		List<TournamentRunner.Result> parallel = TournamentRunner.run(levels, 2, 4);
+		List<TournamentRunner.Result> single = TournamentRunner.run(levels, 2, 1);
+		assertEquals(6, parallel.size());
+		for (int i = 0; i < parallel.size(); i++) {
+			TournamentRunner.Result r = parallel.get(i);
+			assertEquals(levels[i / 2], r.level);
+			assertEquals(i % 2, r.seed);
+			assertTrue(r.moves > 0);
+			// The games do not share any state, so running them at once changes nothing
+			assertEquals(single.get(i).grade, r.grade);
+			assertEquals(single.get(i).moves, r.moves);
+		}
+		StringWriter csv = new StringWriter();
+		TournamentRunner.writeCsv(parallel, csv);
+		String[] lines = csv.toString().split("\\R");
+		assertEquals(7, lines.length);
+		assertEquals("level,seed,grade,moves,wall_ms", lines[0]);
+		assertTrue(lines[1].startsWith("0,0,"));
+	}
+}